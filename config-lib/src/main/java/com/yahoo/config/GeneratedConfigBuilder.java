@@ -0,0 +1,51 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.config;
+
+/**
+ * A config builder which can be populated by field name without reflection.
+ * This is implemented by all builders generated from config definitions, and is for internal use
+ * when applying config payloads to builders.
+ *
+ * @author agent
+ */
+public interface GeneratedConfigBuilder extends ConfigBuilder {
+
+    /** Converts the string values of path and url fields to the values stored in builders */
+    interface Resolver {
+
+        FileReference resolvePath(String value);
+
+        UrlReference resolveUrl(String value);
+
+    }
+
+    /**
+     * Sets the leaf field with the given name, or adds to it if it is an array, from the string form of a value.
+     *
+     * @return false if this has no leaf field or leaf array with the given name
+     */
+    boolean setLeaf(String name, String value, Resolver resolver);
+
+    /**
+     * Puts an entry in the leaf map with the given name, from the string form of a value.
+     *
+     * @return false if this has no leaf map with the given name
+     */
+    boolean putLeaf(String name, String key, String value, Resolver resolver);
+
+    /**
+     * Creates a builder for the struct field with the given name, or for a new element if it is an array,
+     * and sets it in this.
+     *
+     * @return the new builder, or null if this has no struct field or struct array with the given name
+     */
+    GeneratedConfigBuilder newStruct(String name);
+
+    /**
+     * Creates a builder for a new entry in the struct map with the given name, and puts it in this.
+     *
+     * @return the new builder, or null if this has no struct map with the given name
+     */
+    GeneratedConfigBuilder newStruct(String name, String key);
+
+}
@@ -155,6 +155,8 @@ public class VespaMetricSet {
         metrics.add(new Metric("jdisc.deactivated_containers.total.last"));
         metrics.add(new Metric("jdisc.deactivated_containers.with_retained_refs.last"));
 
+        metrics.add(new Metric("jdisc.application.component_graph.creation_time_millis.last"));
+
         metrics.add(new Metric("athenz-tenant-cert.expiry.seconds.last"));
 
         metrics.add(new Metric("jdisc.http.request.prematurely_closed.rate"));
@@ -175,6 +177,8 @@ public class VespaMetricSet {
         metrics.add(new Metric("jdisc.http.request.content_size.sum"));
         metrics.add(new Metric("jdisc.http.request.content_size.count"));
         metrics.add(new Metric("jdisc.http.request.content_size.average")); // TODO: Remove in Vespa 8
+        metrics.add(new Metric("jdisc.http.response.buffer_pool.hits.rate"));
+        metrics.add(new Metric("jdisc.http.response.buffer_pool.misses.rate"));
         return metrics;
     }
 
@@ -214,6 +218,7 @@ public class VespaMetricSet {
         metrics.add(new Metric("search_connections.sum"));
         metrics.add(new Metric("search_connections.count"));
         metrics.add(new Metric("search_connections.average")); // TODO: Remove in Vespa 8
+        metrics.add(new Metric("search_rejected_requests.rate"));
         metrics.add(new Metric("active_queries.max"));
         metrics.add(new Metric("active_queries.sum"));
         metrics.add(new Metric("active_queries.count"));
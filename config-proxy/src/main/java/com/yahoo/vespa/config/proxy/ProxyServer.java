@@ -9,6 +9,7 @@ import com.yahoo.jrt.Transport;
 import com.yahoo.log.LogLevel;
 import com.yahoo.log.LogSetup;
 import com.yahoo.log.event.Event;
+import com.yahoo.net.HostName;
 import com.yahoo.vespa.config.JRTConnectionPool;
 import com.yahoo.vespa.config.RawConfig;
 import com.yahoo.vespa.config.TimingValues;
@@ -87,7 +88,7 @@ public class ProxyServer implements Runnable {
         this.rpcServer = createRpcServer(spec);
         clientUpdater = new ClientUpdater(rpcServer, statistics, delayedResponses);
         this.configClient = createClient(clientUpdater, delayedResponses, source, timingValues, memoryCache, configClient);
-        new FileDistributionRpcServer(supervisor, new FileDownloader(new JRTConnectionPool(source)));
+        new FileDistributionRpcServer(supervisor, new FileDownloader(new JRTConnectionPool(source), chunkServingSpec(spec)));
         new UrlDownloadRpcServer(supervisor);
     }
 
@@ -166,6 +167,11 @@ public class ProxyServer implements Runnable {
                 : client;
     }
 
+    /** Returns the spec other nodes can fetch file reference chunks from this at, or null if this does not listen */
+    private static String chunkServingSpec(Spec spec) {
+        return (spec == null) ? null : "tcp/" + HostName.getLocalhost() + ":" + spec.port();
+    }
+
     private ConfigProxyRpcServer createRpcServer(Spec spec) {
         return  (spec == null) ? null : new ConfigProxyRpcServer(this, supervisor, spec); // TODO: Try to avoid first argument being 'this'
     }
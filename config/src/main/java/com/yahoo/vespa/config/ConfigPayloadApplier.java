@@ -4,6 +4,7 @@ package com.yahoo.vespa.config;
 import com.yahoo.config.ConfigBuilder;
 import com.yahoo.config.ConfigInstance;
 import com.yahoo.config.FileReference;
+import com.yahoo.config.GeneratedConfigBuilder;
 import com.yahoo.config.UrlReference;
 import com.yahoo.log.LogLevel;
 import com.yahoo.yolean.Exceptions;
@@ -29,6 +30,8 @@ import java.util.logging.Logger;
 
 /**
  * A utility class that can be used to apply a payload to a config builder.
+ * Builders generated from config definitions are populated directly through {@link GeneratedConfigBuilder},
+ * while other builders are populated by reflection.
  *
  * TODO: This can be refactored a lot, since many of the reflection methods are duplicated
  *
@@ -55,15 +58,79 @@ public class ConfigPayloadApplier<T extends ConfigInstance.Builder> {
     }
 
     public void applyPayload(ConfigPayload payload) {
-        stack.push(new NamedBuilder(rootBuilder));
         try {
-            handleValue(payload.getSlime().get());
+            if (rootBuilder instanceof GeneratedConfigBuilder) {
+                applyObject((GeneratedConfigBuilder) rootBuilder, payload.getSlime().get());
+            } else {
+                stack.push(new NamedBuilder(rootBuilder));
+                handleValue(payload.getSlime().get());
+            }
         } catch (Exception e) {
             throw new RuntimeException("Not able to create config builder for payload:" + payload.toString() +
                     ", " + Exceptions.toMessageString(e), e);
         }
     }
 
+    private void applyObject(GeneratedConfigBuilder builder, Inspector object) {
+        object.traverse((ObjectTraverser) (name, value) -> applyField(builder, name, value));
+    }
+
+    private void applyField(GeneratedConfigBuilder builder, String name, Inspector value) {
+        switch (value.type()) {
+            case OBJECT:
+                GeneratedConfigBuilder struct = builder.newStruct(name);
+                if (struct != null)
+                    applyObject(struct, value);
+                else // a map, or a struct which has been added to a newer version of the config
+                    value.traverse((ObjectTraverser) (key, entry) -> applyMapEntry(builder, name, key, entry));
+                break;
+            case ARRAY:
+                value.traverse((ArrayTraverser) (index, entry) -> applyArrayEntry(builder, name, entry));
+                break;
+            default:
+                applyLeaf(builder, name, value);
+        }
+    }
+
+    private void applyArrayEntry(GeneratedConfigBuilder builder, String name, Inspector entry) {
+        if (entry.type() == Type.OBJECT) {
+            GeneratedConfigBuilder element = builder.newStruct(name);
+            if (element != null)
+                applyObject(element, entry);
+        } else {
+            applyLeaf(builder, name, entry);
+        }
+    }
+
+    private void applyMapEntry(GeneratedConfigBuilder builder, String name, String key, Inspector entry) {
+        switch (entry.type()) {
+            case OBJECT:
+                GeneratedConfigBuilder value = builder.newStruct(name, key);
+                if (value != null)
+                    applyObject(value, entry);
+                break;
+            case ARRAY: // maps cannot contain arrays, so this is a field of an unknown struct
+                log.log(LogLevel.INFO, "Skipping unknown field " + name + " in " + builder.getClass());
+                break;
+            default:
+                if ( ! builder.putLeaf(name, key, (String) getValueFromInspector(entry), resolver))
+                    log.log(LogLevel.INFO, "Skipping unknown field " + name + " in " + builder.getClass());
+        }
+    }
+
+    private void applyLeaf(GeneratedConfigBuilder builder, String name, Inspector value) {
+        if ( ! builder.setLeaf(name, (String) getValueFromInspector(value), resolver))
+            log.log(LogLevel.INFO, "Skipping unknown field " + name + " in " + builder.getClass());
+    }
+
+    private final GeneratedConfigBuilder.Resolver resolver = new GeneratedConfigBuilder.Resolver() {
+        @Override
+        public FileReference resolvePath(String value) { return ConfigPayloadApplier.this.resolvePath(value); }
+
+        @Override
+        public UrlReference resolveUrl(String value) { return ConfigPayloadApplier.this.resolveUrl(value); }
+    };
+
     private void handleValue(Inspector inspector) {
         switch (inspector.type()) {
             case NIX:
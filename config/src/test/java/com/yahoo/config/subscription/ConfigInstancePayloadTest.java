@@ -5,6 +5,7 @@ import com.yahoo.config.ConfigInstance;
 import com.yahoo.config.FileReference;
 import com.yahoo.foo.FunctionTestConfig;
 import com.yahoo.foo.MaptypesConfig;
+import com.yahoo.slime.Cursor;
 import com.yahoo.slime.Slime;
 import com.yahoo.vespa.config.ConfigPayload;
 import com.yahoo.vespa.config.ConfigTransformer;
@@ -146,6 +147,23 @@ public class ConfigInstancePayloadTest {
         }
     }
 
+    @Test
+    public void unknown_fields_in_payload_are_ignored() {
+        FunctionTestConfig config = createVariableAccessConfigWithBuilder();
+        Slime slime = new Slime();
+        ConfigInstance.serialize(config, new ConfigInstanceSerializer(slime));
+        Cursor root = slime.get();
+        root.setString("unknown_leaf", "value");
+        root.setArray("unknown_array").addObject().setLong("foo", 1);
+        Cursor unknownStruct = root.setObject("unknown_struct");
+        unknownStruct.setLong("leaf", 1);
+        unknownStruct.setArray("array").addLong(2);
+        unknownStruct.setObject("struct").setLong("leaf", 3);
+        root.field("basicStruct").setString("unknown_leaf", "value");
+        root.field("myStructMap").field("one").setObject("unknown_struct").setLong("leaf", 4);
+        assertFunctionTestPayload(config, new ConfigPayload(slime));
+    }
+
     @Test
     public void function_test_payload_is_correctly_deserialized() {
         FunctionTestConfig orig = createVariableAccessConfigWithBuilder();
@@ -33,12 +33,14 @@ public class BuilderGenerator {
                         getOverrideMethod(node) + "\n\n" + //
                         getBuilderSetters(node) + "\n" + //
                         getSpecialRootBuilderCode(node) + "\n" + //
+                        getGeneratedBuilderMethods(node) + "\n\n" + //
                         getBuildMethod(node) + "\n") //
                 + "}";
     }
 
     private static String getDeclaration(InnerCNode node) {
-        String getInterfaces = (node.getParent() == null) ? "implements ConfigInstance.Builder" : "implements ConfigBuilder";
+        String getInterfaces = (node.getParent() == null) ? "implements ConfigInstance.Builder, GeneratedConfigBuilder"
+                                                            : "implements GeneratedConfigBuilder";
 
         return "public static class Builder " + getInterfaces + " {";
     }
@@ -235,6 +237,75 @@ public class BuilderGenerator {
         }
     }
 
+    /** Returns the methods which let payloads be applied to this builder without reflection */
+    private static String getGeneratedBuilderMethods(InnerCNode node) {
+        List<String> leafCases = new ArrayList<>();
+        List<String> leafMapCases = new ArrayList<>();
+        List<String> structCases = new ArrayList<>();
+        List<String> structMapCases = new ArrayList<>();
+        for (CNode child : node.getChildren()) {
+            String name = child.getName();
+            if (child instanceof LeafCNode && child.isMap) {
+                leafMapCases.add("case \"" + name + "\": " + name + "(" + INTERNAL_PREFIX + "key, " + resolvedValue(child) + "); return true;");
+            } else if (child instanceof LeafCNode) {
+                leafCases.add("case \"" + name + "\": " + name + "(" + resolvedValue(child) + "); return true;");
+            } else if (child.isMap) {
+                structMapCases.add(newStructCase(child, INTERNAL_PREFIX + "key, "));
+            } else {
+                structCases.add(newStructCase(child, ""));
+            }
+        }
+        String resolver = "GeneratedConfigBuilder.Resolver " + INTERNAL_PREFIX + "resolver";
+        return "@java.lang.Override\n" + //
+               "public final boolean setLeaf(String " + INTERNAL_PREFIX + "name, String " + INTERNAL_PREFIX + "value, " + resolver + ") {\n" + //
+               indentCode(INDENTATION, nameSwitch(leafCases, "return false;")) + "\n" + //
+               "}\n" + //
+               "\n" + //
+               "@java.lang.Override\n" + //
+               "public final boolean putLeaf(String " + INTERNAL_PREFIX + "name, String " + INTERNAL_PREFIX + "key, String " +
+               INTERNAL_PREFIX + "value, " + resolver + ") {\n" + //
+               indentCode(INDENTATION, nameSwitch(leafMapCases, "return false;")) + "\n" + //
+               "}\n" + //
+               "\n" + //
+               "@java.lang.Override\n" + //
+               "public final GeneratedConfigBuilder newStruct(String " + INTERNAL_PREFIX + "name) {\n" + //
+               indentCode(INDENTATION, nameSwitch(structCases, "return null;")) + "\n" + //
+               "}\n" + //
+               "\n" + //
+               "@java.lang.Override\n" + //
+               "public final GeneratedConfigBuilder newStruct(String " + INTERNAL_PREFIX + "name, String " + INTERNAL_PREFIX + "key) {\n" + //
+               indentCode(INDENTATION, nameSwitch(structMapCases, "return null;")) + "\n" + //
+               "}";
+    }
+
+    private static String newStructCase(CNode struct, String keyArgument) {
+        String builder = INTERNAL_PREFIX + "builder";
+        return "case \"" + struct.getName() + "\": {\n" + //
+               "  " + builderType(struct) + " " + builder + " = new " + builderType(struct) + "();\n" + //
+               "  " + struct.getName() + "(" + keyArgument + builder + ");\n" + //
+               "  return " + builder + ";\n" + //
+               "}";
+    }
+
+    private static String nameSwitch(List<String> cases, String defaultStatement) {
+        if (cases.isEmpty()) return defaultStatement;
+        return "switch (" + INTERNAL_PREFIX + "name) {\n" + //
+               indentCode(INDENTATION, String.join("\n", cases) + "\n" + "default: " + defaultStatement) + "\n" + //
+               "}";
+    }
+
+    /** Returns the code converting the string form of a leaf value to the type its builder setter accepts */
+    private static String resolvedValue(CNode leaf) {
+        String value = INTERNAL_PREFIX + "value";
+        if (leaf instanceof PathLeaf) {
+            return INTERNAL_PREFIX + "resolver.resolvePath(" + value + ")";
+        } else if (leaf instanceof UrlLeaf) {
+            return INTERNAL_PREFIX + "resolver.resolveUrl(" + value + ")";
+        } else {
+            return value; // Using the public setter for string types, and the private string setter for others
+        }
+    }
+
     private static String setBuilderValueFromConfig(CNode child, CNode node) {
         String name = child.getName();
         boolean isArray = child.isArray;
@@ -17,6 +17,9 @@ import com.yahoo.vespa.config.ConnectionPool;
 import com.yahoo.vespa.config.JRTConnectionPool;
 import com.yahoo.vespa.config.server.ConfigServerSpec;
 import com.yahoo.vespa.defaults.Defaults;
+import com.yahoo.vespa.filedistribution.ChunkManifest;
+import com.yahoo.vespa.filedistribution.ChunkServer;
+import com.yahoo.vespa.filedistribution.ChunkStore;
 import com.yahoo.vespa.filedistribution.CompressedFileReference;
 import com.yahoo.vespa.filedistribution.FileDownloader;
 import com.yahoo.vespa.filedistribution.FileReferenceData;
@@ -41,6 +44,7 @@ public class FileServer {
     private final ExecutorService pushExecutor;
     private final ExecutorService pullExecutor;
     private final FileDownloader downloader;
+    private final ChunkServer chunkServer;
 
     private enum FileApiErrorCodes {
         OK(0, "OK"),
@@ -85,6 +89,9 @@ public class FileServer {
     private FileServer(ConnectionPool connectionPool, File rootDir) {
         this.downloader = new FileDownloader(connectionPool);
         this.root = new FileDirectory(rootDir);
+        this.chunkServer = new ChunkServer(new ChunkStore(ChunkStore.defaultDirectory()),
+                                           reference -> hasFile(reference) ? Optional.of(root.getFile(reference)) : Optional.empty(),
+                                           ChunkManifest.defaultChunkSize);
         this.pushExecutor = Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors()));
         this.pullExecutor = Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors()));
     }
@@ -195,6 +202,11 @@ public class FileServer {
         return downloader;
     }
 
+    /** Returns the server of chunks of the file references this has, for nodes downloading file references as chunks */
+    public ChunkServer chunkServer() {
+        return chunkServer;
+    }
+
     // Connection pool with all config servers except this one (might be an empty pool if there is only one config server)
     private static ConnectionPool createConnectionPool(ConfigserverConfig configserverConfig) {
         List<String> configServers = ConfigServerSpec.fromConfig(configserverConfig)
@@ -38,12 +38,20 @@ class GetConfigProcessor implements Runnable {
     /* True only when this request has expired its server timeout and we need to respond to the client */
     private final boolean forceResponse;
     private final RpcServer rpcServer;
+    /* Responses shared with other requests for the same config, or null if this resolves its own response */
+    private final SharedConfigResponses sharedResponses;
     private String logPre = "";
 
     GetConfigProcessor(RpcServer rpcServer, JRTServerConfigRequest request, boolean forceResponse) {
+        this(rpcServer, request, forceResponse, null);
+    }
+
+    GetConfigProcessor(RpcServer rpcServer, JRTServerConfigRequest request, boolean forceResponse,
+                       SharedConfigResponses sharedResponses) {
         this.rpcServer = rpcServer;
         this.request = request;
         this.forceResponse = forceResponse;
+        this.sharedResponses = sharedResponses;
     }
 
     private void respond(JRTServerConfigRequest request) {
@@ -110,7 +118,7 @@ class GetConfigProcessor implements Runnable {
         this.logPre = TenantRepository.logPre(context.applicationId());
         ConfigResponse config;
         try {
-            config = rpcServer.resolveConfig(request, context, vespaVersion);
+            config = resolveConfig(request, context, vespaVersion);
         } catch (UnknownConfigDefinitionException e) {
             handleError(request, ErrorCode.UNKNOWN_DEFINITION, "Unknown config definition " + request.getConfigKey());
             return null;
@@ -139,6 +147,14 @@ class GetConfigProcessor implements Runnable {
         }
         return null;
     }
+
+    private ConfigResponse resolveConfig(JRTServerConfigRequest request, GetConfigContext context, Optional<Version> vespaVersion) {
+        if (sharedResponses == null)
+            return rpcServer.resolveConfig(request, context, vespaVersion);
+        return sharedResponses.resolve(request, context, vespaVersion,
+                                       () -> rpcServer.resolveConfig(request, context, vespaVersion));
+    }
+
     @Override
     public void run() {
         rpcServer.hostLivenessTracker().receivedRequestFrom(request.getClientHostName());
@@ -79,6 +79,8 @@ public class RpcServer implements Runnable, ReloadListener, TenantListener {
     static final int TRACELEVEL_DEBUG = 9;
     private static final String THREADPOOL_NAME = "rpcserver worker pool";
     private static final long SHUTDOWN_TIMEOUT = 60;
+    /** The max number of delayed responses to send at once when config is reloaded */
+    private static final int RELOAD_BATCH_SIZE = 200;
 
     private final Supervisor supervisor = new Supervisor(new Transport());
     private Spec spec;
@@ -219,6 +221,7 @@ public class RpcServer implements Runnable, ReloadListener, TenantListener {
                                   .methodDesc("printStatistics")
                                   .returnDesc(0, "statistics", "Statistics for server"));
         getSupervisor().addMethod(new Method("filedistribution.serveFile", "si", "is", this, "serveFile"));
+        fileServer.chunkServer().addMethods(getSupervisor(), this::isKnownHost);
         getSupervisor().addMethod(new Method("filedistribution.setFileReferencesToDownload", "S", "i",
                                         this, "setFileReferencesToDownload")
                                      .methodDesc("set which file references to download")
@@ -263,33 +266,41 @@ public class RpcServer implements Runnable, ReloadListener, TenantListener {
         }
         int responsesSent = 0;
         CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executorService);
-        while (!responses.isEmpty()) {
-            DelayedConfigResponses.DelayedConfigResponse delayedConfigResponse = responses.remove(0);
-            // Discard the ones that we have already answered
-            // Doing cancel here deals with the case where the timer is already running or has not run, so
-            // there is no need for any extra check.
-            if (delayedConfigResponse.cancel()) {
-                if (log.isLoggable(LogLevel.DEBUG)) {
-                    logRequestDebug(LogLevel.DEBUG, logPre + "Timer cancelled for ", delayedConfigResponse.request);
+        SharedConfigResponses sharedResponses = new SharedConfigResponses();
+        int next = 0;
+        while (next < responses.size()) {
+            int batchSent = 0;
+            while (next < responses.size() && batchSent < RELOAD_BATCH_SIZE) {
+                DelayedConfigResponses.DelayedConfigResponse delayedConfigResponse = responses.get(next++);
+                // Discard the ones that we have already answered
+                // Doing cancel here deals with the case where the timer is already running or has not run, so
+                // there is no need for any extra check.
+                if (delayedConfigResponse.cancel()) {
+                    if (log.isLoggable(LogLevel.DEBUG)) {
+                        logRequestDebug(LogLevel.DEBUG, logPre + "Timer cancelled for ", delayedConfigResponse.request);
+                    }
+                    // Do not wait for this request if we were unable to execute
+                    if (addToRequestQueue(delayedConfigResponse.request, false, completionService, sharedResponses)) {
+                        batchSent++;
+                    }
+                } else {
+                    log.log(LogLevel.DEBUG, logPre + "Timer already cancelled or finished or never scheduled");
                 }
-                // Do not wait for this request if we were unable to execute
-                if (addToRequestQueue(delayedConfigResponse.request, false, completionService)) {
-                    responsesSent++;
-                }
-            } else {
-                log.log(LogLevel.DEBUG, logPre + "Timer already cancelled or finished or never scheduled");
             }
-        }
 
-        for (int i = 0; i < responsesSent; i++) {
-            try {
-                completionService.take();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            // Pace the responses by letting each batch complete before sending the next
+            for (int i = 0; i < batchSent; i++) {
+                try {
+                    completionService.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
             }
+            responsesSent += batchSent;
         }
 
-        log.log(LogLevel.DEBUG, logPre + "Finished reloading " + responsesSent + " requests");
+        log.log(LogLevel.DEBUG, logPre + "Finished reloading " + responsesSent + " requests for " +
+                                sharedResponses.size() + " distinct configs");
     }
 
     private void logRequestDebug(LogLevel level, String message, JRTServerConfigRequest request) {
@@ -323,6 +334,12 @@ public class RpcServer implements Runnable, ReloadListener, TenantListener {
         request.getRequest().returnRequest();
     }
 
+    /** Returns whether the given spec is on a host of some application deployed to this */
+    private boolean isKnownHost(String spec) {
+        Spec parsed = new Spec(spec);
+        return ! parsed.malformed() && parsed.host() != null && hostRegistry.getKeyForHost(parsed.host()) != null;
+    }
+
     /**
      * Returns the tenant for this request, empty if there is no tenant for this request
      * (which on hosted Vespa means that the requesting host is not currently active for any tenant)
@@ -357,11 +374,16 @@ public class RpcServer implements Runnable, ReloadListener, TenantListener {
     }
 
     public Boolean addToRequestQueue(JRTServerConfigRequest request, boolean forceResponse, CompletionService<Boolean> completionService) {
+        return addToRequestQueue(request, forceResponse, completionService, null);
+    }
+
+    private boolean addToRequestQueue(JRTServerConfigRequest request, boolean forceResponse,
+                                      CompletionService<Boolean> completionService, SharedConfigResponses sharedResponses) {
         // It's no longer delayed if we get here
         request.setDelayedResponse(false);
         //ConfigDebug.logDebug(log, System.currentTimeMillis(), request.getConfigKey(), "RpcServer.addToRequestQueue()");
         try {
-            final GetConfigProcessor task = new GetConfigProcessor(this, request, forceResponse);
+            final GetConfigProcessor task = new GetConfigProcessor(this, request, forceResponse, sharedResponses);
             if (completionService == null) {
                 executorService.submit(task);
             } else {
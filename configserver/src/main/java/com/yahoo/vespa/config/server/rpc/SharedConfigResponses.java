@@ -0,0 +1,101 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.server.rpc;
+
+import com.yahoo.component.Version;
+import com.yahoo.config.provision.ApplicationId;
+import com.yahoo.vespa.config.ConfigKey;
+import com.yahoo.vespa.config.protocol.ConfigResponse;
+import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
+import com.yahoo.vespa.config.server.GetConfigContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The config responses resolved when answering the delayed requests of a config reload.
+ * The config of each distinct config key is resolved (and serialized and compressed) once,
+ * and the response is shared by all the requests for it. Requests for config which is being resolved
+ * by another thread wait for that response instead of resolving it again.
+ *
+ * @author agent
+ */
+class SharedConfigResponses {
+
+    private final Map<Key, CompletableFuture<ConfigResponse>> responses = new ConcurrentHashMap<>();
+
+    /** Returns the response shared by all requests equal to the given one, using the given resolver if there is none */
+    ConfigResponse resolve(JRTServerConfigRequest request, GetConfigContext context, Optional<Version> vespaVersion,
+                           Supplier<ConfigResponse> resolver) {
+        if (request.noCache()) return resolver.get();
+
+        CompletableFuture<ConfigResponse> response = new CompletableFuture<>();
+        CompletableFuture<ConfigResponse> existing = responses.putIfAbsent(new Key(context.applicationId(), request, vespaVersion),
+                                                                           response);
+        if (existing != null) return await(existing);
+
+        try {
+            response.complete(resolver.get());
+        }
+        catch (RuntimeException | Error e) {
+            response.completeExceptionally(e);
+            throw e;
+        }
+        return response.join();
+    }
+
+    int size() { return responses.size(); }
+
+    private static ConfigResponse await(CompletableFuture<ConfigResponse> response) {
+        try {
+            return response.join();
+        }
+        catch (CompletionException e) { // rethrow the failure to resolve as if this request resolved it
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    /** The properties of a request which its config is resolved from */
+    private static final class Key {
+
+        private final ApplicationId applicationId;
+        private final ConfigKey<?> configKey;
+        private final String defMd5;
+        private final List<String> defContent;
+        private final Optional<Version> vespaVersion;
+
+        Key(ApplicationId applicationId, JRTServerConfigRequest request, Optional<Version> vespaVersion) {
+            this.applicationId = applicationId;
+            this.configKey = request.getConfigKey();
+            this.defMd5 = request.getConfigKey().getMd5();
+            this.defContent = request.getDefContent().asList();
+            this.vespaVersion = vespaVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if ( ! (o instanceof Key)) return false;
+            Key other = (Key) o;
+            return applicationId.equals(other.applicationId) &&
+                   configKey.equals(other.configKey) &&
+                   Objects.equals(defMd5, other.defMd5) &&
+                   defContent.equals(other.defContent) &&
+                   vespaVersion.equals(other.vespaVersion);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(applicationId, configKey, defMd5, defContent, vespaVersion);
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.server.rpc;
+
+import com.yahoo.config.provision.ApplicationId;
+import com.yahoo.jrt.Request;
+import com.yahoo.vespa.config.ConfigKey;
+import com.yahoo.vespa.config.ConfigPayload;
+import com.yahoo.vespa.config.UnknownConfigIdException;
+import com.yahoo.vespa.config.protocol.CompressionType;
+import com.yahoo.vespa.config.protocol.ConfigResponse;
+import com.yahoo.vespa.config.protocol.DefContent;
+import com.yahoo.vespa.config.protocol.JRTClientConfigRequestV3;
+import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
+import com.yahoo.vespa.config.protocol.JRTServerConfigRequestV3;
+import com.yahoo.vespa.config.protocol.SlimeConfigResponse;
+import com.yahoo.vespa.config.protocol.Trace;
+import com.yahoo.vespa.config.server.GetConfigContext;
+import com.yahoo.vespa.config.util.ConfigUtils;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class SharedConfigResponsesTest {
+
+    private final GetConfigContext context = GetConfigContext.testContext(ApplicationId.defaultId());
+
+    @Test
+    public void config_is_resolved_once_per_distinct_request() {
+        SharedConfigResponses shared = new SharedConfigResponses();
+        AtomicInteger resolved = new AtomicInteger();
+
+        ConfigResponse first = shared.resolve(createRequest("foo", "id1", "host1"), context, Optional.empty(),
+                                              () -> createResponse(resolved));
+        ConfigResponse second = shared.resolve(createRequest("foo", "id1", "host2"), context, Optional.empty(),
+                                               () -> createResponse(resolved));
+        assertSame(first, second);
+        assertEquals(1, resolved.get());
+
+        shared.resolve(createRequest("foo", "id2", "host1"), context, Optional.empty(), () -> createResponse(resolved));
+        shared.resolve(createRequest("bar", "id1", "host1"), context, Optional.empty(), () -> createResponse(resolved));
+        shared.resolve(createRequest("foo", "id1", "host1"), GetConfigContext.testContext(ApplicationId.global()),
+                       Optional.empty(), () -> createResponse(resolved));
+        assertEquals(4, resolved.get());
+        assertEquals(4, shared.size());
+    }
+
+    @Test
+    public void failure_to_resolve_is_rethrown_to_requests_sharing_the_response() {
+        SharedConfigResponses shared = new SharedConfigResponses();
+        for (String host : new String[] { "host1", "host2" }) {
+            try {
+                shared.resolve(createRequest("foo", "id1", host), context, Optional.empty(), () -> {
+                    throw new UnknownConfigIdException("Unknown config id");
+                });
+                fail("Expected exception");
+            }
+            catch (UnknownConfigIdException e) {
+                assertEquals("Unknown config id", e.getMessage());
+            }
+        }
+    }
+
+    private static ConfigResponse createResponse(AtomicInteger resolved) {
+        resolved.incrementAndGet();
+        ConfigPayload payload = ConfigPayload.empty();
+        return SlimeConfigResponse.fromConfigPayload(payload, null, 1, false, ConfigUtils.getMd5(payload));
+    }
+
+    private static JRTServerConfigRequest createRequest(String configName, String configId, String hostname) {
+        Request request = JRTClientConfigRequestV3.
+                createWithParams(new ConfigKey<>(configName, configId, "namespace", "defmd5", null),
+                                 DefContent.fromList(Collections.emptyList()), hostname, "", 1, 1000,
+                                 Trace.createDummy(), CompressionType.UNCOMPRESSED, Optional.empty()).getRequest();
+        return JRTServerConfigRequestV3.createFromRequest(request);
+    }
+
+}
@@ -16,6 +16,7 @@ import com.yahoo.container.di.config.SubscriberFactory;
 import com.yahoo.container.di.osgi.BundleClasses;
 import com.yahoo.container.di.osgi.OsgiUtil;
 import com.yahoo.container.logging.AccessLog;
+import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.application.OsgiFramework;
 import com.yahoo.jdisc.handler.RequestHandler;
 import com.yahoo.jdisc.service.ClientProvider;
@@ -50,6 +51,8 @@ public class HandlersConfigurerDi {
 
     private static final Logger log = Logger.getLogger(HandlersConfigurerDi.class.getName());
 
+    private static final String componentGraphCreationTimeMetric = "jdisc.application.component_graph.creation_time_millis";
+
     public static class RegistriesHack {
 
         @Inject
@@ -138,6 +141,12 @@ public class HandlersConfigurerDi {
         currentGraph = container.getNewComponentGraph(currentGraph,
                                                       createFallbackInjector(vespaContainer, discInjector),
                                                       restartOnRedeploy);
+        reportConstructionTime(currentGraph);
+    }
+
+    private static void reportConstructionTime(ComponentGraph graph) {
+        graph.constructionTime().ifPresent(time -> graph.lookupInstance(Metric.class)
+                .ifPresent(metric -> metric.set(componentGraphCreationTimeMetric, time.toMillis(), null)));
     }
 
     @SuppressWarnings("deprecation")
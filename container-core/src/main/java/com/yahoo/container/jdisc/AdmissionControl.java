@@ -0,0 +1,98 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc;
+
+/**
+ * Adaptive admission control: Estimates the number of concurrent requests which can be handled
+ * from the recent latency of requests, such that requests exceeding it can be rejected early.
+ * <p>
+ * The limit is adjusted after each request by the gradient between the long term and the short term
+ * average latency: When requests start queueing, the short term latency grows above the long term one,
+ * which shrinks the limit until the queue is drained. While latency is stable and the limit is in use,
+ * the limit grows by a small headroom, such that more capacity is used when available.
+ * <p>
+ * Latencies should be measured from the time requests are received, such that the time spent waiting
+ * for a thread is included.
+ * <p>
+ * This uses constant memory and is thread safe.
+ *
+ * @author agent
+ */
+final class AdmissionControl {
+
+    /** The weight of a new sample in the short term average latency */
+    private static final double shortTermWeight = 0.1;
+
+    /** The weight of a new sample in the long term average latency */
+    private static final double longTermWeight = 1.0 / 500;
+
+    /** How much the short term latency may exceed the long term latency before the limit is reduced */
+    private static final double tolerance = 1.5;
+
+    /** The weight of a new estimate in the limit */
+    private static final double smoothing = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private volatile double limit;
+
+    /** The average latencies in milliseconds, or 0 before the first sample */
+    private double shortTermLatency = 0, longTermLatency = 0;
+
+    AdmissionControl(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1)
+            throw new IllegalArgumentException("The minimum limit must be positive, but was " + minLimit);
+        if (maxLimit < minLimit)
+            throw new IllegalArgumentException("The maximum limit " + maxLimit + " is less than the minimum " + minLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = clamp(initialLimit);
+    }
+
+    /**
+     * Returns whether a request should be admitted
+     *
+     * @param inFlight the number of requests currently in flight, including those waiting for a thread and this one
+     */
+    boolean admit(int inFlight) {
+        return inFlight <= limit;
+    }
+
+    /**
+     * Records the latency of an admitted request which has completed
+     *
+     * @param latencyMillis the time since the request was received
+     * @param inFlight the number of requests in flight when this request was admitted, including this one
+     */
+    synchronized void completed(long latencyMillis, int inFlight) {
+        double latency = Math.max(1, latencyMillis);
+        if (longTermLatency == 0) {
+            shortTermLatency = longTermLatency = latency;
+            return;
+        }
+
+        shortTermLatency += shortTermWeight * (latency - shortTermLatency);
+        longTermLatency += longTermWeight * (latency - longTermLatency);
+        if (longTermLatency > 2 * shortTermLatency) // Latency has dropped: Recover faster, e.g after a spike
+            longTermLatency *= 0.95;
+
+        if (inFlight < limit / 2) return; // Not enough load to learn anything about the capacity
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longTermLatency / shortTermLatency));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        limit = clamp((1 - smoothing) * limit + smoothing * estimate);
+    }
+
+    /** Returns the current limit on the number of concurrent requests */
+    int limit() { return (int)limit; }
+
+    /** Returns the number of seconds a rejected client should wait before retrying */
+    synchronized int retryAfterSeconds() {
+        return Math.max(1, (int)Math.ceil(longTermLatency / 1000));
+    }
+
+    private double clamp(double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+
+}
@@ -3,6 +3,7 @@ package com.yahoo.container.jdisc;
 
 import com.yahoo.io.BufferChain;
 import com.yahoo.io.WritableByteTransmitter;
+import com.yahoo.jdisc.handler.BufferPool;
 import com.yahoo.jdisc.handler.CompletionHandler;
 import com.yahoo.jdisc.handler.ContentChannel;
 import com.yahoo.log.LogLevel;
@@ -12,11 +13,15 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * A buffered stream wrapping a ContentChannel.
+ * A buffered stream wrapping a ContentChannel. The buffers this fills are acquired from the
+ * {@link BufferPool#shared() shared buffer pool}, and are written to the channel tagged as such.
  *
  * @author Steinar Knutsen
  */
@@ -29,9 +34,18 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
     private boolean failed = false;
     private final Object failLock = new Object();
 
+    /** The buffers acquired from the pool which are not yet written to the endpoint */
+    private final Set<ByteBuffer> acquired = Collections.newSetFromMap(new IdentityHashMap<>());
+
     public ContentChannelOutputStream(final ContentChannel endpoint) {
         this.endpoint = endpoint;
-        buffer = new BufferChain(this);
+        buffer = new BufferChain(this, this::acquire);
+    }
+
+    private ByteBuffer acquire() {
+        ByteBuffer acquiredBuffer = BufferPool.shared().acquire();
+        acquired.add(acquiredBuffer);
+        return acquiredBuffer;
     }
 
     /**
@@ -134,7 +148,24 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
         // buffer itself
         try {
             byteBufferData += (long) src.remaining();
-            endpoint.write(src, new LoggingCompletionHandler());
+            CompletionHandler handler = new LoggingCompletionHandler(null);
+            endpoint.write(src, acquired.remove(src) ? BufferPool.shared().tag(src, handler) : handler);
+        } catch (RuntimeException e) {
+            throw new IOException(Exceptions.toMessageString(e), e);
+        }
+    }
+
+    /**
+     * Write a ByteBuffer to the wrapped ContentChannel, and notify the given
+     * handler when it has been written, or has failed to be. This allows
+     * callers to hold back further writes until earlier ones are done. As with
+     * {@link #send(ByteBuffer)}, invoke {@link #flush()} first if the stream
+     * API has been used, and ownership of the ByteBuffer is transferred.
+     */
+    public void send(final ByteBuffer src, final CompletionHandler handler) throws IOException {
+        try {
+            byteBufferData += (long) src.remaining();
+            endpoint.write(src, new LoggingCompletionHandler(handler));
         } catch (RuntimeException e) {
             throw new IOException(Exceptions.toMessageString(e), e);
         }
@@ -150,8 +181,16 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
     }
 
     class LoggingCompletionHandler implements CompletionHandler {
+
+        private final CompletionHandler next;
+
+        LoggingCompletionHandler(CompletionHandler next) {
+            this.next = next;
+        }
+
         @Override
         public void completed() {
+            if (next != null) next.completed();
         }
 
         @Override
@@ -168,6 +207,7 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
             if (log.isLoggable(logLevel)) {
                 log.log(logLevel, "Got exception when writing to client: " + Exceptions.toMessageString(t));
             }
+            if (next != null) next.failed(t);
         }
     }
 }
@@ -199,7 +199,10 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
         private static class DevNullChannel implements ContentChannel {
 
             @Override
-            public void write(ByteBuffer byteBuffer, CompletionHandler completionHandler) { }
+            public void write(ByteBuffer byteBuffer, CompletionHandler completionHandler) {
+                if (completionHandler != null)
+                    completionHandler.failed(new IOException("The response could not be sent"));
+            }
 
             @Override
             public void close(CompletionHandler completionHandler) { }
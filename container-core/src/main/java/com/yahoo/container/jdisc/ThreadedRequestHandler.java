@@ -3,6 +3,7 @@ package com.yahoo.container.jdisc;
 
 import com.google.inject.Inject;
 import com.yahoo.concurrent.CopyOnWriteHashMap;
+import com.yahoo.container.core.ContainerHttpConfig;
 import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.Request;
 import com.yahoo.jdisc.ResourceReference;
@@ -16,6 +17,7 @@ import com.yahoo.jdisc.handler.OverloadException;
 import com.yahoo.jdisc.handler.ReadableContentChannel;
 import com.yahoo.jdisc.handler.ResponseDispatch;
 import com.yahoo.jdisc.handler.ResponseHandler;
+import com.yahoo.jdisc.http.HttpHeaders;
 import com.yahoo.log.LogLevel;
 
 import java.time.Duration;
@@ -23,6 +25,7 @@ import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import static java.util.Collections.singletonMap;
@@ -47,6 +50,15 @@ public abstract class ThreadedRequestHandler extends AbstractRequestHandler {
     protected final Metric metric;
     private final boolean allowAsyncResponse;
 
+    /** The number of requests accepted by this which are not yet handled, including those waiting for a thread */
+    private final AtomicInteger requestsInFlight = new AtomicInteger(0);
+
+    /** The admission control of requests to this, or null to accept all requests a thread can be found for */
+    private volatile AdmissionControl admissionControl = null;
+
+    /** The name of the metric counting requests rejected by admission control */
+    private volatile String rejectedRequestsMetric = null;
+
     private static final Object rejectedExecutionsLock = new Object();
     @GuardedBy("rejectedExecutionsLock")
     private static volatile int numRejectedRequests = 0;
@@ -79,6 +91,22 @@ public abstract class ThreadedRequestHandler extends AbstractRequestHandler {
         this.allowAsyncResponse = allowAsyncResponse;
     }
 
+    /**
+     * Makes this reject requests early, with status 503 and a Retry-After header, when the number of requests
+     * in flight, including those waiting for a thread, exceeds the limit estimated by admission control, if
+     * enabled in the given config. This should only be called from the constructor of subclasses.
+     *
+     * @param config the admission control config
+     * @param rejectedRequestsMetric the name of the metric to count rejected requests in
+     */
+    protected final void setAdmissionControl(ContainerHttpConfig.AdmissionControl config, String rejectedRequestsMetric) {
+        if ( ! config.enabled()) return;
+        this.rejectedRequestsMetric = rejectedRequestsMetric;
+        this.admissionControl = new AdmissionControl(config.initialLimit(),
+                                                     Math.min(config.minLimit(), config.maxLimit()),
+                                                     config.maxLimit());
+    }
+
     private Map<String, Metric.Context> handlerContexts = new CopyOnWriteHashMap<>();
     private Metric.Context contextFor(BindingMatch match) {
         if (match == null) return null;
@@ -97,7 +125,7 @@ public abstract class ThreadedRequestHandler extends AbstractRequestHandler {
     /**
      * Handles a request by assigning a worker thread to it.
      *
-     * @throws OverloadException if thread pool has no available thread
+     * @throws OverloadException if thread pool has no available thread, or the request is rejected by admission control
      */
     @Override
     public final ContentChannel handleRequest(Request request, ResponseHandler responseHandler) {
@@ -108,8 +136,17 @@ public abstract class ThreadedRequestHandler extends AbstractRequestHandler {
                 request.setTimeout(timeout.getSeconds(), TimeUnit.SECONDS);
             }
         }
+        int inFlight = requestsInFlight.incrementAndGet();
+        AdmissionControl admissionControl = this.admissionControl;
+        if (admissionControl != null && ! admissionControl.admit(inFlight)) {
+            requestsInFlight.decrementAndGet();
+            rejectOnOverload(request, responseHandler, admissionControl);
+            throw new OverloadException("More than " + admissionControl.limit() + " concurrent requests for " +
+                                        getClass().getSimpleName(), null);
+        }
+
         BufferedContentChannel content = new BufferedContentChannel();
-        final RequestTask command = new RequestTask(request, content, responseHandler);
+        final RequestTask command = new RequestTask(request, content, responseHandler, admissionControl, inFlight);
         try {
             executor.execute(command);
         } catch (RejectedExecutionException e) {
@@ -121,6 +158,13 @@ public abstract class ThreadedRequestHandler extends AbstractRequestHandler {
         return content;
     }
 
+    private void rejectOnOverload(Request request, ResponseHandler responseHandler, AdmissionControl admissionControl) {
+        metric.add(rejectedRequestsMetric, 1, contextFor(request.getBindingMatch()));
+        Response response = new Response(Response.Status.SERVICE_UNAVAILABLE);
+        response.headers().add(HttpHeaders.Names.RETRY_AFTER, String.valueOf(admissionControl.retryAfterSeconds()));
+        ResponseDispatch.newInstance(response).dispatch(responseHandler);
+    }
+
     public Duration getTimeout() {
         return TIMEOUT;
     }
@@ -159,19 +203,28 @@ public abstract class ThreadedRequestHandler extends AbstractRequestHandler {
         private final ResourceReference requestReference;
         final BufferedContentChannel content;
         final ResponseHandler responseHandler;
+        private final AdmissionControl admissionControl;
+        private final int inFlight;
         private boolean hasResponded = false;
 
-        RequestTask(Request request, BufferedContentChannel content, ResponseHandler responseHandler) {
+        RequestTask(Request request, BufferedContentChannel content, ResponseHandler responseHandler,
+                    AdmissionControl admissionControl, int inFlight) {
             this.request = request;
             this.requestReference = request.refer();
             this.content = content;
             this.responseHandler = responseHandler;
+            this.admissionControl = admissionControl;
+            this.inFlight = inFlight;
         }
 
         @Override
         public void run() {
             try (ResourceReference reference = requestReference) {
                 processRequest();
+            } finally {
+                requestsInFlight.decrementAndGet();
+                if (admissionControl != null)
+                    admissionControl.completed(request.timeElapsed(TimeUnit.MILLISECONDS), inFlight);
             }
         }
 
@@ -231,6 +284,7 @@ public abstract class ThreadedRequestHandler extends AbstractRequestHandler {
          * Clean up when the task can not be executed because no worker thread is available.
          */
         public void failOnOverload() {
+            requestsInFlight.decrementAndGet();
             try (ResourceReference reference = requestReference) {
                 incrementRejectedRequests();
                 logRejectedRequests();
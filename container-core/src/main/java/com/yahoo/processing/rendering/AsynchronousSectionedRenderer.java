@@ -264,6 +264,17 @@ public abstract class AsynchronousSectionedRenderer<RESPONSE extends Response> e
     /** This hook is called once when the renderer detects that the client has closed the connection */
     protected void onClientClosed() { }
 
+    /**
+     * Flushes the data rendered so far to the client. This is called at the end of each list, and when
+     * rendering is likely to suspend to wait for more data. Renderers which buffer their output
+     * should override this to write the buffered output to the stream before flushing it.
+     *
+     * @throws IOException passed on from the stream
+     */
+    protected void flush() throws IOException {
+        stream.flush();
+    }
+
     /**
      * How deep into the tree of nested data lists the callback currently is.
      * beginList() is invoked after this this is increased, and endList() is
@@ -356,12 +367,12 @@ public abstract class AsynchronousSectionedRenderer<RESPONSE extends Response> e
             if (list.complete().isDone()) // might not be when in before handover mode
                 endListLevel();
             else
-                stream.flush();
+                flush();
         }
 
         private void endListLevel() throws IOException {
             endRenderLevel(list);
-            stream.flush();
+            flush();
             dataListListenerStack.removeFirst();
             if (parent != null)
                 parent.childCompleted();
@@ -429,8 +440,12 @@ public abstract class AsynchronousSectionedRenderer<RESPONSE extends Response> e
             DataListListener listListener = new DataListListener(subList,this);
             dataListListenerStack.addFirst(listListener);
 
-            if (listenToNewDataAdded)
+            if (listenToNewDataAdded) {
                 subList.incoming().addNewDataListener(new DataListener(listListener), getExecutor());
+                // Render data already in an incomplete list now rather than when more data arrives
+                if ( ! subList.incoming().isComplete() && ! subList.asList().isEmpty())
+                    getExecutor().execute(new DataListener(listListener));
+            }
 
             flushIfLikelyToSuspend(subList);
 
@@ -552,7 +567,7 @@ public abstract class AsynchronousSectionedRenderer<RESPONSE extends Response> e
 
         protected void flushIfLikelyToSuspend(DataList list) throws IOException {
             // If the listener is not complete, we will (likely) suspend rendering
-            if ( ! list.incoming().isComplete()) stream.flush();
+            if ( ! list.incoming().isComplete()) flush();
         }
 
     }
@@ -0,0 +1,69 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class AdmissionControlTestCase {
+
+    @Test
+    public void testRequestsAboveTheLimitAreRejected() {
+        AdmissionControl control = new AdmissionControl(20, 4, 100);
+        assertTrue(control.admit(1));
+        assertTrue(control.admit(20));
+        assertFalse(control.admit(21));
+    }
+
+    @Test
+    public void testLimitGrowsWhileLatencyIsStableUnderLoad() {
+        AdmissionControl control = new AdmissionControl(20, 4, 100);
+        for (int i = 0; i < 1000; i++)
+            control.completed(10, control.limit());
+        assertEquals(100, control.limit());
+    }
+
+    @Test
+    public void testLimitIsUnchangedWithoutLoad() {
+        AdmissionControl control = new AdmissionControl(20, 4, 100);
+        for (int i = 0; i < 1000; i++)
+            control.completed(10, 1);
+        assertEquals(20, control.limit());
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyIncreasesAndRecoversAfterwards() {
+        AdmissionControl control = new AdmissionControl(50, 4, 100);
+        for (int i = 0; i < 1000; i++)
+            control.completed(10, control.limit());
+        int stableLimit = control.limit();
+
+        for (int i = 0; i < 50; i++)
+            control.completed(100, control.limit());
+        int overloadedLimit = control.limit();
+        assertTrue("Limit " + overloadedLimit + " is reduced from " + stableLimit, overloadedLimit < stableLimit / 2);
+
+        for (int i = 0; i < 1000; i++)
+            control.completed(10, control.limit());
+        assertEquals(stableLimit, control.limit());
+    }
+
+    @Test
+    public void testRetryAfterFollowsLatency() {
+        AdmissionControl control = new AdmissionControl(20, 4, 100);
+        assertEquals(1, control.retryAfterSeconds());
+        control.completed(2500, 1);
+        assertEquals(3, control.retryAfterSeconds());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxLimitBelowMinLimitIsRejected() {
+        new AdmissionControl(20, 10, 5);
+    }
+
+}
@@ -1,10 +1,12 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.container.jdisc;
 
+import com.yahoo.container.core.ContainerHttpConfig;
 import com.yahoo.jdisc.Request;
 import com.yahoo.jdisc.Response;
 import com.yahoo.jdisc.application.ContainerBuilder;
 import com.yahoo.jdisc.handler.*;
+import com.yahoo.jdisc.http.HttpHeaders;
 import com.yahoo.jdisc.test.TestDriver;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -12,6 +14,8 @@ import org.junit.Test;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -151,6 +155,48 @@ public class ThreadedRequestHandlerTestCase {
         assertTrue(driver.close());
     }
 
+    @Test
+    public void requireThatRequestsAboveTheAdmissionLimitAreRejectedWithRetryAfter() throws InterruptedException {
+        List<Runnable> queued = new ArrayList<>();
+        MyRequestHandler requestHandler = MyRequestHandler.newIgnoreContent(queued::add);
+        ContainerHttpConfig.AdmissionControl.Builder admissionControl = new ContainerHttpConfig.AdmissionControl.Builder()
+                .enabled(true).initialLimit(1).minLimit(1).maxLimit(1);
+        requestHandler.setAdmissionControl(new ContainerHttpConfig.AdmissionControl(admissionControl), "rejected_requests");
+        TestDriver driver = TestDriver.newSimpleApplicationInstanceWithoutOsgi();
+        ContainerBuilder builder = driver.newContainerBuilder();
+        builder.serverBindings().bind("http://localhost/", requestHandler);
+        driver.activateContainer(builder);
+
+        MyResponseHandler admittedResponseHandler = new MyResponseHandler();
+        driver.dispatchRequest("http://localhost/", admittedResponseHandler);
+        assertEquals("The admitted request is queued", 1, queued.size());
+
+        MyResponseHandler rejectedResponseHandler = new MyResponseHandler();
+        try {
+            driver.dispatchRequest("http://localhost/", rejectedResponseHandler);
+            fail("Expected the queued request to count towards the limit");
+        } catch (OverloadException e) {
+            // As expected.
+        }
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE, rejectedResponseHandler.response.getStatus());
+        assertEquals("1", rejectedResponseHandler.response.headers().getFirst(HttpHeaders.Names.RETRY_AFTER));
+        assertNull(rejectedResponseHandler.content.read());
+        assertEquals(1, queued.size());
+
+        requestHandler.entryLatch.countDown();
+        queued.get(0).run();
+        assertTrue(admittedResponseHandler.latch.await(60, TimeUnit.SECONDS));
+        assertEquals(Response.Status.OK, admittedResponseHandler.response.getStatus());
+
+        MyResponseHandler laterResponseHandler = new MyResponseHandler();
+        driver.dispatchRequest("http://localhost/", laterResponseHandler);
+        assertEquals("Admitted once the first request completed", 2, queued.size());
+        queued.get(1).run();
+        assertTrue(laterResponseHandler.latch.await(60, TimeUnit.SECONDS));
+        assertEquals(Response.Status.OK, laterResponseHandler.response.getStatus());
+        assertTrue(driver.close());
+    }
+
     @Test
     public void requireThatRequestContentIsClosedIfHandlerIgnoresIt() throws InterruptedException {
         Executor executor = Executors.newSingleThreadExecutor();
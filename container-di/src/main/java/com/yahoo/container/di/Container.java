@@ -3,6 +3,7 @@ package com.yahoo.container.di;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.config.ConfigInstance;
 import com.yahoo.config.ConfigurationRuntimeException;
 import com.yahoo.config.subscription.ConfigInterruptedException;
@@ -19,10 +20,13 @@ import com.yahoo.container.di.config.RestApiContext;
 import com.yahoo.container.di.config.SubscriberFactory;
 import com.yahoo.vespa.config.ConfigKey;
 
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,6 +41,12 @@ public class Container {
 
     private static final Logger log = Logger.getLogger(Container.class.getName());
 
+    /** The max number of components constructed concurrently */
+    private static final int constructionThreads = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+
+    /** Components taking longer than this to construct are logged at info level */
+    private static final Duration slowConstructionLimit = Duration.ofSeconds(1);
+
     private final SubscriberFactory subscriberFactory;
     private ConfigKey<BundlesConfig> bundlesConfigKey;
     private ConfigKey<ComponentsConfig> componentsConfigKey;
@@ -226,7 +236,24 @@ public class Container {
     }
 
     private void constructComponents(ComponentGraph graph) {
-        graph.nodes().forEach(Node::newOrCachedInstance);
+        ExecutorService executor = Executors.newFixedThreadPool(constructionThreads,
+                                                                new DaemonThreadFactory("component-construction-"));
+        try {
+            graph.constructInstances(executor, componentDeconstructor);
+        } finally {
+            executor.shutdown();
+        }
+        logSlowComponents(graph);
+    }
+
+    private static void logSlowComponents(ComponentGraph graph) {
+        for (Node node : graph.nodes()) {
+            if ( ! (node instanceof ComponentNode)) continue;
+            ((ComponentNode) node).constructionTime().ifPresent(time -> {
+                if (time.compareTo(slowConstructionLimit) > 0)
+                    log.log(Level.INFO, "Constructing " + node.idAndType() + " took " + time.toMillis() + " ms");
+            });
+        }
     }
 
     public void shutdown(ComponentGraph graph, ComponentDeconstructor deconstructor) {
@@ -2,6 +2,7 @@
 package com.yahoo.container.di.componentgraph.core;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.inject.BindingAnnotation;
 import com.google.inject.ConfigurationException;
@@ -12,6 +13,7 @@ import com.yahoo.collections.Pair;
 import com.yahoo.component.ComponentId;
 import com.yahoo.component.provider.ComponentRegistry;
 import com.yahoo.config.ConfigInstance;
+import com.yahoo.container.di.ComponentDeconstructor;
 import com.yahoo.container.di.componentgraph.Provider;
 import com.yahoo.log.LogLevel;
 import com.yahoo.vespa.config.ConfigKey;
@@ -22,6 +24,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -29,8 +32,12 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -47,6 +54,7 @@ public class ComponentGraph {
 
     private long generation;
     private Map<ComponentId, Node> nodesById = new HashMap<>();
+    private Duration constructionTime = null;
 
     public ComponentGraph(long generation) {
         this.generation = generation;
@@ -112,6 +120,11 @@ public class ComponentGraph {
         return (T) ob;
     }
 
+    /** Returns the instance of the global component of the given class, or empty if there is no such component */
+    public <T> Optional<T> lookupInstance(Class<T> clazz) {
+        return lookupGlobalComponent(Key.get(clazz)).map(node -> clazz.cast(node.newOrCachedInstance()));
+    }
+
     private Collection<ComponentNode> componentNodes() {
         return nodesOfType(nodes(), ComponentNode.class);
     }
@@ -162,6 +175,64 @@ public class ComponentGraph {
         }
     }
 
+    /**
+     * Creates the instances of all nodes in this graph which do not already have one, by running the construction
+     * of each node on the given executor as soon as the nodes it uses are constructed.
+     * Components which do not depend on each other are thereby constructed concurrently.
+     * This returns when all constructions which can be run are done.
+     * If any construction fails, the instances created by this are passed to the given deconstructor,
+     * users before the components they use, before the failure is rethrown.
+     *
+     * @throws RuntimeException the exception thrown by the first failing node, in bottom-up order
+     */
+    public void constructInstances(Executor executor, ComponentDeconstructor deconstructor) {
+        long startTime = System.nanoTime();
+        List<Node> sorted = topologicalSort(nodes());
+        List<Node> unconstructed = sorted.stream().filter(node -> ! node.instance().isPresent()).collect(Collectors.toList());
+        Map<ComponentId, CompletableFuture<Void>> constructions = new HashMap<>();
+        for (Node node : sorted) {
+            CompletableFuture<?>[] dependencies = node.usedComponents().stream()
+                    .map(usedComponent -> constructions.get(usedComponent.componentId()))
+                    .filter(Objects::nonNull)
+                    .toArray(CompletableFuture<?>[]::new);
+            constructions.put(node.componentId(),
+                              CompletableFuture.allOf(dependencies).thenRunAsync(node::newOrCachedInstance, executor));
+        }
+
+        // Wait for everything to finish, also after a failure, so no component is being constructed when this returns
+        CompletableFuture.allOf(constructions.values().toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+        for (Node node : sorted) {
+            try {
+                constructions.get(node.componentId()).join();
+            } catch (CompletionException e) {
+                deconstructInstances(Lists.reverse(unconstructed), deconstructor);
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error) throw (Error) e.getCause();
+                throw e;
+            }
+        }
+        constructionTime = Duration.ofNanos(System.nanoTime() - startTime);
+    }
+
+    private static void deconstructInstances(List<Node> nodes, ComponentDeconstructor deconstructor) {
+        for (Node node : nodes) {
+            if ( ! node.instance().isPresent()) continue;
+            try {
+                deconstructor.deconstruct(node.instance().get());
+            } catch (RuntimeException e) {
+                log.log(LogLevel.WARNING, "Failed deconstructing " + node.idAndType() + " after a failed construction", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the wall clock time spent in {@link #constructInstances} creating the instances of this,
+     * or empty if it has not completed successfully
+     */
+    public Optional<Duration> constructionTime() {
+        return Optional.ofNullable(constructionTime);
+    }
+
     public Collection<?> allComponentsAndProviders() {
         return nodes().stream().map(node -> node.instance().get()).collect(Collectors.toList());
     }
@@ -16,12 +16,14 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -49,6 +51,8 @@ public class ComponentNode extends Node {
 
     private Map<ConfigKey<ConfigInstance>, ConfigInstance> availableConfigs = null;
 
+    private volatile Duration constructionTime = null;
+
 
     public ComponentNode(ComponentId componentId,
                          String configId,
@@ -149,8 +153,10 @@ public class ComponentNode extends Node {
         Object instance;
         try {
             log.log(DEBUG, "Constructing " + idAndType());
+            long startTime = System.nanoTime();
             instance = constructor.newInstance(actualArguments.toArray());
-            log.log(DEBUG, "Finished constructing " + idAndType());
+            constructionTime = Duration.ofNanos(System.nanoTime() - startTime);
+            log.log(DEBUG, "Finished constructing " + idAndType() + " in " + constructionTime.toMillis() + " ms");
         } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
             StackTraceElement dependencyInjectorMarker = new StackTraceElement("============= Dependency Injection =============", "newInstance", null, -1);
 
@@ -160,6 +166,14 @@ public class ComponentNode extends Node {
         return initId(instance);
     }
 
+    /**
+     * Returns the time spent in the constructor of this component, excluding the construction of its dependencies,
+     * or empty if the instance of this was not constructed by this node (e.g. because it was reused from a previous graph).
+     */
+    public Optional<Duration> constructionTime() {
+        return Optional.ofNullable(constructionTime);
+    }
+
     private Object initId(Object component) {
         if (component instanceof AbstractComponent) {
             AbstractComponent abstractComponent = (AbstractComponent) component;
@@ -44,16 +44,20 @@ public abstract class Node {
     protected abstract Object newInstance();
 
     public Object newOrCachedInstance() {
-        Object inst;
+        return component(cachedOrNewInstance());
+    }
+
+    /** Synchronized as components may be constructed concurrently, and each instance must be created once only */
+    private synchronized Object cachedOrNewInstance() {
         if (instance.isPresent()) {
-            inst = instance.get();
             log.log(SPAM, "Reusing instance for component with ID " + componentId);
+            return instance.get();
         } else {
             log.log(DEBUG, "Creating new instance for component with ID " + componentId);
-            inst = newInstance();
+            Object inst = newInstance();
             instance = Optional.of(inst);
+            return inst;
         }
-        return component(inst);
     }
 
     private Object component(Object instance) {
@@ -25,11 +25,16 @@ import com.yahoo.vespa.config.ConfigKey;
 import org.junit.Test;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static com.yahoo.container.di.componentgraph.core.ComponentGraph.isBindingAnnotation;
@@ -40,6 +45,7 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -323,6 +329,54 @@ public class ComponentGraphTest {
         }
     }
 
+    @Test
+    public void independent_components_are_constructed_concurrently() {
+        ComponentTakingLatch.latch = new CountDownLatch(2);
+        ComponentNode first = (ComponentNode) mockComponentNode(ComponentTakingLatch.class);
+        ComponentNode second = (ComponentNode) mockComponentNode(ComponentTakingLatch.class);
+        ComponentGraph componentGraph = new ComponentGraph();
+        componentGraph.add(first);
+        componentGraph.add(second);
+        componentGraph.complete();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            componentGraph.constructInstances(executor, component -> fail("Nothing should be deconstructed"));
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(((ComponentTakingLatch) first.instance().get()).released);
+        assertTrue(((ComponentTakingLatch) second.instance().get()).released);
+        assertTrue(first.constructionTime().isPresent());
+        assertTrue(second.constructionTime().isPresent());
+        assertTrue(componentGraph.constructionTime().isPresent());
+    }
+
+    @Test
+    public void failure_to_construct_a_dependency_is_rethrown_after_deconstructing_the_constructed_components() {
+        Node failing = mockComponentNodeWithId(ComponentThrowingInConstructor.class, "failing");
+        Node dependent = mockComponentNode(ComponentTakingFailingComponent.class);
+        Node independent = mockComponentNode(SimpleComponent.class);
+        dependent.inject(failing);
+        ComponentGraph componentGraph = new ComponentGraph();
+        componentGraph.add(failing);
+        componentGraph.add(dependent);
+        componentGraph.add(independent);
+        componentGraph.complete();
+
+        List<Object> deconstructed = new ArrayList<>();
+        try {
+            componentGraph.constructInstances(Runnable::run, deconstructed::add);
+            fail("Expected exception");
+        } catch (ComponentNode.ComponentConstructorException e) {
+            assertEquals("Error constructing 'failing' of type '" + ComponentThrowingInConstructor.class.getName() + "'",
+                         e.getMessage());
+        }
+        assertFalse(dependent.instance().isPresent());
+        assertEquals(List.of(independent.instance().get()), deconstructed);
+        assertFalse(componentGraph.constructionTime().isPresent());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void abstract_classes_are_rejected() {
         new ComponentNode(ComponentId.fromString("Test"), "", AbstractClass.class);
@@ -536,6 +590,27 @@ public class ComponentGraphTest {
         }
     }
 
+    public static class ComponentTakingLatch extends AbstractComponent {
+        static CountDownLatch latch;
+        final boolean released;
+
+        public ComponentTakingLatch() throws InterruptedException {
+            latch.countDown();
+            released = latch.await(60, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class ComponentThrowingInConstructor extends AbstractComponent {
+        public ComponentThrowingInConstructor() {
+            throw new IllegalStateException("Failed");
+        }
+    }
+
+    public static class ComponentTakingFailingComponent extends AbstractComponent {
+        public ComponentTakingFailingComponent(ComponentThrowingInConstructor component) {
+        }
+    }
+
     public static class SimpleComponentProviderThatThrows implements Provider<SimpleComponent> {
         public SimpleComponent get() {
             throw new AssertionError("Should never be called.");
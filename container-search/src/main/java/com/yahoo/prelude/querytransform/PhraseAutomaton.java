@@ -0,0 +1,489 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.prelude.querytransform;
+
+import com.yahoo.fsa.FSA;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An Aho-Corasick automaton over the words of the phrases of a phrase FSA, which finds all the phrases
+ * occurring in a sequence of words in a single pass over them.
+ * <p>
+ * The states of this are the nodes of a trie of the phrases, where each state also has a failure link to the
+ * state of the longest proper suffix of its phrase prefix which is also a phrase prefix, and an output link to the
+ * closest state on its failure chain which is a complete phrase.
+ * <p>
+ * This is immutable and thread safe.
+ *
+ * @author agent
+ */
+final class PhraseAutomaton {
+
+    /** Receives the phrases found by {@link #match} */
+    interface Matches {
+
+        /**
+         * Called for each phrase found
+         *
+         * @param start the index of the first word of the phrase
+         * @param length the number of words in the phrase
+         * @param state the state of the phrase in this automaton
+         */
+        void add(int start, int length, int state);
+
+    }
+
+    private static final int root = 0;
+    private static final int none = -1;
+
+    /** The id of each distinct word in the phrases */
+    private final Map<String, Integer> wordIds;
+
+    /** The transitions of all the states, keyed on state and word id */
+    private final Transitions transitions;
+
+    private final int[] parent;
+    private final int[] word;
+    private final int[] depth;
+    private final int[] failure;
+    private final int[] output;
+
+    /** The FSA state of each state which is a complete phrase, which holds its data, and 0 for other states */
+    private final int[] phrase;
+
+    /** The automaton the phrases of this are read from */
+    private final FSA fsa;
+
+    /** The words by id */
+    private final String[] words;
+
+    /**
+     * Creates an automaton from the phrases of a phrase FSA, where the words of each phrase are separated by space.
+     * This takes time linear in the size of the FSA when it is walked as a tree, i.e. the total length of the phrases
+     * not counting shared prefixes.
+     */
+    PhraseAutomaton(FSA fsa) {
+        Builder builder = new Builder(fsa);
+
+        this.fsa = fsa;
+        this.transitions = builder.transitions;
+        this.parent = Arrays.copyOf(builder.parent, builder.states);
+        this.word = Arrays.copyOf(builder.word, builder.states);
+        this.depth = Arrays.copyOf(builder.depth, builder.states);
+        this.phrase = Arrays.copyOf(builder.phrase, builder.states);
+        this.words = builder.words.words.toArray(new String[0]);
+        this.wordIds = new HashMap<>(words.length * 2);
+        for (int i = 0; i < words.length; i++)
+            wordIds.put(words[i], i);
+        this.failure = new int[builder.states];
+        this.output = new int[builder.states];
+        computeFailureAndOutputLinks(builder.firstChild, builder.nextSibling);
+    }
+
+    /**
+     * Finds all phrases in the given words, where each word is matched by the phrase word equal to it, or if the
+     * phrase cannot continue with that word, by the phrase word equal to its alternative.
+     * <p>
+     * Without alternatives, this tracks a single state as usual. With alternatives, the words may be matched by
+     * more than one sequence of phrase words, so this tracks the set of states reached by any such sequence.
+     * This set contains all the matched sequences, or a longer sequence they are a suffix of. Matches using an
+     * alternative where the word itself would also continue the phrase are then skipped.
+     *
+     * @param words the words to match, which must be lowercased
+     * @param alternatives the alternative form of each word, or null to only match the words as given
+     * @param matches receives all the phrases found, in order of their last word
+     */
+    void match(String[] words, String[] alternatives, Matches matches) {
+        int[] wordIds = new int[words.length];
+        for (int i = 0; i < words.length; i++)
+            wordIds[i] = idOf(words[i]);
+
+        int[] current = new int[] { root };
+        int currentCount = 1;
+        int[] next = new int[2];
+        int[] found = new int[4];
+        for (int i = 0; i < words.length; i++) {
+            int wordId = wordIds[i];
+            int alternativeId = alternatives == null ? none : idOf(alternatives[i]);
+
+            if (next.length < currentCount * 2)
+                next = new int[currentCount * 2];
+            int nextCount = 0;
+            for (int c = 0; c < currentCount; c++) {
+                nextCount = add(transition(current[c], wordId), next, nextCount);
+                if (alternativeId != none && alternativeId != wordId)
+                    nextCount = add(transition(current[c], alternativeId), next, nextCount);
+            }
+
+            int foundCount = 0;
+            for (int c = 0; c < nextCount; c++) {
+                for (int phrase = this.phrase[next[c]] != 0 ? next[c] : output[next[c]]; phrase != root; phrase = output[phrase]) {
+                    if (contains(found, foundCount, phrase)) break; // the rest of the chain is reported too
+                    if (foundCount == found.length)
+                        found = Arrays.copyOf(found, foundCount * 2);
+                    found[foundCount++] = phrase;
+                }
+            }
+            for (int f = 0; f < foundCount; f++) {
+                if (alternatives != null && ! prefersWords(found[f], wordIds, i)) continue;
+                matches.add(i - depth[found[f]] + 1, depth[found[f]], found[f]);
+            }
+
+            int[] previous = current;
+            current = next;
+            currentCount = nextCount;
+            next = previous;
+        }
+    }
+
+    /**
+     * Returns whether the given phrase state, ending at the given word, only matches words by their alternative
+     * where the phrase does not continue with the word itself
+     */
+    private boolean prefersWords(int state, int[] wordIds, int end) {
+        for (int i = end; state != root; i--, state = parent[state]) {
+            if (word[state] != wordIds[i] && transitions.get(parent[state], wordIds[i]) != none)
+                return false;
+        }
+        return true;
+    }
+
+    /** Returns the state reached by the given word from the given state, following failure links as needed */
+    private int transition(int state, int wordId) {
+        if (wordId == none) return root;
+        while (true) {
+            int next = transitions.get(state, wordId);
+            if (next != none) return next;
+            if (state == root) return root;
+            state = failure[state];
+        }
+    }
+
+    /** Adds the given state to the given states unless already present, and returns the new count */
+    private static int add(int state, int[] states, int count) {
+        if (contains(states, count, state)) return count;
+        states[count] = state;
+        return count + 1;
+    }
+
+    private static boolean contains(int[] states, int count, int state) {
+        for (int i = 0; i < count; i++)
+            if (states[i] == state) return true;
+        return false;
+    }
+
+    /** Returns the data of the given phrase state */
+    String data(int state) { return fsa.dataString(phrase[state]); }
+
+    /** Returns the index'th word of the phrase of the given state */
+    String word(int state, int index) {
+        for (int i = depth[state] - 1; i > index; i--)
+            state = parent[state];
+        return words[word[state]];
+    }
+
+    private int idOf(String word) {
+        if (word == null) return none;
+        Integer id = wordIds.get(word);
+        return id == null ? none : id;
+    }
+
+    /** Computes the failure and output links of all states in breadth first order */
+    private void computeFailureAndOutputLinks(int[] firstChild, int[] nextSibling) {
+        int[] queue = new int[parent.length];
+        int head = 0, tail = 0;
+        for (int child = firstChild[root]; child != none; child = nextSibling[child]) {
+            failure[child] = root;
+            output[child] = root;
+            queue[tail++] = child;
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            for (int child = firstChild[state]; child != none; child = nextSibling[child]) {
+                int suffix = failure[state];
+                int next;
+                while ((next = transitions.get(suffix, word[child])) == none && suffix != root)
+                    suffix = failure[suffix];
+                failure[child] = next == none ? root : next;
+                output[child] = phrase[failure[child]] != 0 ? failure[child] : output[failure[child]];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    /**
+     * Builds the trie of the phrases by walking the states of a phrase FSA depth first. Phrase strings are not
+     * created: Each distinct word is decoded once, and the data of each phrase is left in the FSA.
+     */
+    private static final class Builder {
+
+        private final FSA fsa;
+        private final Words words;
+        private final Transitions transitions = new Transitions();
+
+        private int states = 1;
+        private int[] parent = new int[1024];
+        private int[] word = new int[1024];
+        private int[] depth = new int[1024];
+        private int[] firstChild = new int[1024];
+        private int[] nextSibling = new int[1024];
+        private int[] phrase = new int[1024];
+
+        Builder(FSA fsa) {
+            this.fsa = fsa;
+            this.words = new Words(fsa.charset());
+            parent[root] = none;
+            word[root] = none;
+            firstChild[root] = none;
+            nextSibling[root] = none;
+            if (fsa.isOk())
+                walk();
+        }
+
+        /**
+         * Visits each path of symbols from the start state of the FSA once, keeping the bytes of the path,
+         * and adds the words and phrases ending at each. Each word must be non-empty, as an empty word
+         * cannot be matched, so paths with an empty word are skipped.
+         */
+        private void walk() {
+            Path path = new Path();
+            path.visit(0, fsa.start(), root, 0, 0);
+            for (int at = 0; at >= 0; ) {
+                if (path.next[at] == path.count[at]) {
+                    at--;
+                    continue;
+                }
+                byte symbol = path.symbols[at][path.next[at]++];
+                int next = fsa.delta(path.fsaState[at], symbol);
+                int wordStart = path.wordStart[at];
+                path.bytes[at] = symbol;
+                if (symbol == ' ') {
+                    if (wordStart == at) continue; // empty word
+                    path.visit(at + 1, next, child(path.trieState[at], wordId(path, at)), at + 1, 0);
+                }
+                else {
+                    path.visit(at + 1, next, path.trieState[at], wordStart, 31 * path.hash[at] + symbol);
+                }
+                at++;
+            }
+        }
+
+        /** Returns the id of the word ending at the given position in the path */
+        private int wordId(Path path, int end) {
+            return words.id(path.bytes, path.wordStart[end], end, path.hash[end]);
+        }
+
+        /** Returns the state reached by the given word from the given state, adding it if necessary */
+        private int child(int state, int wordId) {
+            int next = transitions.get(state, wordId);
+            return next != none ? next : addState(state, wordId);
+        }
+
+        private int addState(int parentState, int wordId) {
+            if (states == parent.length) {
+                int capacity = states * 2;
+                parent = Arrays.copyOf(parent, capacity);
+                word = Arrays.copyOf(word, capacity);
+                depth = Arrays.copyOf(depth, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                phrase = Arrays.copyOf(phrase, capacity);
+            }
+            int state = states++;
+            parent[state] = parentState;
+            word[state] = wordId;
+            depth[state] = depth[parentState] + 1;
+            firstChild[state] = none;
+            nextSibling[state] = firstChild[parentState];
+            firstChild[parentState] = state;
+            transitions.put(parentState, wordId, state);
+            return state;
+        }
+
+        /** The path of symbols from the start state of the FSA to the state currently visited by the walk */
+        private final class Path {
+
+            /** The symbols of the path */
+            byte[] bytes = new byte[64];
+
+            /** The FSA state, trie state before the last word, and start and hash of the last word, at each position */
+            int[] fsaState = new int[64];
+            int[] trieState = new int[64];
+            int[] wordStart = new int[64];
+            int[] hash = new int[64];
+
+            /** The symbols out of the FSA state at each position, their count, and the next one to follow */
+            byte[][] symbols = new byte[64][];
+            int[] count = new int[64];
+            int[] next = new int[64];
+
+            /** Sets the state at the given position, and adds the phrase ending there, if any */
+            void visit(int at, int fsaState, int trieState, int wordStart, int hash) {
+                if (at == bytes.length) grow();
+                this.fsaState[at] = fsaState;
+                this.trieState[at] = trieState;
+                this.wordStart[at] = wordStart;
+                this.hash[at] = hash;
+                if (symbols[at] == null)
+                    symbols[at] = new byte[256];
+                count[at] = fsa.symbols(fsaState, symbols[at]);
+                next[at] = 0;
+                if (fsa.isFinal(fsaState) && wordStart < at) {
+                    int phraseState = child(trieState, wordId(this, at));
+                    phrase[phraseState] = fsaState;
+                }
+            }
+
+            private void grow() {
+                int capacity = bytes.length * 2;
+                bytes = Arrays.copyOf(bytes, capacity);
+                fsaState = Arrays.copyOf(fsaState, capacity);
+                trieState = Arrays.copyOf(trieState, capacity);
+                wordStart = Arrays.copyOf(wordStart, capacity);
+                hash = Arrays.copyOf(hash, capacity);
+                symbols = Arrays.copyOf(symbols, capacity);
+                count = Arrays.copyOf(count, capacity);
+                next = Arrays.copyOf(next, capacity);
+            }
+
+        }
+
+    }
+
+    /** The distinct words of the phrases, where each is assigned an id when its bytes are first seen */
+    private static final class Words {
+
+        private final Charset charset;
+
+        /** The words by id */
+        private final List<String> words = new ArrayList<>();
+
+        /** The bytes of all the words, and the start of each word in them */
+        private byte[] bytes = new byte[1024];
+        private int size = 0;
+        private int[] starts = new int[1024];
+        private int[] hashes = new int[1024];
+
+        /** An open addressing hash table of word id + 1, or 0 for empty slots */
+        private int[] table = new int[1024];
+
+        Words(Charset charset) {
+            this.charset = charset;
+        }
+
+        /** Returns the id of the word in the given bytes, adding it if necessary */
+        int id(byte[] word, int start, int end, int hash) {
+            for (int slot = slot(hash, table.length); ; slot = (slot + 1) & (table.length - 1)) {
+                int id = table[slot] - 1;
+                if (id < 0) return add(word, start, end, hash, slot);
+                if (hashes[id] == hash && equals(id, word, start, end)) return id;
+            }
+        }
+
+        private boolean equals(int id, byte[] word, int start, int end) {
+            int wordStart = starts[id];
+            if (starts[id + 1] - wordStart != end - start) return false;
+            for (int i = start; i < end; i++)
+                if (bytes[wordStart + i - start] != word[i]) return false;
+            return true;
+        }
+
+        private int add(byte[] word, int start, int end, int hash, int slot) {
+            int id = words.size();
+            if (id + 2 > starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+                hashes = Arrays.copyOf(hashes, starts.length);
+            }
+            if (size + end - start > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(size + end - start, bytes.length * 2));
+            System.arraycopy(word, start, bytes, size, end - start);
+            size += end - start;
+            starts[id + 1] = size;
+            hashes[id] = hash;
+            words.add(new String(word, start, end - start, charset));
+            table[slot] = id + 1;
+            if (words.size() * 2 > table.length)
+                resize();
+            return id;
+        }
+
+        private void resize() {
+            table = new int[table.length * 2];
+            for (int id = 0; id < words.size(); id++) {
+                int slot = slot(hashes[id], table.length);
+                while (table[slot] != 0)
+                    slot = (slot + 1) & (table.length - 1);
+                table[slot] = id + 1;
+            }
+        }
+
+        private static int slot(int hash, int capacity) {
+            int spread = hash * 0x9E3779B9;
+            return (spread ^ (spread >>> 16)) & (capacity - 1);
+        }
+
+    }
+
+    /** An open addressing hash table from state and word id to the next state */
+    private static final class Transitions {
+
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private int size = 0;
+
+        Transitions() {
+            Arrays.fill(keys, -1);
+        }
+
+        int get(int state, int wordId) {
+            if (wordId == none) return none;
+            long key = key(state, wordId);
+            for (int slot = slot(key, keys.length); ; slot = (slot + 1) & (keys.length - 1)) {
+                if (keys[slot] == key) return values[slot];
+                if (keys[slot] == -1) return none;
+            }
+        }
+
+        void put(int state, int wordId, int next) {
+            if (size * 2 >= keys.length)
+                resize(keys.length * 2);
+            insert(key(state, wordId), next);
+            size++;
+        }
+
+        private void insert(long key, int value) {
+            int slot = slot(key, keys.length);
+            while (keys[slot] != -1)
+                slot = (slot + 1) & (keys.length - 1);
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, -1);
+            for (int i = 0; i < oldKeys.length; i++)
+                if (oldKeys[i] != -1)
+                    insert(oldKeys[i], oldValues[i]);
+        }
+
+        private static long key(int state, int wordId) {
+            return ((long)state << 32) | wordId;
+        }
+
+        private static int slot(long key, int capacity) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int)(hash >>> 32) & (capacity - 1);
+        }
+
+    }
+
+}
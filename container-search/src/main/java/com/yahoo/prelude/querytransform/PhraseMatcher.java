@@ -13,6 +13,10 @@ import static com.yahoo.language.LinguisticsCase.toLowerCase;
 
 /**
  * Detects query phrases using an automaton. This class is thread safe.
+ * <p>
+ * Phrases are found in a single pass over the words of each composite by an Aho-Corasick automaton
+ * built from the phrases of the phrase automaton when this is created. Single items are matched by the phrase
+ * automaton directly.
  *
  * @author bratseth
  */
@@ -20,6 +24,9 @@ public class PhraseMatcher {
 
     private FSA phraseFSA = null;
 
+    /** The automaton for matching in composites */
+    private final PhraseAutomaton automaton;
+
     private boolean matchPhraseItems = false;
 
     private boolean matchSingleItems = false;
@@ -32,6 +39,7 @@ public class PhraseMatcher {
 
     /** For null subclass only */
     private PhraseMatcher() {
+        automaton=null;
     }
 
     /**
@@ -54,6 +62,7 @@ public class PhraseMatcher {
     public PhraseMatcher(String phraseAutomatonFile,boolean ignorePluralForm) {
         this.ignorePluralForm=ignorePluralForm;
         phraseFSA=new FSA(phraseAutomatonFile);
+        automaton=new PhraseAutomaton(phraseFSA);
     }
 
     /**
@@ -67,6 +76,7 @@ public class PhraseMatcher {
         if(phraseAutomatonFSA==null) throw new IllegalArgumentException("FSA is null");
         this.ignorePluralForm=ignorePluralForm;
         phraseFSA=phraseAutomatonFSA;
+        automaton=new PhraseAutomaton(phraseFSA);
     }
 
     public boolean isEmpty() { return phraseFSA == null; }
@@ -146,73 +156,82 @@ public class PhraseMatcher {
         if ( ! matchPhraseItems && item instanceof PhraseItem ) return;
 
         CompositeItem owner=(CompositeItem)item;
-        int i=0;
         int checkItemCount=owner.getItemCount();
         if (owner instanceof NotItem)
             checkItemCount=1; // Skip negatives
 
+        List<Phrase>[] phrasesByStart=findPhrases(owner,checkItemCount);
+        int i=0;
         while (i<checkItemCount) {
-            int largestFoundLength=findPhrasesAtStartpoint(i,owner,phrases);
-
-            if (largestFoundLength==0 || matchAll) {
+            List<Phrase> phrasesAtStart=phrasesByStart[i];
+            if (phrasesAtStart==null || matchAll) {
+                if (phrasesAtStart!=null)
+                    phrasesAtStart.forEach(phrases::add);
                 recursivelyMatchPhrases(owner.getItem(i),phrases);
                 i=i+1;
             }
-            else {
-                i=i+largestFoundLength;
+            else { // Use the longest phrase
+                Phrase phrase=phrasesAtStart.get(phrasesAtStart.size()-1);
+                phrases.add(phrase);
+                i=i+phrase.getLength();
             }
         }
     }
 
     /**
-     * If (!matchAll), finds longest possible phrase starting at the
-     * given index in the owner and adds it to phrases.
+     * Finds all phrases starting before checkItemCount in the owner, where a phrase is a sequence
+     * of term items of the same index.
      *
-     * If (matchAll), finds all possible phrases starting at the given index
-     *
-     * @return the length of the largest phrase found at this starting point, or 0 if none
+     * @return the phrases starting at each index in order of increasing length, or null at indexes where no phrase starts
      */
-    private int findPhrasesAtStartpoint(int startIndex,CompositeItem owner,MatchedPhrases phrases) {
-        FSA.State state = phraseFSA.getState();
-        int currentIndex=startIndex;
-        Phrase phrase=null;
-        List<String> replaceList=null;
-
-        String index=null;
-        state.start();
-
-        while (currentIndex<owner.getItemCount()) { // Loop until the largest possible phrase is passed
-            Item current=owner.getItem(currentIndex);
-            if (! (current instanceof TermItem) ) break;
-
-            TermItem termItem=(TermItem)current;
-
-            if (state.isStartState())
-                index=termItem.getIndexName();
-            else
-                if (!termItem.getIndexName().equals(index)) break;
-
-            String lowercased = toLowerCase(termItem.stringValue());
-            boolean matched=state.tryDeltaWord(lowercased);
-            if (!matched && ignorePluralForm) {
-                String invertedWord=switchForm(lowercased);
-                matched=state.tryDeltaWord(invertedWord);
-                if (matched)
-                    replaceList=setReplace(replaceList,currentIndex-startIndex,invertedWord);
+    @SuppressWarnings("unchecked")
+    private List<Phrase>[] findPhrases(CompositeItem owner,int checkItemCount) {
+        List<Phrase>[] phrasesByStart=new List[checkItemCount];
+        int runStart=0;
+        while (runStart<checkItemCount) {
+            if ( ! (owner.getItem(runStart) instanceof TermItem)) {
+                runStart++;
+                continue;
             }
-            if (!matched) break;
+            String index=((TermItem)owner.getItem(runStart)).getIndexName();
+            int runEnd=runStart+1;
+            while (runEnd<owner.getItemCount() && owner.getItem(runEnd) instanceof TermItem
+                   && ((TermItem)owner.getItem(runEnd)).getIndexName().equals(index))
+                runEnd++;
+            findPhrases(owner,runStart,runEnd,checkItemCount,phrasesByStart);
+            runStart=runEnd;
+        }
+        return phrasesByStart;
+    }
 
-            if (state.isFinal()) // Legal return point reached, but we'll look for longer ones too
-                phrase=new Phrase(owner,replaceList,startIndex,currentIndex-startIndex+1,state.dataString());
-            if (matchAll)
-                phrases.add(phrase);
-            currentIndex++;
+    /** Finds the phrases in the given run of term items of the same index */
+    private void findPhrases(CompositeItem owner,int runStart,int runEnd,int checkItemCount,List<Phrase>[] phrasesByStart) {
+        String[] words=new String[runEnd-runStart];
+        String[] invertedWords=ignorePluralForm ? new String[words.length] : null;
+        for (int i=0; i<words.length; i++) {
+            words[i]=toLowerCase(((TermItem)owner.getItem(runStart+i)).stringValue());
+            if (ignorePluralForm)
+                invertedWords[i]=switchForm(words[i]);
         }
 
-        if (phrase==null) return 0;
-        if (!matchAll)
-            phrases.add(phrase);
-        return phrase.getLength();
+        automaton.match(words,invertedWords,(start,length,state) -> {
+            int startIndex=runStart+start;
+            if (startIndex>=checkItemCount) return;
+
+            List<String> replaceList=null;
+            for (int i=0; i<length; i++) {
+                String phraseWord=automaton.word(state,i);
+                if ( ! phraseWord.equals(words[start+i]))
+                    replaceList=setReplace(replaceList,i,phraseWord);
+            }
+            if (replaceList!=null)
+                while (replaceList.size()<length)
+                    replaceList.add(null);
+
+            if (phrasesByStart[startIndex]==null)
+                phrasesByStart[startIndex]=new ArrayList<>(2);
+            phrasesByStart[startIndex].add(new Phrase(owner,replaceList,startIndex,length,automaton.data(state)));
+        });
     }
 
     /** Adds a replace word at an index, and any required null's to get to this item. Creates the list if it is null */
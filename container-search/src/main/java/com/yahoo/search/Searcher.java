@@ -6,6 +6,7 @@ import com.yahoo.processing.Processor;
 import com.yahoo.processing.Response;
 import com.yahoo.search.searchchain.Execution;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 /**
@@ -133,6 +134,27 @@ public abstract class Searcher extends Processor {
         return search((Query)request, (Execution)execution);
     }
 
+    /**
+     * Override this to produce the result without blocking the calling thread while waiting for other services.
+     * This is invoked instead of {@link #search} when the chain is executed by
+     * {@link Execution#searchAsync}, e.g by federation. Implementations should call
+     * execution.searchAsync rather than execution.search, and compose on the returned future.
+     * <p>
+     * The returned future may be completed by any thread. The execution must not be used by
+     * other threads until it is completed.
+     * <p>
+     * The default implementation calls {@link #search} in the calling thread and returns a completed future.
+     * A thread is therefore only released when every searcher below the point of the asynchronous call implements
+     * this. At present that is only the case for federation, whose targets are searched this way:
+     * The search handler, fill, and the invokers dispatching to content nodes still block their thread.
+     *
+     * @param query the query
+     * @return the future result of making this query
+     */
+    public CompletableFuture<Result> searchAsync(Query query, Execution execution) {
+        return CompletableFuture.completedFuture(search(query, execution));
+    }
+
     /**
      * Fill hit properties with data using the given summary class.
      * Calling this on already filled results has no cost.
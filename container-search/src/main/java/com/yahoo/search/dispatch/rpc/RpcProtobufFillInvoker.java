@@ -20,7 +20,7 @@ import com.yahoo.search.dispatch.rpc.Client.ProtobufResponse;
 import com.yahoo.search.result.ErrorMessage;
 import com.yahoo.search.result.Hit;
 import com.yahoo.slime.ArrayTraverser;
-import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.BinaryView;
 
 import java.util.Iterator;
 import java.util.List;
@@ -187,7 +187,7 @@ public class RpcProtobufFillInvoker extends FillInvoker {
     private int fill(Result result, List<FastHit> hits, String summaryClass, byte[] payload) {
         try {
             var protobuf = SearchProtocol.DocsumReply.parseFrom(payload);
-            var root = BinaryFormat.decode(protobuf.getSlimeSummaries().toByteArray()).get();
+            var root = BinaryView.inspect(protobuf.getSlimeSummaries().toByteArray());
             var errors = root.field("errors");
             boolean hasErrors = errors.valid() && (errors.entries() > 0);
             if (hasErrors) {
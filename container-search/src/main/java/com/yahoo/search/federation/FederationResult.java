@@ -9,6 +9,7 @@ import java.time.Clock;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -56,6 +57,19 @@ class FederationResult {
         }
     }
     
+    /**
+     * Returns a future which completes when each target has completed or reached its timeout.
+     * This is the same as waitForAll, but without blocking a thread while waiting.
+     * When the returned future completes, results can be accessed from the TargetResults with no blocking.
+     */
+    public CompletableFuture<Void> whenAllAvailable(int queryTimeout) {
+        CompletableFuture<?>[] available = targetsToWaitFor.stream()
+                                                           .map(target -> target.whenAvailable(queryTimeout))
+                                                           .toArray(CompletableFuture[]::new);
+        targetsToWaitFor.clear();
+        return CompletableFuture.allOf(available);
+    }
+
     /** Returns an immutable list of the results of this */
     public List<TargetResult> all() { return targetResults; }
 
@@ -97,6 +111,13 @@ class FederationResult {
             return availableResult;
         }
         
+        /** Returns a future which completes when the result of this is done, or when the timeout of this is reached */
+        private CompletableFuture<Void> whenAvailable(int queryTimeout) {
+            CompletableFuture<Void> available = new CompletableFuture<>();
+            futureResult.whenDone().thenRun(() -> available.complete(null));
+            return available.completeOnTimeout(null, timeout(queryTimeout), TimeUnit.MILLISECONDS);
+        }
+
         /** Returns a result without blocking; if the result is not available one with a timeout error is produced */
         public Result getOrTimeoutError() {
             // The else part is to offload creation of the timeout error
@@ -54,6 +54,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
@@ -179,6 +180,43 @@ public class FederationSearcher extends ForkingSearcher {
     public Result search(Query query, Execution execution) {
         Result mergedResults = execution.search(query);
 
+        Set<Target> targetHandlers = resolveTargets(query, execution, mergedResults);
+        if (targetHandlers.isEmpty())
+            return mergedResults;
+        else if (targetHandlers.size() > 1)
+            search(query, execution, targetHandlers, mergedResults);
+        else if (shouldExecuteTargetLongerThanThread(query, targetHandlers.iterator().next()))
+            search(query, execution, targetHandlers, mergedResults); // one target, but search in separate thread
+        else
+            search(query, execution, first(targetHandlers), mergedResults); // search in this thread
+        return mergedResults;
+    }
+
+    /**
+     * Federates without waiting for the targets in the calling thread: All targets are searched through
+     * searchAsync, and the results are merged in the search executor once each target to wait for is done
+     * or has reached its timeout. The target chains still block the threads running them where their
+     * searchers do, e.g in the invokers dispatching to content nodes.
+     * This is only used when federation is itself invoked through searchAsync;
+     * the search handler calls {@link #search}.
+     */
+    @Override
+    public CompletableFuture<Result> searchAsync(Query query, Execution execution) {
+        return execution.searchAsync(query).thenCompose(mergedResults -> {
+            Set<Target> targetHandlers = resolveTargets(query, execution, mergedResults);
+            if (targetHandlers.isEmpty())
+                return CompletableFuture.completedFuture(mergedResults);
+
+            FederationResult results = search(query, execution, targetHandlers, true);
+            // Merge in the search executor, not in the thread completing on a target timeout
+            return results.whenAllAvailable((int)query.getTimeLeft()).thenApplyAsync(available -> {
+                merge(query, results, mergedResults);
+                return mergedResults;
+            }, AsyncExecution.getExecutor());
+        });
+    }
+
+    private Set<Target> resolveTargets(Query query, Execution execution, Result mergedResults) {
         Results<SearchChainInvocationSpec, UnresolvedSearchChainException> targets =
                 getTargets(query.getModel().getSources(), query.properties(), execution.context().getIndexFacts());
         warnIfUnresolvedSearchChains(targets.errors(), mergedResults.hits());
@@ -193,16 +231,7 @@ public class FederationSearcher extends ForkingSearcher {
         targetHandlers.addAll(getAdditionalTargets(query, execution, targetSelector));
 
         traceTargets(query, targetHandlers);
-
-        if (targetHandlers.isEmpty())
-            return mergedResults;
-        else if (targetHandlers.size() > 1)
-            search(query, execution, targetHandlers, mergedResults);
-        else if (shouldExecuteTargetLongerThanThread(query, targetHandlers.iterator().next()))
-            search(query, execution, targetHandlers, mergedResults); // one target, but search in separate thread
-        else
-            search(query, execution, first(targetHandlers), mergedResults); // search in this thread
-        return mergedResults;
+        return targetHandlers;
     }
 
     private void search(Query query, Execution execution, Target target, Result mergedResults) {
@@ -215,9 +244,12 @@ public class FederationSearcher extends ForkingSearcher {
     }
 
     private void search(Query query, Execution execution, Collection<Target> targets, Result mergedResults) {
-        FederationResult results = search(query, execution, targets);
+        FederationResult results = search(query, execution, targets, false);
         results.waitForAll((int)query.getTimeLeft(), clock);
+        merge(query, results, mergedResults);
+    }
 
+    private void merge(Query query, FederationResult results, Result mergedResults) {
         HitOrderer s = null;
         for (FederationResult.TargetResult targetResult : results.all()) {
             if ( ! targetResult.successfullyCompleted()) {
@@ -245,19 +277,26 @@ public class FederationSearcher extends ForkingSearcher {
         }
     }
 
-    private FederationResult search(Query query, Execution execution, Collection<Target> targets) {
+    /**
+     * Starts searching the given targets in other threads
+     *
+     * @param searchAsync whether to search the target chains through searchAsync rather than search
+     */
+    private FederationResult search(Query query, Execution execution, Collection<Target> targets, boolean searchAsync) {
         FederationResult.Builder result = new FederationResult.Builder();
         for (Target target : targets)
-            result.add(target, searchAsynchronously(query, execution, Window.from(targets, query), target));
+            result.add(target, searchAsynchronously(query, execution, Window.from(targets, query), target, searchAsync));
         return result.build();
     }
 
-    private FutureResult searchAsynchronously(Query query, Execution execution, Window window, Target target) {
+    private FutureResult searchAsynchronously(Query query, Execution execution, Window window, Target target,
+                                              boolean searchAsync) {
         long timeout = target.federationOptions().getSearchChainExecutionTimeoutInMilliseconds(query.getTimeLeft());
         if (timeout <= 0)
             return new FutureResult(() -> new Result(query, ErrorMessage.createTimeout("Timed out before federation")), execution, query);
         Query clonedQuery = cloneFederationQuery(query, window, timeout, target);
-        return new AsyncExecution(target.getChain(), execution).search(clonedQuery);
+        AsyncExecution asyncExecution = new AsyncExecution(target.getChain(), execution);
+        return searchAsync ? asyncExecution.searchAsync(clonedQuery) : asyncExecution.search(clonedQuery);
     }
 
     private Query cloneFederationQuery(Query query, Window window, long timeout, Target target) {
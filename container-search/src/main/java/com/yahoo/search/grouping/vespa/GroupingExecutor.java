@@ -320,22 +320,22 @@ public class GroupingExecutor extends Searcher {
 
     /**
      * Merges the grouping content of the given result object. The first grouping hit found by iterating over the result
-     * content is kept, and all consecutive matching hits are merged into this.
+     * content is kept, and all consecutive matching hits are merged into this, all at once.
      *
      * @param result The result to traverse.
      * @return A map of merged grouping objects.
      */
     private Map<Integer, Grouping> mergeGroupingResults(Result result) {
         Map<Integer, Grouping> ret = new HashMap<>();
+        Map<Integer, List<Grouping>> others = new HashMap<>();
         for (Iterator<Hit> i = result.hits().unorderedIterator(); i.hasNext(); ) {
             Hit hit = i.next();
             if (hit instanceof GroupingListHit) {
                 ContextInjector injector = new ContextInjector(hit);
                 for (Grouping grp : ((GroupingListHit)hit).getGroupingList()) {
                     grp.select(injector, injector);
-                    Grouping old = ret.get(grp.getId());
-                    if (old != null) {
-                        old.merge(grp);
+                    if (ret.containsKey(grp.getId())) {
+                        others.computeIfAbsent(grp.getId(), id -> new ArrayList<>()).add(grp);
                     } else {
                         ret.put(grp.getId(), grp);
                     }
@@ -343,6 +343,9 @@ public class GroupingExecutor extends Searcher {
                 i.remove();
             }
         }
+        for (Map.Entry<Integer, List<Grouping>> entry : others.entrySet()) {
+            ret.get(entry.getKey()).merge(entry.getValue());
+        }
         for (Grouping grouping : ret.values()) {
             grouping.postMerge();
         }
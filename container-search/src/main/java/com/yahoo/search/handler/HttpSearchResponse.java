@@ -35,7 +35,7 @@ public class HttpSearchResponse extends ExtendedResponse {
     private final Query query;
     private final Renderer<Result> rendererCopy;
     private final Timing timing;
-    private final HitCounts hitCounts;
+    private HitCounts hitCounts;
 
     public HttpSearchResponse(int status, Result result, Query query, Renderer renderer) {
         super(status);
@@ -44,7 +44,8 @@ public class HttpSearchResponse extends ExtendedResponse {
         this.rendererCopy = renderer;
 
         this.timing = SearchResponse.createTiming(query, result);
-        this.hitCounts = SearchResponse.createHitCounts(query, result);
+        if (result.hits().incoming().isComplete()) // otherwise, count when all hits are added, see getHitCounts
+            this.hitCounts = SearchResponse.createHitCounts(query, result);
         populateHeaders(headers(), result.getHeaders(false));
     }
 
@@ -79,8 +80,9 @@ public class HttpSearchResponse extends ExtendedResponse {
                                                            OutputStream stream) throws IOException {
         SearchResponse.trimHits(result);
         SearchResponse.removeEmptySummaryFeatureFields(result);
-        return renderer.render(stream, result, query.getModel().getExecution(), query);
-
+        ListenableFuture<Boolean> rendering = renderer.render(stream, result, query.getModel().getExecution(), query);
+        StreamingFill.stopWhenDone(result, rendering);
+        return rendering;
     }
 
     @Override
@@ -134,6 +136,8 @@ public class HttpSearchResponse extends ExtendedResponse {
 
     @Override
     public HitCounts getHitCounts() {
+        if (hitCounts == null)
+            hitCounts = SearchResponse.createHitCounts(query, result);
         return hitCounts;
     }
 
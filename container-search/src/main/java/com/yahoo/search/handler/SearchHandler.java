@@ -29,6 +29,7 @@ import com.yahoo.prelude.IndexModel;
 import com.yahoo.prelude.query.QueryException;
 import com.yahoo.prelude.query.parser.ParseException;
 import com.yahoo.prelude.query.parser.SpecialTokenRegistry;
+import com.yahoo.processing.rendering.AsynchronousSectionedRenderer;
 import com.yahoo.processing.rendering.Renderer;
 import com.yahoo.processing.request.CompoundName;
 import com.yahoo.search.query.ranking.SoftTimeout;
@@ -80,13 +81,25 @@ public class SearchHandler extends LoggingRequestHandler {
     // max number of threads for the executor for this handler
     private final int maxThreads;
 
+    /** The executor of this handler, also used to fill the remaining hits of streamed results */
+    private final Executor executor;
+
     private static final CompoundName DETAILED_TIMING_LOGGING = new CompoundName("trace.timingDetails");
     private static final CompoundName FORCE_TIMESTAMPS = new CompoundName("trace.timestamps");
 
+    /**
+     * Set to true to render the hits of the result while they are filled, if the renderer is asynchronous.
+     * See {@link StreamingFill}.
+     */
+    private static final CompoundName STREAMING_FILL = new CompoundName("rendering.streamFill");
+
 
     /** Event name for number of connections to the search subsystem */
     private static final String SEARCH_CONNECTIONS = "search_connections";
 
+    /** Event name for number of requests rejected by admission control */
+    private static final String REJECTED_REQUESTS = "search_rejected_requests";
+
     private static final String JSON_CONTENT_TYPE = "application/json";
 
     private static Logger log = Logger.getLogger(SearchHandler.class.getName());
@@ -152,6 +165,7 @@ public class SearchHandler extends LoggingRequestHandler {
         this.queryProfileRegistry = queryProfileRegistry.compile();
 
         this.linguistics = linguistics;
+        this.executor = executor;
         this.maxThreads = examineExecutor(executor);
 
         searchConnections = new Value(SEARCH_CONNECTIONS, statistics,
@@ -162,6 +176,7 @@ public class SearchHandler extends LoggingRequestHandler {
         
         this.hostResponseHeaderKey = containerHttpConfig.hostResponseHeaderKey().equals("") ?
                                      Optional.empty() : Optional.of( containerHttpConfig.hostResponseHeaderKey());
+        setAdmissionControl(containerHttpConfig.admissionControl(), REJECTED_REQUESTS);
     }
 
     @Override
@@ -278,7 +293,7 @@ public class SearchHandler extends LoggingRequestHandler {
                     ErrorMessage.createInvalidQueryParameter("No search chain named '" + searchChainName + "' was found"));
         } else {
             String pathAndQuery = UriTools.rawRequest(request.getUri());
-            result = search(pathAndQuery, query, searchChain, searchChainRegistry);
+            result = search(pathAndQuery, query, searchChain, searchChainRegistry, ! benchmarking);
         }
 
         // Transform result to response
@@ -322,6 +337,11 @@ public class SearchHandler extends LoggingRequestHandler {
 
     /** Used from container SDK, for internal use only */
     public Result searchAndFill(Query query, Chain<? extends Searcher> searchChain, SearchChainRegistry registry) {
+        return searchAndFill(query, searchChain, registry, false);
+    }
+
+    private Result searchAndFill(Query query, Chain<? extends Searcher> searchChain, SearchChainRegistry registry,
+                                 boolean allowStreamingFill) {
         Result errorResult = validateQuery(query);
         if (errorResult != null) return errorResult;
 
@@ -343,7 +363,10 @@ public class SearchHandler extends LoggingRequestHandler {
         Result result = execution.search(query);
 
         ensureQuerySet(result, query);
-        execution.fill(result, result.getQuery().getPresentation().getSummary());
+        if (allowStreamingFill && isStreamingFill(query, renderer))
+            StreamingFill.fill(result, execution, result.getQuery().getPresentation().getSummary(), executor);
+        else
+            execution.fill(result, result.getQuery().getPresentation().getSummary());
 
         traceExecutionTimes(query, result);
         traceVespaVersion(query);
@@ -351,6 +374,18 @@ public class SearchHandler extends LoggingRequestHandler {
         return result;
     }
 
+    /**
+     * Returns whether the hits of the result of this query should be filled while they are rendered.
+     * Requires an asynchronous renderer, and no tracing, as the trace is rendered before the hits are filled,
+     * and is shared by the threads filling them.
+     */
+    private boolean isStreamingFill(Query query, Renderer<Result> renderer) {
+        return query.properties().getBoolean(STREAMING_FILL, false)
+               && renderer instanceof AsynchronousSectionedRenderer
+               && query.getTraceLevel() == 0
+               && ! query.properties().getBoolean(FORCE_TIMESTAMPS, false);
+    }
+
     private void traceRequestAttributes(Query query) {
         int miminumTraceLevel = 7;
         if (query.getTraceLevel() >= 7) {
@@ -380,7 +415,8 @@ public class SearchHandler extends LoggingRequestHandler {
         }
     }
 
-    private Result search(String request, Query query, Chain<Searcher> searchChain, SearchChainRegistry registry) {
+    private Result search(String request, Query query, Chain<Searcher> searchChain, SearchChainRegistry registry,
+                          boolean allowStreamingFill) {
         if (query.getTraceLevel() >= 2) {
             query.trace("Invoking " + searchChain, false, 2);
         }
@@ -393,7 +429,7 @@ public class SearchHandler extends LoggingRequestHandler {
                     new IllegalStateException("searchConnections reference is null."));
         }
         try {
-            return searchAndFill(query, searchChain, registry);
+            return searchAndFill(query, searchChain, registry, allowStreamingFill);
         } catch (ParseException e) {
             ErrorMessage error = ErrorMessage.createIllegalQuery("Could not parse query [" + request + "]: "
                                                                  + Exceptions.toMessageString(e));
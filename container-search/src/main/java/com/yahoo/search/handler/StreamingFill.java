@@ -0,0 +1,254 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.handler;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.yahoo.log.LogLevel;
+import com.yahoo.processing.response.DefaultIncomingData;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.result.DefaultErrorHit;
+import com.yahoo.search.result.ErrorMessage;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.result.HitGroup;
+import com.yahoo.search.result.Relevance;
+import com.yahoo.search.searchchain.Execution;
+import com.yahoo.yolean.Exceptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Logger;
+
+/**
+ * Fills the hits of a result in batches, such that an asynchronous renderer can render and flush the hits
+ * of each batch while the following batches are still being filled.
+ * <p>
+ * The first batch is filled before this returns, such that the result status and the first hits are known
+ * when the response is created. The top level hit group of the result is then replaced by an asynchronous
+ * group containing this batch. The following batches are filled concurrently by tasks running in the given
+ * executor, and their hits are added to the group in result order as they become available.
+ * <p>
+ * Batches are not filled once the query has timed out, or once rendering has completed, which happens
+ * early if the client disconnects; see {@link #stopWhenDone}.
+ * <p>
+ * This assumes that filling is done by the searchers on the hits they are given only, as each batch is
+ * filled as a separate result. Each batch is filled by its own copy of the execution, as executions are not
+ * thread safe. The trace is still shared, so streaming fill must not be used when tracing. Errors from filling batches after the first are added to the result, but
+ * cannot be rendered as the start of the result is already written at that point.
+ *
+ * @author agent
+ */
+class StreamingFill {
+
+    private static final Logger log = Logger.getLogger(StreamingFill.class.getName());
+
+    /** The number of concrete hits in the first batch. Each following batch is twice as large as the previous */
+    static final int firstBatchSize = 10;
+
+    private final List<Result> batches;
+
+    /** The execution filling each batch */
+    private final List<Execution> executions;
+
+    private final StreamedHitGroup streamed;
+    private final String summaryClass;
+    private final Query query;
+
+    /** The batches which are done, or null for batches not done yet. Guarded by this */
+    private final List<Done> done;
+
+    /** The index of the next batch to add to the streamed group. Guarded by this */
+    private int next = 0;
+
+    private volatile boolean stopped = false;
+
+    private StreamingFill(List<Result> batches, List<Execution> executions, StreamedHitGroup streamed, String summaryClass) {
+        this.batches = batches;
+        this.executions = executions;
+        this.streamed = streamed;
+        this.summaryClass = summaryClass;
+        this.query = streamed.getQuery();
+        this.done = new ArrayList<>(Collections.nCopies(batches.size(), null));
+    }
+
+    /**
+     * Fills the given result, streaming the hits after the first batch if the result is large enough to
+     * need more than one.
+     */
+    static void fill(Result result, Execution execution, String summaryClass, Executor executor) {
+        SearchResponse.trimHits(result);
+        HitGroup hits = result.hits();
+        if (hits.getClass() != HitGroup.class || hits.getId() == null) { // Don't know how to reproduce these
+            execution.fill(result, summaryClass);
+            return;
+        }
+
+        List<Result> batches = batches(hits, result.getQuery());
+        if (batches.size() < 2) {
+            execution.fill(result, summaryClass);
+            return;
+        }
+
+        Result first = batches.remove(0);
+        execution.fill(first, summaryClass);
+        result.getElapsedTime().merge(first.getElapsedTime());
+        StreamedHitGroup streamed = createStreamedGroup(hits);
+        for (Hit hit : first.hits().asList())
+            streamed.add(hit);
+        result.setHits(streamed);
+
+        List<Execution> executions = new ArrayList<>(batches.size());
+        for (int i = 0; i < batches.size(); i++)
+            executions.add(new Execution(execution)); // Copied on this thread, which keeps using the execution
+        StreamingFill fill = new StreamingFill(batches, executions, streamed, summaryClass);
+        streamed.fill = fill;
+        for (int i = 0; i < batches.size(); i++) {
+            int index = i;
+            Runnable fillBatch = () -> fill.fill(index);
+            try {
+                executor.execute(fillBatch);
+            }
+            catch (RejectedExecutionException e) {
+                fillBatch.run();
+            }
+        }
+    }
+
+    /**
+     * Stops filling the hits of the given result, if they are streamed, when the given rendering completes.
+     * Rendering completes before all hits are filled only if it fails, which it does when the client disconnects.
+     */
+    static void stopWhenDone(Result result, ListenableFuture<Boolean> rendering) {
+        if ( ! (result.hits() instanceof StreamedHitGroup)) return;
+        StreamingFill fill = ((StreamedHitGroup)result.hits()).fill;
+        rendering.addListener(() -> fill.stopped = true, MoreExecutors.directExecutor());
+    }
+
+    /** Fills the batch at the given index unless this is stopped or timed out, and adds what can be added */
+    private void fill(int index) {
+        if (stopped) {
+            addDone(index, Done.last(List.of()));
+        }
+        else if (query.getTimeLeft() <= 0) {
+            addDone(index, Done.last(List.of(errorHit(ErrorMessage.createTimeout("Timed out before all hits were filled")))));
+        }
+        else {
+            try {
+                Result batch = batches.get(index);
+                executions.get(index).fill(batch, summaryClass);
+                SearchResponse.removeEmptySummaryFeatureFields(batch);
+                addDone(index, new Done(batch.hits().asList(), false));
+            }
+            catch (RuntimeException e) {
+                log.log(LogLevel.WARNING, "Failed filling streamed hits for " + query, e);
+                addDone(index, Done.last(List.of(errorHit(ErrorMessage.createUnspecifiedError("Failed filling hits: " +
+                                                                                              Exceptions.toMessageString(e), e)))));
+            }
+        }
+    }
+
+    /**
+     * Records the given batch as done, and adds the hits of all done batches which are now next in order
+     * to the streamed group. Nothing is added after a batch which is the last one to add.
+     */
+    private synchronized void addDone(int index, Done batch) {
+        done.set(index, batch);
+        while (next < done.size() && done.get(next) != null) {
+            Done nextBatch = done.get(next);
+            done.set(next, Done.added); // The hits are now owned by the streamed group
+            if ( ! nextBatch.hits.isEmpty())
+                streamed.incoming().add(nextBatch.hits);
+            next = nextBatch.last ? done.size() : next + 1;
+        }
+        if (next == done.size() && ! streamed.incoming().isComplete())
+            streamed.incoming().markComplete();
+    }
+
+    private static DefaultErrorHit errorHit(ErrorMessage error) {
+        return new DefaultErrorHit(StreamingFill.class.getSimpleName(), error);
+    }
+
+    /** Splits the hits of the given group into results of growing size, in the order of the group */
+    private static List<Result> batches(HitGroup hits, Query query) {
+        List<Result> batches = new ArrayList<>();
+        Result batch = null;
+        int batchSize = firstBatchSize;
+        int concreteHitsInBatch = 0;
+        for (Hit hit : hits.asList()) {
+            if (hit == hits.getErrorHit()) continue; // Added to the streamed group directly
+            if (batch == null || concreteHitsInBatch == batchSize && ! hit.isAuxiliary()) {
+                if (batch != null)
+                    batchSize *= 2;
+                batch = new Result(query);
+                batch.hits().setOrdered(true); // Already in the right order
+                batches.add(batch);
+                concreteHitsInBatch = 0;
+            }
+            batch.hits().add(hit);
+            if ( ! hit.isAuxiliary())
+                concreteHitsInBatch++;
+        }
+        return batches;
+    }
+
+    /** Returns an asynchronous group having the same content as the given group, except for its hits */
+    private static StreamedHitGroup createStreamedGroup(HitGroup hits) {
+        StreamedHitGroup streamed = StreamedHitGroup.create(hits.getId().toString());
+        streamed.setQuery(hits.getQuery());
+        streamed.setRelevance(hits.getRelevance());
+        streamed.setSource(hits.getSource());
+        streamed.types().addAll(hits.types());
+        for (Iterator<Map.Entry<String, Object>> i = hits.fieldIterator(); i.hasNext(); ) {
+            Map.Entry<String, Object> field = i.next();
+            streamed.setField(field.getKey(), field.getValue());
+        }
+        streamed.copyOrdering(hits);
+        streamed.setOrdered(true); // Hits are added in their final order, and rendered as they arrive
+        if (hits.getErrorHit() != null)
+            streamed.add(hits.getErrorHit());
+        return streamed;
+    }
+
+    /** The hits to add for a batch which is done */
+    private static class Done {
+
+        static final Done added = new Done(List.of(), false);
+
+        final List<Hit> hits;
+
+        /** Whether no more hits should be added after these */
+        final boolean last;
+
+        Done(List<Hit> hits, boolean last) {
+            this.hits = hits;
+            this.last = last;
+        }
+
+        static Done last(List<Hit> hits) { return new Done(hits, true); }
+
+    }
+
+    /** An asynchronous hit group which knows the fill adding hits to it, such that it can be stopped */
+    private static class StreamedHitGroup extends HitGroup {
+
+        private StreamingFill fill;
+
+        private StreamedHitGroup(String id, DefaultIncomingData<Hit> incomingData) {
+            super(id, new Relevance(1), incomingData);
+        }
+
+        static StreamedHitGroup create(String id) {
+            DefaultIncomingData<Hit> incomingData = new DefaultIncomingData<>();
+            StreamedHitGroup hitGroup = new StreamedHitGroup(id, incomingData);
+            incomingData.assignOwner(hitGroup);
+            return hitGroup;
+        }
+
+    }
+
+}
@@ -31,6 +31,8 @@ public class QueryProfileProperties extends Properties {
 
     /** Values which has been overridden at runtime, or null if none */
     private Map<CompoundName, Object> values = null;
+    /** Whether the values map is shared with clones of this, or the instance this is cloned from */
+    private boolean valuesShared = false;
     /** Query profile references which has been overridden at runtime, or null if none. Earlier values has precedence */
     private List<Pair<CompoundName, CompiledQueryProfile>> references = null;
 
@@ -122,8 +124,13 @@ public class QueryProfileProperties extends Properties {
                 references.add(0, new Pair<>(name, (CompiledQueryProfile)value)); // references set later has precedence - put first
             }
             else {
-                if (values == null)
+                if (values == null) {
                     values = new HashMap<>();
+                }
+                else if (valuesShared) {
+                    values = new HashMap<>(values);
+                    valuesShared = false;
+                }
                 values.put(name, value);
             }
         }
@@ -250,8 +257,16 @@ public class QueryProfileProperties extends Properties {
     @Override
     public QueryProfileProperties clone() {
         QueryProfileProperties clone = (QueryProfileProperties)super.clone();
-        if (this.values != null)
-            clone.values = PropertyMap.cloneMap(this.values);
+        if (this.values != null) {
+            if (this.values.values().stream().anyMatch(value -> value instanceof Cloneable)) {
+                clone.values = PropertyMap.cloneMap(this.values);
+                clone.valuesShared = false;
+            }
+            else { // no values would be cloned: Share the map until it is modified
+                this.valuesShared = true;
+                clone.valuesShared = true;
+            }
+        }
         return clone;
     }
 
@@ -10,7 +10,8 @@ import java.util.HashMap;
  * A Map backing of Properties.
  * <p>
  * When this is cloned it will deep copy not only the model object map, but also each
- * clonable member inside the map.
+ * clonable member inside the map. If there are no clonable members, the map is instead shared
+ * between this and the clone, and copied by the first of them which modifies it.
  * <p>
  * Subclassing is supported, a hook can be implemented to provide conditional inclusion in the map.
  * By default - all properties are accepted, so set is never propagated.
@@ -26,13 +27,24 @@ public class PropertyMap extends Properties {
     /** The properties of this */
     private Map<CompoundName, Object> properties = new LinkedHashMap<>();
 
+    /** Whether the properties map is shared with clones of this, or the instance this is cloned from */
+    private boolean shared = false;
+
     public void set(CompoundName name, Object value, Map<String,String> context) {
         if (shouldSet(name, value))
-            properties.put(name, value);
+            writableProperties().put(name, value);
         else
             super.set(name, value, context);
     }
 
+    private Map<CompoundName, Object> writableProperties() {
+        if (shared) {
+            properties = new LinkedHashMap<>(properties);
+            shared = false;
+        }
+        return properties;
+    }
+
     /**
      * Return true if this value should be set in this map, false if the set should be propagated instead
      * This default implementation always returns true.
@@ -48,6 +60,7 @@ public class PropertyMap extends Properties {
 
     /**
      * Returns a direct reference to the map containing the properties set in this instance.
+     * This map may be shared with clones of this, so it must not be modified.
      */
     public Map<CompoundName, Object> propertyMap() {
         return properties;
@@ -56,7 +69,13 @@ public class PropertyMap extends Properties {
     @Override
     public PropertyMap clone() {
         PropertyMap clone = (PropertyMap)super.clone();
+        if ( ! hasCloneableValues()) {
+            shared = true;
+            clone.shared = true;
+            return clone;
+        }
         clone.properties = new HashMap<>();
+        clone.shared = false;
         for (Map.Entry<CompoundName, Object> entry : this.properties.entrySet()) {
             Object cloneValue = cloneHelper.clone(entry.getValue());
             if (cloneValue == null)
@@ -66,6 +85,12 @@ public class PropertyMap extends Properties {
         return clone;
     }
 
+    private boolean hasCloneableValues() {
+        for (Object value : properties.values())
+            if (value instanceof Cloneable) return true;
+        return false;
+    }
+
     @Override
     public Map<String, Object> listProperties(CompoundName path, Map<String, String> context, com.yahoo.processing.request.Properties substitution) {
         Map<String, Object> map = super.listProperties(path, context, substitution);
@@ -18,6 +18,7 @@ import com.yahoo.search.query.ranking.Matching;
 import com.yahoo.search.query.ranking.SoftTimeout;
 import com.yahoo.tensor.Tensor;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -46,237 +47,111 @@ public class QueryProperties extends Properties {
     @Override
     public Object get(CompoundName key, Map<String,String> context,
                       com.yahoo.processing.request.Properties substitution) {
-        if (key.size() == 2 && key.first().equals(Model.MODEL)) {
-            Model model = query.getModel();
-            if (key.last().equals(Model.QUERY_STRING)) return model.getQueryString();
-            if (key.last().equals(Model.TYPE)) return model.getType();
-            if (key.last().equals(Model.FILTER)) return model.getFilter();
-            if (key.last().equals(Model.DEFAULT_INDEX)) return model.getDefaultIndex();
-            if (key.last().equals(Model.LANGUAGE)) return model.getLanguage();
-            if (key.last().equals(Model.LOCALE)) return model.getLocale();
-            if (key.last().equals(Model.ENCODING)) return model.getEncoding();
-            if (key.last().equals(Model.SOURCES)) return model.getSources();
-            if (key.last().equals(Model.SEARCH_PATH)) return model.getSearchPath();
-            if (key.last().equals(Model.RESTRICT)) return model.getRestrict();
-        }
-        else if (key.first().equals(Ranking.RANKING)) {
-            Ranking ranking = query.getRanking();
-            if (key.size() == 2) {
-                if (key.last().equals(Ranking.LOCATION)) return ranking.getLocation();
-                if (key.last().equals(Ranking.PROFILE)) return ranking.getProfile();
-                if (key.last().equals(Ranking.SORTING)) return ranking.getSorting();
-                if (key.last().equals(Ranking.FRESHNESS)) return ranking.getFreshness();
-                if (key.last().equals(Ranking.QUERYCACHE)) return ranking.getQueryCache();
-                if (key.last().equals(Ranking.LIST_FEATURES)) return ranking.getListFeatures();
-            }
-            else if (key.size()>=3 && key.get(1).equals(Ranking.MATCH_PHASE)) {
-                if (key.size() == 3) {
-                    MatchPhase matchPhase = ranking.getMatchPhase();
-                    if (key.last().equals(MatchPhase.ATTRIBUTE)) return matchPhase.getAttribute();
-                    if (key.last().equals(MatchPhase.ASCENDING)) return matchPhase.getAscending();
-                    if (key.last().equals(MatchPhase.MAX_HITS)) return matchPhase.getMaxHits();
-                    if (key.last().equals(MatchPhase.MAX_FILTER_COVERAGE)) return matchPhase.getMaxFilterCoverage();
-                } else if (key.size() >= 4 && key.get(2).equals(Ranking.DIVERSITY)) {
-                    Diversity diversity = ranking.getMatchPhase().getDiversity();
-                    if (key.size() == 4) {
-                        if (key.last().equals(Diversity.ATTRIBUTE)) return diversity.getAttribute();
-                        if (key.last().equals(Diversity.MINGROUPS)) return diversity.getMinGroups();
-                    } else if ((key.size() == 5)  && key.get(3).equals(Diversity.CUTOFF)) {
-                        if (key.last().equals(Diversity.FACTOR)) return diversity.getCutoffFactor();
-                        if (key.last().equals(Diversity.STRATEGY)) return diversity.getCutoffStrategy();
-                    }
-                }
-            }
-            else if (key.size() == 3 && key.get(1).equals(Ranking.SOFTTIMEOUT)) {
-                SoftTimeout soft = ranking.getSoftTimeout();
-                if (key.last().equals(SoftTimeout.ENABLE)) return soft.getEnable();
-                if (key.last().equals(SoftTimeout.FACTOR)) return soft.getFactor();
-                if (key.last().equals(SoftTimeout.TAILCOST)) return soft.getTailcost();
-            }
-            else if (key.size() == 3 && key.get(1).equals(Ranking.MATCHING)) {
-                Matching matching = ranking.getMatching();
-                if (key.last().equals(Matching.TERMWISELIMIT)) return matching.getTermwiseLimit();
-                if (key.last().equals(Matching.NUMTHREADSPERSEARCH)) return matching.getNumThreadsPerSearch();
-                if (key.last().equals(Matching.NUMSEARCHPARTITIIONS)) return matching.getNumSearchPartitions();
-                if (key.last().equals(Matching.MINHITSPERTHREAD)) return matching.getMinHitsPerThread();
+        NativeProperty property = NativeProperty.byName.get(key);
+        if (property != null) return get(property);
 
-            }
-            else if (key.size()>2) {
-                // pass the portion after "ranking.features/properties" down
-                if (key.get(1).equals(Ranking.FEATURES)) return ranking.getFeatures().getObject(key.rest().rest().toString());
-                if (key.get(1).equals(Ranking.PROPERTIES)) return ranking.getProperties().get(key.rest().rest().toString());
-            }
-        }
-        else if (key.size()==2 && key.first().equals(Select.SELECT)) {
-            if (key.last().equals(Select.WHERE)) return query.getSelect().getWhereString();
-            if (key.last().equals(Select.GROUPING)) return query.getSelect().getGroupingString();
-        }
-        else if (key.size()==2 && key.first().equals(Presentation.PRESENTATION)) {
-            if (key.last().equals(Presentation.BOLDING)) return query.getPresentation().getBolding();
-            if (key.last().equals(Presentation.SUMMARY)) return query.getPresentation().getSummary();
-            if (key.last().equals(Presentation.FORMAT)) return query.getPresentation().getFormat();
-            if (key.last().equals(Presentation.TIMING)) return query.getPresentation().getTiming();
-            if (key.last().equals(Presentation.SUMMARY_FIELDS)) return query.getPresentation().getSummaryFields();
+        if (key.size() > 2 && key.first().equals(Ranking.RANKING)) {
+            // pass the portion after "ranking.features/properties" down
+            if (key.get(1).equals(Ranking.FEATURES)) return query.getRanking().getFeatures().getObject(key.rest().rest().toString());
+            if (key.get(1).equals(Ranking.PROPERTIES)) return query.getRanking().getProperties().get(key.rest().rest().toString());
         }
         else if (key.first().equals("rankfeature") || key.first().equals("featureoverride")) { // featureoverride is deprecated
             return query.getRanking().getFeatures().getObject(key.rest().toString());
         } else if (key.first().equals("rankproperty")) {
             return query.getRanking().getProperties().get(key.rest().toString());
-        } else if (key.size()==1) {
-            if (key.equals(Query.HITS)) return query.getHits();
-            if (key.equals(Query.OFFSET)) return query.getOffset();
-            if (key.equals(Query.TRACE_LEVEL)) return query.getTraceLevel();
-            if (key.equals(Query.EXPLAIN_LEVEL)) return query.getExplainLevel();
-            if (key.equals(Query.TIMEOUT)) return query.getTimeout();
-            if (key.equals(Query.NO_CACHE)) return query.getNoCache();
-            if (key.equals(Query.GROUPING_SESSION_CACHE)) return query.getGroupingSessionCache();
-            if (key.toString().equals(Model.MODEL)) return query.getModel();
-            if (key.toString().equals(Ranking.RANKING)) return query.getRanking();
-            if (key.toString().equals(Presentation.PRESENTATION)) return query.getPresentation();
-
         }
 
         return super.get(key, context, substitution);
     }
 
+    private Object get(NativeProperty property) {
+        switch (property) {
+            case MODEL: return query.getModel();
+            case MODEL_QUERY_STRING: return query.getModel().getQueryString();
+            case MODEL_TYPE: return query.getModel().getType();
+            case MODEL_FILTER: return query.getModel().getFilter();
+            case MODEL_DEFAULT_INDEX: return query.getModel().getDefaultIndex();
+            case MODEL_LANGUAGE: return query.getModel().getLanguage();
+            case MODEL_LOCALE: return query.getModel().getLocale();
+            case MODEL_ENCODING: return query.getModel().getEncoding();
+            case MODEL_SOURCES: return query.getModel().getSources();
+            case MODEL_SEARCH_PATH: return query.getModel().getSearchPath();
+            case MODEL_RESTRICT: return query.getModel().getRestrict();
+            case RANKING: return query.getRanking();
+            case RANKING_LOCATION: return query.getRanking().getLocation();
+            case RANKING_PROFILE: return query.getRanking().getProfile();
+            case RANKING_SORTING: return query.getRanking().getSorting();
+            case RANKING_FRESHNESS: return query.getRanking().getFreshness();
+            case RANKING_QUERYCACHE: return query.getRanking().getQueryCache();
+            case RANKING_LIST_FEATURES: return query.getRanking().getListFeatures();
+            case MATCH_PHASE_ATTRIBUTE: return query.getRanking().getMatchPhase().getAttribute();
+            case MATCH_PHASE_ASCENDING: return query.getRanking().getMatchPhase().getAscending();
+            case MATCH_PHASE_MAX_HITS: return query.getRanking().getMatchPhase().getMaxHits();
+            case MATCH_PHASE_MAX_FILTER_COVERAGE: return query.getRanking().getMatchPhase().getMaxFilterCoverage();
+            case DIVERSITY_ATTRIBUTE: return query.getRanking().getMatchPhase().getDiversity().getAttribute();
+            case DIVERSITY_MINGROUPS: return query.getRanking().getMatchPhase().getDiversity().getMinGroups();
+            case DIVERSITY_CUTOFF_FACTOR: return query.getRanking().getMatchPhase().getDiversity().getCutoffFactor();
+            case DIVERSITY_CUTOFF_STRATEGY: return query.getRanking().getMatchPhase().getDiversity().getCutoffStrategy();
+            case SOFTTIMEOUT_ENABLE: return query.getRanking().getSoftTimeout().getEnable();
+            case SOFTTIMEOUT_FACTOR: return query.getRanking().getSoftTimeout().getFactor();
+            case SOFTTIMEOUT_TAILCOST: return query.getRanking().getSoftTimeout().getTailcost();
+            case MATCHING_TERMWISELIMIT: return query.getRanking().getMatching().getTermwiseLimit();
+            case MATCHING_NUMTHREADSPERSEARCH: return query.getRanking().getMatching().getNumThreadsPerSearch();
+            case MATCHING_NUMSEARCHPARTITIONS: return query.getRanking().getMatching().getNumSearchPartitions();
+            case MATCHING_MINHITSPERTHREAD: return query.getRanking().getMatching().getMinHitsPerThread();
+            case SELECT_WHERE: return query.getSelect().getWhereString();
+            case SELECT_GROUPING: return query.getSelect().getGroupingString();
+            case PRESENTATION: return query.getPresentation();
+            case PRESENTATION_BOLDING: return query.getPresentation().getBolding();
+            case PRESENTATION_SUMMARY: return query.getPresentation().getSummary();
+            case PRESENTATION_FORMAT: return query.getPresentation().getFormat();
+            case PRESENTATION_TIMING: return query.getPresentation().getTiming();
+            case PRESENTATION_SUMMARY_FIELDS: return query.getPresentation().getSummaryFields();
+            case HITS: return query.getHits();
+            case OFFSET: return query.getOffset();
+            case TRACE_LEVEL: return query.getTraceLevel();
+            case EXPLAIN_LEVEL: return query.getExplainLevel();
+            case TIMEOUT: return query.getTimeout();
+            case NO_CACHE: return query.getNoCache();
+            case GROUPING_SESSION_CACHE: return query.getGroupingSessionCache();
+            default: throw new IllegalStateException("Unhandled property " + property);
+        }
+    }
+
     @SuppressWarnings("deprecation")
     @Override
     public void set(CompoundName key, Object value, Map<String,String> context) {
         // Note: The defaults here are never used
         try {
+            NativeProperty property = NativeProperty.byName.get(key);
+            if (property != null && set(property, value)) return;
+
             if (key.size()==2 && key.first().equals(Model.MODEL)) {
-                Model model = query.getModel();
-                if (key.last().equals(Model.QUERY_STRING))
-                    model.setQueryString(asString(value, ""));
-                else if (key.last().equals(Model.TYPE))
-                    model.setType(asString(value, "ANY"));
-                else if (key.last().equals(Model.FILTER))
-                    model.setFilter(asString(value, ""));
-                else if (key.last().equals(Model.DEFAULT_INDEX))
-                    model.setDefaultIndex(asString(value, ""));
-                else if (key.last().equals(Model.LANGUAGE))
-                    model.setLanguage(asString(value, ""));
-                else if (key.last().equals(Model.LOCALE))
-                    model.setLocale(asString(value, ""));
-                else if (key.last().equals(Model.ENCODING))
-                    model.setEncoding(asString(value,""));
-                else if (key.last().equals(Model.SEARCH_PATH))
-                    model.setSearchPath(asString(value,""));
-                else if (key.last().equals(Model.SOURCES))
-                    model.setSources(asString(value,""));
-                else if (key.last().equals(Model.RESTRICT))
-                    model.setRestrict(asString(value,""));
-                else
-                    throwIllegalParameter(key.last(),Model.MODEL);
+                throwIllegalParameter(key.last(),Model.MODEL);
             }
             else if (key.first().equals(Ranking.RANKING)) {
-                Ranking ranking = query.getRanking();
-                if (key.size()==2) {
-                    if (key.last().equals(Ranking.LOCATION))
-                        ranking.setLocation(asString(value,""));
-                    else if (key.last().equals(Ranking.PROFILE))
-                        ranking.setProfile(asString(value,""));
-                    else if (key.last().equals(Ranking.SORTING))
-                        ranking.setSorting(asString(value,""));
-                    else if (key.last().equals(Ranking.FRESHNESS))
-                        ranking.setFreshness(asString(value, ""));
-                    else if (key.last().equals(Ranking.QUERYCACHE))
-                        ranking.setQueryCache(asBoolean(value, false));
-                    else if (key.last().equals(Ranking.LIST_FEATURES))
-                        ranking.setListFeatures(asBoolean(value,false));
-                }
-                else if (key.size()>=3 && key.get(1).equals(Ranking.MATCH_PHASE)) {
-                    if (key.size() == 3) {
-                        MatchPhase matchPhase = ranking.getMatchPhase();
-                        if (key.last().equals(MatchPhase.ATTRIBUTE)) {
-                            matchPhase.setAttribute(asString(value, null));
-                        } else if (key.last().equals(MatchPhase.ASCENDING)) {
-                            matchPhase.setAscending(asBoolean(value, false));
-                        } else if (key.last().equals(MatchPhase.MAX_HITS)) {
-                            matchPhase.setMaxHits(asLong(value, null));
-                        } else if (key.last().equals(MatchPhase.MAX_FILTER_COVERAGE)) {
-                            matchPhase.setMaxFilterCoverage(asDouble(value, 0.2));
-                        }
-                    } else if (key.size() > 3 && key.get(2).equals(Ranking.DIVERSITY)) {
-                        Diversity diversity = ranking.getMatchPhase().getDiversity();
-                        if (key.last().equals(Diversity.ATTRIBUTE)) {
-                            diversity.setAttribute(asString(value, null));
-                        } else if (key.last().equals(Diversity.MINGROUPS)) {
-                            diversity.setMinGroups(asLong(value, null));
-                        } else if ((key.size() > 4) && key.get(3).equals(Diversity.CUTOFF)) {
-                            if (key.last().equals(Diversity.FACTOR)) {
-                                diversity.setCutoffFactor(asDouble(value, 10.0));
-                            } else if (key.last().equals(Diversity.STRATEGY)) {
-                                diversity.setCutoffStrategy(asString(value, "loose"));
-                            }
-                        }
-                    }
-                }
-                else if (key.size() == 3 && key.get(1).equals(Ranking.SOFTTIMEOUT)) {
-                    SoftTimeout soft = ranking.getSoftTimeout();
-                    if (key.last().equals(SoftTimeout.ENABLE)) soft.setEnable(asBoolean(value, true));
-                    if (key.last().equals(SoftTimeout.FACTOR)) soft.setFactor(asDouble(value, null));
-                    if (key.last().equals(SoftTimeout.TAILCOST)) soft.setTailcost(asDouble(value, null));
-                }
-                else if (key.size() == 3 && key.get(1).equals(Ranking.MATCHING)) {
-                    Matching matching = ranking.getMatching();
-                    if (key.last().equals(Matching.TERMWISELIMIT)) matching.setTermwiselimit(asDouble(value, 1.0));
-                    if (key.last().equals(Matching.NUMTHREADSPERSEARCH)) matching.setNumThreadsPerSearch(asInteger(value, 1));
-                    if (key.last().equals(Matching.NUMSEARCHPARTITIIONS)) matching.setNumSearchPartitions(asInteger(value, 1));
-                    if (key.last().equals(Matching.MINHITSPERTHREAD)) matching.setMinHitsPerThread(asInteger(value, 0));
-                }
-                else if (key.size()>2) {
+                // other names of ranking and its match phase, soft timeout and matching settings are ignored
+                if (key.size() > 2 && ! key.get(1).equals(Ranking.MATCH_PHASE) &&
+                    ! (key.size() == 3 && (key.get(1).equals(Ranking.SOFTTIMEOUT) || key.get(1).equals(Ranking.MATCHING)))) {
                     String restKey = key.rest().rest().toString();
                     if (key.get(1).equals(Ranking.FEATURES))
                         setRankingFeature(query, restKey, toSpecifiedType(restKey, value, profileRegistry.getTypeRegistry().getComponent("features")));
                     else if (key.get(1).equals(Ranking.PROPERTIES))
-                        ranking.getProperties().put(restKey, toSpecifiedType(restKey, value, profileRegistry.getTypeRegistry().getComponent("properties")));
+                        query.getRanking().getProperties().put(restKey, toSpecifiedType(restKey, value, profileRegistry.getTypeRegistry().getComponent("properties")));
                     else
                         throwIllegalParameter(key.rest().toString(),Ranking.RANKING);
                 }
             }
             else if (key.size()==2 && key.first().equals(Presentation.PRESENTATION)) {
-                if (key.last().equals(Presentation.BOLDING))
-                    query.getPresentation().setBolding(asBoolean(value, true));
-                else if (key.last().equals(Presentation.SUMMARY))
-                    query.getPresentation().setSummary(asString(value, ""));
-                else if (key.last().equals(Presentation.FORMAT))
-                    query.getPresentation().setFormat(asString(value,""));
-                else if (key.last().equals(Presentation.TIMING))
-                    query.getPresentation().setTiming(asBoolean(value, true));
-                else if (key.last().equals(Presentation.SUMMARY_FIELDS))
-                    query.getPresentation().setSummaryFields(asString(value,""));
-                else
-                    throwIllegalParameter(key.last(), Presentation.PRESENTATION);
+                throwIllegalParameter(key.last(), Presentation.PRESENTATION);
             }
             else if (key.size()==2 && key.first().equals(Select.SELECT)) {
-                if (key.last().equals(Select.WHERE)){
-                    query.getSelect().setWhereString(asString(value, ""));
-                } else if (key.last().equals(Select.GROUPING)) {
-                    query.getSelect().setGroupingString(asString(value, ""));
-                }
+                // other names of select are ignored
             }
             else if (key.first().equals("rankfeature") || key.first().equals("featureoverride") ) { // featureoverride is deprecated
                 setRankingFeature(query, key.rest().toString(), toSpecifiedType(key.rest().toString(), value, profileRegistry.getTypeRegistry().getComponent("features")));
             } else if (key.first().equals("rankproperty")) {
                 query.getRanking().getProperties().put(key.rest().toString(), toSpecifiedType(key.rest().toString(), value, profileRegistry.getTypeRegistry().getComponent("properties")));
-            } else if (key.size()==1) {
-                if (key.equals(Query.HITS))
-                    query.setHits(asInteger(value,10));
-                else if (key.equals(Query.OFFSET))
-                    query.setOffset(asInteger(value,0));
-                else if (key.equals(Query.TRACE_LEVEL))
-                    query.setTraceLevel(asInteger(value,0));
-                else if (key.equals(Query.EXPLAIN_LEVEL))
-                    query.setExplainLevel(asInteger(value,0));
-                else if (key.equals(Query.TIMEOUT))
-                    query.setTimeout(value.toString());
-                else if (key.equals(Query.NO_CACHE))
-                    query.setNoCache(asBoolean(value,false));
-                else if (key.equals(Query.GROUPING_SESSION_CACHE))
-                    query.setGroupingSessionCache(asBoolean(value, false));
-                else
-                    super.set(key,value,context);
             } else
                 super.set(key,value,context);
         }
@@ -288,6 +163,58 @@ public class QueryProperties extends Properties {
         }
     }
 
+    /** Sets the given property in the query and returns true, or returns false if it cannot be set directly */
+    private boolean set(NativeProperty property, Object value) {
+        switch (property) {
+            case MODEL_QUERY_STRING: query.getModel().setQueryString(asString(value, "")); return true;
+            case MODEL_TYPE: query.getModel().setType(asString(value, "ANY")); return true;
+            case MODEL_FILTER: query.getModel().setFilter(asString(value, "")); return true;
+            case MODEL_DEFAULT_INDEX: query.getModel().setDefaultIndex(asString(value, "")); return true;
+            case MODEL_LANGUAGE: query.getModel().setLanguage(asString(value, "")); return true;
+            case MODEL_LOCALE: query.getModel().setLocale(asString(value, "")); return true;
+            case MODEL_ENCODING: query.getModel().setEncoding(asString(value,"")); return true;
+            case MODEL_SOURCES: query.getModel().setSources(asString(value,"")); return true;
+            case MODEL_SEARCH_PATH: query.getModel().setSearchPath(asString(value,"")); return true;
+            case MODEL_RESTRICT: query.getModel().setRestrict(asString(value,"")); return true;
+            case RANKING_LOCATION: query.getRanking().setLocation(asString(value,"")); return true;
+            case RANKING_PROFILE: query.getRanking().setProfile(asString(value,"")); return true;
+            case RANKING_SORTING: query.getRanking().setSorting(asString(value,"")); return true;
+            case RANKING_FRESHNESS: query.getRanking().setFreshness(asString(value, "")); return true;
+            case RANKING_QUERYCACHE: query.getRanking().setQueryCache(asBoolean(value, false)); return true;
+            case RANKING_LIST_FEATURES: query.getRanking().setListFeatures(asBoolean(value,false)); return true;
+            case MATCH_PHASE_ATTRIBUTE: query.getRanking().getMatchPhase().setAttribute(asString(value, null)); return true;
+            case MATCH_PHASE_ASCENDING: query.getRanking().getMatchPhase().setAscending(asBoolean(value, false)); return true;
+            case MATCH_PHASE_MAX_HITS: query.getRanking().getMatchPhase().setMaxHits(asLong(value, null)); return true;
+            case MATCH_PHASE_MAX_FILTER_COVERAGE: query.getRanking().getMatchPhase().setMaxFilterCoverage(asDouble(value, 0.2)); return true;
+            case DIVERSITY_ATTRIBUTE: query.getRanking().getMatchPhase().getDiversity().setAttribute(asString(value, null)); return true;
+            case DIVERSITY_MINGROUPS: query.getRanking().getMatchPhase().getDiversity().setMinGroups(asLong(value, null)); return true;
+            case DIVERSITY_CUTOFF_FACTOR: query.getRanking().getMatchPhase().getDiversity().setCutoffFactor(asDouble(value, 10.0)); return true;
+            case DIVERSITY_CUTOFF_STRATEGY: query.getRanking().getMatchPhase().getDiversity().setCutoffStrategy(asString(value, "loose")); return true;
+            case SOFTTIMEOUT_ENABLE: query.getRanking().getSoftTimeout().setEnable(asBoolean(value, true)); return true;
+            case SOFTTIMEOUT_FACTOR: query.getRanking().getSoftTimeout().setFactor(asDouble(value, null)); return true;
+            case SOFTTIMEOUT_TAILCOST: query.getRanking().getSoftTimeout().setTailcost(asDouble(value, null)); return true;
+            case MATCHING_TERMWISELIMIT: query.getRanking().getMatching().setTermwiselimit(asDouble(value, 1.0)); return true;
+            case MATCHING_NUMTHREADSPERSEARCH: query.getRanking().getMatching().setNumThreadsPerSearch(asInteger(value, 1)); return true;
+            case MATCHING_NUMSEARCHPARTITIONS: query.getRanking().getMatching().setNumSearchPartitions(asInteger(value, 1)); return true;
+            case MATCHING_MINHITSPERTHREAD: query.getRanking().getMatching().setMinHitsPerThread(asInteger(value, 0)); return true;
+            case SELECT_WHERE: query.getSelect().setWhereString(asString(value, "")); return true;
+            case SELECT_GROUPING: query.getSelect().setGroupingString(asString(value, "")); return true;
+            case PRESENTATION_BOLDING: query.getPresentation().setBolding(asBoolean(value, true)); return true;
+            case PRESENTATION_SUMMARY: query.getPresentation().setSummary(asString(value, "")); return true;
+            case PRESENTATION_FORMAT: query.getPresentation().setFormat(asString(value,"")); return true;
+            case PRESENTATION_TIMING: query.getPresentation().setTiming(asBoolean(value, true)); return true;
+            case PRESENTATION_SUMMARY_FIELDS: query.getPresentation().setSummaryFields(asString(value,"")); return true;
+            case HITS: query.setHits(asInteger(value,10)); return true;
+            case OFFSET: query.setOffset(asInteger(value,0)); return true;
+            case TRACE_LEVEL: query.setTraceLevel(asInteger(value,0)); return true;
+            case EXPLAIN_LEVEL: query.setExplainLevel(asInteger(value,0)); return true;
+            case TIMEOUT: query.setTimeout(value.toString()); return true;
+            case NO_CACHE: query.setNoCache(asBoolean(value,false)); return true;
+            case GROUPING_SESSION_CACHE: query.setGroupingSessionCache(asBoolean(value, false)); return true;
+            default: return false; // model, ranking and presentation are set as regular properties
+        }
+    }
+
     @Override
     public Map<String, Object> listProperties(CompoundName prefix,
                                               Map<String,String> context,
@@ -328,4 +255,73 @@ public class QueryProperties extends Properties {
         return query;
     }
 
+    /**
+     * The properties which map directly to the query model. Each is given an integer id (its ordinal),
+     * so accessing them is a hash lookup of the name followed by a switch.
+     */
+    private enum NativeProperty {
+
+        MODEL(Model.MODEL),
+        MODEL_QUERY_STRING(Model.MODEL, Model.QUERY_STRING),
+        MODEL_TYPE(Model.MODEL, Model.TYPE),
+        MODEL_FILTER(Model.MODEL, Model.FILTER),
+        MODEL_DEFAULT_INDEX(Model.MODEL, Model.DEFAULT_INDEX),
+        MODEL_LANGUAGE(Model.MODEL, Model.LANGUAGE),
+        MODEL_LOCALE(Model.MODEL, Model.LOCALE),
+        MODEL_ENCODING(Model.MODEL, Model.ENCODING),
+        MODEL_SOURCES(Model.MODEL, Model.SOURCES),
+        MODEL_SEARCH_PATH(Model.MODEL, Model.SEARCH_PATH),
+        MODEL_RESTRICT(Model.MODEL, Model.RESTRICT),
+        RANKING(Ranking.RANKING),
+        RANKING_LOCATION(Ranking.RANKING, Ranking.LOCATION),
+        RANKING_PROFILE(Ranking.RANKING, Ranking.PROFILE),
+        RANKING_SORTING(Ranking.RANKING, Ranking.SORTING),
+        RANKING_FRESHNESS(Ranking.RANKING, Ranking.FRESHNESS),
+        RANKING_QUERYCACHE(Ranking.RANKING, Ranking.QUERYCACHE),
+        RANKING_LIST_FEATURES(Ranking.RANKING, Ranking.LIST_FEATURES),
+        MATCH_PHASE_ATTRIBUTE(Ranking.RANKING, Ranking.MATCH_PHASE, MatchPhase.ATTRIBUTE),
+        MATCH_PHASE_ASCENDING(Ranking.RANKING, Ranking.MATCH_PHASE, MatchPhase.ASCENDING),
+        MATCH_PHASE_MAX_HITS(Ranking.RANKING, Ranking.MATCH_PHASE, MatchPhase.MAX_HITS),
+        MATCH_PHASE_MAX_FILTER_COVERAGE(Ranking.RANKING, Ranking.MATCH_PHASE, MatchPhase.MAX_FILTER_COVERAGE),
+        DIVERSITY_ATTRIBUTE(Ranking.RANKING, Ranking.MATCH_PHASE, Ranking.DIVERSITY, Diversity.ATTRIBUTE),
+        DIVERSITY_MINGROUPS(Ranking.RANKING, Ranking.MATCH_PHASE, Ranking.DIVERSITY, Diversity.MINGROUPS),
+        DIVERSITY_CUTOFF_FACTOR(Ranking.RANKING, Ranking.MATCH_PHASE, Ranking.DIVERSITY, Diversity.CUTOFF, Diversity.FACTOR),
+        DIVERSITY_CUTOFF_STRATEGY(Ranking.RANKING, Ranking.MATCH_PHASE, Ranking.DIVERSITY, Diversity.CUTOFF, Diversity.STRATEGY),
+        SOFTTIMEOUT_ENABLE(Ranking.RANKING, Ranking.SOFTTIMEOUT, SoftTimeout.ENABLE),
+        SOFTTIMEOUT_FACTOR(Ranking.RANKING, Ranking.SOFTTIMEOUT, SoftTimeout.FACTOR),
+        SOFTTIMEOUT_TAILCOST(Ranking.RANKING, Ranking.SOFTTIMEOUT, SoftTimeout.TAILCOST),
+        MATCHING_TERMWISELIMIT(Ranking.RANKING, Ranking.MATCHING, Matching.TERMWISELIMIT),
+        MATCHING_NUMTHREADSPERSEARCH(Ranking.RANKING, Ranking.MATCHING, Matching.NUMTHREADSPERSEARCH),
+        MATCHING_NUMSEARCHPARTITIONS(Ranking.RANKING, Ranking.MATCHING, Matching.NUMSEARCHPARTITIIONS),
+        MATCHING_MINHITSPERTHREAD(Ranking.RANKING, Ranking.MATCHING, Matching.MINHITSPERTHREAD),
+        SELECT_WHERE(Select.SELECT, Select.WHERE),
+        SELECT_GROUPING(Select.SELECT, Select.GROUPING),
+        PRESENTATION(Presentation.PRESENTATION),
+        PRESENTATION_BOLDING(Presentation.PRESENTATION, Presentation.BOLDING),
+        PRESENTATION_SUMMARY(Presentation.PRESENTATION, Presentation.SUMMARY),
+        PRESENTATION_FORMAT(Presentation.PRESENTATION, Presentation.FORMAT),
+        PRESENTATION_TIMING(Presentation.PRESENTATION, Presentation.TIMING),
+        PRESENTATION_SUMMARY_FIELDS(Presentation.PRESENTATION, Presentation.SUMMARY_FIELDS),
+        HITS(Query.HITS.toString()),
+        OFFSET(Query.OFFSET.toString()),
+        TRACE_LEVEL(Query.TRACE_LEVEL.toString()),
+        EXPLAIN_LEVEL(Query.EXPLAIN_LEVEL.toString()),
+        TIMEOUT(Query.TIMEOUT.toString()),
+        NO_CACHE(Query.NO_CACHE.toString()),
+        GROUPING_SESSION_CACHE(Query.GROUPING_SESSION_CACHE.toString());
+
+        private static final Map<CompoundName, NativeProperty> byName = new HashMap<>();
+        static {
+            for (NativeProperty property : values())
+                byName.put(property.compoundName, property);
+        }
+
+        private final CompoundName compoundName;
+
+        NativeProperty(String ... components) {
+            this.compoundName = CompoundName.fromComponents(components);
+        }
+
+    }
+
 }
@@ -593,6 +593,14 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
         endJsonCallback();
     }
 
+    @Override
+    protected void flush() throws IOException {
+        if (generator != null && ! generator.isClosed())
+            generator.flush(); // also flushes the stream
+        else
+            super.flush();
+    }
+
     @Override
     public String getEncoding() {
         return "utf-8";
@@ -121,6 +121,25 @@ public class AsyncExecution {
         return getFutureResult(() -> execution.search(query), query);
     }
 
+    /**
+     * Does an async search through {@link Execution#searchAsync}: The thread executing the chain is
+     * released as soon as the searchers return their future results, rather than being kept waiting
+     * for searchers which do not block. The same restrictions on reusing the query as for
+     * {@link #search} applies.
+     */
+    public FutureResult searchAsync(Query query) {
+        FutureResult future = new FutureResult(execution, query);
+        getExecutor().execute(() -> {
+            try {
+                execution.searchAsync(query).whenComplete(future::complete);
+            }
+            catch (Throwable e) {
+                future.complete(null, e);
+            }
+        });
+        return future;
+    }
+
     public FutureResult searchAndFill(Query query) {
         return getFutureResult(() -> {
             Result result = execution.search(query);
@@ -129,7 +148,8 @@ public class AsyncExecution {
         }, query);
     }
 
-    private static Executor getExecutor() {
+    /** Returns the executor running asynchronous executions, which may also be used to continue them */
+    public static Executor getExecutor() {
         return executorMain;
     }
 
@@ -19,6 +19,7 @@ import com.yahoo.search.cluster.PingableSearcher;
 import com.yahoo.search.rendering.RendererRegistry;
 import com.yahoo.search.statistics.TimeTracker;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 /**
@@ -510,6 +511,42 @@ public class Execution extends com.yahoo.processing.execution.Execution {
         return (Result)super.process(query);
     }
 
+    /**
+     * Calls searchAsync on the next searcher in this chain. If there is no next, a completed future
+     * of an empty result is returned.
+     * <p>
+     * This execution is positioned at the next searcher until the returned future completes,
+     * so it must not be used for other calls until then.
+     */
+    public CompletableFuture<Result> searchAsync(Query query) {
+        timer.sampleSearch(nextIndex(), context.getDetailedDiagnostics());
+
+        query.getModel().setExecution(this);
+        trace().setTraceLevel(query.getTraceLevel());
+
+        Searcher next = (Searcher)next(); // TODO: Allow but skip processors which are not searchers
+        if (next == null)
+            return CompletableFuture.completedFuture((Result)defaultResponse(query));
+
+        CompletableFuture<Result> result;
+        try {
+            nextProcessor();
+            onInvoking(query, next);
+            result = next.searchAsync(query, this);
+            if (result == null)
+                throw new NullPointerException(next + " returned null, not a future Result");
+        }
+        catch (RuntimeException | Error e) {
+            previousProcessor();
+            onReturning(query, next, null);
+            throw e;
+        }
+        return result.whenComplete((completed, exception) -> {
+            previousProcessor();
+            onReturning(query, next, completed);
+        });
+    }
+
     @Override
     protected void onInvoking(Request request, Processor processor) {
         super.onInvoking(request,processor);
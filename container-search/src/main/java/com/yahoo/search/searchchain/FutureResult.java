@@ -8,6 +8,9 @@ import com.yahoo.yolean.Exceptions;
 
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
@@ -27,6 +30,9 @@ public class FutureResult extends FutureTask<Result> {
     /** Only used for generating messages */
     private final Execution execution;
 
+    /** Completed when this is done */
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
     private final static Logger log = Logger.getLogger(FutureResult.class.getName());
 
     public FutureResult(Callable<Result> callable, Execution execution, Query query) {
@@ -35,6 +41,34 @@ public class FutureResult extends FutureTask<Result> {
         this.execution = execution;
     }
 
+    /** Creates a future result which is completed by calling {@link #complete} rather than by being run */
+    FutureResult(Execution execution, Query query) {
+        this(() -> { throw new IllegalStateException("This is completed by a future, not run"); }, execution, query);
+    }
+
+    /** Completes this with the outcome of a future result, if it is not already done */
+    void complete(Result result, Throwable exception) {
+        if (exception == null)
+            set(result);
+        else if (exception instanceof CompletionException && exception.getCause() != null)
+            setException(exception.getCause());
+        else
+            setException(exception);
+    }
+
+    @Override
+    protected void done() {
+        completion.complete(null);
+    }
+
+    /**
+     * Returns a stage which completes when this is done, whether normally, exceptionally or by being cancelled.
+     * This allows waiting for the result without blocking a thread.
+     */
+    public CompletionStage<Void> whenDone() {
+        return completion.minimalCompletionStage();
+    }
+
     /** 
      * Returns a Result containing the hits returned from this source, or an error otherwise.
      * This will block for however long it takes to get the result: Using this is a bad idea.
@@ -1,6 +1,8 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.prelude.querytransform.test;
 
+import com.yahoo.fsa.FSA;
+import com.yahoo.fsa.FSABuilder;
 import com.yahoo.prelude.query.AndItem;
 import com.yahoo.prelude.query.IntItem;
 import com.yahoo.prelude.query.WordItem;
@@ -8,6 +10,7 @@ import com.yahoo.prelude.querytransform.PhraseMatcher;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -260,4 +263,53 @@ public class PhraseMatcherTestCase {
         assertFalse(i.hasNext());
     }
 
+    @Test
+    public void testOverlappingPhrases() {
+        FSA fsa=new FSABuilder().add("a b","ab").add("b c d","bcd").add("c","c").add("c d e","cde").add("d","d").build();
+        AndItem and=new AndItem();
+        for (String word : new String[] { "a", "b", "c", "d", "e" })
+            and.addItem(new WordItem(word));
+
+        PhraseMatcher matcher=new PhraseMatcher(fsa,false);
+        assertEquals(List.of("ab", "cde"), data(matcher.matchPhrases(and)));
+
+        matcher.setMatchAll(true);
+        assertEquals(List.of("ab", "bcd", "c", "cde", "d"), data(matcher.matchPhrases(and)));
+    }
+
+    @Test
+    public void testPluralFormIsOnlyUsedWhenTheWordDoesNotContinueThePhrase() {
+        FSA fsa=new FSABuilder().add("cat","cat").add("cats","cats").add("cats eat","cats eat").add("dog eats","dog eats").build();
+        PhraseMatcher matcher=new PhraseMatcher(fsa,true);
+        matcher.setMatchAll(true);
+
+        AndItem and=new AndItem();
+        for (String word : new String[] { "cats", "eat", "dog", "eat" })
+            and.addItem(new WordItem(word));
+        List<PhraseMatcher.Phrase> matches=matcher.matchPhrases(and);
+        assertEquals(List.of("cats", "cats eat", "dog eats"), data(matches));
+        PhraseMatcher.Phrase.MatchIterator i=matches.get(2).itemIterator();
+        assertEquals(new WordItem("dog"),i.next());
+        assertNull(i.getReplace());
+        assertEquals(new WordItem("eat"),i.next());
+        assertEquals("eats",i.getReplace());
+    }
+
+    @Test
+    public void testPhrasesWithEmptyWordsAreNotMatchedInComposites() {
+        FSA fsa=new FSABuilder().add(" a","space a").add("a  b","a space space b").add("a b","ab").add("a b ","ab space")
+                                .add("blåbær syltetøy","blåbær syltetøy").build();
+        PhraseMatcher matcher=new PhraseMatcher(fsa,false);
+        matcher.setMatchAll(true);
+
+        AndItem and=new AndItem();
+        for (String word : new String[] { "a", "b", "blåbær", "syltetøy" })
+            and.addItem(new WordItem(word));
+        assertEquals(List.of("ab", "blåbær syltetøy"), data(matcher.matchPhrases(and)));
+    }
+
+    private List<String> data(List<PhraseMatcher.Phrase> phrases) {
+        return phrases.stream().map(PhraseMatcher.Phrase::getData).collect(Collectors.toList());
+    }
+
 }
@@ -49,6 +49,25 @@ public class RpcSearchInvokerTest {
         assertThat(request.getQueryTreeBlob().size(), greaterThan(0));
     }
 
+    @Test
+    public void testZstdCompressionOfSearchRequest() throws IOException {
+        var compressionTypeHolder = new AtomicReference<CompressionType>();
+        var payloadHolder = new AtomicReference<byte[]>();
+        var lengthHolder = new AtomicInteger();
+        var mockClient = parameterCollectorClient(compressionTypeHolder, payloadHolder, lengthHolder);
+        var mockPool = new RpcResourcePool(ImmutableMap.of(7, mockClient.createConnection("foo", 123)));
+        @SuppressWarnings("resource")
+        var invoker = new RpcSearchInvoker(mockSearcher(), new Node(7, "seven", 77, 1), mockPool);
+
+        Query q = new Query("search/?query=" + "test+".repeat(100) + "&hits=10&dispatch.compression=zstd");
+        invoker.sendSearchRequest(q);
+
+        assertThat(compressionTypeHolder.get(), equalTo(CompressionType.ZSTD));
+        var bytes = mockPool.compressor().decompress(payloadHolder.get(), compressionTypeHolder.get(), lengthHolder.get());
+        var request = SearchProtocol.SearchRequest.newBuilder().mergeFrom(bytes).build();
+        assertThat(request.getHits(), equalTo(10));
+    }
+
     private Client parameterCollectorClient(AtomicReference<CompressionType> compressionTypeHolder, AtomicReference<byte[]> payloadHolder,
             AtomicInteger lengthHolder) {
         return new Client() {
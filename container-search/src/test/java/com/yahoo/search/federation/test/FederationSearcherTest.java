@@ -32,6 +32,8 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -141,6 +143,39 @@ public class FederationSearcherTest {
         assertNotNull(result.hits().getError());
     }
 
+    @Test
+    public void require_that_async_federation_does_not_wait_for_targets_in_any_thread() throws Exception {
+        AsyncAddHitSearcher asyncSearcher = new AsyncAddHitSearcher();
+
+        FederationTester tester = new FederationTester();
+        tester.addSearchChain("chain1", new AddHitSearcher());
+        tester.addSearchChain("chain2", asyncSearcher);
+
+        CompletableFuture<Result> futureResult = tester.searchAsync(new Query());
+        CompletableFuture<Result> targetResult = asyncSearcher.invoked.get(60, TimeUnit.SECONDS);
+        assertFalse(futureResult.isDone());
+
+        targetResult.complete(new Result(new Query()));
+        Result result = futureResult.get(60, TimeUnit.SECONDS);
+        assertEquals(2, result.hits().getConcreteSize());
+        assertNull(result.hits().getError());
+    }
+
+    @Test
+    public void require_that_async_federation_completes_at_timeout_of_optional_targets() throws Exception {
+        FederationTester tester = new FederationTester();
+        tester.addSearchChain("chain1", new AddHitSearcher());
+        tester.addOptionalSearchChain("chain2", new AsyncAddHitSearcher());
+
+        CompletableFuture<Result> futureResult = tester.searchAsync(new Query());
+        CompletableFuture<String> completingThread = futureResult.thenApply(completed -> Thread.currentThread().getName());
+        Result result = futureResult.get(60, TimeUnit.SECONDS);
+        assertThat(getNonErrorHits(result).size(), is(1));
+        assertNotNull(result.hits().getError());
+        assertFalse("Not merged in the timer thread of CompletableFuture",
+                    completingThread.get(60, TimeUnit.SECONDS).startsWith("CompletableFutureDelayScheduler"));
+    }
+
     @Test
     public void custom_federation_target() {
         ComponentId targetSelectorId = ComponentId.fromString("TargetSelector");
@@ -252,6 +287,28 @@ public class FederationSearcherTest {
 
     }
 
+    /** Adds a hit to the result it is given to complete, without blocking any thread until then */
+    private static class AsyncAddHitSearcher extends AddHitSearcher {
+
+        final CompletableFuture<CompletableFuture<Result>> invoked = new CompletableFuture<>();
+
+        @Override
+        public Result search(Query query, Execution execution) {
+            throw new IllegalStateException("Only searchAsync should be called");
+        }
+
+        @Override
+        public CompletableFuture<Result> searchAsync(Query query, Execution execution) {
+            CompletableFuture<Result> result = new CompletableFuture<>();
+            invoked.complete(result);
+            return result.thenApply(completed -> {
+                completed.hits().add(hit);
+                return completed;
+            });
+        }
+
+    }
+
     private static class TimeoutInFillSearcher extends Searcher {
 
         private Hit createHit(String id) {
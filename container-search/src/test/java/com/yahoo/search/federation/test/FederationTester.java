@@ -13,6 +13,7 @@ import com.yahoo.search.searchchain.SearchChainRegistry;
 import com.yahoo.search.searchchain.model.federation.FederationOptions;
 
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Tony Vaagenes
@@ -61,6 +62,11 @@ class FederationTester {
         return execution.search(query);
     }
 
+    public CompletableFuture<Result> searchAsync(Query query) {
+        execution = createExecution();
+        return execution.searchAsync(query);
+    }
+
     public Result searchAndFill() {
         Result result = search();
         fill(result);
@@ -0,0 +1,251 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.handler;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.yahoo.component.chain.Chain;
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.Searcher;
+import com.yahoo.search.rendering.JsonRenderer;
+import com.yahoo.search.result.ErrorMessage;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.searchchain.Execution;
+import com.yahoo.text.Utf8;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class StreamingFillTestCase {
+
+    @Test
+    public void testHitsAreRenderedAsTheyAreFilled() throws Exception {
+        FillingSearcher searcher = new FillingSearcher(25);
+        Execution execution = new Execution(new Chain<>(searcher), Execution.Context.createContextStub());
+        Query query = new Query("/?hits=25");
+        Result result = execution.search(query);
+        List<Runnable> tasks = new ArrayList<>();
+        StreamingFill.fill(result, execution, "default", tasks::add);
+
+        assertEquals(1, tasks.size());
+        assertEquals(List.of(10), searcher.filledBatchSizes);
+        assertFalse(result.hits().incoming().isComplete());
+        assertEquals(10, result.getConcreteHitCount());
+
+        JsonRenderer renderer = new JsonRenderer(MoreExecutors.directExecutor());
+        renderer.init();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ListenableFuture<Boolean> rendered = renderer.render(out, result, execution, query);
+        assertFalse(rendered.isDone());
+
+        tasks.get(0).run();
+        assertTrue(rendered.get());
+        assertEquals(List.of(10, 15), searcher.filledBatchSizes);
+        assertEquals(25, result.getConcreteHitCount());
+        for (int i = 0; i < 25; i++) {
+            Hit hit = result.hits().get(i);
+            assertEquals("hit:" + i, hit.getId().toString());
+            assertTrue(hit.isFilled("default"));
+        }
+        String json = Utf8.toString(out.toByteArray());
+        assertTrue(json.indexOf("\"filled hit:9\"") < json.indexOf("\"filled hit:10\""));
+        assertTrue(json.contains("\"filled hit:24\""));
+        assertTrue(json.contains("\"totalCount\":25"));
+    }
+
+    @Test
+    public void testBatchesAreFilledConcurrentlyAndAddedInOrder() throws Exception {
+        FillingSearcher searcher = new FillingSearcher(75);
+        Execution execution = new Execution(new Chain<>(searcher), Execution.Context.createContextStub());
+        Query query = new Query("/?hits=75");
+        Result result = execution.search(query);
+        List<Runnable> tasks = new ArrayList<>();
+        StreamingFill.fill(result, execution, "default", tasks::add);
+
+        assertEquals(3, tasks.size()); // Batches of 20, 40 and 5 hits
+        JsonRenderer renderer = new JsonRenderer(MoreExecutors.directExecutor());
+        renderer.init();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ListenableFuture<Boolean> rendered = renderer.render(out, result, execution, query);
+
+        tasks.get(2).run();
+        tasks.get(1).run();
+        assertEquals(List.of(10, 5, 40), searcher.filledBatchSizes);
+        assertFalse(rendered.isDone());
+        assertFalse(Utf8.toString(out.toByteArray()).contains("\"filled hit:30\""));
+
+        tasks.get(0).run();
+        assertTrue(rendered.get());
+        assertEquals(75, result.getConcreteHitCount());
+        for (int i = 0; i < 75; i++)
+            assertEquals("hit:" + i, result.hits().get(i).getId().toString());
+        String json = Utf8.toString(out.toByteArray());
+        assertTrue(json.indexOf("\"filled hit:29\"") < json.indexOf("\"filled hit:30\""));
+        assertTrue(json.indexOf("\"filled hit:69\"") < json.indexOf("\"filled hit:70\""));
+    }
+
+    @Test
+    public void testBatchesAreFilledInParallelByTheirOwnExecutions() throws Exception {
+        ParallelFillingSearcher searcher = new ParallelFillingSearcher(75, 3); // Batches of 20, 40 and 5 hits after the first
+        Execution execution = new Execution(new Chain<>(searcher), Execution.Context.createContextStub());
+        Query query = new Query("/?hits=75");
+        Result result = execution.search(query);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            StreamingFill.fill(result, execution, "default", executor);
+            JsonRenderer renderer = new JsonRenderer(MoreExecutors.directExecutor());
+            renderer.init();
+            ListenableFuture<Boolean> rendered = renderer.render(new ByteArrayOutputStream(), result, execution, query);
+
+            assertTrue(rendered.get(60, TimeUnit.SECONDS));
+            assertNull(result.hits().getErrorHit()); // Filling fails unless the last three batches are filled at once
+            assertEquals(75, result.getConcreteHitCount());
+            for (int i = 0; i < 75; i++)
+                assertTrue(result.hits().get(i).isFilled("default"));
+            assertEquals(4, searcher.executions.size());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFillingStopsWhenRenderingFails() {
+        FillingSearcher searcher = new FillingSearcher(75);
+        Execution execution = new Execution(new Chain<>(searcher), Execution.Context.createContextStub());
+        Result result = execution.search(new Query("/?hits=75"));
+        List<Runnable> tasks = new ArrayList<>();
+        StreamingFill.fill(result, execution, "default", tasks::add);
+
+        SettableFuture<Boolean> rendering = SettableFuture.create();
+        StreamingFill.stopWhenDone(result, rendering);
+        tasks.get(0).run();
+        rendering.setException(new IOException("Client closed the connection"));
+        tasks.get(1).run();
+        tasks.get(2).run();
+
+        assertEquals(List.of(10, 20), searcher.filledBatchSizes);
+        assertTrue(result.hits().incoming().isComplete());
+    }
+
+    @Test
+    public void testBatchesAreNotFilledAfterTimeout() throws Exception {
+        FillingSearcher searcher = new FillingSearcher(25);
+        Execution execution = new Execution(new Chain<>(searcher), Execution.Context.createContextStub());
+        Query query = new Query("/?hits=25");
+        Result result = execution.search(query);
+        List<Runnable> tasks = new ArrayList<>();
+        StreamingFill.fill(result, execution, "default", tasks::add);
+
+        query.setTimeout(1);
+        Thread.sleep(2);
+        JsonRenderer renderer = new JsonRenderer(MoreExecutors.directExecutor());
+        renderer.init();
+        ListenableFuture<Boolean> rendered = renderer.render(new ByteArrayOutputStream(), result, execution, query);
+        tasks.get(0).run();
+
+        assertTrue(rendered.get());
+        assertEquals(List.of(10), searcher.filledBatchSizes);
+        assertEquals(10, result.getConcreteHitCount());
+        assertTrue(result.hits().getErrorHit().hasOnlyErrorCode(ErrorMessage.timeoutCode));
+    }
+
+    @Test
+    public void testResultsFittingInOneBatchAreFilledDirectly() {
+        FillingSearcher searcher = new FillingSearcher(StreamingFill.firstBatchSize);
+        Execution execution = new Execution(new Chain<>(searcher), Execution.Context.createContextStub());
+        Result result = execution.search(new Query("/?hits=25"));
+        List<Runnable> tasks = new ArrayList<>();
+        StreamingFill.fill(result, execution, "default", tasks::add);
+
+        assertTrue(tasks.isEmpty());
+        assertEquals(List.of(StreamingFill.firstBatchSize), searcher.filledBatchSizes);
+        assertTrue(result.hits().incoming().isComplete());
+        assertTrue(result.isFilled("default"));
+    }
+
+    private static class FillingSearcher extends Searcher {
+
+        private final int hitCount;
+
+        final List<Integer> filledBatchSizes = new ArrayList<>();
+
+        FillingSearcher(int hitCount) {
+            this.hitCount = hitCount;
+        }
+
+        @Override
+        public Result search(Query query, Execution execution) {
+            Result result = new Result(query);
+            for (int i = 0; i < hitCount; i++) {
+                Hit hit = new Hit("hit:" + i, 1.0 - i / 100.0);
+                hit.setFillable();
+                result.hits().add(hit);
+            }
+            result.setTotalHitCount(hitCount);
+            return result;
+        }
+
+        @Override
+        public void fill(Result result, String summaryClass, Execution execution) {
+            filledBatchSizes.add(result.getConcreteHitCount());
+            for (Hit hit : result.hits()) {
+                hit.setField("title", "filled " + hit.getId());
+                hit.setFilled(summaryClass);
+            }
+        }
+
+    }
+
+    /** Fills the hits after the first batch only when the given number of batches are being filled at the same time */
+    private static class ParallelFillingSearcher extends FillingSearcher {
+
+        private final CyclicBarrier barrier;
+
+        final Set<Execution> executions = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        ParallelFillingSearcher(int hitCount, int parallelBatches) {
+            super(hitCount);
+            this.barrier = new CyclicBarrier(parallelBatches);
+        }
+
+        @Override
+        public void fill(Result result, String summaryClass, Execution execution) {
+            executions.add(execution);
+            if ( ! result.hits().get(0).getId().toString().equals("hit:0")) {
+                try {
+                    barrier.await(30, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                    throw new IllegalStateException("Batches were not filled in parallel", e);
+                }
+            }
+            synchronized (this) {
+                super.fill(result, summaryClass, execution);
+            }
+        }
+
+    }
+
+}
@@ -30,6 +30,7 @@ import com.yahoo.search.Query;
 import com.yahoo.search.Result;
 import com.yahoo.search.Searcher;
 import com.yahoo.search.query.QueryTree;
+import com.yahoo.search.query.Ranking;
 import com.yahoo.search.query.SessionId;
 import com.yahoo.search.query.profile.QueryProfile;
 import com.yahoo.search.query.profile.QueryProfileRegistry;
@@ -57,6 +58,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -230,6 +232,54 @@ public class QueryTestCase {
         assertEquals(0.6, fClone.getConnectivity(), delta);
     }
 
+    @Test
+    public void testModifyingCloneDoesNotModifyOriginal() {
+        Query original = new Query(httpEncode("?query=test&ranking=first&presentation.bolding=false&foo=bar"));
+        Query clone = original.clone();
+
+        clone.properties().set("ranking.profile", "second");
+        clone.properties().set("presentation.bolding", true);
+        clone.properties().set("foo", "baz");
+        clone.properties().set("ranking.features.query(tensor)", "1");
+
+        assertEquals("first", original.properties().get("ranking.profile"));
+        assertEquals("first", original.getRanking().getProfile());
+        assertEquals(false, original.properties().get("presentation.bolding"));
+        assertEquals("bar", original.properties().get("foo"));
+        assertTrue(original.getRanking().getFeatures().isEmpty());
+
+        assertEquals("second", clone.properties().get("ranking.profile"));
+        assertEquals(true, clone.properties().get("presentation.bolding"));
+        assertEquals("baz", clone.properties().get("foo"));
+        assertEquals("1", clone.getRanking().getFeatures().get("query(tensor)"));
+
+        original.properties().set("foo", "original");
+        assertEquals("baz", clone.properties().get("foo"));
+    }
+
+    @Test
+    public void testRankingHeldAcrossCloneDoesNotModifyClone() {
+        Query original = new Query(httpEncode("?query=test&ranking.profile=first"));
+        Ranking ranking = original.getRanking();
+        Query clone = original.clone();
+
+        ranking.setProfile("second");
+        assertEquals("second", original.getRanking().getProfile());
+        assertEquals("first", clone.getRanking().getProfile());
+    }
+
+    @Test
+    public void testQueryObjectsAreAvailableAsProperties() {
+        Query query = new Query(httpEncode("?query=test"));
+        assertSame(query.getModel(), query.properties().get("model"));
+        assertSame(query.getRanking(), query.properties().get("ranking"));
+        assertSame(query.getPresentation(), query.properties().get("presentation"));
+
+        Query clone = query.clone();
+        assertSame(clone.getRanking(), clone.properties().get("ranking"));
+        assertNotSame(query.getRanking(), clone.properties().get("ranking"));
+    }
+
     @Test
     public void test_that_cloning_preserves_timeout() {
         Query original = new Query();
@@ -5,6 +5,7 @@ import com.yahoo.collections.Hashlet;
 import com.yahoo.document.*;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
+import com.yahoo.document.serialization.SerializedStructFields;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
 import com.yahoo.vespa.objects.Ids;
@@ -19,6 +20,8 @@ public class Struct extends StructuredFieldValue {
     public static final int classId = registerClass(Ids.document + 33, Struct.class);
     private Hashlet<Integer, FieldValue> values = new Hashlet<>();
     private int [] order = null;
+    /** The fields of this which are not yet deserialized, or null if there are none */
+    private SerializedStructFields serialized = null;
 
     private int version;
 
@@ -37,6 +40,49 @@ public class Struct extends StructuredFieldValue {
         order = null;
     }
 
+    /** Deserializes the given field into the values of this, if it is not already */
+    private FieldValue deserialize(int fieldId) {
+        if (serialized == null) return null;
+        Field field = getDataType().getField(fieldId);
+        if (field == null) return null;
+        FieldValue value = serialized.deserialize(field);
+        if (value == null) return null;
+        values.put(fieldId, value);
+        invalidateOrder();
+        if (serialized.isEmpty())
+            serialized = null;
+        return value;
+    }
+
+    /** Deserializes all the fields of this which are not already */
+    private void deserializeAll() {
+        if (serialized == null) return;
+        for (int fieldId : serialized.fieldIds())
+            deserialize(fieldId);
+        serialized = null;
+    }
+
+    /**
+     * Sets fields of this which are kept in serialized form until they are accessed.
+     * This is used by lazy deserializers. Any serialized fields this already has are deserialized first.
+     */
+    public void setSerializedFields(SerializedStructFields fields) {
+        deserializeAll();
+        for (int fieldId : fields.fieldIds()) {
+            if (values.get(fieldId) != null)
+                removeFieldValue(getDataType().getField(fieldId));
+        }
+        serialized = fields.isEmpty() ? null : fields;
+    }
+
+    /**
+     * Returns the fields of this which are not deserialized yet, or null if there are none.
+     * Serializers may copy these rather than accessing them through {@link #getFields}, which deserializes them.
+     */
+    public SerializedStructFields getSerializedFields() {
+        return serialized;
+    }
+
     public Struct(DataType type) {
         super((StructDataType) type);
         this.version = Document.SERIALIZED_VERSION;
@@ -79,6 +125,7 @@ public class Struct extends StructuredFieldValue {
     @Override
     public Struct clone() {
         Struct struct = (Struct) super.clone();
+        struct.serialized = serialized != null ? serialized.copy() : null;
         struct.values = new Hashlet<>();
         struct.values.reserve(values.size());
         for (int i = 0; i < values.size(); i++) {
@@ -90,15 +137,25 @@ public class Struct extends StructuredFieldValue {
     @Override
     public void clear() {
         values = new Hashlet<>();
+        serialized = null;
         invalidateOrder();
     }
 
     @Override
     public Iterator<Map.Entry<Field, FieldValue>> iterator() {
-        return new FieldSet().iterator();
+        return getFields().iterator();
     }
 
     public Set<Map.Entry<Field, FieldValue>> getFields() {
+        deserializeAll();
+        return new FieldSet();
+    }
+
+    /**
+     * Returns the fields of this which are deserialized, that is all fields except those returned by
+     * {@link #getSerializedFields}.
+     */
+    public Set<Map.Entry<Field, FieldValue>> getDeserializedFields() {
         return new FieldSet();
     }
 
@@ -117,7 +174,10 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue getFieldValue(Field field) {
-        return values.get(field.getId());
+        FieldValue value = values.get(field.getId());
+        if (value == null && serialized != null)
+            value = deserialize(field.getId());
+        return value;
     }
 
 
@@ -128,7 +188,7 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public int getFieldCount() {
-        return values.size();
+        return values.size() + (serialized != null ? serialized.size() : 0);
     }
 
     @Override
@@ -154,6 +214,8 @@ public class Struct extends StructuredFieldValue {
                     "Inconsistent field: " + field);
         }
 
+        if (serialized != null)
+            serialized.remove(field.getId());
         int index = values.getIndexOfKey(field.getId());
         if (index == -1) {
             values.put(field.getId(), value);
@@ -165,7 +227,7 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue removeFieldValue(Field field) {
-        FieldValue found = values.get(field.getId());
+        FieldValue found = getFieldValue(field);
         if (found != null) {
             Hashlet<Integer, FieldValue> copy = new Hashlet<>();
             copy.reserve(values.size() - 1);
@@ -213,11 +275,14 @@ public class Struct extends StructuredFieldValue {
         if (!super.equals(o)) return false;
 
         Struct struct = (Struct) o;
+        deserializeAll();
+        struct.deserializeAll();
         return values.equals(struct.values);
     }
 
     @Override
     public int hashCode() {
+        deserializeAll();
         int result = super.hashCode();
         result = 31 * result + values.hashCode();
         return result;
@@ -227,6 +292,7 @@ public class Struct extends StructuredFieldValue {
     public String toString() {
         StringBuilder retVal = new StringBuilder();
         retVal.append("Struct (").append(getDataType()).append("): ");
+        deserializeAll();
         int [] increasing = getInOrder();
         for (int i = 0; i < increasing.length; i++) {
             int id = increasing[i];
@@ -247,6 +313,8 @@ public class Struct extends StructuredFieldValue {
             return cmp;
         }
         Struct rhs = (Struct)obj;
+        deserializeAll();
+        rhs.deserializeAll();
         cmp = values.size() - rhs.values.size();
         if (cmp != 0) {
             return cmp;
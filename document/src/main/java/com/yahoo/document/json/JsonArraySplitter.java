@@ -0,0 +1,123 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a stream containing a JSON array of objects into the bytes of each object, without parsing the objects.
+ * This only tracks the nesting depth and whether it is inside a string, which is enough to find the end of each
+ * object much faster than a JSON parser can parse it. The objects are validated when they are parsed.
+ *
+ * @author agent
+ */
+class JsonArraySplitter {
+
+    private final InputStream input;
+    private final byte[] buffer;
+    private int position = 0;
+    private int limit = 0;
+
+    private boolean started = false;
+    private boolean ended = false;
+    /** Whether an object is read, such that a comma is required before the next one */
+    private boolean afterObject = false;
+
+    JsonArraySplitter(InputStream input) {
+        this(input, 1 << 16);
+    }
+
+    JsonArraySplitter(InputStream input, int bufferSize) {
+        this.input = input;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Returns the bytes of the next object in the array, or null if the end of the array is reached.
+     *
+     * @throws IllegalArgumentException if the stream does not contain an array of objects
+     */
+    byte[] next() throws IOException {
+        if (ended) return null;
+        if ( ! started) {
+            int c = nextNonWhitespace();
+            if (c != '[')
+                throw new IllegalArgumentException("Expected start of array, got " + describe(c));
+            started = true;
+        }
+
+        int c = nextNonWhitespace();
+        if (c == ']') {
+            ended = true;
+            return null;
+        }
+        if (afterObject) {
+            if (c != ',')
+                throw new IllegalArgumentException("Expected ',' or end of array after a document operation, got " + describe(c));
+            c = nextNonWhitespace();
+        }
+        if (c != '{')
+            throw new IllegalArgumentException("Expected start of a document operation, got " + describe(c));
+        afterObject = true;
+        return readObject();
+    }
+
+    /** Reads the rest of an object, whose start brace is just read */
+    private byte[] readObject() throws IOException {
+        byte[] object = new byte[256];
+        object[0] = '{';
+        int size = 1;
+
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+        while (depth > 0) {
+            if (position == limit && ! fill())
+                throw new IllegalArgumentException("Unexpected end of feed inside a document operation");
+            int start = position;
+            for ( ; position < limit && depth > 0; position++) {
+                byte b = buffer[position];
+                if (inString) {
+                    if (escaped) escaped = false;
+                    else if (b == '\\') escaped = true;
+                    else if (b == '"') inString = false;
+                }
+                else if (b == '"') inString = true;
+                else if (b == '{' || b == '[') depth++;
+                else if (b == '}' || b == ']') depth--;
+            }
+            int length = position - start;
+            if (size + length > object.length)
+                object = Arrays.copyOf(object, Math.max(object.length * 2, size + length));
+            System.arraycopy(buffer, start, object, size, length);
+            size += length;
+        }
+        return Arrays.copyOf(object, size);
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            if (position == limit && ! fill()) return -1;
+            byte b = buffer[position++];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') return b;
+        }
+    }
+
+    /** Reads more data into the buffer and returns true, or returns false if the end of the input is reached */
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = input.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private static String describe(int c) {
+        return c < 0 ? "end of feed" : "'" + (char)c + "'";
+    }
+
+}
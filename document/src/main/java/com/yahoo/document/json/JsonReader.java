@@ -90,6 +90,14 @@ public class JsonReader {
             case READING:
                 break;
         }
+        return readOperation();
+    }
+
+    /**
+     * Reads the next document operation object, without expecting it to be in an array,
+     * or returns null if there are no more operations.
+     */
+    DocumentOperation readOperation() {
         Optional<DocumentParseInfo> documentParseInfo;
         try {
             documentParseInfo = parseDocument();
@@ -0,0 +1,152 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.vespaxmlparser.FeedOperation;
+import com.yahoo.vespaxmlparser.FeedReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A feed reader of JSON feeds which parses multiple document operations in parallel.
+ * The reading thread splits the stream into the bytes of each operation, which is cheap,
+ * while the operations are parsed into documents and updates by the threads of an executor.
+ * Operations are returned in the order they have in the feed.
+ *
+ * <p>
+ * The feed reader will take ownership of the input stream and close it when the
+ * last parseable document has been read. An operation which cannot be parsed causes an exception
+ * when it is read, after which the following operations can still be read, as with {@link JsonReader}.
+ * <p>
+ * A reader which is not given an executor creates its own, which is shut down when the end of the feed
+ * or an error is reached, or when the reader is closed.
+ *
+ * @author agent
+ */
+public class ParallelJsonFeedReader implements FeedReader, AutoCloseable {
+
+    private static final int defaultParallelism = Runtime.getRuntime().availableProcessors();
+
+    private final InputStream stream;
+    private final JsonArraySplitter splitter;
+    private final DocumentTypeManager typeManager;
+    private final Executor executor;
+    /** The executor created by this, which this must shut down, or null if it was given to this */
+    private final ExecutorService ownExecutor;
+    private final int maxPending;
+
+    /** Operations being parsed, in feed order */
+    private final Deque<CompletableFuture<DocumentOperation>> pending = new ArrayDeque<>();
+    private boolean endOfStream = false;
+
+    /** The failure to split the feed into operations, which ends it, or null if none */
+    private CompletableFuture<DocumentOperation> splitFailure = null;
+
+    /** Creates a reader which parses using a thread pool owned by this, with a thread per processor */
+    public ParallelJsonFeedReader(InputStream stream, DocumentTypeManager typeManager) {
+        this(stream, typeManager,
+             Executors.newFixedThreadPool(defaultParallelism, new DaemonThreadFactory("json-feed-parser-")),
+             true, 4 * defaultParallelism);
+    }
+
+    /**
+     * Creates a reader
+     *
+     * @param stream the feed to read
+     * @param typeManager the document types of the feed
+     * @param executor the executor to parse document operations in, which is not shut down by this
+     * @param maxPending the max number of operations to read ahead of the operation returned by {@link #read}
+     */
+    public ParallelJsonFeedReader(InputStream stream, DocumentTypeManager typeManager, Executor executor, int maxPending) {
+        this(stream, typeManager, executor, false, maxPending);
+    }
+
+    private ParallelJsonFeedReader(InputStream stream, DocumentTypeManager typeManager, Executor executor,
+                                   boolean ownsExecutor, int maxPending) {
+        if (maxPending < 1) throw new IllegalArgumentException("maxPending must be positive, got " + maxPending);
+        this.stream = stream;
+        this.splitter = new JsonArraySplitter(stream);
+        this.typeManager = typeManager;
+        this.executor = executor;
+        this.ownExecutor = ownsExecutor ? (ExecutorService)executor : null;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public FeedOperation read() throws Exception {
+        readAhead();
+        CompletableFuture<DocumentOperation> next = pending.poll();
+        DocumentOperation documentOperation;
+        try {
+            documentOperation = next != null ? await(next) : null;
+        }
+        catch (Exception e) {
+            // Only a failure to split the feed ends it: Operations after one which is invalid can still be read
+            if (next == splitFailure)
+                close();
+            throw e;
+        }
+        if (documentOperation == null) { // as JsonFeedReader, which also stops at empty operations
+            close();
+            return FeedOperation.INVALID;
+        }
+        return JsonFeedReader.toFeedOperation(documentOperation);
+    }
+
+    /** Stops reading the feed, closes the stream, and shuts down the executor of this if it owns it */
+    @Override
+    public void close() throws IOException {
+        pending.forEach(operation -> operation.cancel(false));
+        pending.clear();
+        endOfStream = true;
+        if (ownExecutor != null)
+            ownExecutor.shutdown();
+        stream.close();
+    }
+
+    /** Splits off operations from the stream and starts parsing them, until there are maxPending operations */
+    private void readAhead() {
+        while ( ! endOfStream && pending.size() < maxPending) {
+            try {
+                byte[] operation = splitter.next();
+                if (operation == null)
+                    endOfStream = true;
+                else
+                    pending.add(CompletableFuture.supplyAsync(() -> parse(operation), executor));
+            }
+            catch (Exception e) { // fail at this point in the feed, after the operations before it are returned
+                endOfStream = true;
+                splitFailure = new CompletableFuture<>();
+                splitFailure.completeExceptionally(e);
+                pending.add(splitFailure);
+            }
+        }
+    }
+
+    private DocumentOperation parse(byte[] operation) {
+        return new JsonReader(typeManager, new ByteArrayInputStream(operation), JsonFeedReader.jsonFactory).readOperation();
+    }
+
+    private static DocumentOperation await(CompletableFuture<DocumentOperation> operation) throws Exception {
+        try {
+            return operation.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof Exception)
+                throw (Exception)e.getCause();
+            throw e;
+        }
+    }
+
+}
@@ -9,6 +9,8 @@ import com.yahoo.document.select.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Simon Thoresen Hult
@@ -18,6 +20,9 @@ public class AttributeNode implements ExpressionNode {
     private ExpressionNode value;
     private final List<Item> items = new ArrayList<Item>();
 
+    // Field paths resolved by this, by path string, along with the document type they were resolved against.
+    private final Map<String, ResolvedFieldPath> resolvedFieldPaths = new ConcurrentHashMap<>();
+
     public AttributeNode(ExpressionNode value, List items) {
         this.value = value;
         for (Object obj : items) {
@@ -50,13 +55,13 @@ public class AttributeNode implements ExpressionNode {
 
     // Inherit doc from ExpressionNode.
     public Object evaluate(Context context) {
-        String pos = value.toString();
         Object obj = value.evaluate(context);
 
         StringBuilder builder = new StringBuilder();
-        for (Item item : items) {
+        for (int i = 0; i < items.size(); ++i) {
+            Item item = items.get(i);
             if (obj == null) {
-                throw new IllegalStateException("Can not invoke '" + item + "' on '" + pos + "' because that term " +
+                throw new IllegalStateException("Can not invoke '" + item + "' on '" + position(i) + "' because that term " +
                                                 "evaluated to null.");
             }
             if (item.getType() != Item.FUNCTION) {
@@ -73,8 +78,6 @@ public class AttributeNode implements ExpressionNode {
 
                 obj = evaluateFunction(item.getName(), obj);
             }
-
-            pos = pos + "." + item;
         }
 
         if (builder.length() > 0) {
@@ -83,6 +86,15 @@ public class AttributeNode implements ExpressionNode {
         return obj;
     }
 
+    /** Returns the textual form of this up to, but not including, the item at the given index. */
+    private String position(int itemIndex) {
+        StringBuilder ret = new StringBuilder().append(value);
+        for (int i = 0; i < itemIndex; ++i) {
+            ret.append(".").append(items.get(i));
+        }
+        return ret.toString();
+    }
+
     public static class VariableValueList extends ArrayList<ResultList.VariableValue> {
 
     }
@@ -121,10 +133,10 @@ public class AttributeNode implements ExpressionNode {
         throw new IllegalStateException("Function '" + function + "' is not supported.");
     }
 
-    private static Object evaluateFieldPath(String fieldPth, Object value) {
+    private Object evaluateFieldPath(String fieldPth, Object value) {
         if (value instanceof DocumentPut) {
             final Document doc = ((DocumentPut) value).getDocument();
-            FieldPath fieldPath = doc.getDataType().buildFieldPath(fieldPth);
+            FieldPath fieldPath = resolveFieldPath(doc.getDataType(), fieldPth);
             IteratorHandler handler = new IteratorHandler();
             doc.iterateNested(fieldPath, 0, handler);
             if (handler.values.isEmpty()) {
@@ -141,6 +153,31 @@ public class AttributeNode implements ExpressionNode {
         return Result.FALSE;
     }
 
+    /**
+     * Returns the field path of the given string in the given document type. Paths are resolved once per
+     * document type, as building them means parsing the path string and looking up its fields.
+     */
+    private FieldPath resolveFieldPath(DocumentType type, String path) {
+        ResolvedFieldPath resolved = resolvedFieldPaths.get(path);
+        if (resolved == null || resolved.type != type) {
+            resolved = new ResolvedFieldPath(type, type.buildFieldPath(path));
+            resolvedFieldPaths.put(path, resolved);
+        }
+        return resolved.fieldPath;
+    }
+
+    private static class ResolvedFieldPath {
+
+        final DocumentType type;
+        final FieldPath fieldPath;
+
+        ResolvedFieldPath(DocumentType type, FieldPath fieldPath) {
+            this.type = type;
+            this.fieldPath = fieldPath;
+        }
+
+    }
+
     private static Object evaluateFunction(String function, Object value) {
         if (value instanceof VariableValueList) {
             VariableValueList retVal = new VariableValueList();
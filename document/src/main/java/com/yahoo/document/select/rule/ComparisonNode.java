@@ -23,6 +23,12 @@ public class ComparisonNode implements ExpressionNode {
     // The operator string for this.
     private String operator;
 
+    // The pattern last compiled for the right-hand side of a regex or glob comparison.
+    private volatile CompiledPattern compiledPattern = null;
+
+    // The result of comparing two literals, which does not depend on the document.
+    private volatile ConstantResult constantResult = null;
+
     /**
      * Constructs a new comparison node.
      *
@@ -53,6 +59,7 @@ public class ComparisonNode implements ExpressionNode {
      */
     public ComparisonNode setLHS(ExpressionNode lhs) {
         this.lhs = lhs;
+        constantResult = null;
         return this;
     }
 
@@ -73,6 +80,8 @@ public class ComparisonNode implements ExpressionNode {
      */
     public ComparisonNode setOperator(String operator) {
         this.operator = operator;
+        compiledPattern = null;
+        constantResult = null;
         return this;
     }
 
@@ -93,6 +102,8 @@ public class ComparisonNode implements ExpressionNode {
      */
     public ComparisonNode setRHS(ExpressionNode rhs) {
         this.rhs = rhs;
+        compiledPattern = null;
+        constantResult = null;
         return this;
     }
 
@@ -213,8 +224,26 @@ public class ComparisonNode implements ExpressionNode {
 
     // Inherit doc from Node.
     public Object evaluate(Context context) {
-        Object oLeft = lhs.evaluate(context);
-        Object oRight = rhs.evaluate(context);
+        if (lhs instanceof LiteralNode && rhs instanceof LiteralNode) {
+            return evaluateConstant(((LiteralNode)lhs).getValue(), ((LiteralNode)rhs).getValue());
+        }
+        return evaluateOperands(lhs.evaluate(context), rhs.evaluate(context));
+    }
+
+    /**
+     * Evaluates a comparison of two literals once, and returns copies of that result as long as the literals are the
+     * same. Results are copied as result lists are mutable.
+     */
+    private ResultList evaluateConstant(Object left, Object right) {
+        ConstantResult constant = constantResult;
+        if (constant == null || constant.left != left || constant.right != right) {
+            constant = new ConstantResult(left, right, evaluateOperands(left, right).toResult());
+            constantResult = constant;
+        }
+        return new ResultList(constant.result);
+    }
+
+    private ResultList evaluateOperands(Object oLeft, Object oRight) {
         if (oLeft == null || oRight == null) {
             return evaluateWithAtLeastOneNullSide(oLeft, oRight);
         }
@@ -386,11 +415,23 @@ public class ComparisonNode implements ExpressionNode {
     private Result evaluateString(Object lhs, Object rhs) {
         String left = "" + lhs; // Allows null objects to evaluate to string.
         String right = "" + rhs;
-        if (operator.equals("=~")) {
-            return Result.toResult(Pattern.compile(right).matcher(left).find());
-        } else {
-            return Result.toResult(Pattern.compile(globToRegex(right)).matcher(left).find());
+        return Result.toResult(getPattern(right).matcher(left).find());
+    }
+
+    /**
+     * Returns the compiled pattern of the given right-hand side, which is compiled only when it differs from the
+     * previous one. For the common case of a literal right-hand side this means it is compiled once.
+     *
+     * @param source The regex or glob pattern.
+     * @return The compiled pattern.
+     */
+    private Pattern getPattern(String source) {
+        CompiledPattern compiled = compiledPattern;
+        if (compiled == null || ! compiled.source.equals(source)) {
+            compiled = new CompiledPattern(source, Pattern.compile(operator.equals("=~") ? source : globToRegex(source)));
+            compiledPattern = compiled;
         }
+        return compiled.pattern;
     }
 
     /**
@@ -449,4 +490,30 @@ public class ComparisonNode implements ExpressionNode {
     public String toString() {
         return lhs + " " + operator + " " + rhs;
     }
+
+    private static final class CompiledPattern {
+
+        private final String source;
+        private final Pattern pattern;
+
+        CompiledPattern(String source, Pattern pattern) {
+            this.source = source;
+            this.pattern = pattern;
+        }
+
+    }
+
+    private static final class ConstantResult {
+
+        private final Object left;
+        private final Object right;
+        private final Result result;
+
+        ConstantResult(Object left, Object right, Result result) {
+            this.left = left;
+            this.right = right;
+            this.result = result;
+        }
+
+    }
 }
@@ -19,6 +19,20 @@ public class DocumentDeserializerFactory {
         return new VespaDocumentDeserializerHead(manager, buf);
     }
 
+    /**
+     * Creates a de-serializer for the current head document format, which keeps the field values of structs
+     * in serialized form until they are accessed. This saves work and garbage when only some of the fields
+     * of the documents are accessed, and the untouched fields are copied as-is when the documents are serialized again.
+     * <p>
+     * This is for consumers which own the documents they deserialize and know they access them from one thread:
+     * The returned documents are not safe for concurrent reading, as reading may deserialize fields.
+     * Also, as the field values are not decoded here, invalid field data causes a DeserializationException
+     * when the field is accessed rather than from this.
+     */
+    public static DocumentDeserializer createLazyHead(DocumentTypeManager manager, GrowableByteBuffer buf) {
+        return new VespaDocumentDeserializerHead(manager, buf, true);
+    }
+
     /**
      * Creates a de-serializer for the 6.x document format.
      * This format is an extension of the 4.2 format.
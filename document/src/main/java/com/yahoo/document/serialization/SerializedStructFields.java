@@ -0,0 +1,125 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+
+import java.util.Arrays;
+
+/**
+ * The fields of a struct which are kept in serialized form until they are accessed.
+ * This is created by lazy deserializers (see {@link DocumentDeserializerFactory#createLazyHead}), and owned by a
+ * {@link com.yahoo.document.datatypes.Struct}, which deserializes each field value on first access.
+ * Serializers may copy the serialized fields which are never accessed instead of serializing them again.
+ * <p>
+ * The field values are read from a decompressed copy of the field block of the struct,
+ * which is shared by all the fields. This is not thread safe.
+ *
+ * @author agent
+ */
+public final class SerializedStructFields {
+
+    private final DocumentTypeManager manager;
+    private final short version;
+    private final byte[] data;
+
+    /** The id of each field, as returned by {@link Field#getId()} */
+    private final int[] ids;
+    private final int[] offsets;
+    /** The length of each field, or -1 if it is removed */
+    private final int[] lengths;
+    private int count = 0;
+    private int size = 0;
+
+    SerializedStructFields(DocumentTypeManager manager, short version, byte[] data, int capacity) {
+        this.manager = manager;
+        this.version = version;
+        this.data = data;
+        this.ids = new int[capacity];
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+    }
+
+    private SerializedStructFields(SerializedStructFields other) {
+        this.manager = other.manager;
+        this.version = other.version;
+        this.data = other.data;
+        this.ids = Arrays.copyOf(other.ids, other.ids.length);
+        this.offsets = Arrays.copyOf(other.offsets, other.offsets.length);
+        this.lengths = Arrays.copyOf(other.lengths, other.lengths.length);
+        this.count = other.count;
+        this.size = other.size;
+    }
+
+    void add(int fieldId, int offset, int length) {
+        ids[count] = fieldId;
+        offsets[count] = offset;
+        lengths[count] = length;
+        count++;
+        size++;
+    }
+
+    private int indexOf(int fieldId) {
+        for (int i = 0; i < count; i++)
+            if (ids[i] == fieldId && lengths[i] >= 0) return i;
+        return -1;
+    }
+
+    /** Returns the number of fields in this */
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /** Returns whether this contains a value for the field with the given id */
+    public boolean contains(int fieldId) { return indexOf(fieldId) >= 0; }
+
+    /** Returns the ids of the fields in this */
+    public int[] fieldIds() {
+        int[] fieldIds = new int[size];
+        for (int i = 0, j = 0; i < count; i++)
+            if (lengths[i] >= 0) fieldIds[j++] = ids[i];
+        return fieldIds;
+    }
+
+    /** Removes the given field from this, if present */
+    public void remove(int fieldId) {
+        int index = indexOf(fieldId);
+        if (index < 0) return;
+        lengths[index] = -1;
+        size--;
+    }
+
+    /**
+     * Deserializes the value of the given field and removes it from this.
+     *
+     * @return the deserialized value, or null if this does not contain the field
+     */
+    public FieldValue deserialize(Field field) {
+        int index = indexOf(field.getId());
+        if (index < 0) return null;
+        VespaDocumentDeserializer6 deserializer =
+                new VespaDocumentDeserializer6(manager, GrowableByteBuffer.wrap(data, offsets[index], lengths[index]), version, true);
+        FieldValue value = field.getDataType().createFieldValue();
+        value.deserialize(field, deserializer);
+        lengths[index] = -1;
+        size--;
+        return value;
+    }
+
+    /** Returns whether the fields in this are serialized in the current format, such that they can be copied as-is */
+    public boolean isCurrentFormat() { return version == Document.SERIALIZED_VERSION; }
+
+    /** Writes the serialized value of the given field to the given buffer, if present */
+    public void copyTo(int fieldId, GrowableByteBuffer buffer) {
+        int index = indexOf(fieldId);
+        if (index < 0) return;
+        buffer.put(data, offsets[index], lengths[index]);
+    }
+
+    /** Returns a copy of this which can be modified independently */
+    public SerializedStructFields copy() { return new SerializedStructFields(this); }
+
+}
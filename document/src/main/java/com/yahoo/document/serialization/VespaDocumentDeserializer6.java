@@ -88,11 +88,24 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
     private List<SpanNode> spanNodes;
     private List<Annotation> annotations;
     private int[] stringPositions;
+    private final boolean lazyStructs;
 
     VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf) {
+        this(manager, buf, Document.SERIALIZED_VERSION, false);
+    }
+
+    /**
+     * Creates a deserializer
+     *
+     * @param version the serialization version of the data in the buffer
+     * @param lazyStructs whether to keep the field values of structs in serialized form until they are accessed,
+     *                    see {@link SerializedStructFields}
+     */
+    VespaDocumentDeserializer6(DocumentTypeManager manager, GrowableByteBuffer buf, short version, boolean lazyStructs) {
         super(buf);
         this.manager = manager;
-        this.version = Document.SERIALIZED_VERSION;
+        this.version = version;
+        this.lazyStructs = lazyStructs;
     }
 
     final public DocumentTypeManager getDocumentTypeManager() { return manager; }
@@ -351,11 +364,15 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
 
         s.clear();
         StructDataType type = s.getDataType();
+        SerializedStructFields serialized = lazyStructs ? new SerializedStructFields(manager, version, destination, numberOfFields) : null;
         for (int i=0; i<numberOfFields; ++i) {
             Field structField = type.getField(fieldIdsAndLengths.get(i).first, version);
             if (structField == null) {
                 //ignoring unknown field:
                 position(position() + fieldIdsAndLengths.get(i).second.intValue());
+            } else if (serialized != null) {
+                serialized.add(structField.getId(), position(), fieldIdsAndLengths.get(i).second.intValue());
+                position(position() + fieldIdsAndLengths.get(i).second.intValue());
             } else {
                 int posBefore = position();
                 FieldValue value = structField.getDataType().createFieldValue();
@@ -365,6 +382,8 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
                 position(posBefore + fieldIdsAndLengths.get(i).second.intValue());
             }
         }
+        if (serialized != null)
+            s.setSerializedFields(serialized);
 
         // restore the original buffer
         buf = bigBuf;
@@ -432,20 +451,27 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
 
         StructDataType priType = primary.getDataType();
         StructDataType altType = alternate.getDataType();
+        SerializedStructFields priSerialized = lazyStructs ? new SerializedStructFields(manager, version, destination, numberOfFields) : null;
+        SerializedStructFields altSerialized = lazyStructs ? new SerializedStructFields(manager, version, destination, numberOfFields) : null;
         for (int i=0; i<numberOfFields; ++i) {
             int posBefore = position();
             Struct s = null;
+            SerializedStructFields serialized = null;
             Integer f_id = fieldIdsAndLengths.get(i).first;
             Field structField = priType.getField(f_id, version);
             if (structField != null) {
                 s = primary;
+                serialized = priSerialized;
             } else {
                 structField = altType.getField(f_id, version);
                 if (structField != null) {
                   s = alternate;
+                  serialized = altSerialized;
                 }
             }
-            if (s != null) {
+            if (serialized != null) {
+              serialized.add(structField.getId(), posBefore, fieldIdsAndLengths.get(i).second.intValue());
+            } else if (s != null) {
               FieldValue value = structField.getDataType().createFieldValue();
               value.deserialize(structField, this);
               s.setFieldValue(structField, value);
@@ -453,6 +479,10 @@ public class VespaDocumentDeserializer6 extends BufferSerializer implements Docu
             //jump to beginning of next field:
             position(posBefore + fieldIdsAndLengths.get(i).second.intValue());
         }
+        if (priSerialized != null && ! priSerialized.isEmpty())
+            primary.setSerializedFields(priSerialized);
+        if (altSerialized != null && ! altSerialized.isEmpty())
+            alternate.setSerializedFields(altSerialized);
 
         // restore the original buffer
         buf = bigBuf;
@@ -2,6 +2,7 @@
 package com.yahoo.document.serialization;
 
 import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
 import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.TensorDataType;
 import com.yahoo.document.datatypes.TensorFieldValue;
@@ -20,7 +21,11 @@ import com.yahoo.tensor.TensorType;
 public class VespaDocumentDeserializerHead extends VespaDocumentDeserializer6 {
 
     public VespaDocumentDeserializerHead(DocumentTypeManager manager, GrowableByteBuffer buffer) {
-        super(manager, buffer);
+        this(manager, buffer, false);
+    }
+
+    VespaDocumentDeserializerHead(DocumentTypeManager manager, GrowableByteBuffer buffer, boolean lazyStructs) {
+        super(manager, buffer, Document.SERIALIZED_VERSION, lazyStructs);
     }
 
     @Override
@@ -338,7 +338,10 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
         List<Integer> fieldIds = new LinkedList<>();
         List<java.lang.Integer> fieldLengths = new LinkedList<>();
 
-        for (Map.Entry<Field, FieldValue> value : s.getFields()) {
+        // Fields which are still serialized in the current format are copied rather than deserialized
+        SerializedStructFields serialized = s.getSerializedFields();
+        boolean copySerialized = serialized != null && serialized.isCurrentFormat();
+        for (Map.Entry<Field, FieldValue> value : copySerialized ? s.getDeserializedFields() : s.getFields()) {
 
             int startPos = buffer.position();
             value.getValue().serialize(value.getKey(), this);
@@ -346,6 +349,15 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
             fieldLengths.add(buffer.position() - startPos);
             fieldIds.add(value.getKey().getId(s.getVersion()));
         }
+        if (copySerialized) {
+            for (int fieldId : serialized.fieldIds()) {
+                int startPos = buffer.position();
+                serialized.copyTo(fieldId, buffer);
+
+                fieldLengths.add(buffer.position() - startPos);
+                fieldIds.add(s.getDataType().getField(fieldId).getId(s.getVersion()));
+            }
+        }
 
         // Switch buffers again:
         buffer.flip();
@@ -0,0 +1,181 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.yahoo.document.DataType;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.text.Utf8;
+import com.yahoo.vespaxmlparser.FeedOperation;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class ParallelJsonFeedReaderTestCase {
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(Utf8.toBytes(json));
+    }
+
+    private static List<String> split(String json, int bufferSize) throws IOException {
+        JsonArraySplitter splitter = new JsonArraySplitter(stream(json), bufferSize);
+        List<String> objects = new ArrayList<>();
+        for (byte[] object = splitter.next(); object != null; object = splitter.next())
+            objects.add(Utf8.toString(object));
+        assertNull(splitter.next());
+        return objects;
+    }
+
+    @Test
+    public void splitter_finds_objects_regardless_of_buffer_boundaries() throws IOException {
+        String json = " [ {\"put\": \"id:ns:t::1\", \"fields\": {\"a\": \"}{ ]\\\"[\"}},\n" +
+                      "{\"remove\":\"id:ns:t::2\"} ,{\"update\": \"id:ns:t::3\", \"fields\": {\"b\": {\"assign\": [1, {}]}}}\n]";
+        for (int bufferSize : new int[] { 1, 2, 3, 7, 64, 1 << 16 }) {
+            List<String> objects = split(json, bufferSize);
+            assertEquals(3, objects.size());
+            assertEquals("{\"put\": \"id:ns:t::1\", \"fields\": {\"a\": \"}{ ]\\\"[\"}}", objects.get(0));
+            assertEquals("{\"remove\":\"id:ns:t::2\"}", objects.get(1));
+            assertEquals("{\"update\": \"id:ns:t::3\", \"fields\": {\"b\": {\"assign\": [1, {}]}}}", objects.get(2));
+        }
+        assertEquals(0, split("[]", 1).size());
+    }
+
+    @Test
+    public void splitter_fails_on_invalid_feeds() throws IOException {
+        assertSplitFails("", "Expected start of array, got end of feed");
+        assertSplitFails("{\"put\": \"id:ns:t::1\"}", "Expected start of array, got '{'");
+        assertSplitFails("[\"put\"]", "Expected start of a document operation, got '\"'");
+        assertSplitFails("[{\"put\": \"id:ns:t::1\"", "Unexpected end of feed inside a document operation");
+        assertSplitFails("[{\"put\": \"id:ns:t::1\"},", "Expected start of a document operation, got end of feed");
+        assertSplitFails("[{\"put\": \"id:ns:t::1\"} {\"put\": \"id:ns:t::2\"}]",
+                         "Expected ',' or end of array after a document operation, got '{'");
+        assertSplitFails("[,{\"put\": \"id:ns:t::1\"}]", "Expected start of a document operation, got ','");
+        assertSplitFails("[{\"put\": \"id:ns:t::1\"},]", "Expected start of a document operation, got ']'");
+    }
+
+    private static void assertSplitFails(String json, String message) throws IOException {
+        try {
+            split(json, 4);
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static DocumentTypeManager types() {
+        DocumentTypeManager types = new DocumentTypeManager();
+        DocumentType type = new DocumentType("smoke");
+        type.addField(new Field("something", DataType.STRING));
+        types.registerDocumentType(type);
+        return types;
+    }
+
+    @Test
+    public void operations_are_parsed_in_parallel_and_returned_in_feed_order() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) json.append(",");
+            json.append("{\"put\": \"id:unittest:smoke::").append(i % 10)
+                .append("\", \"fields\": {\"something\": \"").append(i).append("\"}}");
+        }
+        json.append("]");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ParallelJsonFeedReader reader = new ParallelJsonFeedReader(stream(json.toString()), types(), executor, 8);
+            for (int i = 0; i < 100; i++) {
+                FeedOperation operation = reader.read();
+                assertEquals(FeedOperation.Type.DOCUMENT, operation.getType());
+                assertEquals("id:unittest:smoke::" + (i % 10), operation.getDocument().getId().toString());
+                assertEquals(new StringFieldValue(String.valueOf(i)), operation.getDocument().getFieldValue("something"));
+            }
+            assertEquals(FeedOperation.Type.INVALID, reader.read().getType());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void errors_are_thrown_after_preceding_operations_are_read() throws Exception {
+        String json = "[{\"put\": \"id:unittest:smoke::1\", \"fields\": {\"something\": \"foo\"}}," +
+                      "{\"put\": \"id:unittest:smoke::2\", \"fields\": {\"nonexisting\": \"foo\"}}]";
+        ParallelJsonFeedReader reader = new ParallelJsonFeedReader(stream(json), types());
+        assertEquals("id:unittest:smoke::1", reader.read().getDocument().getId().toString());
+        try {
+            reader.read();
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("nonexisting"));
+        }
+    }
+
+    @Test
+    public void operations_after_an_invalid_operation_are_read() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) json.append(",");
+            String field = i == 10 ? "nonexisting" : "something";
+            json.append("{\"put\": \"id:unittest:smoke::").append(i).append("\", \"fields\": {\"")
+                .append(field).append("\": \"foo\"}}");
+        }
+        json.append("]");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ParallelJsonFeedReader reader = new ParallelJsonFeedReader(stream(json.toString()), types(), executor, 4);
+            for (int i = 0; i < 20; i++) {
+                if (i == 10) {
+                    try {
+                        reader.read();
+                        fail("Expected exception");
+                    }
+                    catch (IllegalArgumentException e) {
+                        assertTrue(e.getMessage().contains("nonexisting"));
+                    }
+                }
+                else {
+                    assertEquals("id:unittest:smoke::" + i, reader.read().getDocument().getId().toString());
+                }
+            }
+            assertEquals(FeedOperation.Type.INVALID, reader.read().getType());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void feed_ends_at_a_failure_to_split_it() throws Exception {
+        String json = "[{\"put\": \"id:unittest:smoke::1\", \"fields\": {\"something\": \"foo\"}} " +
+                      "{\"put\": \"id:unittest:smoke::2\", \"fields\": {\"something\": \"foo\"}}]";
+        ParallelJsonFeedReader reader = new ParallelJsonFeedReader(stream(json), types());
+        assertEquals("id:unittest:smoke::1", reader.read().getDocument().getId().toString());
+        try {
+            reader.read();
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Expected ',' or end of array after a document operation, got '{'", e.getMessage());
+        }
+        assertEquals(FeedOperation.Type.INVALID, reader.read().getType());
+    }
+
+}
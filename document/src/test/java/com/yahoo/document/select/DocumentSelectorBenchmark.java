@@ -0,0 +1,80 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select;
+
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.select.parser.ParseException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Microbenchmark of evaluating typical routing and visiting selections over a set of documents.
+ *
+ * @author agent
+ */
+public class DocumentSelectorBenchmark {
+
+    private static final String[] selections = {
+            "music",
+            "music.year > 1990",
+            "music.year > 1990 and music.year < 2000",
+            "music.artist = \"*beatles*\"",
+            "music.title =~ \"^(The|A) \"",
+            "music.artist.lowercase() == \"abba\" or music.year % 7 == 0",
+            "id.namespace == \"music\" and music.artist != null",
+            "music and not (music.title = \"live*\")"
+    };
+
+    private final List<DocumentPut> documents = new ArrayList<>();
+
+    private DocumentSelectorBenchmark(int documentCount) {
+        DocumentType type = new DocumentType("music");
+        type.addField("artist", DataType.STRING);
+        type.addField("title", DataType.STRING);
+        type.addField("year", DataType.INT);
+        String[] artists = { "The Beatles", "ABBA", "Queen", "beatles tribute band", "Kaizers Orchestra" };
+        for (int i = 0; i < documentCount; i++) {
+            Document document = new Document(type, new DocumentId("id:music:music::" + i));
+            document.setFieldValue("artist", new StringFieldValue(artists[i % artists.length]));
+            document.setFieldValue("title", new StringFieldValue((i % 3 == 0 ? "The song " : "Live at ") + i));
+            document.setFieldValue("year", new IntegerFieldValue(1960 + i % 60));
+            documents.add(new DocumentPut(document));
+        }
+    }
+
+    private long evaluate(DocumentSelector selector, int repetitions) {
+        long accepted = 0;
+        for (int i = 0; i < repetitions; i++) {
+            for (DocumentPut document : documents) {
+                if (selector.accepts(document) == Result.TRUE)
+                    accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    private void benchmark(int repetitions) throws ParseException {
+        for (String selection : selections) {
+            DocumentSelector selector = new DocumentSelector(selection);
+            evaluate(selector, Math.max(repetitions / 10, 1)); // warmup
+            long startTime = System.nanoTime();
+            long accepted = evaluate(selector, repetitions);
+            long totalTime = System.nanoTime() - startTime;
+            System.out.println(String.format("%-65s %8.1f ns per document (%d accepted)",
+                                             selection,
+                                             (double)totalTime / ((long)repetitions * documents.size()),
+                                             accepted));
+        }
+    }
+
+    public static void main(String[] args) throws ParseException {
+        new DocumentSelectorBenchmark(1000).benchmark(1000);
+    }
+
+}
@@ -6,6 +6,8 @@ import com.yahoo.document.datatypes.*;
 import com.yahoo.document.select.convert.SelectionExpressionConverter;
 import com.yahoo.document.select.parser.ParseException;
 import com.yahoo.document.select.parser.TokenMgrException;
+import com.yahoo.document.select.rule.ComparisonNode;
+import com.yahoo.document.select.rule.LiteralNode;
 import com.yahoo.yolean.Exceptions;
 import org.junit.Before;
 import org.junit.Test;
@@ -718,6 +720,40 @@ public class DocumentSelectorTestCase {
         assertEquals(Result.FALSE, evaluate("test.structarrmap{$x}.key == 17 AND test.stringweightedset{$x}", documents.get(1)));
     }
 
+    @Test
+    public void testSelectorCanBeReusedAcrossDocuments() throws ParseException {
+        List<DocumentPut> documents = createDocs();
+
+        DocumentSelector glob = new DocumentSelector("test.content = \"ba*\"");
+        DocumentSelector regex = new DocumentSelector("test.hstring =~ \"^(foo|some)$\"");
+        DocumentSelector field = new DocumentSelector("test.hint > 14 and test.content != \"bar\"");
+        Result[] expectedGlob = { Result.TRUE, Result.FALSE, Result.FALSE, Result.FALSE, Result.FALSE, Result.TRUE, Result.FALSE, Result.TRUE };
+        Result[] expectedRegex = { Result.TRUE, Result.FALSE, Result.TRUE, Result.FALSE, Result.FALSE, Result.FALSE, Result.FALSE, Result.INVALID };
+        Result[] expectedField = { Result.FALSE, Result.FALSE, Result.TRUE, Result.FALSE, Result.FALSE, Result.TRUE, Result.TRUE, Result.FALSE };
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < documents.size(); i++) {
+                assertEquals("glob on document " + i, expectedGlob[i], glob.accepts(documents.get(i)));
+                assertEquals("regex on document " + i, expectedRegex[i], regex.accepts(documents.get(i)));
+                assertEquals("field on document " + i, expectedField[i], field.accepts(documents.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testModifiedComparisonIsReevaluated() {
+        LiteralNode rhs = new LiteralNode("b.r");
+        ComparisonNode comparison = new ComparisonNode(new LiteralNode("bar"), "=", rhs);
+        assertEquals(Result.FALSE, Result.toResult(comparison.evaluate(new Context(null))));
+        comparison.setOperator("=~");
+        assertEquals(Result.TRUE, Result.toResult(comparison.evaluate(new Context(null))));
+        rhs.setValue("^a");
+        assertEquals(Result.FALSE, Result.toResult(comparison.evaluate(new Context(null))));
+        comparison.setRHS(new LiteralNode("r$"));
+        assertEquals(Result.TRUE, Result.toResult(comparison.evaluate(new Context(null))));
+        comparison.setLHS(new LiteralNode("baz"));
+        assertEquals(Result.FALSE, Result.toResult(comparison.evaluate(new Context(null))));
+    }
+
     @Test
     public void testTicket1769674() {
         assertParseError("music.uri=\"junk",
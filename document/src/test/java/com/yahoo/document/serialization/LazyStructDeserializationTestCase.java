@@ -0,0 +1,126 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.compress.CompressionType;
+import com.yahoo.document.CompressionConfig;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.StructDataType;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.datatypes.Struct;
+import com.yahoo.io.GrowableByteBuffer;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author agent
+ */
+public class LazyStructDeserializationTestCase {
+
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final DocumentType docType;
+    private final StructDataType nestedType;
+
+    public LazyStructDeserializationTestCase() {
+        nestedType = new StructDataType("nested");
+        nestedType.addField(new Field("inner", DataType.STRING));
+        docType = new DocumentType("lazy");
+        docType.addField(new Field("title", DataType.STRING));
+        docType.addField(new Field("count", DataType.INT));
+        docType.addField(new Field("tags", DataType.getArray(DataType.STRING)));
+        docType.addField(new Field("nested", nestedType));
+        manager.registerDocumentType(docType);
+    }
+
+    private Document createDocument() {
+        Document doc = new Document(docType, "id:ns:lazy::1");
+        doc.setFieldValue("title", new StringFieldValue("A title which is long enough to compress well, well, well"));
+        doc.setFieldValue("count", new IntegerFieldValue(42));
+        Array<StringFieldValue> tags = new Array<>(DataType.getArray(DataType.STRING));
+        tags.add(new StringFieldValue("foo"));
+        tags.add(new StringFieldValue("bar"));
+        doc.setFieldValue("tags", tags);
+        Struct nested = new Struct(nestedType);
+        nested.setFieldValue("inner", new StringFieldValue("inside"));
+        doc.setFieldValue("nested", nested);
+        return doc;
+    }
+
+    private static byte[] serialize(Document doc) {
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        DocumentSerializerFactory.createHead(buffer).write(doc);
+        buffer.flip();
+        return Arrays.copyOf(buffer.array(), buffer.limit());
+    }
+
+    private Document deserializeLazily(byte[] data) {
+        return new Document(DocumentDeserializerFactory.createLazyHead(manager, GrowableByteBuffer.wrap(data)));
+    }
+
+    @Test
+    public void fields_are_deserialized_on_first_access() {
+        Document doc = deserializeLazily(serialize(createDocument()));
+        Struct header = doc.getHeader();
+        assertEquals(4, header.getFieldCount());
+        assertEquals(4, header.getSerializedFields().size());
+
+        assertEquals(new IntegerFieldValue(42), doc.getFieldValue("count"));
+        assertEquals(3, header.getSerializedFields().size());
+        assertEquals(4, header.getFieldCount());
+
+        assertEquals(new StringFieldValue("inside"), ((Struct)doc.getFieldValue("nested")).getFieldValue("inner"));
+        assertEquals(2, header.getSerializedFields().size());
+
+        assertEquals(createDocument(), doc);
+        assertNull(header.getSerializedFields());
+    }
+
+    @Test
+    public void untouched_fields_are_copied_when_serializing() {
+        byte[] serialized = serialize(createDocument());
+        assertArrayEquals(serialized, serialize(deserializeLazily(serialized)));
+
+        Document doc = deserializeLazily(serialized);
+        doc.setFieldValue("count", new IntegerFieldValue(7));
+        assertEquals(3, doc.getHeader().getSerializedFields().size());
+        Document reserialized = deserializeLazily(serialize(doc));
+
+        Document expected = createDocument();
+        expected.setFieldValue("count", new IntegerFieldValue(7));
+        assertEquals(expected, reserialized);
+    }
+
+    @Test
+    public void compressed_structs_can_be_deserialized_lazily() {
+        docType.getHeaderType().setCompressionConfig(new CompressionConfig(CompressionType.LZ4));
+        Document doc = deserializeLazily(serialize(createDocument()));
+        assertEquals(new StringFieldValue("A title which is long enough to compress well, well, well"), doc.getFieldValue("title"));
+        assertEquals(createDocument(), doc);
+    }
+
+    @Test
+    public void setting_and_removing_serialized_fields() {
+        Document doc = deserializeLazily(serialize(createDocument()));
+        doc.setFieldValue("title", new StringFieldValue("new title"));
+        assertEquals(4, doc.getHeader().getFieldCount());
+        assertEquals(new StringFieldValue("new title"), doc.getFieldValue("title"));
+
+        assertEquals(new IntegerFieldValue(42), doc.removeFieldValue("count"));
+        assertEquals(3, doc.getHeader().getFieldCount());
+        assertNull(doc.getFieldValue("count"));
+
+        Document copy = doc.clone();
+        assertEquals(doc, copy);
+    }
+
+}
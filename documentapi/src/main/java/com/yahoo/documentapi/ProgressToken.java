@@ -432,6 +432,17 @@ public class ProgressToken {
         this.bucketCursor = bucketCursor;
     }
 
+    /**
+     * <em>For use by bucket sources only!</em>
+     *
+     * Moves the bucket cursor past the bucket it currently points at, and counts that bucket as
+     * finished without visiting it.
+     */
+    protected void skipCurrentBucket() {
+        ++bucketCursor;
+        ++finishedBucketCount;
+    }
+
     public long getFinishedBucketCount() {
         return finishedBucketCount;
     }
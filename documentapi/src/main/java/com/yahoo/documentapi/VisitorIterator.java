@@ -83,10 +83,26 @@ public class VisitorIterator {
         // Wouldn't need this if this were a non-static class, but do it for
         // the sake of keeping things identical in Java and C++
         private ProgressToken progressToken;
+        private final int slices;
+        private final int sliceId;
 
         public DistributionRangeBucketSource(int distributionBitCount,
                                              ProgressToken progress) {
+            this(distributionBitCount, progress, 1, 0);
+        }
+
+        public DistributionRangeBucketSource(int distributionBitCount,
+                                             ProgressToken progress,
+                                             int slices, int sliceId) {
+            if (slices < 1) {
+                throw new IllegalArgumentException("slices must be positive, but was " + slices);
+            }
+            if (sliceId < 0 || sliceId >= slices) {
+                throw new IllegalArgumentException("sliceId must be in [0, " + slices + "), but was " + sliceId);
+            }
             progressToken = progress;
+            this.slices = slices;
+            this.sliceId = sliceId;
 
             // New progress token (could also be empty, in which this is a
             // no-op anyway)
@@ -147,6 +163,7 @@ public class VisitorIterator {
             }
             // Should be all fixed up and good to go
             progressToken.setInconsistentState(false);
+            skipToSlice();
         }
 
         protected boolean isLosslessResetPossible() {
@@ -290,6 +307,21 @@ public class VisitorIterator {
             }
         }
 
+        /**
+         * Moves the bucket cursor forward to the next bucket belonging to the slice of this
+         * source, counting the skipped buckets as finished. The cursor is left untouched while
+         * at a single distribution bit, as this is only used for probing the actual distribution
+         * bit count, and the subsequent reset would otherwise end up skipping whole slices.
+         */
+        private void skipToSlice() {
+            if (distributionBitCount == 1) return;
+
+            while (progressToken.getBucketCursor() < getTotalBucketCount()
+                   && (progressToken.getBucketCursor() % slices) != sliceId) {
+                progressToken.skipCurrentBucket();
+            }
+        }
+
         public boolean hasNext() {
             return progressToken.getBucketCursor() < (1L << distributionBitCount);
         }
@@ -314,6 +346,7 @@ public class VisitorIterator {
             long key = ProgressToken.makeNthBucketKey(currentPosition, distributionBitCount);
             ++currentPosition;
             progressToken.setBucketCursor(currentPosition);
+            skipToSlice();
             return new BucketProgress(
                     new BucketId(ProgressToken.keyToBucketId(key)),
                     new BucketId());
@@ -373,6 +406,7 @@ public class VisitorIterator {
 
                 correctTruncatedBucketCursor();
                 progressToken.setInconsistentState(false);
+                skipToSlice();
             }
         }
 
@@ -753,6 +787,38 @@ public class VisitorIterator {
             BucketIdFactory idFactory,
             int distributionBitCount,
             ProgressToken progress) throws ParseException {
+        return createFromDocumentSelection(documentSelection, idFactory, distributionBitCount, progress, 1, 0);
+    }
+
+    /**
+     * Create a new <code>VisitorIterator</code> instance based on the given document
+     * selection string, which iterates over only the given slice of the bucket space.
+     *
+     * The bucket space is divided into <code>slices</code> disjoint slices, where bucket number
+     * <i>n</i> in iteration order belongs to slice <i>n</i> mod <code>slices</code>. Iterators
+     * for each of the slices may thus run in parallel, and together cover the whole bucket space.
+     * If the distribution bit count changes while iterating, the slices may overlap somewhat or
+     * miss some buckets, as the buckets already visited are split or merged according to the
+     * new bit count. Selections yielding an explicit set of buckets are not sliced.
+     *
+     * @param documentSelection Document selection string used to create the
+     * <code>VisitorIterator</code> instance
+     * @param idFactory {@link BucketId} factory specifying the number of distribution bits
+     * to use et al.
+     * @param progress A unique {@link ProgressToken} instance which is used for maintaining the state
+     * of the iterator. Must have been created for the same slice, if it contains earlier progress
+     * @param slices the number of slices to divide the bucket space into, a positive number
+     * @param sliceId the slice to iterate over, in the range [0, slices)
+     * @return A new <code>VisitorIterator</code> instance
+     * @throws ParseException if <code>documentSelection</code> fails to properly parse
+     */
+    public static VisitorIterator createFromDocumentSelection(
+            String documentSelection,
+            BucketIdFactory idFactory,
+            int distributionBitCount,
+            ProgressToken progress,
+            int slices,
+            int sliceId) throws ParseException {
         BucketSelector bucketSel = new BucketSelector(idFactory);
         Set<BucketId> rawBuckets = bucketSel.getBucketList(documentSelection);
         BucketSource src;
@@ -762,7 +828,7 @@ public class VisitorIterator {
         // bit-based range source
         if (rawBuckets == null) {
             // Range source
-            src = new DistributionRangeBucketSource(distributionBitCount, progress);
+            src = new DistributionRangeBucketSource(distributionBitCount, progress, slices, sliceId);
         } else {
             // Explicit source
             src = new ExplicitBucketSource(rawBuckets, distributionBitCount, progress);
@@ -50,6 +50,8 @@ public class VisitorParameters extends Parameters {
     private int traceLevel = 0;
     private ThrottlePolicy throttlePolicy = null;
     private boolean skipBucketsOnFatalErrors = false;
+    private int slices = 1;
+    private int sliceId = 0;
 
     // Advanced parameter, only for internal use.
     Set<BucketId> bucketsToVisit = null;
@@ -102,6 +104,7 @@ public class VisitorParameters extends Parameters {
                 params.getDynamicMaxBucketsIncreaseFactor());
         setTraceLevel(params.getTraceLevel());
         skipBucketsOnFatalErrors(params.skipBucketsOnFatalErrors());
+        slice(params.getSlices(), params.getSliceId());
     }
 
     // Get functions
@@ -336,6 +339,31 @@ public class VisitorParameters extends Parameters {
 
     public void skipBucketsOnFatalErrors(boolean skipBucketsOnFatalErrors) { this.skipBucketsOnFatalErrors = skipBucketsOnFatalErrors; }
 
+    /**
+     * Sets this to visit only the given slice of the bucket space, out of the given number of disjoint slices.
+     * Visitors for each of the slices may run in parallel, and together visit the whole bucket space,
+     * unless the distribution bit count changes while visiting. Progress tokens may only be resumed with
+     * the same slicing as they were created with.
+     *
+     * @param slices the number of slices to divide the bucket space into, a positive number
+     * @param sliceId the slice to visit, in the range [0, slices)
+     * @throws IllegalArgumentException if slices is not positive, or sliceId is not in [0, slices)
+     */
+    public void slice(int slices, int sliceId) {
+        if (slices < 1)
+            throw new IllegalArgumentException("slices must be positive, but was " + slices);
+        if (sliceId < 0 || sliceId >= slices)
+            throw new IllegalArgumentException("sliceId must be in [0, " + slices + "), but was " + sliceId);
+        this.slices = slices;
+        this.sliceId = sliceId;
+    }
+
+    /** Returns the number of slices the bucket space is divided into, 1 by default */
+    public int getSlices() { return slices; }
+
+    /** Returns the slice of the bucket space to visit, 0 by default */
+    public int getSliceId() { return sliceId; }
+
     /**
      * Set whether or not max buckets per visitor value should be dynamically
      * increased when using orderdoc and visitors do not return at least half
@@ -385,6 +413,9 @@ public class VisitorParameters extends Parameters {
         sb.append("  Visitor ordering:   ").append(visitorOrdering).append('\n');
         sb.append("  Max buckets:        ").append(maxBucketsPerVisitor).append('\n');
         sb.append("  Priority:           ").append(getPriority().toString()).append('\n');
+        if (slices > 1) {
+            sb.append("  Slice:              ").append(sliceId).append(" of ").append(slices).append('\n');
+        }
         if (dynamicallyIncreaseMaxBucketsPerVisitor) {
             sb.append("  Dynamically increasing max buckets per visitor\n");
             sb.append("  Increase factor:    ")
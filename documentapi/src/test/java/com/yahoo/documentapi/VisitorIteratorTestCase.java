@@ -1172,6 +1172,59 @@ public class VisitorIteratorTestCase {
         assertEquals(bp[0].getSuperbucket(), new BucketId(11, 0));
     }
 
+    @Test
+    public void testSlicesPartitionBucketSpace() throws ParseException {
+        int distBits = 4;
+        int slices = 3;
+        Set<BucketId> visited = new TreeSet<>();
+        for (int sliceId = 0; sliceId < slices; sliceId++) {
+            ProgressToken p = new ProgressToken();
+            VisitorIterator iter = VisitorIterator.createFromDocumentSelection(
+                    "id.group != \"yahoo.com\"", new BucketIdFactory(), distBits, p, slices, sliceId);
+            int count = 0;
+            while (iter.hasNext()) {
+                VisitorIterator.BucketProgress bp = iter.getNext();
+                assertTrue("Bucket " + bp.getSuperbucket() + " is visited by only one slice",
+                           visited.add(bp.getSuperbucket()));
+                iter.update(bp.getSuperbucket(), ProgressToken.FINISHED_BUCKET);
+                ++count;
+            }
+            assertTrue(iter.isDone());
+            assertTrue(p.isFinished());
+            assertEquals(p.getTotalBucketCount(), p.getFinishedBucketCount());
+            assertEquals((16 - sliceId + slices - 1) / slices, count);
+        }
+        assertEquals(16, visited.size());
+    }
+
+    @Test
+    public void testSlicingStartsAfterDistributionBitProbe() throws ParseException {
+        ProgressToken p = new ProgressToken();
+        VisitorIterator iter = VisitorIterator.createFromDocumentSelection(
+                "id.group != \"yahoo.com\"", new BucketIdFactory(), 1, p, 4, 3);
+
+        // A single distribution bit is only used to find the actual bit count, so it is not sliced
+        assertTrue(iter.hasNext());
+        VisitorIterator.BucketProgress bp = iter.getNext();
+        assertEquals(new BucketId(1, 0), bp.getSuperbucket());
+        iter.update(bp.getSuperbucket(), new BucketId());
+        iter.setDistributionBitCount(4);
+
+        assertEquals(3, p.getBucketCursor());
+        assertEquals(3, p.getFinishedBucketCount());
+        bp = iter.getNext();
+        assertEquals(new BucketId(ProgressToken.keyToBucketId(ProgressToken.makeNthBucketKey(3, 4))), bp.getSuperbucket());
+        assertEquals(7, p.getBucketCursor());
+        iter.update(bp.getSuperbucket(), ProgressToken.FINISHED_BUCKET);
+
+        // The cursor is kept at the next bucket of the slice when resuming
+        p = new ProgressToken(p.serialize());
+        iter = VisitorIterator.createFromDocumentSelection(
+                "id.group != \"yahoo.com\"", new BucketIdFactory(), 1, p, 4, 3);
+        assertEquals(7, p.getBucketCursor());
+        assertEquals(7, p.getFinishedBucketCount());
+    }
+
     @Test
     public void testExplicitDistributionBitIncrease() throws ParseException {
         int distBits = 12;
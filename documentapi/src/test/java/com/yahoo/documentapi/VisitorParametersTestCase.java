@@ -38,6 +38,7 @@ public class VisitorParametersTestCase {
         params.setDynamicallyIncreaseMaxBucketsPerVisitor(true);
         params.setDynamicMaxBucketsIncreaseFactor(2.5f);
         params.skipBucketsOnFatalErrors(true);
+        params.slice(3, 2);
 
         return params;
     }
@@ -75,6 +76,8 @@ public class VisitorParametersTestCase {
         assertEquals(true, copy.getDynamicallyIncreaseMaxBucketsPerVisitor());
         assertEquals(2.5f, copy.getDynamicMaxBucketsIncreaseFactor(), 0.0001);
         assertEquals(true, copy.skipBucketsOnFatalErrors());
+        assertEquals(3, copy.getSlices());
+        assertEquals(2, copy.getSliceId());
 
         // Test local data handler copy
         VisitorParameters params2 = new VisitorParameters("");
@@ -108,9 +111,24 @@ public class VisitorParametersTestCase {
                 "  Visitor ordering:   123\n" +
                 "  Max buckets:        55\n" +
                 "  Priority:           HIGHEST\n" +
+                "  Slice:              2 of 3\n" +
                 "  Dynamically increasing max buckets per visitor\n" +
                 "  Increase factor:    2.5\n" +
                 ")",
                 params.toString());
     }
+
+    @Test
+    public void testSliceMustBeWithinSlices() {
+        VisitorParameters params = new VisitorParameters("");
+        assertEquals(1, params.getSlices());
+        assertEquals(0, params.getSliceId());
+        for (int[] invalid : new int[][] { { 0, 0 }, { 2, 2 }, { 2, -1 } }) {
+            try {
+                params.slice(invalid[0], invalid[1]);
+                fail("Expected slice " + invalid[1] + " of " + invalid[0] + " to be rejected");
+            }
+            catch (IllegalArgumentException expected) { }
+        }
+    }
 }
@@ -0,0 +1,214 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.config.FileReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Describes the content of a file reference as a sequence of fixed size chunks, each identified by
+ * the SHA-256 digest of its bytes. The content is what is transferred for the file reference, i.e. the file
+ * itself for {@link FileReferenceData.Type#file} and the gzipped tar archive for
+ * {@link FileReferenceData.Type#compressed}.
+ * <p>
+ * Manifests are only obtained from config servers. Chunks may come from any node, and are trusted
+ * because they have the digest given in the manifest. Immutable.
+ *
+ * @author agent
+ */
+public class ChunkManifest {
+
+    /** The chunk size used when nothing else is specified, same as the part size used when pushing files */
+    public static final int defaultChunkSize = 0x100000;
+
+    /** The length in bytes of the digests of chunks and content */
+    public static final int digestLength = 32;
+
+    private static final int version = 2;
+
+    private final FileReference fileReference;
+    private final String filename;
+    private final FileReferenceData.Type type;
+    private final long size;
+    private final int chunkSize;
+    private final byte[] digest;
+    private final byte[] chunkDigests;
+
+    /**
+     * Creates a manifest
+     *
+     * @param digest the SHA-256 digest of the entire content
+     * @param chunkDigests the SHA-256 digests of each chunk, concatenated
+     */
+    public ChunkManifest(FileReference fileReference, String filename, FileReferenceData.Type type,
+                         long size, int chunkSize, byte[] digest, byte[] chunkDigests) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive, was " + chunkSize);
+        if (size < 0) throw new IllegalArgumentException("Size cannot be negative, was " + size);
+        if (filename.isEmpty() || filename.contains("/") || filename.equals(".") || filename.equals(".."))
+            throw new IllegalArgumentException("Invalid filename '" + filename + "'");
+        if (digest.length != digestLength)
+            throw new IllegalArgumentException("Expected a digest of " + digestLength + " bytes, got " + digest.length);
+        long expectedChunks = (size + chunkSize - 1) / chunkSize;
+        if (chunkDigests.length != expectedChunks * digestLength)
+            throw new IllegalArgumentException("Expected " + expectedChunks + " chunks of " + chunkSize + " bytes for " +
+                                               size + " bytes, but got " + chunkDigests.length / digestLength);
+        this.fileReference = Objects.requireNonNull(fileReference);
+        this.filename = filename;
+        this.type = Objects.requireNonNull(type);
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.digest = digest.clone();
+        this.chunkDigests = chunkDigests.clone();
+    }
+
+    /** Creates the manifest of the given content by reading through it once */
+    public static ChunkManifest create(FileReference fileReference, String filename, FileReferenceData.Type type,
+                                       File content, int chunkSize) throws IOException {
+        MessageDigest contentDigest = sha256();
+        MessageDigest chunkDigest = sha256();
+        long size = Files.size(content.toPath());
+        int chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+        byte[] chunkDigests = new byte[chunkCount * digestLength];
+        byte[] buffer = new byte[chunkSize];
+        try (InputStream in = Files.newInputStream(content.toPath())) {
+            for (int i = 0; i < chunkCount; i++) {
+                int length = readFully(in, buffer);
+                chunkDigest.update(buffer, 0, length);
+                System.arraycopy(chunkDigest.digest(), 0, chunkDigests, i * digestLength, digestLength);
+                contentDigest.update(buffer, 0, length);
+            }
+        }
+        return new ChunkManifest(fileReference, filename, type, size, chunkSize, contentDigest.digest(), chunkDigests);
+    }
+
+    public FileReference fileReference() { return fileReference; }
+
+    public String filename() { return filename; }
+
+    public FileReferenceData.Type type() { return type; }
+
+    /** Returns the total size of the content in bytes */
+    public long size() { return size; }
+
+    public int chunkSize() { return chunkSize; }
+
+    /** Returns the SHA-256 digest of the entire content */
+    public byte[] digest() { return digest.clone(); }
+
+    public int chunkCount() { return chunkDigests.length / digestLength; }
+
+    /** Returns the SHA-256 digest of the given chunk */
+    public byte[] chunkDigest(int index) {
+        return Arrays.copyOfRange(chunkDigests, index * digestLength, (index + 1) * digestLength);
+    }
+
+    /** Returns the number of bytes in the given chunk, which is less than chunk size only for the last chunk */
+    public int chunkLength(int index) {
+        return (int) Math.min(chunkSize, size - (long) index * chunkSize);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + chunkDigests.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(version);
+            out.writeUTF(fileReference.value());
+            out.writeUTF(filename);
+            out.writeUTF(type.name());
+            out.writeLong(size);
+            out.writeInt(chunkSize);
+            out.write(digest);
+            out.writeInt(chunkCount());
+            out.write(chunkDigests);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ChunkManifest fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int serializedVersion = in.readInt();
+            if (serializedVersion != version)
+                throw new IllegalArgumentException("Unknown chunk manifest version " + serializedVersion);
+            FileReference fileReference = new FileReference(in.readUTF());
+            String filename = in.readUTF();
+            FileReferenceData.Type type = FileReferenceData.Type.valueOf(in.readUTF());
+            long size = in.readLong();
+            int chunkSize = in.readInt();
+            byte[] digest = new byte[digestLength];
+            in.readFully(digest);
+            int chunkCount = in.readInt();
+            if (chunkCount < 0 || chunkCount > in.available() / digestLength) // Don't allocate more than was received
+                throw new IllegalArgumentException("Invalid chunk count " + chunkCount + " with " + in.available() + " bytes left");
+            byte[] chunkDigests = new byte[chunkCount * digestLength];
+            in.readFully(chunkDigests);
+            return new ChunkManifest(fileReference, filename, type, size, chunkSize, digest, chunkDigests);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid chunk manifest", e);
+        }
+    }
+
+    /** Returns the SHA-256 digest of the given bytes */
+    public static byte[] digestOf(byte[] data, int offset, int length) {
+        MessageDigest digest = sha256();
+        digest.update(data, offset, length);
+        return digest.digest();
+    }
+
+    /** Returns the given digest as a hex string */
+    public static String toHex(byte[] digest) {
+        StringBuilder b = new StringBuilder(digest.length * 2);
+        for (byte value : digest)
+            b.append(Character.forDigit((value >> 4) & 0xf, 16)).append(Character.forDigit(value & 0xf, 16));
+        return b.toString();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be supported", e);
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int length = 0;
+        for (int read; length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) > 0; )
+            length += read;
+        return length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if ( ! (o instanceof ChunkManifest)) return false;
+        ChunkManifest other = (ChunkManifest) o;
+        return size == other.size && chunkSize == other.chunkSize && Arrays.equals(digest, other.digest) &&
+               fileReference.equals(other.fileReference) && filename.equals(other.filename) &&
+               type == other.type && Arrays.equals(chunkDigests, other.chunkDigests);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fileReference, filename, type, size, chunkSize, Arrays.hashCode(digest));
+    }
+
+    @Override
+    public String toString() {
+        return "chunk manifest for '" + fileReference.value() + "' (" + filename + ", " + type + ", " +
+               size + " bytes in " + chunkCount() + " chunks)";
+    }
+
+}
@@ -0,0 +1,288 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.config.FileReference;
+import com.yahoo.jrt.DataValue;
+import com.yahoo.jrt.ErrorCode;
+import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Method;
+import com.yahoo.jrt.Request;
+import com.yahoo.jrt.StringArray;
+import com.yahoo.jrt.Supervisor;
+import com.yahoo.log.LogLevel;
+import com.yahoo.yolean.Exceptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Serves chunks of file references from a local {@link ChunkStore}, both to callers in the same process and
+ * over RPC when {@link #addMethods(Supervisor) added} to a supervisor. A server may have an origin: A place
+ * file references are found as regular files or directories, like on config servers. Chunks of content from
+ * the origin are read directly from the origin file, or from an archive of the directory, and are not
+ * copied to the store; only the manifest and directory archives are stored.
+ * <p>
+ * Also keeps track of which nodes have recently asked for each file reference, so that downloaders can
+ * fetch chunks from each other rather than all fetching them from the origin.
+ *
+ * @author agent
+ */
+public class ChunkServer implements ChunkSource {
+
+    private final static Logger log = Logger.getLogger(ChunkServer.class.getName());
+
+    public final static String GET_MANIFEST_METHOD = "filedistribution.getChunkManifest";
+    public final static String GET_PEERS_METHOD = "filedistribution.getChunkPeers";
+    public final static String GET_CHUNK_METHOD = "filedistribution.getChunk";
+
+    static final int maxPeersPerFileReference = 32;
+    static final int maxFileReferencesWithPeers = 1000;
+    static final Duration peerTimeToLive = Duration.ofHours(1);
+    private static final Duration keepUnused = Duration.ofDays(14);
+
+    private final ChunkStore store;
+    private final Function<FileReference, Optional<File>> origin;
+    private final int chunkSize;
+    private final Clock clock;
+
+    /** The nodes which recently asked for each file reference, with the time they asked, least recent first */
+    private final Map<FileReference, LinkedHashMap<String, Instant>> peers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FileReference, LinkedHashMap<String, Instant>> eldest) {
+            return size() > maxFileReferencesWithPeers;
+        }
+    };
+
+    /** Which requesters are accepted as peers when asked for peers over RPC */
+    private volatile Predicate<String> acceptedPeers = requester -> false;
+
+    private final Object importLock = new Object();
+    private final ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()),
+                                                                          new DaemonThreadFactory("chunk server"));
+
+    /** Creates a server which serves only what is already in the given store */
+    public ChunkServer(ChunkStore store) {
+        this(store, fileReference -> Optional.empty(), ChunkManifest.defaultChunkSize);
+    }
+
+    /**
+     * Creates a server with an origin.
+     *
+     * @param store the store to keep manifests and directory archives in, and to serve other chunks from
+     * @param origin returns the file or directory of a file reference, or empty if the origin does not have it
+     * @param chunkSize the size of the chunks to split content from the origin into
+     */
+    public ChunkServer(ChunkStore store, Function<FileReference, Optional<File>> origin, int chunkSize) {
+        this(store, origin, chunkSize, Clock.systemUTC());
+    }
+
+    ChunkServer(ChunkStore store, Function<FileReference, Optional<File>> origin, int chunkSize, Clock clock) {
+        this.store = store;
+        this.origin = origin;
+        this.chunkSize = chunkSize;
+        this.clock = clock;
+    }
+
+    public ChunkStore store() { return store; }
+
+    @Override
+    public Optional<ChunkManifest> manifest(FileReference fileReference) {
+        Optional<File> file = origin.apply(fileReference);
+        if (file.isPresent())
+            return originContent(fileReference, file.get()).map(content -> content.manifest);
+        return store.manifest(fileReference);
+    }
+
+    @Override
+    public List<String> peers(FileReference fileReference, String requester) {
+        Instant now = clock.instant();
+        synchronized (peers) {
+            LinkedHashMap<String, Instant> recent = peers.computeIfAbsent(fileReference, __ -> new LinkedHashMap<>());
+            recent.values().removeIf(asked -> asked.isBefore(now.minus(peerTimeToLive)));
+            List<String> others = new ArrayList<>(recent.keySet());
+            if (requester != null) {
+                others.remove(requester);
+                recent.remove(requester);
+                recent.put(requester, now);
+                for (Iterator<String> i = recent.keySet().iterator(); recent.size() > maxPeersPerFileReference; ) {
+                    i.next();
+                    i.remove();
+                }
+            }
+            if (recent.isEmpty())
+                peers.remove(fileReference);
+            return others;
+        }
+    }
+
+    @Override
+    public Optional<byte[]> chunk(FileReference fileReference, int index, byte[] digest, Duration timeout) {
+        Optional<File> file = origin.apply(fileReference);
+        if (file.isPresent())
+            return originContent(fileReference, file.get()).flatMap(content -> content.chunk(index, digest));
+        return store.readChunk(digest);
+    }
+
+    /**
+     * Returns the manifest and the file to read chunks from for the given file or directory from the origin,
+     * creating and storing them if this is the first time they are asked for
+     */
+    private Optional<OriginContent> originContent(FileReference fileReference, File file) {
+        synchronized (importLock) {
+            Optional<ChunkManifest> manifest = store.manifest(fileReference);
+            Optional<File> content = file.isDirectory() ? store.archive(fileReference) : Optional.of(file);
+            if (manifest.isPresent() && content.isPresent())
+                return Optional.of(new OriginContent(manifest.get(), content.get()));
+
+            File archive = null;
+            try {
+                log.log(LogLevel.DEBUG, () -> "Creating chunk manifest of '" + file + "' of file reference '" + fileReference.value() + "'");
+                FileReferenceData.Type type = FileReferenceData.Type.file;
+                if (file.isDirectory()) {
+                    archive = store.createTemporaryFile(fileReference.value());
+                    CompressedFileReference.compress(file.getParentFile(), archive);
+                    content = Optional.of(store.writeArchive(fileReference, archive));
+                    archive = null;
+                    type = FileReferenceData.Type.compressed;
+                }
+                ChunkManifest created = ChunkManifest.create(fileReference, file.getName(), type, content.get(), chunkSize);
+                store.writeManifest(created);
+                store.deleteUnusedSince(clock.instant().minus(keepUnused));
+                return Optional.of(new OriginContent(created, content.get()));
+            } catch (IOException e) {
+                log.log(LogLevel.WARNING, "Failed creating chunk manifest of '" + file + "' of file reference '" +
+                                          fileReference.value() + "': " + Exceptions.toMessageString(e));
+                return Optional.empty();
+            } finally {
+                if (archive != null && ! archive.delete())
+                    log.log(LogLevel.WARNING, "Failed deleting " + archive);
+            }
+        }
+    }
+
+    /** Adds the RPC methods serving chunks to the given supervisor, not accepting any requesters as peers */
+    public void addMethods(Supervisor supervisor) {
+        addMethods(supervisor, requester -> false);
+    }
+
+    /**
+     * Adds the RPC methods serving chunks to the given supervisor.
+     *
+     * @param acceptedPeers returns whether the given requester spec should be remembered as a peer other
+     *                      nodes may fetch chunks from, i.e. whether it is a node known to this
+     */
+    public void addMethods(Supervisor supervisor, Predicate<String> acceptedPeers) {
+        this.acceptedPeers = acceptedPeers;
+        supervisor.addMethod(new Method(GET_MANIFEST_METHOD, "s", "ix", this, "getChunkManifest")
+                                     .methodDesc("get the chunk manifest of a file reference")
+                                     .paramDesc(0, "filereference", "file reference")
+                                     .returnDesc(0, "ret", "0 if found, 1 otherwise")
+                                     .returnDesc(1, "manifest", "the serialized manifest, empty if not found"));
+        supervisor.addMethod(new Method(GET_PEERS_METHOD, "ss", "S", this, "getChunkPeers")
+                                     .methodDesc("get nodes which may have chunks of a file reference")
+                                     .paramDesc(0, "filereference", "file reference")
+                                     .paramDesc(1, "requester", "spec the caller serves chunks at, or empty if it does not")
+                                     .returnDesc(0, "peers", "specs of nodes which recently asked for the file reference"));
+        supervisor.addMethod(new Method(GET_CHUNK_METHOD, "six", "ix", this, "getChunk")
+                                     .methodDesc("get a chunk of a file reference")
+                                     .paramDesc(0, "filereference", "file reference")
+                                     .paramDesc(1, "index", "index of the chunk in the file reference")
+                                     .paramDesc(2, "digest", "SHA-256 digest of the chunk")
+                                     .returnDesc(0, "ret", "0 if found, 1 otherwise")
+                                     .returnDesc(1, "data", "the chunk, empty if not found"));
+    }
+
+    @SuppressWarnings({"UnusedDeclaration"})
+    public final void getChunkManifest(Request req) {
+        req.detach();
+        executor.execute(() -> {
+            FileReference fileReference = new FileReference(req.parameters().get(0).asString());
+            returnData(req, () -> manifest(fileReference).map(ChunkManifest::toBytes));
+        });
+    }
+
+    @SuppressWarnings({"UnusedDeclaration"})
+    public final void getChunkPeers(Request req) {
+        FileReference fileReference = new FileReference(req.parameters().get(0).asString());
+        String requester = req.parameters().get(1).asString();
+        boolean accepted = ! requester.isEmpty() && acceptedPeers.test(requester);
+        List<String> others = peers(fileReference, accepted ? requester : null);
+        req.returnValues().add(new StringArray(others.toArray(new String[0])));
+    }
+
+    @SuppressWarnings({"UnusedDeclaration"})
+    public final void getChunk(Request req) {
+        req.detach();
+        executor.execute(() -> {
+            FileReference fileReference = new FileReference(req.parameters().get(0).asString());
+            int index = req.parameters().get(1).asInt32();
+            byte[] digest = req.parameters().get(2).asData();
+            returnData(req, () -> chunk(fileReference, index, digest, Duration.ZERO));
+        });
+    }
+
+    private static void returnData(Request req, Supplier<Optional<byte[]>> data) {
+        try {
+            Optional<byte[]> result = data.get();
+            req.returnValues().add(new Int32Value(result.isPresent() ? 0 : 1));
+            req.returnValues().add(new DataValue(result.orElse(new byte[0])));
+        } catch (RuntimeException e) {
+            log.log(LogLevel.WARNING, "Failed serving " + req.methodName() + " for " + req.parameters().get(0).asString() +
+                                      ": " + Exceptions.toMessageString(e));
+            req.setError(ErrorCode.METHOD_FAILED, Exceptions.toMessageString(e));
+        }
+        req.returnRequest();
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /** The manifest of some content from the origin, and the file holding that content */
+    private static class OriginContent {
+
+        final ChunkManifest manifest;
+        final File file;
+
+        OriginContent(ChunkManifest manifest, File file) {
+            this.manifest = manifest;
+            this.file = file;
+        }
+
+        /** Reads the given chunk from the file, or returns empty if the manifest has no such chunk */
+        Optional<byte[]> chunk(int index, byte[] digest) {
+            if (index < 0 || index >= manifest.chunkCount() || ! Arrays.equals(digest, manifest.chunkDigest(index)))
+                return Optional.empty();
+
+            byte[] data = new byte[manifest.chunkLength(index)];
+            try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+                in.seek((long) index * manifest.chunkSize());
+                in.readFully(data);
+                return Optional.of(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed reading chunk " + index + " of " + manifest + " from '" + file + "'", e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.config.FileReference;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Somewhere chunks of file references can be fetched from: A config server having the file references,
+ * or another node which has downloaded (some of) them.
+ *
+ * @author agent
+ */
+public interface ChunkSource {
+
+    /** Returns the manifest of the given file reference, or empty if this source does not know it */
+    Optional<ChunkManifest> manifest(FileReference fileReference);
+
+    /**
+     * Returns the specs of other nodes which have recently asked this for chunks of the given file reference,
+     * and so may have some of them, and remembers the given requester as one such node.
+     *
+     * @param requester the spec the requester serves chunks at, or null if it does not serve chunks
+     */
+    List<String> peers(FileReference fileReference, String requester);
+
+    /**
+     * Returns the chunk with the given index and SHA-256 digest in the given file reference,
+     * or empty if this source does not have it, or it could not be fetched within the given timeout.
+     * The returned data is not verified to have the digest.
+     */
+    Optional<byte[]> chunk(FileReference fileReference, int index, byte[] digest, Duration timeout);
+
+}
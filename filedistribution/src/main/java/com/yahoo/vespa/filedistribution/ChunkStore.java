@@ -0,0 +1,241 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.config.FileReference;
+import com.yahoo.log.LogLevel;
+import com.yahoo.vespa.defaults.Defaults;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * A local, content addressed store of file reference chunks and the manifests describing how they make up
+ * file references. Chunks are stored once no matter how many file references contain them, and survive
+ * failed downloads, so a download can be resumed by fetching only the chunks which are missing.
+ * Reading a chunk refreshes its modification time, which is used to garbage collect chunks not used for a while.
+ * <p>
+ * Servers having file references as regular files or directories (config servers) do not store chunks of
+ * them here, but only their manifests, and the archives created to serve directories.
+ * <p>
+ * Safe for concurrent use by several threads and processes, as all files are written to a temporary file
+ * and then atomically moved in place.
+ *
+ * @author agent
+ */
+public class ChunkStore {
+
+    private static final Logger log = Logger.getLogger(ChunkStore.class.getName());
+
+    private final Path chunks;
+    private final Path manifests;
+    private final Path archives;
+    private final Path tmp;
+
+    /** Creates a store in the given directory, which is created when something is first written to the store */
+    public ChunkStore(File directory) {
+        this.chunks = directory.toPath().resolve("chunks");
+        this.manifests = directory.toPath().resolve("manifests");
+        this.archives = directory.toPath().resolve("archives");
+        this.tmp = directory.toPath().resolve("tmp");
+    }
+
+    /** Returns the directory used for chunks on nodes when nothing else is specified */
+    public static File defaultDirectory() {
+        return new File(Defaults.getDefaults().underVespaHome("var/db/vespa/filedistribution-chunks"));
+    }
+
+    public boolean hasChunk(byte[] digest) {
+        return touch(chunkPath(digest));
+    }
+
+    /** Returns the chunk with the given digest, or empty if it is not present in this store */
+    public Optional<byte[]> readChunk(byte[] digest) {
+        Path path = chunkPath(digest);
+        try {
+            byte[] data = Files.readAllBytes(path);
+            touch(path);
+            return Optional.of(data);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed reading chunk '" + path + "'", e);
+        }
+    }
+
+    /**
+     * Stores the given chunk.
+     *
+     * @throws IllegalArgumentException if the SHA-256 digest of the data is not the given digest
+     */
+    public void writeChunk(byte[] digest, byte[] data) {
+        byte[] actual = ChunkManifest.digestOf(data, 0, data.length);
+        if ( ! Arrays.equals(actual, digest))
+            throw new IllegalArgumentException("Digest of chunk content (" + ChunkManifest.toHex(actual) +
+                                               ") is not equal to expected digest (" + ChunkManifest.toHex(digest) + ")");
+        writeAtomically(chunkPath(digest), data);
+    }
+
+    /** Returns the manifest stored for the given file reference, or empty if none */
+    public Optional<ChunkManifest> manifest(FileReference fileReference) {
+        Path path = manifestPath(fileReference);
+        try {
+            byte[] data = Files.readAllBytes(path);
+            touch(path);
+            return Optional.of(ChunkManifest.fromBytes(data));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed reading chunk manifest '" + path + "'", e);
+        }
+    }
+
+    public void writeManifest(ChunkManifest manifest) {
+        writeAtomically(manifestPath(manifest.fileReference()), manifest.toBytes());
+    }
+
+    /** Returns the indices of the chunks of the given manifest which are not in this store, skipping duplicates */
+    public List<Integer> missingChunks(ChunkManifest manifest) {
+        List<Integer> missing = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < manifest.chunkCount(); i++) {
+            byte[] digest = manifest.chunkDigest(i);
+            if (seen.add(ChunkManifest.toHex(digest)) && ! hasChunk(digest))
+                missing.add(i);
+        }
+        return missing;
+    }
+
+    /**
+     * Writes the content described by the given manifest to the given file.
+     *
+     * @throws IllegalStateException if a chunk is missing, or the content does not have the digest of the manifest
+     */
+    public void assemble(ChunkManifest manifest, File target) throws IOException {
+        MessageDigest digest = ChunkManifest.sha256();
+        try (OutputStream out = Files.newOutputStream(target.toPath())) {
+            for (int i = 0; i < manifest.chunkCount(); i++) {
+                byte[] data = readChunk(manifest.chunkDigest(i))
+                        .orElseThrow(() -> new IllegalStateException("Missing chunk in " + manifest));
+                out.write(data);
+                digest.update(data);
+            }
+        }
+        byte[] actual = digest.digest();
+        if ( ! Arrays.equals(actual, manifest.digest()))
+            throw new IllegalStateException("Digest of content (" + ChunkManifest.toHex(actual) + ") is not equal to digest in " +
+                                            manifest + " (" + ChunkManifest.toHex(manifest.digest()) + ")");
+    }
+
+    /** Returns the archive of the given file reference's directory stored by {@link #writeArchive}, or empty if none */
+    public Optional<File> archive(FileReference fileReference) {
+        Path path = archivePath(fileReference);
+        return touch(path) ? Optional.of(path.toFile()) : Optional.empty();
+    }
+
+    /** Moves the given file, which must be in this store's directory, in place as the archive of the given file reference */
+    public File writeArchive(FileReference fileReference, File archive) throws IOException {
+        Path path = archivePath(fileReference);
+        Files.createDirectories(archives);
+        Files.move(archive.toPath(), path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return path.toFile();
+    }
+
+    /** Returns a new, empty temporary file in this store's directory, which the caller must delete */
+    File createTemporaryFile(String prefix) throws IOException {
+        Files.createDirectories(tmp);
+        return Files.createTempFile(tmp, prefix, ".tmp").toFile();
+    }
+
+    /** Deletes all chunks, manifests and archives which have not been written or read since the given instant */
+    public void deleteUnusedSince(Instant instant) {
+        int deleted = deleteOlderThan(chunks, instant) + deleteOlderThan(manifests, instant) + deleteOlderThan(archives, instant);
+        if (deleted > 0)
+            log.log(LogLevel.DEBUG, () -> "Deleted " + deleted + " chunks, manifests and archives not used since " + instant);
+    }
+
+    private int deleteOlderThan(Path directory, Instant instant) {
+        int deleted = 0;
+        if ( ! Files.isDirectory(directory)) return deleted;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                try {
+                    if (Files.getLastModifiedTime(file).toInstant().isBefore(instant) && Files.deleteIfExists(file))
+                        deleted++;
+                } catch (NoSuchFileException e) {
+                    // Deleted concurrently
+                }
+            }
+        } catch (IOException e) {
+            log.log(LogLevel.WARNING, "Failed deleting unused files in '" + directory + "': " + e.getMessage());
+        }
+        return deleted;
+    }
+
+    private void writeAtomically(Path path, byte[] data) {
+        try {
+            Files.createDirectories(tmp);
+            Files.createDirectories(path.getParent());
+            Path tmpFile = Files.createTempFile(tmp, path.getFileName().toString(), ".inprogress");
+            try {
+                Files.write(tmpFile, data);
+                Files.move(tmpFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmpFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed writing '" + path + "'", e);
+        }
+    }
+
+    /** Refreshes the modification time of the given file, and returns whether it exists */
+    private static boolean touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            return Files.exists(path);
+        }
+    }
+
+    private Path chunkPath(byte[] digest) {
+        if (digest.length != ChunkManifest.digestLength)
+            throw new IllegalArgumentException("Expected a digest of " + ChunkManifest.digestLength + " bytes, got " + digest.length);
+        return chunks.resolve(ChunkManifest.toHex(digest));
+    }
+
+    private Path manifestPath(FileReference fileReference) {
+        return manifests.resolve(validName(fileReference));
+    }
+
+    private Path archivePath(FileReference fileReference) {
+        return archives.resolve(validName(fileReference));
+    }
+
+    private static String validName(FileReference fileReference) {
+        String name = fileReference.value();
+        if (name.isEmpty() || name.contains("/") || name.startsWith("."))
+            throw new IllegalArgumentException("Invalid file reference '" + name + "'");
+        return name;
+    }
+
+}
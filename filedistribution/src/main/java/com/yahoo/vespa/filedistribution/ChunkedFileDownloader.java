@@ -0,0 +1,213 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.config.FileReference;
+import com.yahoo.log.LogLevel;
+import com.yahoo.yolean.Exceptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Downloads file references as chunks into a {@link ChunkStore}, and assembles them into the download directory
+ * when all chunks are present. Chunks already in the store, from an earlier, failed attempt or from another file
+ * reference with partly the same content, are not fetched again. The remaining chunks are fetched in parallel,
+ * preferring peers which have asked an origin for the same file reference recently, and falling back to the
+ * origins (config servers) for chunks no peer has. Manifests are only fetched from origins, and every chunk is
+ * verified against the SHA-256 digest in the manifest before it is stored, so peers cannot alter the content.
+ *
+ * @author agent
+ */
+public class ChunkedFileDownloader {
+
+    private final static Logger log = Logger.getLogger(ChunkedFileDownloader.class.getName());
+
+    /** The number of peers to try for a chunk before asking an origin */
+    static final int maxPeerAttempts = 3;
+    /** The max time to wait for a chunk from a peer before trying the next source */
+    static final Duration peerTimeout = Duration.ofSeconds(10);
+    private static final Duration keepUnusedChunks = Duration.ofDays(14);
+
+    private final ChunkStore store;
+    private final File downloadDirectory;
+    private final File tmpDirectory;
+    private final Supplier<List<ChunkSource>> origins;
+    private final Function<String, ChunkSource> peers;
+    private final String self;
+    private final BiConsumer<FileReference, Double> downloadStatus;
+    private final ExecutorService fetchExecutor;
+
+    /**
+     * Creates a new chunked downloader.
+     *
+     * @param store where to keep chunks
+     * @param downloadDirectory where to put downloaded file references
+     * @param tmpDirectory directory for temporary files, on the same file system as the download directory
+     * @param origins returns the sources which have all file references, in order of preference
+     * @param peers returns the source serving at the given spec
+     * @param self the spec this node serves chunks from the given store at, or null if it does not serve chunks
+     * @param downloadStatus receives the fraction of each file reference which is present locally as it grows
+     * @param parallelism the number of chunks to fetch concurrently
+     */
+    public ChunkedFileDownloader(ChunkStore store, File downloadDirectory, File tmpDirectory,
+                                 Supplier<List<ChunkSource>> origins, Function<String, ChunkSource> peers, String self,
+                                 BiConsumer<FileReference, Double> downloadStatus, int parallelism) {
+        this.store = store;
+        this.downloadDirectory = downloadDirectory;
+        this.tmpDirectory = tmpDirectory;
+        this.origins = origins;
+        this.peers = peers;
+        this.self = self;
+        this.downloadStatus = downloadStatus;
+        this.fetchExecutor = Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory("chunk downloader"));
+    }
+
+    /**
+     * Downloads the given file reference and returns the file it is available at, or empty if no origin has it,
+     * or some chunk could not be fetched from anywhere within the given timeout. Chunks fetched before a failure
+     * are kept, so calling this again resumes the download.
+     */
+    public Optional<File> download(FileReference fileReference, Duration timeout) {
+        Instant deadline = Instant.now().plus(timeout);
+        List<ChunkSource> originSources = origins.get();
+        Optional<ChunkManifest> manifest = store.manifest(fileReference);
+        if (manifest.isEmpty())
+            manifest = manifestFrom(originSources, fileReference);
+        if (manifest.isEmpty()) {
+            log.log(LogLevel.DEBUG, () -> "No chunk manifest found for '" + fileReference.value() + "' in " + originSources);
+            return Optional.empty();
+        }
+        ChunkManifest chunks = manifest.get();
+        store.writeManifest(chunks);
+
+        List<String> peerSpecs = peersFrom(originSources, fileReference);
+        List<Integer> missing = store.missingChunks(chunks);
+        log.log(LogLevel.DEBUG, () -> "Fetching " + missing.size() + " of " + chunks.chunkCount() + " chunks of '" +
+                                      fileReference.value() + "' with " + peerSpecs.size() + " known peers");
+        AtomicInteger present = new AtomicInteger(chunks.chunkCount() - missing.size());
+        downloadStatus.accept(fileReference, fraction(present.get(), chunks));
+        List<CompletableFuture<Boolean>> fetches = missing.stream()
+                .map(index -> CompletableFuture.supplyAsync(() -> {
+                    boolean fetched = fetch(chunks, index, peerSpecs, originSources, deadline);
+                    if (fetched)
+                        downloadStatus.accept(fileReference, fraction(present.incrementAndGet(), chunks));
+                    return fetched;
+                }, fetchExecutor))
+                .collect(Collectors.toList());
+        long failed = fetches.stream().map(CompletableFuture::join).filter(fetched -> ! fetched).count();
+        if (failed > 0) {
+            log.log(LogLevel.INFO, "Failed fetching " + failed + " of " + chunks.chunkCount() + " chunks of '" +
+                                   fileReference.value() + "', will resume on next attempt");
+            return Optional.empty();
+        }
+
+        try {
+            File content = Files.createTempFile(tmpDirectory.toPath(), chunks.filename(), ".inprogress").toFile();
+            try {
+                store.assemble(chunks, content);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(content.toPath());
+                throw e;
+            }
+            File file = FileReceiver.install(content, chunks.type(), chunks.filename(),
+                                             new File(downloadDirectory, fileReference.value()), tmpDirectory);
+            store.deleteUnusedSince(Instant.now().minus(keepUnusedChunks));
+            return Optional.of(file);
+        } catch (IOException | RuntimeException e) {
+            log.log(LogLevel.WARNING, "Failed assembling '" + fileReference.value() + "' from chunks: " + Exceptions.toMessageString(e));
+            return Optional.empty();
+        }
+    }
+
+    private Optional<ChunkManifest> manifestFrom(List<ChunkSource> sources, FileReference fileReference) {
+        for (ChunkSource source : sources) {
+            try {
+                Optional<ChunkManifest> manifest = source.manifest(fileReference);
+                if (manifest.isPresent() && manifest.get().fileReference().equals(fileReference)) return manifest;
+            } catch (RuntimeException e) {
+                log.log(LogLevel.DEBUG, () -> "Failed getting chunk manifest of '" + fileReference.value() + "' from " +
+                                              source + ": " + Exceptions.toMessageString(e));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Returns the peers known by the given sources, registering this node as a peer with them */
+    private List<String> peersFrom(List<ChunkSource> sources, FileReference fileReference) {
+        Set<String> specs = new LinkedHashSet<>();
+        for (ChunkSource source : sources) {
+            try {
+                specs.addAll(source.peers(fileReference, self));
+            } catch (RuntimeException e) {
+                log.log(LogLevel.DEBUG, () -> "Failed getting peers for '" + fileReference.value() + "' from " +
+                                              source + ": " + Exceptions.toMessageString(e));
+            }
+        }
+        specs.remove(self);
+        return new ArrayList<>(specs);
+    }
+
+    /**
+     * Fetches the given chunk from a few random peers, or the origins if no peer has it, before the given deadline,
+     * and returns whether it was fetched
+     */
+    private boolean fetch(ChunkManifest manifest, int index, List<String> peerSpecs, List<ChunkSource> originSources,
+                          Instant deadline) {
+        byte[] digest = manifest.chunkDigest(index);
+        if (store.hasChunk(digest)) return true; // Fetched concurrently for another file reference
+
+        List<String> shuffled = new ArrayList<>(peerSpecs);
+        Collections.shuffle(shuffled);
+        List<ChunkSource> peerSources = shuffled.stream().limit(maxPeerAttempts).map(peers).collect(Collectors.toList());
+        List<ChunkSource> sources = new ArrayList<>(peerSources);
+        sources.addAll(originSources);
+        for (ChunkSource source : sources) {
+            Duration remaining = Duration.between(Instant.now(), deadline);
+            if (remaining.isNegative() || remaining.isZero()) return false;
+            if (peerSources.contains(source) && remaining.compareTo(peerTimeout) > 0)
+                remaining = peerTimeout;
+            try {
+                Optional<byte[]> data = source.chunk(manifest.fileReference(), index, digest, remaining);
+                if (data.isPresent()) {
+                    store.writeChunk(digest, data.get());
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                log.log(LogLevel.WARNING, "Discarding chunk " + index + " of '" + manifest.fileReference().value() +
+                                          "' from " + source + ": " + Exceptions.toMessageString(e));
+            } catch (RuntimeException e) {
+                log.log(LogLevel.DEBUG, () -> "Failed fetching chunk " + index + " of '" + manifest.fileReference().value() +
+                                              "' from " + source + ": " + Exceptions.toMessageString(e));
+            }
+        }
+        return false;
+    }
+
+    private static double fraction(int present, ChunkManifest manifest) {
+        return manifest.chunkCount() == 0 ? 1.0 : (double) present / manifest.chunkCount();
+    }
+
+    public void close() {
+        fetchExecutor.shutdownNow();
+    }
+
+}
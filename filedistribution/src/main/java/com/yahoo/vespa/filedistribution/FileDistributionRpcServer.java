@@ -39,6 +39,8 @@ public class FileDistributionRpcServer {
         this.supervisor = supervisor;
         this.downloader = downloader;
         declareFileDistributionMethods();
+        // Lets other nodes fetch chunks of file references from this node
+        downloader.chunkServer().ifPresent(chunkServer -> chunkServer.addMethods(supervisor));
     }
 
     private void declareFileDistributionMethods() {
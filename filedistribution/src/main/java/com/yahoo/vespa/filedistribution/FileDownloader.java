@@ -32,18 +32,39 @@ public class FileDownloader {
     private final Duration timeout;
     private final FileReferenceDownloader fileReferenceDownloader;
 
+    private final ChunkServer chunkServer; // null if chunked downloads are not used
+
     public FileDownloader(ConnectionPool connectionPool) {
+        this(connectionPool, null);
+    }
+
+    /**
+     * Creates a file downloader which downloads file references as chunks when possible.
+     *
+     * @param chunkServingSpec the spec the chunks of downloaded file references are served to other nodes at,
+     *                         using {@link #chunkServer()}, or null if they are not served to other nodes
+     */
+    public FileDownloader(ConnectionPool connectionPool, String chunkServingSpec) {
         this(connectionPool,
              new File(Defaults.getDefaults().underVespaHome("var/db/vespa/filedistribution")),
              new File(Defaults.getDefaults().underVespaHome("var/db/vespa/filedistribution")),
              Duration.ofMinutes(15),
-             Duration.ofSeconds(10));
+             Duration.ofSeconds(10),
+             new ChunkStore(ChunkStore.defaultDirectory()),
+             chunkServingSpec);
     }
 
     FileDownloader(ConnectionPool connectionPool, File downloadDirectory, File tmpDirectory, Duration timeout, Duration sleepBetweenRetries) {
+        this(connectionPool, downloadDirectory, tmpDirectory, timeout, sleepBetweenRetries, null, null);
+    }
+
+    FileDownloader(ConnectionPool connectionPool, File downloadDirectory, File tmpDirectory, Duration timeout, Duration sleepBetweenRetries,
+                   ChunkStore chunkStore, String chunkServingSpec) {
         this.downloadDirectory = downloadDirectory;
         this.timeout = timeout;
-        this.fileReferenceDownloader = new FileReferenceDownloader(downloadDirectory, tmpDirectory, connectionPool, timeout, sleepBetweenRetries);
+        this.chunkServer = chunkStore == null ? null : new ChunkServer(chunkStore);
+        this.fileReferenceDownloader = new FileReferenceDownloader(downloadDirectory, tmpDirectory, connectionPool, timeout,
+                                                                   sleepBetweenRetries, chunkStore, chunkServingSpec);
     }
 
     public Optional<File> getFile(FileReference fileReference) {
@@ -145,4 +166,9 @@ public class FileDownloader {
     public FileReferenceDownloader fileReferenceDownloader() {
         return fileReferenceDownloader;
     }
+
+    /** Returns a server for the chunks downloaded by this, or empty if this does not download chunks */
+    public Optional<ChunkServer> chunkServer() {
+        return Optional.ofNullable(chunkServer);
+    }
 }
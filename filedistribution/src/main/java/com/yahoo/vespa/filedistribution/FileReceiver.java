@@ -109,37 +109,7 @@ public class FileReceiver {
             if (hasher.getValue() != hash) {
                 throw new RuntimeException("xxhash from content (" + currentHash + ") is not equal to xxhash in request (" + hash + ")");
             }
-            File file = new File(fileReferenceDir, fileName);
-            try {
-                // Unpack if necessary
-                if (fileType == FileReferenceData.Type.compressed) {
-                    File decompressedDir = Files.createTempDirectory(tmpDir.toPath(), "archive").toFile();
-                    log.log(LogLevel.DEBUG, () -> "Archived file, unpacking " + inprogressFile + " to " + decompressedDir);
-                    CompressedFileReference.decompress(inprogressFile, decompressedDir);
-                    moveFileToDestination(decompressedDir, fileReferenceDir);
-                } else {
-                    try {
-                        Files.createDirectories(fileReferenceDir.toPath());
-                    } catch (IOException e) {
-                        log.log(LogLevel.ERROR, "Failed creating directory (" + fileReferenceDir.toPath() + "): " + e.getMessage(), e);
-                        throw new RuntimeException("Failed creating directory (" + fileReferenceDir.toPath() + "): ", e);
-                    }
-                    log.log(LogLevel.DEBUG, () -> "Uncompressed file, moving to " + file.getAbsolutePath());
-                    moveFileToDestination(inprogressFile, file);
-                }
-            } catch (IOException e) {
-                log.log(LogLevel.ERROR, "Failed writing file: " + e.getMessage(), e);
-                throw new RuntimeException("Failed writing file: ", e);
-            } finally {
-                try {
-                    if (inprogressFile.exists()) {
-                        Files.delete(inprogressFile.toPath());
-                    }
-                } catch (IOException e) {
-                    log.log(LogLevel.ERROR, "Failed deleting " + inprogressFile.getAbsolutePath() + ": " + e.getMessage(), e);
-                }
-            }
-            return file;
+            return install(inprogressFile, fileType, fileName, fileReferenceDir, tmpDir);
         }
 
         double percentageReceived() {
@@ -186,6 +156,44 @@ public class FileReceiver {
         return methods;
     }
 
+    /**
+     * Moves the downloaded content of a file reference into place in the given file reference directory,
+     * unpacking it first if it is compressed, and returns the resulting file. The content file is always deleted.
+     */
+    static File install(File inprogressFile, FileReferenceData.Type fileType, String fileName, File fileReferenceDir, File tmpDir) {
+        File file = new File(fileReferenceDir, fileName);
+        try {
+            // Unpack if necessary
+            if (fileType == FileReferenceData.Type.compressed) {
+                File decompressedDir = Files.createTempDirectory(tmpDir.toPath(), "archive").toFile();
+                log.log(LogLevel.DEBUG, () -> "Archived file, unpacking " + inprogressFile + " to " + decompressedDir);
+                CompressedFileReference.decompress(inprogressFile, decompressedDir);
+                moveFileToDestination(decompressedDir, fileReferenceDir);
+            } else {
+                try {
+                    Files.createDirectories(fileReferenceDir.toPath());
+                } catch (IOException e) {
+                    log.log(LogLevel.ERROR, "Failed creating directory (" + fileReferenceDir.toPath() + "): " + e.getMessage(), e);
+                    throw new RuntimeException("Failed creating directory (" + fileReferenceDir.toPath() + "): ", e);
+                }
+                log.log(LogLevel.DEBUG, () -> "Uncompressed file, moving to " + file.getAbsolutePath());
+                moveFileToDestination(inprogressFile, file);
+            }
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Failed writing file: " + e.getMessage(), e);
+            throw new RuntimeException("Failed writing file: ", e);
+        } finally {
+            try {
+                if (inprogressFile.exists()) {
+                    Files.delete(inprogressFile.toPath());
+                }
+            } catch (IOException e) {
+                log.log(LogLevel.ERROR, "Failed deleting " + inprogressFile.getAbsolutePath() + ": " + e.getMessage(), e);
+            }
+        }
+        return file;
+    }
+
     private static void moveFileToDestination(File tempFile, File destination) {
         try {
             Files.move(tempFile.toPath(), destination.toPath());
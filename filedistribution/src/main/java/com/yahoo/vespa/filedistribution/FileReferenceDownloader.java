@@ -16,8 +16,10 @@ import java.io.File;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.logging.Level;
@@ -43,18 +45,43 @@ public class FileReferenceDownloader {
     private final Map<FileReference, Double> downloadStatus = new HashMap<>();  // between 0 and 1
     private final Duration downloadTimeout;
     private final Duration sleepBetweenRetries;
+    private final Map<String, RpcChunkSource> chunkSources = new ConcurrentHashMap<>();
+    private final ChunkedFileDownloader chunkedDownloader; // null if chunked downloads are not used
 
     FileReferenceDownloader(File downloadDirectory, File tmpDirectory, ConnectionPool connectionPool, Duration timeout, Duration sleepBetweenRetries) {
+        this(downloadDirectory, tmpDirectory, connectionPool, timeout, sleepBetweenRetries, null, null);
+    }
+
+    /**
+     * @param chunkStore where to keep chunks when downloading file references as chunks, or null to download
+     *                   file references only by having config servers push them
+     * @param chunkServingSpec the spec chunks in the chunk store are served to other nodes at, or null if they are not
+     */
+    FileReferenceDownloader(File downloadDirectory, File tmpDirectory, ConnectionPool connectionPool, Duration timeout,
+                            Duration sleepBetweenRetries, ChunkStore chunkStore, String chunkServingSpec) {
         this.connectionPool = connectionPool;
         this.downloadTimeout = timeout;
         this.sleepBetweenRetries = sleepBetweenRetries;
         // Needed to receive RPC calls receiveFile* from server after asking for files
         new FileReceiver(connectionPool.getSupervisor(), this, downloadDirectory, tmpDirectory);
+        this.chunkedDownloader = chunkStore == null
+                ? null
+                : new ChunkedFileDownloader(chunkStore, downloadDirectory, tmpDirectory, this::chunkOrigins, this::chunkSource,
+                                            chunkServingSpec, this::setDownloadStatus, 4);
     }
 
     private void startDownload(Duration timeout, FileReferenceDownload fileReferenceDownload) {
         FileReference fileReference = fileReferenceDownload.fileReference();
         long end = System.currentTimeMillis() + timeout.toMillis();
+        // Config servers which do not serve chunks, or do not have the file reference, make this fall back to having it pushed
+        if (chunkedDownloader != null) {
+            Optional<File> file = chunkedDownloader.download(fileReference, timeout);
+            if (file.isPresent()) {
+                completedDownloading(fileReference, file.get());
+                return;
+            }
+        }
+
         boolean downloadStarted = false;
         int retryCount = 0;
         while ((System.currentTimeMillis() < end) && !downloadStarted) {
@@ -134,6 +161,15 @@ public class FileReferenceDownloader {
         }
     }
 
+    private List<ChunkSource> chunkOrigins() {
+        Connection connection = connectionPool.getCurrent();
+        return connection == null ? List.of() : List.of(chunkSource(connection.getAddress()));
+    }
+
+    private ChunkSource chunkSource(String spec) {
+        return chunkSources.computeIfAbsent(spec, __ -> new RpcChunkSource(connectionPool.getSupervisor(), spec));
+    }
+
     boolean isDownloading(FileReference fileReference) {
         synchronized (downloads) {
             return downloads.containsKey(fileReference);
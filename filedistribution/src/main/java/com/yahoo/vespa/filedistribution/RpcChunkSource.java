@@ -0,0 +1,105 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.config.FileReference;
+import com.yahoo.jrt.DataValue;
+import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Request;
+import com.yahoo.jrt.Spec;
+import com.yahoo.jrt.StringValue;
+import com.yahoo.jrt.Supervisor;
+import com.yahoo.jrt.Target;
+import com.yahoo.log.LogLevel;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * A {@link ChunkSource} reached over RPC, i.e. a {@link ChunkServer} in another process.
+ * Sources which fail or do not support the chunk methods behave as if they have nothing.
+ *
+ * @author agent
+ */
+public class RpcChunkSource implements ChunkSource {
+
+    private final static Logger log = Logger.getLogger(RpcChunkSource.class.getName());
+    /** The timeout of requests for manifests and peers, which are small */
+    private final static Duration rpcTimeout = Duration.ofSeconds(10);
+
+    private final Supervisor supervisor;
+    private final String spec;
+    private Target target;
+
+    public RpcChunkSource(Supervisor supervisor, String spec) {
+        this.supervisor = supervisor;
+        this.spec = spec;
+    }
+
+    @Override
+    public Optional<ChunkManifest> manifest(FileReference fileReference) {
+        Request request = new Request(ChunkServer.GET_MANIFEST_METHOD);
+        request.parameters().add(new StringValue(fileReference.value()));
+        return invokeForData(request, "ix", rpcTimeout).map(ChunkManifest::fromBytes);
+    }
+
+    @Override
+    public List<String> peers(FileReference fileReference, String requester) {
+        Request request = new Request(ChunkServer.GET_PEERS_METHOD);
+        request.parameters().add(new StringValue(fileReference.value()));
+        request.parameters().add(new StringValue(requester == null ? "" : requester));
+        if ( ! invoke(request, "S", rpcTimeout)) return List.of();
+
+        return Arrays.asList(request.returnValues().get(0).asStringArray());
+    }
+
+    @Override
+    public Optional<byte[]> chunk(FileReference fileReference, int index, byte[] digest, Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) return Optional.empty();
+
+        Request request = new Request(ChunkServer.GET_CHUNK_METHOD);
+        request.parameters().add(new StringValue(fileReference.value()));
+        request.parameters().add(new Int32Value(index));
+        request.parameters().add(new DataValue(digest));
+        return invokeForData(request, "ix", timeout);
+    }
+
+    private Optional<byte[]> invokeForData(Request request, String returnTypes, Duration timeout) {
+        if ( ! invoke(request, returnTypes, timeout) || request.returnValues().get(0).asInt32() != 0) return Optional.empty();
+
+        return Optional.of(request.returnValues().get(1).asData());
+    }
+
+    private boolean invoke(Request request, String returnTypes, Duration timeout) {
+        target().invokeSync(request, timeout.toMillis() / 1000.0);
+        if (request.isError()) {
+            log.log(LogLevel.DEBUG, () -> "Request " + request.methodName() + " to " + spec + " failed: " + request.errorMessage());
+            return false;
+        }
+        if ( ! request.checkReturnTypes(returnTypes)) {
+            log.log(LogLevel.WARNING, "Invalid return types for " + request.methodName() + " from " + spec);
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized Target target() {
+        if (target == null || ! target.isValid()) {
+            if (target != null) target.close();
+            target = supervisor.connect(new Spec(spec));
+        }
+        return target;
+    }
+
+    public synchronized void close() {
+        if (target != null) target.close();
+    }
+
+    @Override
+    public String toString() {
+        return "chunk source at " + spec;
+    }
+
+}
@@ -0,0 +1,296 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.filedistribution;
+
+import com.yahoo.config.FileReference;
+import com.yahoo.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests chunked downloads with several nodes in the same process, talking directly to each other's chunk servers.
+ *
+ * @author agent
+ */
+public class ChunkedFileDownloaderTest {
+
+    private static final int chunkSize = 1024;
+    private static final Duration timeout = Duration.ofMinutes(1);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Map<String, CountingSource> nodes = new HashMap<>();
+    private final Map<FileReference, File> originFiles = new HashMap<>();
+    private CountingSource origin;
+
+    @Test
+    public void chunks_are_fetched_from_peers_rather_than_origin() throws IOException {
+        createOrigin();
+        FileReference reference = new FileReference("model");
+        byte[] content = randomBytes(100 * chunkSize + 17, 1);
+        addToOrigin(reference, "model.onnx", content);
+
+        int nodeCount = 10;
+        for (int i = 0; i < nodeCount; i++) {
+            Optional<File> file = createNode("node" + i).download(reference, timeout);
+            assertTrue(file.isPresent());
+            assertEquals("model.onnx", file.get().getName());
+            assertArrayEquals(content, Files.readAllBytes(file.get().toPath()));
+        }
+
+        // Only the first node had to fetch chunks from the origin, all the others got them from the nodes before them
+        assertEquals(101, origin.chunksServed.get());
+        assertEquals(101 * (nodeCount - 1), nodes.values().stream().mapToInt(node -> node.chunksServed.get()).sum());
+        assertTrue("Load is spread over several peers",
+                   nodes.values().stream().filter(node -> node.chunksServed.get() > 0).count() > 1);
+    }
+
+    @Test
+    public void concurrent_downloads_spread_load_over_peers() throws Exception {
+        createOrigin();
+        FileReference reference = new FileReference("model");
+        byte[] content = randomBytes(200 * chunkSize, 6);
+        addToOrigin(reference, "model.onnx", content);
+        assertTrue(createNode("seed").download(reference, timeout).isPresent());
+
+        int nodeCount = 8;
+        List<ChunkedFileDownloader> downloaders = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++)
+            downloaders.add(createNode("node" + i));
+        ExecutorService executor = Executors.newFixedThreadPool(nodeCount);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Optional<File>>> files = new ArrayList<>();
+            for (ChunkedFileDownloader downloader : downloaders)
+                files.add(executor.submit(() -> { start.await(); return downloader.download(reference, timeout); }));
+            start.countDown();
+            for (Future<Optional<File>> file : files)
+                assertArrayEquals(content, Files.readAllBytes(file.get().get().toPath()));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        int servedByPeers = nodes.values().stream().mapToInt(node -> node.chunksServed.get()).sum();
+        assertEquals(200 * nodeCount, servedByPeers + origin.chunksServed.get() - 200);
+        assertTrue("Not all chunks are served by the origin", origin.chunksServed.get() - 200 < 200 * nodeCount);
+        assertTrue("Load is spread over several peers, not only the seed",
+                   nodes.values().stream().filter(node -> node.chunksServed.get() > 0).count() > 2);
+    }
+
+    @Test
+    public void chunks_with_wrong_digest_from_peers_are_discarded() throws IOException {
+        createOrigin();
+        FileReference reference = new FileReference("model");
+        byte[] content = randomBytes(10 * chunkSize, 7);
+        addToOrigin(reference, "model.onnx", content);
+        assertTrue(createNode("seed").download(reference, timeout).isPresent());
+        nodes.get("seed").poisoned = true;
+
+        Optional<File> file = createNode("node").download(reference, timeout);
+        assertTrue(file.isPresent());
+        assertArrayEquals(content, Files.readAllBytes(file.get().toPath()));
+        assertEquals("Chunks are fetched from the origin when the peer's chunks are invalid", 20, origin.chunksServed.get());
+    }
+
+    @Test
+    public void peers_are_pruned() throws IOException {
+        ManualClock clock = new ManualClock();
+        ChunkServer server = new ChunkServer(new ChunkStore(temporaryFolder.newFolder()), reference -> Optional.empty(), chunkSize, clock);
+        FileReference reference = new FileReference("model");
+        for (int i = 0; i < ChunkServer.maxPeersPerFileReference + 10; i++)
+            server.peers(reference, "node" + i);
+        List<String> peers = server.peers(reference, null);
+        assertEquals(ChunkServer.maxPeersPerFileReference, peers.size());
+        assertEquals("node10", peers.get(0));
+
+        clock.advance(ChunkServer.peerTimeToLive.plusSeconds(1));
+        server.peers(reference, "latecomer");
+        assertEquals(List.of("latecomer"), server.peers(reference, null));
+
+        for (int i = 0; i < ChunkServer.maxFileReferencesWithPeers + 1; i++)
+            server.peers(new FileReference("reference" + i), "node");
+        assertTrue("Least recently asked file reference is forgotten", server.peers(reference, null).isEmpty());
+    }
+
+    @Test
+    public void failed_download_is_resumed() throws IOException {
+        createOrigin();
+        FileReference reference = new FileReference("model");
+        byte[] content = randomBytes(100 * chunkSize, 2);
+        addToOrigin(reference, "model.onnx", content);
+        ChunkedFileDownloader node = createNode("node");
+
+        origin.chunksToServe.set(40);
+        assertFalse(node.download(reference, timeout).isPresent());
+        assertEquals(40, origin.chunksServed.get());
+
+        origin.chunksToServe.set(Integer.MAX_VALUE);
+        Optional<File> file = node.download(reference, timeout);
+        assertTrue(file.isPresent());
+        assertArrayEquals(content, Files.readAllBytes(file.get().toPath()));
+        assertEquals("Only the missing chunks are fetched when resuming", 100, origin.chunksServed.get());
+    }
+
+    @Test
+    public void chunks_already_present_are_not_fetched() throws IOException {
+        createOrigin();
+        byte[] first = randomBytes(20 * chunkSize, 3);
+        byte[] second = Arrays.copyOf(first, 30 * chunkSize);
+        System.arraycopy(randomBytes(10 * chunkSize, 4), 0, second, 20 * chunkSize, 10 * chunkSize);
+        addToOrigin(new FileReference("first"), "model.onnx", first);
+        addToOrigin(new FileReference("second"), "model.onnx", second);
+        ChunkedFileDownloader node = createNode("node");
+
+        assertArrayEquals(first, Files.readAllBytes(node.download(new FileReference("first"), timeout).get().toPath()));
+        assertEquals(20, origin.chunksServed.get());
+        assertArrayEquals(second, Files.readAllBytes(node.download(new FileReference("second"), timeout).get().toPath()));
+        assertEquals(30, origin.chunksServed.get());
+    }
+
+    @Test
+    public void directories_are_downloaded_as_archives() throws IOException {
+        createOrigin();
+        FileReference reference = new FileReference("dir-reference");
+        File directory = new File(new File(temporaryFolder.getRoot(), "origin-files/" + reference.value()), "models");
+        IOUtils.writeFile(new File(directory, "foo"), "foo", false);
+        IOUtils.writeFile(new File(directory, "sub/bar"), "bar", false);
+        originFiles.put(reference, directory);
+
+        Optional<File> file = createNode("node").download(reference, timeout);
+        assertTrue(file.isPresent());
+        assertEquals("models", file.get().getName());
+        assertEquals("foo", IOUtils.readFile(new File(file.get(), "foo")));
+        assertEquals("bar", IOUtils.readFile(new File(file.get(), "sub/bar")));
+    }
+
+    @Test
+    public void manifest_serialization() throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), randomBytes(3 * chunkSize + 1, 5));
+        ChunkManifest manifest = ChunkManifest.create(new FileReference("ref"), "file", FileReferenceData.Type.file, file, chunkSize);
+        assertEquals(4, manifest.chunkCount());
+        assertEquals(1, manifest.chunkLength(3));
+        assertEquals(manifest, ChunkManifest.fromBytes(manifest.toBytes()));
+    }
+
+    @Test
+    public void manifest_chunk_count_is_bounded_by_received_bytes() throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), randomBytes(chunkSize, 8));
+        byte[] serialized = ChunkManifest.create(new FileReference("ref"), "file", FileReferenceData.Type.file, file, chunkSize).toBytes();
+        int chunkCountOffset = serialized.length - ChunkManifest.digestLength - 4;
+        ByteBuffer.wrap(serialized).putInt(chunkCountOffset, Integer.MAX_VALUE);
+        try {
+            ChunkManifest.fromBytes(serialized);
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid chunk count 2147483647 with 32 bytes left", e.getMessage());
+        }
+    }
+
+    private void createOrigin() throws IOException {
+        origin = new CountingSource(new ChunkServer(new ChunkStore(temporaryFolder.newFolder("origin-chunks")),
+                                                    reference -> Optional.ofNullable(originFiles.get(reference)),
+                                                    chunkSize));
+    }
+
+    private void addToOrigin(FileReference reference, String filename, byte[] content) throws IOException {
+        File file = new File(new File(temporaryFolder.getRoot(), "origin-files/" + reference.value()), filename);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content);
+        originFiles.put(reference, file);
+    }
+
+    private ChunkedFileDownloader createNode(String spec) throws IOException {
+        ChunkStore store = new ChunkStore(temporaryFolder.newFolder(spec + "-chunks"));
+        nodes.put(spec, new CountingSource(new ChunkServer(store)));
+        return new ChunkedFileDownloader(store, temporaryFolder.newFolder(spec + "-download"), temporaryFolder.newFolder(spec + "-tmp"),
+                                         () -> List.of(origin), nodes::get, spec, (reference, status) -> {}, 4);
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static class ManualClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override
+        public Instant instant() { return now; }
+
+        @Override
+        public ZoneId getZone() { return ZoneOffset.UTC; }
+
+        @Override
+        public Clock withZone(ZoneId zone) { throw new UnsupportedOperationException(); }
+
+    }
+
+    private static class CountingSource implements ChunkSource {
+
+        private final ChunkSource delegate;
+        private final AtomicInteger chunksServed = new AtomicInteger();
+        private final AtomicInteger chunksToServe = new AtomicInteger(Integer.MAX_VALUE);
+        private volatile boolean poisoned = false;
+
+        CountingSource(ChunkSource delegate) { this.delegate = delegate; }
+
+        @Override
+        public Optional<ChunkManifest> manifest(FileReference fileReference) {
+            return delegate.manifest(fileReference);
+        }
+
+        @Override
+        public List<String> peers(FileReference fileReference, String requester) {
+            return delegate.peers(fileReference, requester);
+        }
+
+        @Override
+        public Optional<byte[]> chunk(FileReference fileReference, int index, byte[] digest, Duration timeout) {
+            if (chunksToServe.getAndDecrement() <= 0) return Optional.empty();
+
+            Optional<byte[]> chunk = delegate.chunk(fileReference, index, digest, timeout);
+            chunk.ifPresent(__ -> chunksServed.incrementAndGet());
+            if (poisoned)
+                chunk.ifPresent(data -> data[0]++);
+            return chunk;
+        }
+
+    }
+
+}
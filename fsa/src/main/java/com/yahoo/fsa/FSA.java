@@ -14,6 +14,8 @@ import java.nio.CharBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -70,10 +72,14 @@ public class FSA implements Closeable {
         }
 
         public void delta(char chr){
+            Maps m = fsa.map();
+            if (fsa._utf8) {
+                deltaUtf8(m, Character.isSurrogate(chr) ? '?' : chr);
+                return;
+            }
             CharBuffer chrbuf = CharBuffer.allocate(1);
             chrbuf.put(0,chr);
             ByteBuffer buf = fsa.encode(chrbuf);
-            Maps m = fsa.map();
             while(state >0 && buf.position()<buf.limit()){
                 delta(m, buf.get());
             }
@@ -81,13 +87,44 @@ public class FSA implements Closeable {
 
         /** Jumps ahead by string */
         public void delta(String string){
-            ByteBuffer buf = fsa.encode(string);
             Maps m = fsa.map();
+            if (fsa._utf8) {
+                for (int i = 0; state > 0 && i < string.length(); ) {
+                    int codePoint = string.codePointAt(i);
+                    i += Character.charCount(codePoint);
+                    boolean unpairedSurrogate = codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE;
+                    deltaUtf8(m, unpairedSurrogate ? '?' : codePoint);
+                }
+                return;
+            }
+            ByteBuffer buf = fsa.encode(string);
             while(state >0 && buf.position()<buf.limit()){
                 delta(m, buf.get());
             }
         }
 
+        /** Jumps ahead by the utf-8 encoding of the given code point, without allocating an encoded buffer */
+        private void deltaUtf8(Maps m, int codePoint) {
+            if (codePoint < 0x80) {
+                delta(m, (byte)codePoint);
+            }
+            else if (codePoint < 0x800) {
+                delta(m, (byte)(0xc0 | (codePoint >> 6)));
+                if (state > 0) delta(m, (byte)(0x80 | (codePoint & 0x3f)));
+            }
+            else if (codePoint < 0x10000) {
+                delta(m, (byte)(0xe0 | (codePoint >> 12)));
+                if (state > 0) delta(m, (byte)(0x80 | ((codePoint >> 6) & 0x3f)));
+                if (state > 0) delta(m, (byte)(0x80 | (codePoint & 0x3f)));
+            }
+            else {
+                delta(m, (byte)(0xf0 | (codePoint >> 18)));
+                if (state > 0) delta(m, (byte)(0x80 | ((codePoint >> 12) & 0x3f)));
+                if (state > 0) delta(m, (byte)(0x80 | ((codePoint >> 6) & 0x3f)));
+                if (state > 0) delta(m, (byte)(0x80 | (codePoint & 0x3f)));
+            }
+        }
+
         /**
          * Jumps ahead by string if that puts us into a valid state, does nothing otherwise
          *
@@ -175,10 +212,11 @@ public class FSA implements Closeable {
          */
         public static class Item {
             private FSA fsa;
-            private java.util.Stack<Byte> string;
+            private byte[] string;
+            private int length;
             private int symbol;
             private int state;
-            private java.util.Stack<Integer> stack;
+            private int[] stack;
 
             /**
              * Constructor
@@ -188,10 +226,11 @@ public class FSA implements Closeable {
              */
             public Item(FSA fsa, int state) {
                 this.fsa = fsa;
-                this.string = new java.util.Stack();
+                this.string = new byte[16];
+                this.length = 0;
                 this.symbol = 0;
                 this.state = state;
-                this.stack = new java.util.Stack();
+                this.stack = new int[16];
             }
 
             /**
@@ -199,11 +238,8 @@ public class FSA implements Closeable {
              */
             public Item(Item item) {
                 this.fsa = item.fsa;
-                this.string = new java.util.Stack();
-                for (java.util.Iterator<Byte> itr = item.string.iterator(); itr.hasNext(); ) {
-                    byte b = itr.next();
-                    this.string.push(b);
-                }
+                this.string = Arrays.copyOf(item.string, item.length);
+                this.length = item.length;
                 this.symbol = item.symbol;
                 this.state = item.state;
                 // no need to fill the stack as this constructor is used by Iterator::next()
@@ -211,13 +247,16 @@ public class FSA implements Closeable {
             }
 
             public String getString() {
-                ByteBuffer buffer = ByteBuffer.allocate(string.size());
-                for (java.util.Iterator<Byte> itr = string.iterator(); itr.hasNext(); ) {
-                    byte b = itr.next();
-                    buffer.put(b);
+                return new String(string, 0, length, fsa._charset);
+            }
+
+            private void push(byte b, int state) {
+                if (length == string.length) {
+                    string = Arrays.copyOf(string, length * 2);
+                    stack = Arrays.copyOf(stack, length * 2);
                 }
-                buffer.flip();
-                return fsa.decode(buffer);
+                string[length] = b;
+                stack[length++] = state;
             }
 
             public ByteBuffer getData() {
@@ -230,7 +269,7 @@ public class FSA implements Closeable {
 
             @Override
             public String toString() {
-                return "string: " + string + "(" + getString() + "), symbol: " + symbol + ", state: " + state;
+                return "string: " + Arrays.toString(Arrays.copyOf(string, length)) + "(" + getString() + "), symbol: " + symbol + ", state: " + state;
             }
         }
 
@@ -270,8 +309,7 @@ public class FSA implements Closeable {
                     byte symbol = (byte)item.symbol;
                     nextState = item.fsa.delta(item.state, (byte)item.symbol);
                     if (nextState != 0) {
-                        item.string.push((byte)item.symbol);
-                        item.stack.push(item.state);
+                        item.push((byte)item.symbol, item.state);
                         item.state = nextState;
                         item.symbol = 0;
                         if (item.fsa.isFinal(nextState)) {
@@ -279,10 +317,10 @@ public class FSA implements Closeable {
                         }
                     }
                 } else { // backtrack
-                    if ((depth = item.string.size()) > 0) {
-                        byte b = item.string.pop(); // remove the last byte
+                    if ((depth = item.length) > 0) {
+                        byte b = item.string[--item.length]; // remove the last byte
                         item.symbol = b < 0 ? b + 256 : b;
-                        item.state = item.stack.pop();
+                        item.state = item.stack[item.length];
                     } else {
                         item.state = 0;
                         break;
@@ -326,26 +364,40 @@ public class FSA implements Closeable {
     }
 
     private static class Maps implements Closeable {
+        /** Maps the whole file once, such that the tables below are views of a single mapping */
         Maps(FileInputStream file) throws IOException {
-            _header = file.getChannel().map(MapMode.READ_ONLY,0,256);
-            _header.order(ByteOrder.LITTLE_ENDIAN);
+            this(file.getChannel().map(MapMode.READ_ONLY, 0, file.getChannel().size()));
+        }
+        Maps(ByteBuffer buffer) throws IOException {
+            _buffer = buffer;
+            if (buffer.remaining() < 256) {
+                throw new IOException("Stream does not contain an FSA: Size " + buffer.remaining() + " is smaller than the header");
+            }
+            _header = slice(buffer, 0, 256);
             if (h_magic()!=2038637673) {
                 throw new IOException("Stream does not contain an FSA: Wrong file magic number " + h_magic());
             }
-            _symbol_tab = file.getChannel().map(MapMode.READ_ONLY, 256, h_size());
-            _symbol_tab.order(ByteOrder.LITTLE_ENDIAN);
-            _state_tab = file.getChannel().map(MapMode.READ_ONLY, 256+h_size(), 4*h_size());
-            _state_tab.order(ByteOrder.LITTLE_ENDIAN);
-            _data = file.getChannel().map(MapMode.READ_ONLY, 256+5*h_size(), h_data_size());
-            _data.order(ByteOrder.LITTLE_ENDIAN);
+            long size = 256L + 5L*h_size() + h_data_size() + (h_has_phash()>0 ? 4L*h_size() : 0);
+            if (buffer.remaining() < size) {
+                throw new IOException("Stream does not contain an FSA: Size " + buffer.remaining() + " is smaller than the " +
+                                      size + " bytes given by the header");
+            }
+            _symbol_tab = slice(buffer, 256, h_size());
+            _state_tab = slice(buffer, 256+h_size(), 4*h_size());
+            _data = slice(buffer, 256+5*h_size(), h_data_size());
             if (h_has_phash()>0){
-                _phash = file.getChannel().map(MapMode.READ_ONLY, 256+5*h_size()+h_data_size(), 4*h_size());
-                _phash.order(ByteOrder.LITTLE_ENDIAN);
+                _phash = slice(buffer, 256+5*h_size()+h_data_size(), 4*h_size());
             } else {
                 _phash = null;
             }
             _ok = true;
         }
+        private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(buffer.position() + offset);
+            slice.limit(buffer.position() + offset + length);
+            return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
         private int h_magic(){
             return _header.getInt(0);
         }
@@ -401,6 +453,33 @@ public class FSA implements Closeable {
             return 0;
         }
 
+        /**
+         * The symbol of a transition on s from a state is stored at state+s. This compares 8 cells at a time
+         * with the symbols they would hold, where each zero byte of the difference is a transition.
+         */
+        private int symbols(int state, byte[] symbols) {
+            int count = 0;
+            int symbol = 1;
+            for (; symbol + 8 <= 255; symbol += 8) {
+                long difference = _symbol_tab.getLong(state + symbol) ^ symbolPatterns[symbol >> 3];
+                long zeroBytes = ~(((difference & 0x7f7f7f7f7f7f7f7fL) + 0x7f7f7f7f7f7f7f7fL) | difference | 0x7f7f7f7f7f7f7f7fL);
+                for (; zeroBytes != 0; zeroBytes &= zeroBytes - 1)
+                    symbols[count++] = (byte)(symbol + (Long.numberOfTrailingZeros(zeroBytes) >> 3));
+            }
+            for (; symbol < 255; symbol++)
+                if (getSymbol(state + symbol) == symbol)
+                    symbols[count++] = (byte)symbol;
+            return count;
+        }
+
+        /** The symbols from 8n+1 to 8n+8 as little endian longs */
+        private static final long[] symbolPatterns = new long[32];
+        static {
+            for (int n = 0; n < symbolPatterns.length; n++)
+                for (int i = 0; i < 8; i++)
+                    symbolPatterns[n] |= (long)((8 * n + 1 + i) & 0xff) << (8 * i);
+        }
+
         private int getSymbol(int index){
             int symbol = _symbol_tab.get(index);
             if(symbol<0){
@@ -411,8 +490,9 @@ public class FSA implements Closeable {
         private boolean isFinal(int state){
             return _ok && (getSymbol(state+255)==255);
         }
-        private static void clean(MappedByteBuffer mmap) {
-            if ((mmap == null) || !mmap.isDirect()) return;
+        private static void clean(ByteBuffer buffer) {
+            if ( ! (buffer instanceof MappedByteBuffer) || !buffer.isDirect()) return;
+            MappedByteBuffer mmap = (MappedByteBuffer) buffer;
 
             try {
                 Class unsafeClass;
@@ -435,22 +515,20 @@ public class FSA implements Closeable {
         }
         @Override
         public void close() {
-            clean(_header);
-            clean(_data);
-            clean(_phash);
-            clean(_state_tab);
-            clean(_symbol_tab);
-        }
-
-        private final MappedByteBuffer _header;
-        private final MappedByteBuffer _symbol_tab;
-        private final MappedByteBuffer _state_tab;
-        private final MappedByteBuffer _data;
-        private final MappedByteBuffer _phash;
+            clean(_buffer);
+        }
+
+        private final ByteBuffer _buffer;
+        private final ByteBuffer _header;
+        private final ByteBuffer _symbol_tab;
+        private final ByteBuffer _state_tab;
+        private final ByteBuffer _data;
+        private final ByteBuffer _phash;
         private final boolean _ok;
     }
     private final boolean _ok;
     private final Charset _charset;
+    private final boolean _utf8;
     private final AtomicReference<Maps> maps = new AtomicReference<>();
 
 
@@ -511,10 +589,29 @@ public class FSA implements Closeable {
     public FSA(FileInputStream file, String charsetname) {
         this(file, charsetname, false);
     }
+    /**
+     * Creates an FSA from the binary automaton in the remaining bytes of the given buffer,
+     * as returned by {@link FSABuilder#toBuffer}, using utf-8 encoding
+     *
+     * @throws IllegalArgumentException if the buffer does not contain an automaton
+     */
+    public FSA(ByteBuffer buffer) {
+        try {
+            _charset = StandardCharsets.UTF_8;
+            _utf8 = true;
+            maps.set(new Maps(buffer));
+            _ok=true;
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Could not read FSA from buffer", e);
+        }
+    }
+
     /** Loads an FSA from a file input stream using the specified character encoding */
     private FSA(FileInputStream file, String charsetname, boolean closeInput) {
         try {
             _charset = Charset.forName(charsetname);
+            _utf8 = _charset.equals(StandardCharsets.UTF_8);
             maps.set(new Maps(file));
             _ok=true;
         }
@@ -574,7 +671,16 @@ public class FSA implements Closeable {
         return 0;
     }
 
-    protected int start(){
+    /** Returns the charset of the strings in this automaton */
+    public Charset charset() {
+        return _charset;
+    }
+
+    /**
+     * Returns the start state of this. States are given as ints by this and the other methods taking a state
+     * argument, which allows traversing the automaton without creating objects. Use {@link #getState} otherwise.
+     */
+    public int start(){
         if(_ok){
             return map().h_start();
         }
@@ -582,15 +688,28 @@ public class FSA implements Closeable {
         return 0;
     }
 
-    protected int delta(int state, byte symbol){
+    /** Returns the state reached by the given symbol from the given state, or 0 if there is no such transition */
+    public int delta(int state, byte symbol){
         return map().delta(state, symbol);
     }
 
+    /**
+     * Writes the symbols of the transitions from the given state to the start of the given array,
+     * in increasing order of their unsigned values, and returns the number of symbols written.
+     * This is much faster than trying every symbol with {@link #delta(int, byte)}.
+     *
+     * @param symbols the array to write to, which must have room for at least 256 symbols
+     */
+    public int symbols(int state, byte[] symbols) {
+        if ( ! _ok || state == 0) return 0;
+        return map().symbols(state, symbols);
+    }
+
     protected int hashDelta(int state, byte symbol){
         return map().hashDelta(state, symbol);
     }
 
-    protected boolean isFinal(int state){
+    public boolean isFinal(int state){
         return (_ok && map().isFinal(state));
     }
 
@@ -613,10 +732,9 @@ public class FSA implements Closeable {
             }
             ByteBuffer meta = ByteBuffer.allocate(length);
             meta.order(ByteOrder.LITTLE_ENDIAN);
-            byte[] dst = meta.array();
-            for (int i = 0; i < length; ++i) {
-                dst[i] = m._data.get(i + offset);
-            }
+            ByteBuffer src = m._data.duplicate();
+            src.position(offset);
+            src.get(meta.array());
             return meta;
         }
         return null;
@@ -627,7 +745,7 @@ public class FSA implements Closeable {
      * @param state The fsa state to retrieve data from.
      * @return A string representation of the data for the given state.
      **/
-    protected String dataString(int state) {
+    public String dataString(int state) {
         ByteBuffer meta = data(state);
         if(meta!=null){
             // Remove trailing '\0' if it exists. This is usually the
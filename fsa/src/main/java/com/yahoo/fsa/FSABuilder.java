@@ -0,0 +1,488 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.fsa;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a minimal finite-state automaton from a sorted list of strings, and writes it in the binary format
+ * read by {@link FSA} (and created by the makefsa tool).
+ * <p>
+ * Strings are added in increasing order of their utf-8 bytes (which is the same as the order of their code points),
+ * and the automaton is minimized as strings are added, such that the memory used while building is proportional
+ * to the size of the resulting automaton rather than the size of the input.
+ * <p>
+ * This is not thread safe.
+ *
+ * @author agent
+ */
+public class FSABuilder {
+
+    private static final int MAGIC = 0x79832469;
+    private static final int VERSION = 2000001;
+    private static final int HEADER_SIZE = 256;
+
+    private static final int EMPTY_SYMBOL = 0x00;
+    private static final int FINAL_SYMBOL = 0xff;
+    private static final byte[] NO_DATA = new byte[0];
+
+    private final Node root = new Node();
+    private final Map<Node, Node> register = new HashMap<>();
+    private byte[] previous = null;
+    private boolean perfectHash = false;
+    private int serial = 0;
+    private boolean built = false;
+
+    /** Sets whether to add a perfect hash to the automaton. Default is false. */
+    public FSABuilder perfectHash(boolean perfectHash) {
+        this.perfectHash = perfectHash;
+        return this;
+    }
+
+    /** Sets the serial number of the automaton. Default is 0. */
+    public FSABuilder serial(int serial) {
+        this.serial = serial;
+        return this;
+    }
+
+    /** Adds a string with no data */
+    public FSABuilder add(String string) {
+        return add(string, NO_DATA);
+    }
+
+    /** Adds a string with data which is encoded as utf-8 */
+    public FSABuilder add(String string, String data) {
+        return add(string, data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds a string with the given data.
+     *
+     * @throws IllegalArgumentException if the string does not come after the previously added string,
+     *         or contains the character \u0000
+     * @throws IllegalStateException if the automaton is already built
+     */
+    public FSABuilder add(String string, byte[] data) {
+        if (built) throw new IllegalStateException("This automaton is already built");
+
+        byte[] symbols = string.getBytes(StandardCharsets.UTF_8);
+        for (byte symbol : symbols)
+            if (symbol == EMPTY_SYMBOL)
+                throw new IllegalArgumentException("Strings in an automaton cannot contain \\u0000, but got '" + string + "'");
+        if (previous != null && compare(previous, symbols) >= 0)
+            throw new IllegalArgumentException("Strings must be added in sorted order without duplicates, but '" + string +
+                                               "' was added after '" + new String(previous, StandardCharsets.UTF_8) + "'");
+
+        int prefixLength = previous == null ? 0 : commonPrefixLength(previous, symbols);
+        Node last = root;
+        for (int i = 0; i < prefixLength; i++)
+            last = last.lastChild();
+        if (last.hasChildren())
+            replaceOrRegister(last);
+
+        for (int i = prefixLength; i < symbols.length; i++)
+            last = last.addChild(symbols[i]);
+        last.setFinal(Arrays.copyOf(data, data.length));
+
+        previous = symbols;
+        return this;
+    }
+
+    /** Returns this as a new automaton backed by a heap buffer */
+    public FSA build() {
+        return new FSA(toBuffer());
+    }
+
+    /** Writes this automaton to the given stream. This does not close the stream. */
+    public void write(OutputStream out) throws IOException {
+        ByteBuffer buffer = toBuffer();
+        out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+
+    /** Returns the binary representation of this automaton. No more strings can be added after this is called. */
+    public ByteBuffer toBuffer() {
+        if ( ! built) {
+            if (root.hasChildren())
+                replaceOrRegister(root);
+            register.clear();
+            built = true;
+        }
+        return new Packer(root, perfectHash).pack(serial);
+    }
+
+    /** Replaces the last child of the given node by an equivalent registered node, if any, or registers it */
+    private void replaceOrRegister(Node node) {
+        Node child = node.lastChild();
+        if (child.hasChildren())
+            replaceOrRegister(child);
+        Node registered = register.putIfAbsent(child, child);
+        if (registered != null)
+            node.replaceLastChild(registered);
+    }
+
+    private static int commonPrefixLength(byte[] a, byte[] b) {
+        int i = 0;
+        while (i < a.length && i < b.length && a[i] == b[i])
+            i++;
+        return i;
+    }
+
+    /** Compares byte arrays lexically by unsigned byte values */
+    private static int compare(byte[] a, byte[] b) {
+        int prefixLength = commonPrefixLength(a, b);
+        if (prefixLength < a.length && prefixLength < b.length)
+            return Integer.compare(Byte.toUnsignedInt(a[prefixLength]), Byte.toUnsignedInt(b[prefixLength]));
+        return Integer.compare(a.length, b.length);
+    }
+
+    /**
+     * A state of the automaton under construction. Nodes are compared by value, which is only stable once
+     * they are registered, as all their children are then registered too.
+     */
+    private static final class Node {
+
+        private byte[] symbols = NO_DATA;
+        private Node[] children = new Node[0];
+        private int childCount = 0;
+        private byte[] data = null;
+        private int hash = 0;
+
+        /** The cell of this state while it is packed, 0 if it is not placed yet, or -1 if it is not being packed */
+        private int cell = -1;
+
+        boolean hasChildren() { return childCount > 0; }
+
+        boolean isFinal() { return data != null; }
+
+        void setFinal(byte[] data) { this.data = data; }
+
+        Node lastChild() { return children[childCount - 1]; }
+
+        void replaceLastChild(Node child) { children[childCount - 1] = child; }
+
+        Node addChild(byte symbol) {
+            if (childCount == children.length) {
+                symbols = Arrays.copyOf(symbols, Math.max(2, childCount * 2));
+                children = Arrays.copyOf(children, symbols.length);
+            }
+            Node child = new Node();
+            symbols[childCount] = symbol;
+            children[childCount++] = child;
+            return child;
+        }
+
+        @Override
+        public int hashCode() {
+            if (hash == 0) {
+                int h = isFinal() ? 31 + Arrays.hashCode(data) : 0;
+                for (int i = 0; i < childCount; i++)
+                    h = 31 * (31 * h + symbols[i]) + System.identityHashCode(children[i]);
+                hash = h == 0 ? 1 : h;
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if ( ! (o instanceof Node)) return false;
+            Node other = (Node) o;
+            if (childCount != other.childCount) return false;
+            if (isFinal() != other.isFinal()) return false;
+            if (isFinal() && ! Arrays.equals(data, other.data)) return false;
+            for (int i = 0; i < childCount; i++) {
+                if (symbols[i] != other.symbols[i]) return false;
+                if (children[i] != other.children[i]) return false; // children are registered, i.e unique
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * Packs the states of a minimized automaton into the symbol and state tables of the binary format,
+     * where the transition on symbol s from the state at cell c is stored at cell c+s.
+     */
+    private static final class Packer {
+
+        private final Node root;
+        private final boolean perfectHash;
+
+        /** The states, in the order they are packed */
+        private final List<Node> states = new ArrayList<>();
+
+        private byte[] symbolTable = new byte[0];
+        private int[] stateTable;
+        private boolean[] usedCells = new boolean[0];
+        private int lastCell = 0;
+
+        /**
+         * The cells which are candidates for the lowest symbol of the next state to place, as a list linked
+         * in order of increasing cell. A cell is removed when it is filled, or when it has been tried too many
+         * times, as some cells can never be filled (e.g. cells below the lowest symbol in use). This keeps
+         * the time spent searching for a place for each state independent of the number of states placed.
+         */
+        private int[] nextFree = new int[0];
+        private int[] previousFree = new int[0];
+        private byte[] failures = new byte[0];
+        private int firstFree = none;
+        private int lastFree = none;
+
+        private static final int none = -1;
+        private static final int maxFailures = 16;
+
+        Packer(Node root, boolean perfectHash) {
+            this.root = root;
+            this.perfectHash = perfectHash;
+            ensureCapacity(1 << 16);
+        }
+
+        ByteBuffer pack(int serial) {
+            collectStates(root);
+            for (Node state : states)
+                state.cell = placeState(state);
+
+            int size = lastCell + 256;
+            symbolTable = Arrays.copyOf(symbolTable, size);
+            stateTable = new int[size];
+            for (Node state : states) {
+                for (int i = 0; i < state.childCount; i++)
+                    stateTable[state.cell + Byte.toUnsignedInt(state.symbols[i])] = state.children[i].cell;
+            }
+            Data data = packData();
+            int[] hashTable = perfectHash ? perfectHashTable(size) : null;
+
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size * 5 + data.size() + (hashTable != null ? size * 4 : 0));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(HEADER_SIZE);
+            buffer.put(symbolTable);
+            for (int value : stateTable)
+                buffer.putInt(value);
+            buffer.put(data.bytes, 0, data.size());
+            if (hashTable != null)
+                for (int value : hashTable)
+                    buffer.putInt(value);
+
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            int checksum = checksum(buffer, HEADER_SIZE, size) +
+                           checksum(buffer, HEADER_SIZE + size, size * 4) +
+                           checksum(buffer, HEADER_SIZE + size * 5, data.size());
+            if (hashTable != null)
+                checksum += checksum(buffer, HEADER_SIZE + size * 5 + data.size(), size * 4);
+            buffer.putInt(8, checksum);
+            buffer.putInt(12, size);
+            buffer.putInt(16, root.cell);
+            buffer.putInt(20, data.size());
+            buffer.putInt(24, data.fixedSize >= 0 ? 1 : 0);
+            buffer.putInt(28, Math.max(0, data.fixedSize));
+            buffer.putInt(32, hashTable != null ? 1 : 0);
+            buffer.putInt(36, serial);
+            buffer.rewind();
+
+            for (Node state : states)
+                state.cell = -1;
+            return buffer;
+        }
+
+        /** Adds the states reachable from the given one to the states list, children before their parents */
+        private void collectStates(Node start) {
+            List<Node> stack = new ArrayList<>();
+            List<Integer> nextChild = new ArrayList<>();
+            start.cell = 0;
+            stack.add(start);
+            nextChild.add(0);
+            while ( ! stack.isEmpty()) {
+                int top = stack.size() - 1;
+                Node node = stack.get(top);
+                int next = nextChild.get(top);
+                if (next < node.childCount) {
+                    nextChild.set(top, next + 1);
+                    Node child = node.children[next];
+                    if (child.cell < 0) {
+                        child.cell = 0;
+                        stack.add(child);
+                        nextChild.add(0);
+                    }
+                }
+                else {
+                    states.add(node);
+                    stack.remove(top);
+                    nextChild.remove(top);
+                }
+            }
+        }
+
+        /** Returns a free cell where all the transitions of the given state can be stored */
+        private int placeState(Node state) {
+            int[] symbols = new int[state.childCount + (state.isFinal() ? 1 : 0)];
+            for (int i = 0; i < state.childCount; i++)
+                symbols[i] = Byte.toUnsignedInt(state.symbols[i]);
+            if (state.isFinal())
+                symbols[symbols.length - 1] = FINAL_SYMBOL;
+
+            int lowestSymbol = symbols.length == 0 ? 0 : symbols[0];
+            for (int free = firstFree; ; ) {
+                ensureCapacity(free + 512);
+                int cell = free - lowestSymbol;
+                int next = nextFree[free];
+                if (cell >= 1 && ! usedCells[cell] && fits(symbols, cell)) {
+                    usedCells[cell] = true;
+                    for (int symbol : symbols) {
+                        symbolTable[cell + symbol] = (byte) symbol;
+                        removeFree(cell + symbol);
+                    }
+                    lastCell = Math.max(lastCell, cell);
+                    return cell;
+                }
+                if (++failures[free] == maxFailures)
+                    removeFree(free);
+                free = next;
+            }
+        }
+
+        private boolean fits(int[] symbols, int cell) {
+            for (int symbol : symbols)
+                if (symbolTable[cell + symbol] != EMPTY_SYMBOL) return false;
+            return true;
+        }
+
+        /** Removes the given cell from the free list, unless it is already removed */
+        private void removeFree(int cell) {
+            if (failures[cell] > maxFailures) return;
+            failures[cell] = maxFailures + 1;
+            if (previousFree[cell] == none)
+                firstFree = nextFree[cell];
+            else
+                nextFree[previousFree[cell]] = nextFree[cell];
+            if (nextFree[cell] == none)
+                lastFree = previousFree[cell];
+            else
+                previousFree[nextFree[cell]] = previousFree[cell];
+        }
+
+        /** Ensures there are at least the given number of cells, where the added cells are free */
+        private void ensureCapacity(int cells) {
+            if (cells < symbolTable.length) return;
+            int oldSize = symbolTable.length;
+            int size = Math.max(cells + 1, oldSize * 2);
+            symbolTable = Arrays.copyOf(symbolTable, size);
+            usedCells = Arrays.copyOf(usedCells, size);
+            nextFree = Arrays.copyOf(nextFree, size);
+            previousFree = Arrays.copyOf(previousFree, size);
+            failures = Arrays.copyOf(failures, size);
+            for (int cell = Math.max(1, oldSize); cell < size; cell++) {
+                previousFree[cell] = lastFree;
+                nextFree[cell] = none;
+                if (lastFree == none)
+                    firstFree = cell;
+                else
+                    nextFree[lastFree] = cell;
+                lastFree = cell;
+            }
+        }
+
+        /** Stores the distinct data of all final states, as fixed size items if they all have the same size */
+        private Data packData() {
+            Map<ByteBuffer, Integer> offsets = new HashMap<>();
+            int fixedSize = -1;
+            for (Node state : states) {
+                if ( ! state.isFinal()) continue;
+                if (fixedSize == -1)
+                    fixedSize = state.data.length;
+                else if (fixedSize != state.data.length)
+                    fixedSize = -2;
+            }
+            boolean fixed = fixedSize >= 0;
+
+            Data data = new Data(fixed ? fixedSize : -1);
+            for (Node state : states) {
+                if ( ! state.isFinal()) continue;
+                Integer offset = offsets.computeIfAbsent(ByteBuffer.wrap(state.data), __ -> data.add(state.data));
+                stateTable[state.cell + FINAL_SYMBOL] = offset;
+            }
+            return data;
+        }
+
+        /**
+         * Returns a table where the value of each transition is the number of strings accepted by the
+         * state before following the transition, such that the sum of the values along the path of a string
+         * is the index of the string in the sorted order of all strings in the automaton.
+         */
+        private int[] perfectHashTable(int size) {
+            int[] hashTable = new int[size];
+            Map<Node, Integer> totals = new IdentityHashMap<>();
+            for (Node state : states) { // children before parents
+                int cell = state.cell;
+                int count = state.isFinal() ? 1 : 0;
+                for (int i = 0; i < state.childCount; i++) {
+                    hashTable[cell + Byte.toUnsignedInt(state.symbols[i])] = count;
+                    count += totals.get(state.children[i]);
+                }
+                totals.put(state, count);
+            }
+            return hashTable;
+        }
+
+        /** Returns the checksum of a section of the automaton, computed the same way as by the C++ implementation */
+        private static int checksum(ByteBuffer buffer, int offset, int length) {
+            int checksum = 0;
+            int words = length >> 2;
+            for (int i = 0; i < words; i++)
+                checksum += buffer.getInt(offset + 4 * i);
+            if ((length & 1) != 0) { // sic: the C++ implementation tests size & 1 rather than size & 3
+                int rest = 0;
+                for (int i = 0; i < (length & 3); i++)
+                    rest |= Byte.toUnsignedInt(buffer.get(offset + 4 * words + i)) << (8 * i);
+                checksum += rest;
+            }
+            return checksum;
+        }
+
+    }
+
+    /** The data of the final states of an automaton */
+    private static final class Data {
+
+        /** The size of all data items, or -1 if they are prefixed by their size */
+        final int fixedSize;
+
+        byte[] bytes = new byte[1024];
+        private int size = 0;
+
+        Data(int fixedSize) {
+            this.fixedSize = fixedSize;
+        }
+
+        /** Adds the given data item and returns its offset */
+        int add(byte[] item) {
+            int offset = size;
+            ensureCapacity(size + item.length + 4);
+            if (fixedSize < 0) {
+                ByteBuffer.wrap(bytes, size, 4).order(ByteOrder.LITTLE_ENDIAN).putInt(item.length);
+                size += 4;
+            }
+            System.arraycopy(item, 0, bytes, size, item.length);
+            size += item.length;
+            return offset;
+        }
+
+        int size() { return size; }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+        }
+
+    }
+
+}
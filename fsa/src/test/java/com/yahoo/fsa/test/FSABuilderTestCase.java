@@ -0,0 +1,213 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.fsa.test;
+
+import com.yahoo.fsa.FSA;
+import com.yahoo.fsa.FSABuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class FSABuilderTestCase {
+
+    @Rule
+    public TemporaryFolder tmpDir = new TemporaryFolder();
+
+    @Test
+    public void testBuiltAutomatonAcceptsTheSameStringsAsOneBuiltByMakefsa() throws IOException {
+        FSABuilder builder = new FSABuilder();
+        for (String line : Files.readAllLines(Paths.get("src/test/input/test-iterator-input.txt"))) {
+            String[] entry = line.split("\t");
+            builder.add(entry[0], entry[1]);
+        }
+        FSA built = builder.build();
+        FSA made = new FSA("src/test/fsa/test-iterator.fsa");
+
+        assertEquals(strings(made), strings(built));
+        for (String string : strings(made))
+            assertEquals(made.lookup(string), built.lookup(string));
+        assertNull(built.lookup("abac"));
+        assertNull(built.lookup("abacuss"));
+    }
+
+    @Test
+    public void testLookupAndTraversal() {
+        FSA fsa = new FSABuilder().add("aword", "a")
+                                  .add("this is a test", "b")
+                                  .add("this is another test", "c")
+                                  .add("tudor vidor", "d")
+                                  .build();
+        assertEquals("a", fsa.lookup("aword"));
+        assertEquals("c", fsa.lookup("this is another test"));
+        assertNull(fsa.lookup("this is a"));
+
+        FSA.State state = fsa.getState();
+        state.deltaWord("this");
+        assertTrue(state.isValid());
+        assertFalse(state.isFinal());
+        assertTrue(state.tryDeltaWord("is"));
+        assertFalse(state.tryDeltaWord("not"));
+        assertTrue(state.tryDeltaWord("a"));
+        assertTrue(state.tryDeltaWord("test"));
+        assertTrue(state.isFinal());
+        assertEquals("b", state.dataString());
+    }
+
+    @Test
+    public void testTraversingStates() {
+        List<String> strings = List.of("a", "ab", "abc", "b", "blåbær", "~", "ÿ~");
+        FSABuilder builder = new FSABuilder();
+        for (String string : strings)
+            builder.add(string, string.toUpperCase());
+        FSA fsa = builder.build();
+
+        List<String> traversed = new ArrayList<>();
+        traverse(fsa, fsa.start(), new ByteArrayOutputStream(), traversed);
+        assertEquals(strings.stream().map(s -> s + ":" + s.toUpperCase()).collect(Collectors.toList()), traversed);
+        assertEquals(0, fsa.symbols(0, new byte[256]));
+    }
+
+    /** Adds the strings and data of the final states reachable from the given state, in sorted order */
+    private void traverse(FSA fsa, int state, ByteArrayOutputStream path, List<String> strings) {
+        if (fsa.isFinal(state))
+            strings.add(new String(path.toByteArray(), fsa.charset()) + ":" + fsa.dataString(state));
+        byte[] symbols = new byte[256];
+        int count = fsa.symbols(state, symbols);
+        for (int i = 0; i < count; i++) {
+            assertTrue(i == 0 || Byte.toUnsignedInt(symbols[i - 1]) < Byte.toUnsignedInt(symbols[i]));
+            int next = fsa.delta(state, symbols[i]);
+            assertTrue(next != 0);
+            path.write(symbols[i]);
+            traverse(fsa, next, path, strings);
+            byte[] bytes = path.toByteArray();
+            path.reset();
+            path.write(bytes, 0, bytes.length - 1);
+        }
+    }
+
+    @Test
+    public void testUtf8Strings() {
+        FSA fsa = new FSABuilder().add("blåbær", "1").add("ひらがな", "2").add("𝐀", "3").build();
+        assertEquals("1", fsa.lookup("blåbær"));
+        assertEquals("2", fsa.lookup("ひらがな"));
+        assertEquals("3", fsa.lookup("𝐀"));
+
+        FSA.State state = fsa.getState();
+        for (char c : "ひらがな".toCharArray())
+            state.delta(c);
+        assertTrue(state.isFinal());
+    }
+
+    @Test
+    public void testEmptyStringAndNoData() {
+        FSA fsa = new FSABuilder().add("").add("a").build();
+        assertEquals("", fsa.lookup(""));
+        assertEquals("", fsa.lookup("a"));
+        assertNull(fsa.lookup("b"));
+
+        FSA empty = new FSABuilder().build();
+        assertNull(empty.lookup(""));
+        assertFalse(empty.iterator().hasNext());
+    }
+
+    @Test
+    public void testPerfectHashIsTheIndexOfTheString() {
+        List<String> strings = List.of("abacus", "abadan", "abaisse", "abdicate", "dachs", "dacia", "daciaa", "dacite");
+        FSABuilder builder = new FSABuilder().perfectHash(true);
+        strings.forEach(builder::add);
+        FSA fsa = builder.build();
+        assertTrue(fsa.hasPerfectHash());
+        for (int i = 0; i < strings.size(); i++) {
+            FSA.State state = fsa.getState();
+            state.delta(strings.get(i));
+            assertEquals(i, state.hash());
+        }
+    }
+
+    @Test
+    public void testFixedAndVariableSizeData() {
+        FSA fixed = new FSABuilder().add("a", new byte[] { 1, 0, 0, 0 }).add("b", new byte[] { 2, 0, 0, 0 }).build();
+        assertEquals(2, fixed.getState().lookup("b").getInt());
+
+        FSA variable = new FSABuilder().add("a", "one").add("b", "three").add("c", "one").build();
+        assertEquals("one", variable.lookup("a"));
+        assertEquals("three", variable.lookup("b"));
+        assertEquals("one", variable.lookup("c"));
+    }
+
+    @Test
+    public void testWrittenAutomatonCanBeLoaded() throws IOException {
+        File file = tmpDir.newFile("written.fsa");
+        try (OutputStream out = new FileOutputStream(file)) {
+            new FSABuilder().serial(17).add("bar", "1").add("foo", "2").write(out);
+        }
+        try (FSA fsa = new FSA(file.getPath())) {
+            assertEquals(17, fsa.serial());
+            assertEquals(2000001, fsa.version());
+            assertEquals("2", fsa.lookup("foo"));
+        }
+    }
+
+    @Test
+    public void testSharedSuffixesAreStoredOnce() {
+        String suffix = "abcdefghij".repeat(10);
+        FSABuilder builder = new FSABuilder();
+        for (char c = 'a'; c <= 'z'; c++)
+            builder.add(c + suffix);
+        // Each state has its own cell, so storing the suffix for each string would need at least 26 * 100 cells
+        assertTrue(cells(builder.toBuffer()) < 300);
+    }
+
+    @Test
+    public void testUnsortedStringsAreRejected() {
+        FSABuilder builder = new FSABuilder().add("b");
+        try {
+            builder.add("a");
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Strings must be added in sorted order without duplicates, but 'a' was added after 'b'",
+                         e.getMessage());
+        }
+        try {
+            builder.add("b");
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException expected) {
+        }
+        builder.add("bb");
+    }
+
+    private static List<String> strings(FSA fsa) {
+        List<String> strings = new ArrayList<>();
+        fsa.iterator().forEachRemaining(item -> strings.add(item.getString()));
+        return strings;
+    }
+
+    /** Returns the number of cells used by states, excluding the 256 cells needed after the last one */
+    private static int cells(ByteBuffer automaton) {
+        return automaton.order(ByteOrder.LITTLE_ENDIAN).getInt(12) - 256;
+    }
+
+}
@@ -0,0 +1,182 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jdisc.handler;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A pool of heap {@link ByteBuffer}s of a fixed size, which lets writers of content avoid allocating a new buffer
+ * for each chunk written to a {@link ContentChannel}.</p>
+ *
+ * <p>A writer {@link #acquire() acquires} a buffer, fills it and writes it to a ContentChannel with a completion
+ * handler {@link #tag(ByteBuffer, CompletionHandler) tagging} it as acquired from this pool, which transfers ownership
+ * of the buffer to the channel as usual. The final consumer of the content, which knows when it is done with the buffer
+ * (typically some time after it has called {@link CompletionHandler#completed()} for it), may then {@link
+ * PooledBufferHandler#release() release} the buffer back to this pool. Only buffers written with such a tag are
+ * released. A channel which passes a write on with a completion handler of its own thereby drops the tag, unless it
+ * {@link PooledBufferHandler#withHandler(CompletionHandler) keeps} it, and the buffer is then garbage collected as
+ * any other.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @author agent
+ */
+public final class BufferPool {
+
+    /** The size of the buffers of the {@link #shared() shared} pool */
+    public static final int BUFFERSIZE = 4096;
+
+    private static final BufferPool shared = new BufferPool(BUFFERSIZE, 1024);
+
+    private final int bufferSize;
+    private final int maxPooledBuffers;
+    private final Queue<ByteBuffer> pooled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledCount = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * <p>Creates a new buffer pool.</p>
+     *
+     * @param bufferSize       The capacity of the buffers of this pool.
+     * @param maxPooledBuffers The max number of released buffers to keep for reuse.
+     */
+    public BufferPool(int bufferSize, int maxPooledBuffers) {
+        if (bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be positive, was " + bufferSize);
+        if (maxPooledBuffers < 0) throw new IllegalArgumentException("Max pooled buffers cannot be negative, was " + maxPooledBuffers);
+        this.bufferSize = bufferSize;
+        this.maxPooledBuffers = maxPooledBuffers;
+    }
+
+    /** <p>Returns the pool shared by all writers and consumers of content in this process.</p> */
+    public static BufferPool shared() {
+        return shared;
+    }
+
+    /**
+     * <p>Returns a cleared buffer with a capacity of {@link #bufferSize()}, which is either a released buffer or a new
+     * one if there are none.</p>
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = pooled.poll();
+        if (buffer != null) {
+            pooledCount.decrementAndGet();
+            hits.incrementAndGet();
+        } else {
+            buffer = ByteBuffer.allocate(bufferSize);
+            misses.incrementAndGet();
+        }
+        return buffer;
+    }
+
+    /**
+     * <p>Returns a completion handler for writing the given buffer, acquired from this pool, to a ContentChannel,
+     * which lets the final consumer of the buffer release it to this pool. The writer must not use the buffer after
+     * writing it with this handler.</p>
+     *
+     * @param buffer  The buffer acquired from this pool.
+     * @param handler The handler to complete when the write completes, or null.
+     * @return The tagging completion handler.
+     */
+    public PooledBufferHandler tag(ByteBuffer buffer, CompletionHandler handler) {
+        return new PooledBufferHandler(this, buffer, handler);
+    }
+
+    /**
+     * <p>Returns the given buffer, acquired from this pool, to this pool for reuse. No further calls can be made to
+     * the buffer after this, neither by the caller nor by anyone else holding it.</p>
+     *
+     * @param buffer The buffer to release.
+     * @return Whether the buffer was taken back by this pool, which is false if the pool is full.
+     */
+    public boolean release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || ! buffer.hasArray() || buffer.isReadOnly()) {
+            throw new IllegalArgumentException("This buffer was not acquired from this pool");
+        }
+        if (pooledCount.incrementAndGet() > maxPooledBuffers) {
+            pooledCount.decrementAndGet();
+            return false;
+        }
+        buffer.clear();
+        pooled.add(buffer);
+        return true;
+    }
+
+    /** <p>Returns the capacity of the buffers of this pool.</p> */
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /** <p>Returns the number of buffers which are currently available for reuse.</p> */
+    public int size() {
+        return pooledCount.get();
+    }
+
+    /** <p>Returns the total number of buffers acquired by reusing a released buffer.</p> */
+    public long hits() {
+        return hits.get();
+    }
+
+    /** <p>Returns the total number of buffers acquired by allocating a new buffer.</p> */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * <p>A completion handler of a write of a buffer acquired from a pool, which tells the final consumer of the
+     * buffer that it may release it to that pool once it is done with it.</p>
+     */
+    public static final class PooledBufferHandler implements CompletionHandler {
+
+        private final BufferPool pool;
+        private final ByteBuffer buffer;
+        private final CompletionHandler handler;
+
+        private PooledBufferHandler(BufferPool pool, ByteBuffer buffer, CompletionHandler handler) {
+            this.pool = pool;
+            this.buffer = buffer;
+            this.handler = handler;
+        }
+
+        @Override
+        public void completed() {
+            if (handler != null) {
+                handler.completed();
+            }
+        }
+
+        @Override
+        public void failed(Throwable t) {
+            if (handler != null) {
+                handler.failed(t);
+            }
+        }
+
+        /**
+         * <p>Returns a handler tagging the same buffer, which completes the given handler instead of this. This lets
+         * a channel which passes the write on with a handler of its own keep the tag.</p>
+         */
+        public PooledBufferHandler withHandler(CompletionHandler handler) {
+            return new PooledBufferHandler(pool, buffer, handler);
+        }
+
+        /** <p>Returns whether the given buffer is the one tagged by this.</p> */
+        public boolean tags(ByteBuffer buffer) {
+            return this.buffer == buffer;
+        }
+
+        /**
+         * <p>Releases the tagged buffer to its pool. This must only be called once, by the final consumer of the buffer,
+         * when it is done with it.</p>
+         */
+        public void release() {
+            pool.release(buffer);
+        }
+
+    }
+
+}
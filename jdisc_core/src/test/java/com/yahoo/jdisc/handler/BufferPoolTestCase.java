@@ -0,0 +1,94 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jdisc.handler;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class BufferPoolTestCase {
+
+    @Test
+    public void requireThatReleasedBuffersAreReused() {
+        BufferPool pool = new BufferPool(16, 10);
+        ByteBuffer buffer = pool.acquire();
+        assertEquals(16, buffer.capacity());
+        assertEquals(0, pool.hits());
+        assertEquals(1, pool.misses());
+
+        buffer.put((byte)69).flip();
+        assertTrue(pool.release(buffer));
+        assertEquals(1, pool.size());
+
+        ByteBuffer reused = pool.acquire();
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(16, reused.limit());
+        assertEquals(1, pool.hits());
+        assertEquals(1, pool.misses());
+        assertEquals(0, pool.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requireThatBuffersOfAnotherSizeAreRejected() {
+        new BufferPool(16, 10).release(ByteBuffer.allocate(32));
+    }
+
+    @Test
+    public void requireThatTaggedBuffersAreReleasedThroughTheirHandler() {
+        BufferPool pool = new BufferPool(16, 10);
+        ByteBuffer buffer = pool.acquire();
+        MyCompletion completion = new MyCompletion();
+        BufferPool.PooledBufferHandler handler = pool.tag(buffer, completion);
+        assertTrue(handler.tags(buffer));
+        assertFalse(handler.tags(ByteBuffer.allocate(16)));
+
+        MyCompletion wrapper = new MyCompletion();
+        BufferPool.PooledBufferHandler kept = handler.withHandler(wrapper);
+        assertTrue(kept.tags(buffer));
+        kept.completed();
+        assertTrue(wrapper.completed);
+        assertFalse(completion.completed);
+        assertEquals(0, pool.size());
+
+        kept.release();
+        assertEquals(1, pool.size());
+        assertSame(buffer, pool.acquire());
+    }
+
+    @Test
+    public void requireThatPoolSizeIsBounded() {
+        BufferPool pool = new BufferPool(16, 1);
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+        assertNotSame(first, second);
+        assertTrue(pool.release(first));
+        assertFalse(pool.release(second));
+        assertEquals(1, pool.size());
+    }
+
+    private static class MyCompletion implements CompletionHandler {
+
+        boolean completed = false;
+
+        @Override
+        public void completed() {
+            completed = true;
+        }
+
+        @Override
+        public void failed(Throwable t) {
+            throw new AssertionError(t);
+        }
+
+    }
+
+}
@@ -9,6 +9,7 @@ import com.yahoo.component.provider.ComponentRegistry;
 import com.yahoo.container.logging.AccessLog;
 import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.application.OsgiFramework;
+import com.yahoo.jdisc.handler.BufferPool;
 import com.yahoo.jdisc.http.ServerConfig;
 import com.yahoo.jdisc.http.ServletPathsConfig;
 import com.yahoo.jdisc.http.server.FilterBindings;
@@ -109,6 +110,9 @@ public class JettyHttpServer extends AbstractServerProvider {
 
         String URI_LENGTH = "jdisc.http.request.uri_length";
         String CONTENT_SIZE = "jdisc.http.request.content_size";
+
+        String BUFFER_POOL_HITS = "jdisc.http.response.buffer_pool.hits";
+        String BUFFER_POOL_MISSES = "jdisc.http.response.buffer_pool.misses";
     }
 
     private final static Logger log = Logger.getLogger(JettyHttpServer.class.getName());
@@ -345,6 +349,20 @@ public class JettyHttpServer extends AbstractServerProvider {
             for (Connector connector : server.getConnectors()) {
                 setConnectorMetrics((JDiscServerConnector)connector);
             }
+
+            addBufferPoolMetrics();
+        }
+
+        private long reportedBufferPoolHits = 0;
+        private long reportedBufferPoolMisses = 0;
+
+        private void addBufferPoolMetrics() {
+            long hits = BufferPool.shared().hits();
+            long misses = BufferPool.shared().misses();
+            metric.add(Metrics.BUFFER_POOL_HITS, hits - reportedBufferPoolHits, null);
+            metric.add(Metrics.BUFFER_POOL_MISSES, misses - reportedBufferPoolMisses, null);
+            reportedBufferPoolHits = hits;
+            reportedBufferPoolMisses = misses;
         }
 
     }
@@ -5,6 +5,7 @@ import com.yahoo.jdisc.Request;
 import com.yahoo.jdisc.ResourceReference;
 import com.yahoo.jdisc.Response;
 import com.yahoo.jdisc.SharedResource;
+import com.yahoo.jdisc.handler.BufferPool;
 import com.yahoo.jdisc.handler.CompletionHandler;
 import com.yahoo.jdisc.handler.ContentChannel;
 import com.yahoo.jdisc.handler.NullContent;
@@ -143,7 +144,7 @@ class ReferenceCountingRequestHandler implements RequestHandler {
         @Override
         public void write(ByteBuffer buf, CompletionHandler completionHandler) {
             final CompletionHandler referenceCountingCompletionHandler
-                    = new ReferenceCountingCompletionHandler(request, completionHandler);
+                    = keepPooledBufferTag(completionHandler, new ReferenceCountingCompletionHandler(request, completionHandler));
             try {
                 delegate.write(buf, referenceCountingCompletionHandler);
             } catch (Throwable t) {
@@ -157,6 +158,13 @@ class ReferenceCountingRequestHandler implements RequestHandler {
             }
         }
 
+        /** Passes on the tag of a write of a pooled buffer, such that the final consumer may release it */
+        private static CompletionHandler keepPooledBufferTag(CompletionHandler original, CompletionHandler wrapper) {
+            if (original instanceof BufferPool.PooledBufferHandler)
+                return ((BufferPool.PooledBufferHandler) original).withHandler(wrapper);
+            return wrapper;
+        }
+
         @Override
         public void close(CompletionHandler completionHandler) {
             final CompletionHandler referenceCountingCompletionHandler
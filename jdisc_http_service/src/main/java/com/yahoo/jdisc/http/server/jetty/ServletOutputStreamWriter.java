@@ -1,6 +1,7 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.jdisc.http.server.jetty;
 
+import com.yahoo.jdisc.handler.BufferPool;
 import com.yahoo.jdisc.handler.CompletionHandler;
 
 import javax.annotation.concurrent.GuardedBy;
@@ -62,6 +63,14 @@ public class ServletOutputStreamWriter {
 
     private final MetricReporter metricReporter;
 
+    private final BufferPool bufferPool = BufferPool.shared();
+
+    /**
+     * Releases the buffer last written to the output stream, which the stream may use until it is ready for the next
+     * write, or null if that buffer should not be released. Only accessed by the thread writing buffers.
+     */
+    private Runnable writtenBufferRelease = null;
+
     /**
      * When this future completes there will be no more calls against the servlet output stream or servlet response.
      * The framework is still allowed to invoke us though.
@@ -147,6 +156,7 @@ public class ServletOutputStreamWriter {
                     state = State.WAITING_FOR_WRITE_POSSIBLE_CALLBACK;
                     return;
                 }
+                releaseWrittenBuffer();
 
                 contentPart = responseContentQueue.pollFirst();
 
@@ -167,6 +177,7 @@ public class ServletOutputStreamWriter {
 
                 if (contentPart.buf == CLOSE_STREAM_BUFFER) {
                     callCompletionHandlerWhenDone(contentPart.handler, outputStream::close);
+                    releaseWrittenBuffer();
                     setFinished(Optional.empty());
                     return;
                 } else {
@@ -217,13 +228,13 @@ public class ServletOutputStreamWriter {
             ByteBuffer buffer = contentPart.buf;
             final int bytesToSend = buffer.remaining();
             try {
-                if (buffer.hasArray()) {
-                    outputStream.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
-                } else {
-                    final byte[] array = new byte[buffer.remaining()];
-                    buffer.get(array);
-                    outputStream.write(array);
+                if ( ! buffer.hasArray()) {
+                    buffer = copyToHeapBuffer(buffer);
+                } else if (contentPart.handler instanceof BufferPool.PooledBufferHandler
+                         && ((BufferPool.PooledBufferHandler) contentPart.handler).tags(buffer)) {
+                    writtenBufferRelease = ((BufferPool.PooledBufferHandler) contentPart.handler)::release;
                 }
+                outputStream.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
                 metricReporter.successfulWrite(bytesToSend);
             } catch (Throwable throwable) {
                 metricReporter.failedWrite();
@@ -232,6 +243,27 @@ public class ServletOutputStreamWriter {
         });
     }
 
+    private ByteBuffer copyToHeapBuffer(ByteBuffer buffer) {
+        ByteBuffer copy;
+        if (buffer.remaining() <= bufferPool.bufferSize()) {
+            ByteBuffer pooled = bufferPool.acquire();
+            writtenBufferRelease = () -> bufferPool.release(pooled);
+            copy = pooled;
+        } else {
+            copy = ByteBuffer.allocate(buffer.remaining());
+        }
+        copy.put(buffer);
+        copy.flip();
+        return copy;
+    }
+
+    private void releaseWrittenBuffer() {
+        if (writtenBufferRelease != null) {
+            writtenBufferRelease.run();
+            writtenBufferRelease = null;
+        }
+    }
+
     private static void callCompletionHandlerWhenDone(CompletionHandler handler, IORunnable runnable) throws Exception {
         try {
             runnable.run();
@@ -0,0 +1,98 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+import com.yahoo.slime.Inspector;
+import com.yahoo.slime.JsonDecoder;
+import com.yahoo.slime.Slime;
+import com.yahoo.slime.Type;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH result file (written with -rf json) to a baseline result, e.g. from before a change, and lists
+ * the benchmarks whose average time has regressed by more than a tolerance, taking the score error of both into account.
+ * Exits with status 1 if there are regressions.
+ *
+ * Usage: BaselineComparison baseline.json result.json [tolerance, default 0.1]
+ *
+ * @author agent
+ */
+public class BaselineComparison {
+
+    private static final double defaultTolerance = 0.1;
+
+    /** Returns the scores of a result file by benchmark name including parameters */
+    static Map<String, Score> readScores(byte[] json) {
+        Inspector results = new JsonDecoder().decode(new Slime(), json).get();
+        if (results.type() != Type.ARRAY)
+            throw new IllegalArgumentException("Expected an array of JMH results, got " + results.type());
+
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (int i = 0; i < results.entries(); i++) {
+            Inspector result = results.entry(i);
+            Map<String, String> params = new TreeMap<>();
+            result.field("params").traverse((String name, Inspector value) -> params.put(name, value.asString()));
+            String name = result.field("benchmark").asString() + (params.isEmpty() ? "" : params.toString());
+            Inspector metric = result.field("primaryMetric");
+            scores.put(name, new Score(metric.field("score").asDouble(),
+                                       metric.field("scoreError").asDouble(),
+                                       metric.field("scoreUnit").asString()));
+        }
+        return scores;
+    }
+
+    /** Returns a description of each benchmark which is slower in the result than the baseline */
+    static Map<String, String> regressions(Map<String, Score> baseline, Map<String, Score> result, double tolerance) {
+        Map<String, String> regressions = new LinkedHashMap<>();
+        for (Map.Entry<String, Score> entry : result.entrySet()) {
+            Score base = baseline.get(entry.getKey());
+            if (base == null || ! base.unit.equals(entry.getValue().unit)) continue;
+            if (entry.getValue().isSlowerThan(base, tolerance))
+                regressions.put(entry.getKey(), base + " -> " + entry.getValue());
+        }
+        return regressions;
+    }
+
+    static class Score {
+
+        final double score;
+        final double error;
+        final String unit;
+
+        Score(double score, double error, String unit) {
+            this.score = score;
+            this.error = Double.isNaN(error) ? 0 : error;
+            this.unit = unit;
+        }
+
+        /** Returns whether this is slower than the given score by more than the tolerance plus the score errors */
+        boolean isSlowerThan(Score other, double tolerance) {
+            return (score - error) > (other.score + other.error) * (1 + tolerance);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f ± %.3f %s", score, error, unit);
+        }
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BaselineComparison baseline.json result.json [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length == 3 ? Double.parseDouble(args[2]) : defaultTolerance;
+        Map<String, String> regressions = regressions(readScores(Files.readAllBytes(Paths.get(args[0]))),
+                                                      readScores(Files.readAllBytes(Paths.get(args[1]))),
+                                                      tolerance);
+        regressions.forEach((name, change) -> System.out.println("Regression in " + name + ": " + change));
+        System.exit(regressions.isEmpty() ? 0 : 1);
+    }
+
+}
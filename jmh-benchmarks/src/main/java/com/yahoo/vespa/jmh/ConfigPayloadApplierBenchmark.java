@@ -0,0 +1,58 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+import com.yahoo.config.ConfigInstance;
+import com.yahoo.document.DocumenttypesConfig;
+import com.yahoo.vespa.config.ConfigPayload;
+import com.yahoo.vespa.config.ConfigTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static com.yahoo.document.DocumenttypesConfig.Documenttype;
+
+/**
+ * Applying a config payload to a config builder, as done when config is received, with a documenttypes config
+ * of the size of those of larger applications.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+public class ConfigPayloadApplierBenchmark extends BenchmarkDefaults {
+
+    /** The number of document types in the config, each with 100 fields */
+    @Param({"1", "50"})
+    public int documentTypes;
+
+    private ConfigPayload payload;
+
+    @Setup
+    public void setup() {
+        DocumenttypesConfig.Builder builder = new DocumenttypesConfig.Builder();
+        for (int type = 0; type < documentTypes; type++) {
+            Documenttype.Datatype.Sstruct.Builder struct = new Documenttype.Datatype.Sstruct.Builder().name("type" + type + ".header");
+            for (int field = 0; field < 100; field++)
+                struct.field(new Documenttype.Datatype.Sstruct.Field.Builder().name("field" + field)
+                                                                              .id(field)
+                                                                              .id_v6(field)
+                                                                              .datatype(2));
+            builder.documenttype(new Documenttype.Builder().id(type)
+                                                           .name("type" + type)
+                                                           .headerstruct(1000 + type)
+                                                           .bodystruct(2000 + type)
+                                                           .inherits(new Documenttype.Inherits.Builder().id(8))
+                                                           .datatype(new Documenttype.Datatype.Builder().id(1000 + type)
+                                                                                                        .type(Documenttype.Datatype.Type.STRUCT)
+                                                                                                        .sstruct(struct)));
+        }
+        payload = ConfigPayload.fromInstance(new DocumenttypesConfig(builder));
+    }
+
+    @Benchmark
+    public ConfigInstance.Builder toConfigBuilder() {
+        return new ConfigTransformer<>(DocumenttypesConfig.class).toConfigBuilder(payload);
+    }
+
+}
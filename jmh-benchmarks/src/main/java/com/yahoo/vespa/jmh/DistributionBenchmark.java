@@ -0,0 +1,59 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.vdslib.distribution.Distribution;
+import com.yahoo.vdslib.distribution.IdealDistributorTable;
+import com.yahoo.vdslib.state.ClusterState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.ParseException;
+
+/**
+ * Ideal distributor calculation for buckets, directly and through the cluster state superbucket table.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+public class DistributionBenchmark extends BenchmarkDefaults {
+
+    private static final String upStates = "uim";
+
+    @Param({"10", "100"})
+    public int nodes;
+
+    private Distribution distribution;
+    private ClusterState state;
+    private IdealDistributorTable table;
+    private final BucketId[] buckets = new BucketId[1024];
+    private int next = 0;
+
+    @Setup
+    public void setup() throws ParseException {
+        distribution = new Distribution("raw:" + Distribution.getDefaultDistributionConfig(2, nodes));
+        state = new ClusterState("bits:16 distributor:" + nodes + " storage:" + nodes);
+        table = distribution.getIdealDistributorTable(state, upStates);
+        for (int i = 0; i < buckets.length; i++)
+            buckets[i] = new BucketId(32, (i * 2654435761L) & 0xffffffffL);
+    }
+
+    private BucketId nextBucket() {
+        next = (next + 1) & (buckets.length - 1);
+        return buckets[next];
+    }
+
+    @Benchmark
+    public int idealDistributor() throws Exception {
+        return distribution.getIdealDistributorNode(state, nextBucket(), upStates);
+    }
+
+    @Benchmark
+    public int idealDistributorFromTable() throws Exception {
+        return table.getIdealDistributorNode(nextBucket());
+    }
+
+}
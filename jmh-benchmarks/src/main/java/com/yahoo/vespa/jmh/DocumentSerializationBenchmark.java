@@ -0,0 +1,83 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+import com.yahoo.document.ArrayDataType;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.datatypes.Array;
+import com.yahoo.document.datatypes.DoubleFieldValue;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.LongFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.serialization.DocumentDeserializerFactory;
+import com.yahoo.document.serialization.DocumentSerializer;
+import com.yahoo.document.serialization.DocumentSerializerFactory;
+import com.yahoo.io.GrowableByteBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Serialization and deserialization of a document with the current (version 6) binary format.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+public class DocumentSerializationBenchmark extends BenchmarkDefaults {
+
+    /** The number of words in the body text of the document */
+    @Param({"10", "1000"})
+    public int bodyWords;
+
+    private DocumentTypeManager manager;
+    private Document document;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() {
+        DocumentType type = new DocumentType("music");
+        type.addField("title", DataType.STRING);
+        type.addField("body", DataType.STRING);
+        type.addField("year", DataType.INT);
+        type.addField("timestamp", DataType.LONG);
+        type.addField("popularity", DataType.DOUBLE);
+        type.addField("tags", new ArrayDataType(DataType.STRING));
+        manager = new DocumentTypeManager();
+        manager.register(type);
+
+        document = new Document(type, new DocumentId("id:music:music::1"));
+        document.setFieldValue("title", new StringFieldValue("A title of moderate length"));
+        document.setFieldValue("body", new StringFieldValue(Texts.words(bodyWords)));
+        document.setFieldValue("year", new IntegerFieldValue(1984));
+        document.setFieldValue("timestamp", new LongFieldValue(1546300800000L));
+        document.setFieldValue("popularity", new DoubleFieldValue(0.75));
+        Array<StringFieldValue> tags = new Array<>(type.getField("tags").getDataType());
+        for (int i = 0; i < 10; i++)
+            tags.add(new StringFieldValue("tag" + i));
+        document.setFieldValue("tags", tags);
+
+        serialized = serialize();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        GrowableByteBuffer buffer = new GrowableByteBuffer();
+        DocumentSerializer serializer = DocumentSerializerFactory.create6(buffer);
+        serializer.write(document);
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Benchmark
+    public Document deserialize() {
+        return new Document(DocumentDeserializerFactory.create6(manager, GrowableByteBuffer.wrap(serialized)));
+    }
+
+}
@@ -0,0 +1,63 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+import com.yahoo.search.Query;
+import com.yahoo.search.Result;
+import com.yahoo.search.rendering.JsonRenderer;
+import com.yahoo.search.result.Hit;
+import com.yahoo.search.searchchain.Execution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Rendering of a search result to JSON, with a fresh clone of the renderer per result as in the container.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+public class JsonRendererBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "400"})
+    public int hits;
+
+    private JsonRenderer prototype;
+    private Execution execution;
+    private Result result;
+
+    @Setup
+    public void setup() {
+        prototype = new JsonRenderer();
+        execution = new Execution(Execution.Context.createContextStub());
+        result = new Result(new Query("/?query=a&hits=" + hits));
+        for (int i = 0; i < hits; i++) {
+            Hit hit = new Hit("id:music:music::" + i, 1.0 / (i + 1));
+            hit.setField("title", Texts.words(8));
+            hit.setField("body", Texts.words(50));
+            hit.setField("year", 1960 + i % 60);
+            hit.setField("popularity", i * 0.01);
+            result.hits().add(hit);
+        }
+        result.setTotalHitCount(123456);
+    }
+
+    @TearDown
+    public void tearDown() {
+        prototype.deconstruct();
+    }
+
+    @Benchmark
+    public byte[] render() throws Exception {
+        JsonRenderer renderer = (JsonRenderer)prototype.clone();
+        renderer.init();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        renderer.render(stream, result, execution, null).get();
+        return stream.toByteArray();
+    }
+
+}
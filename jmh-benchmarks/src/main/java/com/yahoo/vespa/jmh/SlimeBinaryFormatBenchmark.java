@@ -0,0 +1,59 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.Cursor;
+import com.yahoo.slime.Slime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Encoding and decoding of Slime binary format, using a structure resembling a search reply with hits.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+public class SlimeBinaryFormatBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "400"})
+    public int hits;
+
+    private Slime slime;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        slime = new Slime();
+        Cursor root = slime.setObject();
+        root.setLong("totalHitCount", 123456);
+        root.setDouble("coverage", 0.99);
+        Cursor hitArray = root.setArray("hits");
+        for (int i = 0; i < hits; i++) {
+            Cursor hit = hitArray.addObject();
+            hit.setString("id", "id:music:music::" + i);
+            hit.setDouble("relevance", 1.0 / (i + 1));
+            hit.setLong("year", 1960 + i % 60);
+            hit.setBool("fresh", i % 2 == 0);
+            hit.setString("title", Texts.words(8));
+            hit.setData("gid", new byte[12]);
+            Cursor tags = hit.setArray("tags");
+            for (int j = 0; j < 4; j++)
+                tags.addString("tag" + j);
+        }
+        encoded = BinaryFormat.encode(slime);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return BinaryFormat.encode(slime);
+    }
+
+    @Benchmark
+    public Slime decode() {
+        return BinaryFormat.decode(encoded);
+    }
+
+}
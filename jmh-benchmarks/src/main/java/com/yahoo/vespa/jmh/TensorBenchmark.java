@@ -0,0 +1,67 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+import com.yahoo.tensor.Tensor;
+import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.functions.Reduce;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Join and reduce of a vector and a matrix, as in a dot product ranking expression,
+ * for indexed (dense) and mapped (sparse) tensors.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+public class TensorBenchmark extends BenchmarkDefaults {
+
+    @Param({"indexed", "mapped"})
+    public String kind;
+
+    @Param({"16", "256"})
+    public int size;
+
+    private Tensor vector;
+    private Tensor matrix;
+    private Tensor product;
+
+    @Setup
+    public void setup() {
+        boolean indexed = kind.equals("indexed");
+        String x = indexed ? "x[" + size + "]" : "x{}";
+        String y = indexed ? "y[16]" : "y{}";
+
+        Tensor.Builder vectorBuilder = Tensor.Builder.of(TensorType.fromSpec("tensor(" + x + ")"));
+        for (int i = 0; i < size; i++)
+            vectorBuilder.cell().label("x", i).value(i + 1.0);
+        vector = vectorBuilder.build();
+
+        Tensor.Builder matrixBuilder = Tensor.Builder.of(TensorType.fromSpec("tensor(" + x + "," + y + ")"));
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < 16; j++)
+                matrixBuilder.cell().label("x", i).label("y", j).value((i * 16 + j) % 7 - 3.0);
+        matrix = matrixBuilder.build();
+
+        product = join();
+    }
+
+    @Benchmark
+    public Tensor join() {
+        return vector.join(matrix, (a, b) -> a * b);
+    }
+
+    @Benchmark
+    public Tensor reduce() {
+        return product.reduce(Reduce.Aggregator.sum, "x");
+    }
+
+    @Benchmark
+    public Tensor dotProduct() {
+        return vector.join(matrix, (a, b) -> a * b).reduce(Reduce.Aggregator.sum, "x");
+    }
+
+}
@@ -0,0 +1,40 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+/**
+ * Deterministic text used as benchmark input.
+ *
+ * @author agent
+ */
+class Texts {
+
+    private static final String[] words = {
+            "the", "search", "engine", "returns", "documents", "matching", "query", "terms", "ranked", "by",
+            "relevance", "tensor", "bucket", "distribution", "cluster", "node", "content", "field", "summary", "index"
+    };
+
+    private static final String[] nonAsciiWords = { "blåbærsyltetøy", "größe", "café", "東京", "данные" };
+
+    /** Returns a text of the given number of words, where every tenth word is non-ASCII */
+    static String words(int count) {
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                b.append(' ');
+            b.append(i % 10 == 9 ? nonAsciiWords[i % nonAsciiWords.length] : words[(i * 7) % words.length]);
+        }
+        return b.toString();
+    }
+
+    /** Returns a text of the given number of words containing only ASCII characters */
+    static String asciiWords(int count) {
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                b.append(' ');
+            b.append(words[(i * 7) % words.length]);
+        }
+        return b.toString();
+    }
+
+}
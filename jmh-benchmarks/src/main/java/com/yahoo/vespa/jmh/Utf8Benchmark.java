@@ -0,0 +1,49 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+import com.yahoo.text.Utf8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Conversions between strings and UTF-8, of ASCII only and of mixed text.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+public class Utf8Benchmark extends BenchmarkDefaults {
+
+    @Param({"10", "1000"})
+    public int words;
+
+    @Param({"true", "false"})
+    public boolean ascii;
+
+    private String string;
+    private byte[] utf8;
+
+    @Setup
+    public void setup() {
+        string = ascii ? Texts.asciiWords(words) : Texts.words(words);
+        utf8 = Utf8.toBytes(string);
+    }
+
+    @Benchmark
+    public byte[] toBytes() {
+        return Utf8.toBytes(string);
+    }
+
+    @Benchmark
+    public String toUtf16() {
+        return Utf8.toString(utf8);
+    }
+
+    @Benchmark
+    public int byteCount() {
+        return Utf8.byteCount(string);
+    }
+
+}
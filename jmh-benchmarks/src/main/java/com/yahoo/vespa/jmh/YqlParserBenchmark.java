@@ -0,0 +1,36 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+import com.yahoo.search.query.QueryTree;
+import com.yahoo.search.query.parser.Parsable;
+import com.yahoo.search.query.parser.ParserEnvironment;
+import com.yahoo.search.yql.YqlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsing of YQL queries of typical shapes. A parser instance is used for a single query, as in the container.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+public class YqlParserBenchmark extends BenchmarkDefaults {
+
+    @Param({
+            "select * from sources * where title contains \"madonna\";",
+            "select * from sources * where (title contains \"madonna\" or body contains \"madonna\") and year > 1990 and year < 2000 order by year desc limit 20;",
+            "select * from sources * where [{\"targetNumHits\": 100}]weakAnd(title contains \"the\", title contains \"search\", title contains \"engine\", body contains phrase(\"ranked\", \"by\", \"relevance\"));",
+            "select title from music where title contains \"love\" and range(year, 1960, 1990) | all(group(year) each(output(count())));"
+    })
+    public String yql;
+
+    private final ParserEnvironment environment = new ParserEnvironment();
+
+    @Benchmark
+    public QueryTree parse() {
+        return new YqlParser(environment).parse(new Parsable().setQuery(yql));
+    }
+
+}
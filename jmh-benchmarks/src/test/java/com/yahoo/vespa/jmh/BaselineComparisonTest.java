@@ -0,0 +1,52 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.jmh;
+
+import com.yahoo.text.Utf8;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class BaselineComparisonTest {
+
+    private static final String baseline =
+            "[" +
+            result("com.yahoo.vespa.jmh.Utf8Benchmark.toBytes", "{\"words\": \"10\"}", 100, 2) + "," +
+            result("com.yahoo.vespa.jmh.Utf8Benchmark.toBytes", "{\"words\": \"1000\"}", 5000, 50) + "," +
+            result("com.yahoo.vespa.jmh.SlimeBinaryFormatBenchmark.encode", "{}", 300, 10) +
+            "]";
+
+    @Test
+    public void testRegressionsBeyondToleranceAndErrorAreReported() {
+        String current =
+                "[" +
+                result("com.yahoo.vespa.jmh.Utf8Benchmark.toBytes", "{\"words\": \"10\"}", 115, 2) + "," +
+                result("com.yahoo.vespa.jmh.Utf8Benchmark.toBytes", "{\"words\": \"1000\"}", 5600, 50) + "," +
+                result("com.yahoo.vespa.jmh.SlimeBinaryFormatBenchmark.encode", "{}", 200, 10) + "," +
+                result("com.yahoo.vespa.jmh.SlimeBinaryFormatBenchmark.decode", "{}", 900, 10) +
+                "]";
+        Map<String, String> regressions = BaselineComparison.regressions(scores(baseline), scores(current), 0.1);
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.containsKey("com.yahoo.vespa.jmh.Utf8Benchmark.toBytes{words=10}"));
+    }
+
+    @Test
+    public void testNoRegressionsAgainstItself() {
+        assertTrue(BaselineComparison.regressions(scores(baseline), scores(baseline), 0).isEmpty());
+    }
+
+    private static Map<String, BaselineComparison.Score> scores(String json) {
+        return BaselineComparison.readScores(Utf8.toBytes(json));
+    }
+
+    private static String result(String benchmark, String params, double score, double error) {
+        return "{\"benchmark\": \"" + benchmark + "\", \"mode\": \"avgt\", \"params\": " + params + ", " +
+               "\"primaryMetric\": {\"score\": " + score + ", \"scoreError\": " + error + ", \"scoreUnit\": \"ns/op\"}}";
+    }
+
+}
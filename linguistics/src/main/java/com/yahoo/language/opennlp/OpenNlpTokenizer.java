@@ -17,6 +17,7 @@ public class OpenNlpTokenizer implements Tokenizer {
     private final Normalizer normalizer;
     private final Transformer transformer;
     private final SimpleTokenizer simpleTokenizer;
+    private final TokenStringCache tokenStringCache = new TokenStringCache();
 
     public OpenNlpTokenizer() {
         this(new SimpleNormalizer(), new SimpleTransformer());
@@ -31,29 +32,42 @@ public class OpenNlpTokenizer implements Tokenizer {
     @Override
     public Iterable<Token> tokenize(String input, Language language, StemMode stemMode, boolean removeAccents) {
         if (input.isEmpty()) return Collections.emptyList();
+
+        List<Token> tokens = new ArrayList<>();
+        tokenize(input, language, stemMode, removeAccents, token -> tokens.add(SimpleToken.copyOf(token)));
+        return tokens;
+    }
+
+    @Override
+    public void tokenize(String input, Language language, StemMode stemMode, boolean removeAccents,
+                         TokenConsumer consumer) {
+        if (input.isEmpty()) return;
         Stemmer stemmer = getStemmerForLanguage(language, stemMode);
         if (stemmer == null) {
-            return simpleTokenizer.tokenize(input, language, stemMode, removeAccents);
+            simpleTokenizer.tokenize(input, language, stemMode, removeAccents, consumer);
+            return;
         }
 
-        List<Token> tokens = new ArrayList<>();
+        ReusableToken token = new ReusableToken();
+        TokenStringCache.Table cache = tokenStringCache.table(language, stemMode, removeAccents);
         int nextCode = input.codePointAt(0);
         TokenType prevType = SimpleTokenType.valueOf(nextCode);
         for (int prev = 0, next = Character.charCount(nextCode); next <= input.length(); ) {
             nextCode = next < input.length() ? input.codePointAt(next) : SPACE_CODE;
             TokenType nextType = SimpleTokenType.valueOf(nextCode);
             if (!prevType.isIndexable() || !nextType.isIndexable()) {
-                String original = input.substring(prev, next);
-                String token = processToken(original, language, stemMode, removeAccents, stemmer);
-                tokens.add(new SimpleToken(original).setOffset(prev)
-                        .setType(prevType)
-                        .setTokenString(token));
+                String tokenString = cache.get(input, prev, next);
+                if (tokenString == null) {
+                    String original = input.substring(prev, next);
+                    tokenString = processToken(original, language, stemMode, removeAccents, stemmer);
+                    cache.put(original, tokenString);
+                }
+                consumer.accept(token.reset(input, prev, next, prevType, tokenString));
                 prev = next;
                 prevType = nextType;
             }
             next += Character.charCount(nextCode);
         }
-        return tokens;
     }
 
     private Stemmer getStemmerForLanguage(Language language, StemMode stemMode) {
@@ -0,0 +1,78 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.language.process;
+
+/**
+ * A token which is a view of a region of the tokenized input, for use by streaming tokenizers
+ * which reuse a single token instance for all the tokens they pass to a {@link TokenConsumer}.
+ * The original string of the token is only created if it is requested.
+ *
+ * This is not multithread safe.
+ *
+ * @author agent
+ */
+public final class ReusableToken implements Token {
+
+    private String input = "";
+    private int start = 0;
+    private int end = 0;
+    private TokenType type = TokenType.UNKNOWN;
+    private String tokenString = null;
+    private String orig = null;
+
+    /** Sets this to represent the region [start, end) of the given input. Returns this for chaining. */
+    public ReusableToken reset(String input, int start, int end, TokenType type, String tokenString) {
+        this.input = input;
+        this.start = start;
+        this.end = end;
+        this.type = type;
+        this.tokenString = tokenString;
+        this.orig = null;
+        return this;
+    }
+
+    /** Returns the length of the original form of this token, without creating the original string */
+    public int getOrigLength() { return end - start; }
+
+    @Override
+    public TokenType getType() { return type; }
+
+    @Override
+    public String getOrig() {
+        if (orig == null)
+            orig = input.substring(start, end);
+        return orig;
+    }
+
+    @Override
+    public int getNumStems() { return tokenString != null ? 1 : 0; }
+
+    @Override
+    public String getStem(int i) { return tokenString; }
+
+    @Override
+    public int getNumComponents() { return 0; }
+
+    @Override
+    public Token getComponent(int i) {
+        throw new IndexOutOfBoundsException("This token has no components");
+    }
+
+    @Override
+    public long getOffset() { return start; }
+
+    @Override
+    public TokenScript getScript() { return TokenScript.UNKNOWN; }
+
+    @Override
+    public String getTokenString() { return tokenString; }
+
+    @Override
+    public boolean isSpecialToken() { return false; }
+
+    @Override
+    public boolean isIndexable() { return type.isIndexable() && end > start; }
+
+    @Override
+    public String toString() { return "token '" + getOrig() + "' at " + start + " -> '" + tokenString + "'"; }
+
+}
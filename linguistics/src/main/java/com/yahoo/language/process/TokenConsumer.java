@@ -0,0 +1,18 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.language.process;
+
+/**
+ * Receives the tokens produced by a streaming tokenization, in order.
+ *
+ * @author agent
+ */
+@FunctionalInterface
+public interface TokenConsumer {
+
+    /**
+     * Called once for each token produced. The token instance passed may be reused by the tokenizer
+     * once this returns, so implementations which need to retain a token must copy the values they need.
+     */
+    void accept(Token token);
+
+}
@@ -0,0 +1,118 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.language.process;
+
+import com.yahoo.language.Language;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded cache from original token strings to their processed (normalized, lowercased, accent dropped and
+ * stemmed) token string, with a separate table for each combination of language, stem mode and accent removal.
+ * <p>
+ * Each table is direct mapped: An entry is looked up by hashing a region of the input text directly,
+ * so a hit neither allocates nor locks, and a new entry simply replaces whatever was stored in its slot.
+ * Hence the memory used is bounded by the number of slots, and the cache is safe to use from multiple threads.
+ * <p>
+ * This must only be used to cache the results of deterministic processing,
+ * and a cache instance should only be used with a single processing configuration.
+ *
+ * @author agent
+ */
+public class TokenStringCache {
+
+    /** Tokens longer than this are not cached, as they are rarely repeated */
+    public static final int maxCachedLength = 40;
+
+    private static final int defaultSlotsPerTable = 1 << 13;
+
+    private final int slotsPerTable;
+
+    private final ConcurrentHashMap<Language, Table[]> tables = new ConcurrentHashMap<>();
+
+    public TokenStringCache() {
+        this(defaultSlotsPerTable);
+    }
+
+    /** Creates a cache having the given number of slots, rounded up to a power of 2, in each table */
+    public TokenStringCache(int slotsPerTable) {
+        if (slotsPerTable < 1) throw new IllegalArgumentException("Slots per table must be positive, not " + slotsPerTable);
+        this.slotsPerTable = roundUpToPowerOf2(slotsPerTable);
+    }
+
+    /** Returns the table to use for the given processing parameters. The language may be null. */
+    public Table table(Language language, StemMode stemMode, boolean removeAccents) {
+        Table[] languageTables = tables.computeIfAbsent(language == null ? Language.UNKNOWN : language,
+                                                        (key) -> new Table[StemMode.values().length * 2]);
+        int index = stemMode.ordinal() * 2 + (removeAccents ? 1 : 0);
+        Table table = languageTables[index];
+        if (table == null) { // A racing thread may overwrite this with another empty table, which is harmless
+            table = new Table(slotsPerTable);
+            languageTables[index] = table;
+        }
+        return table;
+    }
+
+    private static int roundUpToPowerOf2(int n) {
+        int highest = Integer.highestOneBit(n);
+        return highest == n ? n : highest << 1;
+    }
+
+    /** The cache for a single combination of processing parameters */
+    public static final class Table {
+
+        private final AtomicReferenceArray<Entry> slots;
+        private final int mask;
+
+        private Table(int size) {
+            this.slots = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        /**
+         * Returns the processed form of the region [start, end) of the given input,
+         * or null if it is not present in this cache.
+         */
+        public String get(String input, int start, int end) {
+            int length = end - start;
+            if (length > maxCachedLength) return null;
+            Entry entry = slots.get(slotOf(hash(input, start, end)));
+            if (entry == null) return null;
+            if (entry.orig.length() != length) return null;
+            if ( ! entry.orig.regionMatches(0, input, start, length)) return null;
+            return entry.processed;
+        }
+
+        /** Stores the processed form of an original token string in this, possibly evicting another entry */
+        public void put(String orig, String processed) {
+            if (orig.length() > maxCachedLength) return;
+            slots.lazySet(slotOf(hash(orig, 0, orig.length())), new Entry(orig, processed));
+        }
+
+        private int slotOf(int hash) {
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+        /** Returns the same hash as String.hashCode of the substring [start, end) */
+        private static int hash(String s, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++)
+                hash = 31 * hash + s.charAt(i);
+            return hash;
+        }
+
+    }
+
+    private static final class Entry {
+
+        final String orig;
+        final String processed;
+
+        Entry(String orig, String processed) {
+            this.orig = orig;
+            this.processed = processed;
+        }
+
+    }
+
+}
@@ -22,6 +22,28 @@ public interface Tokenizer {
      */
     Iterable<Token> tokenize(String input, Language language, StemMode stemMode, boolean removeAccents);
 
+    /**
+     * Produces the tokens of an input string under the rules of the given Language and additional options,
+     * and passes each of them in order to the given consumer as it is produced.
+     * <p>
+     * Implementations may pass the same token instance repeatedly, so consumers must copy any token values
+     * they wish to retain. This avoids creating a token list and token instances for each input string.
+     * <p>
+     * This default implementation is an adapter over {@link #tokenize(String, Language, StemMode, boolean)}
+     *
+     * @param input the string to tokenize. May be arbitrarily large.
+     * @param language the language of the input string.
+     * @param stemMode the stem mode applied on the produced tokens
+     * @param removeAccents if true accents and similar are removed from the produced tokens
+     * @param consumer the receiver of the tokens of the input string
+     * @throws ProcessingException If the underlying library throws an Exception.
+     */
+    default void tokenize(String input, Language language, StemMode stemMode, boolean removeAccents,
+                          TokenConsumer consumer) {
+        for (Token token : tokenize(input, language, stemMode, removeAccents))
+            consumer.accept(token);
+    }
+
     /**
      * Return a replacement for an input token string.
      * This accepts strings returned by Token.getTokenString
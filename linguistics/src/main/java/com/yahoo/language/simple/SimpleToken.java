@@ -25,6 +25,16 @@ public class SimpleToken implements Token {
         this.orig = orig;
     }
 
+    /**
+     * Returns a new token having the type, original form, offset and token string of the given token.
+     * This is useful to retain tokens passed to a {@link com.yahoo.language.process.TokenConsumer}.
+     */
+    public static SimpleToken copyOf(Token token) {
+        return new SimpleToken(token.getOrig()).setOffset(token.getOffset())
+                                               .setType(token.getType())
+                                               .setTokenString(token.getTokenString());
+    }
+
     @Override
     public String getOrig() {
         return orig;
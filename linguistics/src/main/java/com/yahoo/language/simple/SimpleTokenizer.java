@@ -25,6 +25,7 @@ public class SimpleTokenizer implements Tokenizer {
     private final Normalizer normalizer;
     private final Transformer transformer;
     private final KStemmer stemmer = new KStemmer();
+    private final TokenStringCache tokenStringCache = new TokenStringCache();
 
     public SimpleTokenizer() {
         this(new SimpleNormalizer(), new SimpleTransformer());
@@ -44,23 +45,35 @@ public class SimpleTokenizer implements Tokenizer {
         if (input.isEmpty()) return Collections.emptyList();
 
         List<Token> tokens = new ArrayList<>();
+        tokenize(input, language, stemMode, removeAccents, token -> tokens.add(SimpleToken.copyOf(token)));
+        return tokens;
+    }
+
+    @Override
+    public void tokenize(String input, Language language, StemMode stemMode, boolean removeAccents,
+                         TokenConsumer consumer) {
+        if (input.isEmpty()) return;
+
+        ReusableToken token = new ReusableToken();
+        TokenStringCache.Table cache = tokenStringCache.table(language, stemMode, removeAccents);
         int nextCode = input.codePointAt(0);
         TokenType prevType = SimpleTokenType.valueOf(nextCode);
         for (int prev = 0, next = Character.charCount(nextCode); next <= input.length(); ) {
             nextCode = next < input.length() ? input.codePointAt(next) : SPACE_CODE;
             TokenType nextType = SimpleTokenType.valueOf(nextCode);
             if (!prevType.isIndexable() || !nextType.isIndexable()) {
-                String original = input.substring(prev, next);
-                String token = processToken(original, language, stemMode, removeAccents);
-                tokens.add(new SimpleToken(original).setOffset(prev)
-                                                .setType(prevType)
-                                                .setTokenString(token));
+                String tokenString = cache.get(input, prev, next);
+                if (tokenString == null) {
+                    String original = input.substring(prev, next);
+                    tokenString = processToken(original, language, stemMode, removeAccents);
+                    cache.put(original, tokenString);
+                }
+                consumer.accept(token.reset(input, prev, next, prevType, tokenString));
                 prev = next;
                 prevType = nextType;
             }
             next += Character.charCount(nextCode);
         }
-        return tokens;
     }
 
     private String processToken(String token, Language language, StemMode stemMode, boolean removeAccents) {
@@ -0,0 +1,56 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.language.process;
+
+import com.yahoo.language.Language;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author agent
+ */
+public class TokenStringCacheTestCase {
+
+    @Test
+    public void testLookupOfInputRegions() {
+        TokenStringCache cache = new TokenStringCache();
+        TokenStringCache.Table table = cache.table(Language.ENGLISH, StemMode.ALL, false);
+        assertNull(table.get("the offended gods", 4, 12));
+        table.put("offended", "offend");
+        assertEquals("offend", table.get("the offended gods", 4, 12));
+        assertEquals("offend", table.get("offended", 0, 8));
+        assertNull(table.get("the offended gods", 4, 11));
+        assertNull(table.get("the offendex gods", 4, 12));
+    }
+
+    @Test
+    public void testTablesArePerProcessingParameters() {
+        TokenStringCache cache = new TokenStringCache();
+        cache.table(Language.ENGLISH, StemMode.ALL, false).put("Running", "running");
+        assertSame(cache.table(Language.ENGLISH, StemMode.ALL, false), cache.table(Language.ENGLISH, StemMode.ALL, false));
+        assertNull(cache.table(Language.ENGLISH, StemMode.NONE, false).get("Running", 0, 7));
+        assertNull(cache.table(Language.ENGLISH, StemMode.ALL, true).get("Running", 0, 7));
+        assertNull(cache.table(Language.GERMAN, StemMode.ALL, false).get("Running", 0, 7));
+        assertSame(cache.table(null, StemMode.ALL, false), cache.table(Language.UNKNOWN, StemMode.ALL, false));
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        TokenStringCache.Table table = new TokenStringCache(1).table(Language.ENGLISH, StemMode.ALL, false);
+        table.put("a", "A");
+        table.put("b", "B");
+        assertNull(table.get("a", 0, 1));
+        assertEquals("B", table.get("b", 0, 1));
+    }
+
+    @Test
+    public void testLongTokensAreNotCached() {
+        TokenStringCache.Table table = new TokenStringCache().table(Language.ENGLISH, StemMode.ALL, false);
+        String longToken = "a".repeat(TokenStringCache.maxCachedLength + 1);
+        table.put(longToken, longToken);
+        assertNull(table.get(longToken, 0, longToken.length()));
+    }
+
+}
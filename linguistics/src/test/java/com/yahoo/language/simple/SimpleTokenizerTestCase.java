@@ -1,10 +1,17 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.language.simple;
 
+import com.yahoo.language.Language;
 import com.yahoo.language.process.AbstractTokenizerTestCase;
 import com.yahoo.language.process.StemMode;
+import com.yahoo.language.process.Token;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  * @author <a href="mailto:steinar@yahoo-inc.com">Steinar Knutsen</a>
  * @author bratseth
@@ -33,4 +40,21 @@ public class SimpleTokenizerTestCase extends AbstractTokenizerTestCase {
                             " ", "gods", ".", "running", ")");
     }
 
+    @Test
+    public void testStreamingTokenizationProducesTheSameTokens() {
+        String input = "Offended gods.Running offended gods";
+        SimpleTokenizer tokenizer = new SimpleTokenizer();
+        for (int i = 0; i < 2; i++) { // second round is served from the token string cache
+            List<Token> streamed = new ArrayList<>();
+            tokenizer.tokenize(input, Language.ENGLISH, StemMode.ALL, true, token -> streamed.add(SimpleToken.copyOf(token)));
+            List<Token> listed = new ArrayList<>();
+            tokenizer.tokenize(input, Language.ENGLISH, StemMode.ALL, true).forEach(listed::add);
+            assertEquals(listed, streamed);
+            assertEquals(9, streamed.size());
+            assertEquals("offend", streamed.get(0).getTokenString());
+            assertEquals("Offended", streamed.get(0).getOrig());
+            assertEquals(22, streamed.get(6).getOffset());
+        }
+    }
+
 }
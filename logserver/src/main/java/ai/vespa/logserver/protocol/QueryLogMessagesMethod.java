@@ -0,0 +1,103 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.logserver.protocol;
+
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.jrt.DataValue;
+import com.yahoo.jrt.ErrorCode;
+import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Method;
+import com.yahoo.jrt.Request;
+import com.yahoo.log.LogLevel;
+import com.yahoo.log.LogMessage;
+import com.yahoo.logserver.handlers.archive.IndexedArchiverHandler;
+import com.yahoo.logserver.handlers.archive.LogQuery;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * RPC method that returns the archived log messages matching a query
+ *
+ * @author agent
+ */
+public class QueryLogMessagesMethod {
+
+    static final String METHOD_NAME = "vespa.logserver.queryLogMessages";
+
+    /** The max number of messages returned by a query, as the result is returned as a single payload */
+    static final int MAX_MESSAGES = 10000;
+
+    private static final Logger log = Logger.getLogger(QueryLogMessagesMethod.class.getName());
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new DaemonThreadFactory("log query"));
+    private final IndexedArchiverHandler archive;
+    private final Method method;
+
+    public QueryLogMessagesMethod(IndexedArchiverHandler archive) {
+        this.archive = archive;
+        this.method = new Method(METHOD_NAME, "llsssi", "ix", this::query)
+                .methodDesc("Query archived log messages")
+                .paramDesc(0, "from", "Start of the time interval in epoch milliseconds, inclusive")
+                .paramDesc(1, "to", "End of the time interval in epoch milliseconds, exclusive")
+                .paramDesc(2, "hosts", "Comma separated hosts to return messages from, or empty for all")
+                .paramDesc(3, "services", "Comma separated services to return messages from, or empty for all")
+                .paramDesc(4, "levels", "Comma separated levels to return messages of, or empty for all")
+                .paramDesc(5, "maxMessages", "The max number of messages to return, at most " + MAX_MESSAGES)
+                .returnDesc(0, "messageCount", "The number of messages returned")
+                .returnDesc(1, "messages", "The matching messages in the native log format, UTF-8 encoded");
+    }
+
+    public Method methodDefinition() {
+        return method;
+    }
+
+    /** Stops handling queries. Queries not yet handled are dropped */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void query(Request rpcRequest) {
+        rpcRequest.detach();
+        executor.execute(() -> {
+            try {
+                LogQuery query = new LogQuery(Instant.ofEpochMilli(rpcRequest.parameters().get(0).asInt64()),
+                                              Instant.ofEpochMilli(rpcRequest.parameters().get(1).asInt64()),
+                                              toSet(rpcRequest.parameters().get(2).asString()),
+                                              toSet(rpcRequest.parameters().get(3).asString()),
+                                              toSet(rpcRequest.parameters().get(4).asString()).stream()
+                                                      .map(LogLevel::parse)
+                                                      .collect(Collectors.toSet()),
+                                              Math.min(rpcRequest.parameters().get(5).asInt32(), MAX_MESSAGES));
+                List<LogMessage> messages = archive.query(query);
+                ByteArrayOutputStream payload = new ByteArrayOutputStream();
+                for (LogMessage message : messages)
+                    payload.writeBytes(message.toString().getBytes(StandardCharsets.UTF_8));
+                rpcRequest.returnValues().add(new Int32Value(messages.size()));
+                rpcRequest.returnValues().add(new DataValue(payload.toByteArray()));
+                rpcRequest.returnRequest();
+            } catch (Exception e) {
+                String errorMessage = "Failed to handle log query: " + e.getMessage();
+                log.log(Level.WARNING, e, () -> errorMessage);
+                rpcRequest.setError(ErrorCode.METHOD_FAILED, errorMessage);
+                rpcRequest.returnRequest();
+            }
+        });
+    }
+
+    private static Set<String> toSet(String commaSeparated) {
+        return Arrays.stream(commaSeparated.split(","))
+                     .map(String::trim)
+                     .filter(s -> ! s.isEmpty())
+                     .collect(Collectors.toSet());
+    }
+
+}
@@ -27,6 +27,10 @@ public class RpcServer implements AutoCloseable {
         supervisor.addMethod(method);
     }
 
+    public void removeMethod(Method method) {
+        supervisor.removeMethod(method);
+    }
+
     public void start() {
         try {
             acceptor = supervisor.listen(new Spec(listenPort));
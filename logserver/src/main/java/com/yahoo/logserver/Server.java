@@ -5,6 +5,7 @@ import ai.vespa.logserver.protocol.ArchiveLogMessagesMethod;
 import ai.vespa.logserver.protocol.RpcServer;
 import com.yahoo.io.FatalErrorHandler;
 import com.yahoo.io.Listener;
+import com.yahoo.jrt.Method;
 import com.yahoo.log.LogLevel;
 import com.yahoo.log.LogSetup;
 import com.yahoo.log.event.Event;
@@ -107,6 +108,21 @@ public class Server implements Runnable {
         /* NOP */
     }
 
+    /**
+     * Adds a method to the RPC server of this. This can be called by plugins during initialization.
+     *
+     * @throws IllegalStateException if this is not initialized
+     */
+    public void registerRpcMethod(Method method) {
+        if (rpcServer == null) throw new IllegalStateException(APPNAME + " is not initialized");
+        rpcServer.addMethod(method);
+    }
+
+    public void unregisterRpcMethod(Method method) {
+        if (rpcServer != null)
+            rpcServer.removeMethod(method);
+    }
+
     /**
      * Initialize the server and start up all its plugins,
      *
@@ -120,6 +136,8 @@ public class Server implements Runnable {
         }
 
         this.listenPort = listenPort;
+        rpcServer = new RpcServer(rpcListenPort);
+        rpcServer.addMethod(new ArchiveLogMessagesMethod(dispatch).methodDefinition());
 
         // plugins
         registerPluginLoader(new BuiltinPluginLoader());
@@ -128,8 +146,6 @@ public class Server implements Runnable {
         listener = new Listener(APPNAME);
         listener.addSelectLoopPostHook(dispatch);
         listener.setFatalErrorHandler(fatalErrorHandler);
-        rpcServer = new RpcServer(rpcListenPort);
-        rpcServer.addMethod(new ArchiveLogMessagesMethod(dispatch).methodDefinition());
     }
 
     /**
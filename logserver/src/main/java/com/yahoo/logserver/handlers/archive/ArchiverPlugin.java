@@ -3,6 +3,7 @@ package com.yahoo.logserver.handlers.archive;
 
 import java.util.logging.Logger;
 
+import ai.vespa.logserver.protocol.QueryLogMessagesMethod;
 import com.yahoo.logserver.Server;
 import com.yahoo.plugin.Config;
 import com.yahoo.plugin.Plugin;
@@ -23,6 +24,7 @@ public class ArchiverPlugin implements Plugin {
     private final Server server = Server.getInstance();
     private static final Logger log = Logger.getLogger(ArchiverPlugin.class.getName());
     private ArchiverHandler archiver;
+    private QueryLogMessagesMethod queryMethod;
 
     /**
      * @return the name of this plugin
@@ -39,6 +41,9 @@ public class ArchiverPlugin implements Plugin {
      * maxfilesize
      * dir            The root of the logarchive, make sure this does
      * <b>not</b> end with a '/' character.
+     * format         "text" (default) to archive plain text files, or
+     * "indexed" to archive compressed, indexed segments which can be
+     * queried over RPC.
      */
     public void initPlugin(Config config) {
 
@@ -52,9 +57,19 @@ public class ArchiverPlugin implements Plugin {
         String rootDir = config.get("dir", DEFAULT_DIR);
         int maxFileSize = config.getInt("maxfilesize", DEFAULT_MAXFILESIZE);
         String threadName = config.get("thread", getPluginName());
+        String format = config.get("format", "text");
 
         // register log handler and flusher
-        archiver = new ArchiverHandler(rootDir, maxFileSize);
+        if ("indexed".equals(format)) {
+            IndexedArchiverHandler indexedArchiver = new IndexedArchiverHandler(rootDir, maxFileSize);
+            queryMethod = new QueryLogMessagesMethod(indexedArchiver);
+            server.registerRpcMethod(queryMethod.methodDefinition());
+            archiver = indexedArchiver;
+        } else if ("text".equals(format)) {
+            archiver = new ArchiverHandler(rootDir, maxFileSize);
+        } else {
+            throw new IllegalArgumentException("Unknown log archive format '" + format + "', must be 'text' or 'indexed'");
+        }
         server.registerLogHandler(archiver, threadName);
         server.registerFlusher(archiver);
     }
@@ -71,6 +86,11 @@ public class ArchiverPlugin implements Plugin {
         }
         server.unregisterLogHandler(archiver);
         server.unregisterFlusher(archiver);
+        if (queryMethod != null) {
+            server.unregisterRpcMethod(queryMethod.methodDefinition());
+            queryMethod.shutdown();
+            queryMethod = null;
+        }
         archiver.close();
         archiver = null;
     }
@@ -0,0 +1,150 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.logserver.handlers.archive;
+
+import com.yahoo.log.LogMessage;
+import com.yahoo.log.LogMessageTimeComparator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An archiver which, instead of plain text files, writes the messages of each hour to segments of
+ * compressed blocks with a sparse index (see {@link IndexedLogWriter}), and which can answer
+ * queries for archived messages by time interval, host, service and level.
+ * <p>
+ * Messages are kept in memory until a full block is collected or the block has been pending for
+ * {@link #maxBlockAgeMillis}. Queries return pending messages from memory, and no blocks are written
+ * while queries are running, such that each message is either on disk or pending while it is read.
+ *
+ * @author agent
+ */
+public class IndexedArchiverHandler extends ArchiverHandler {
+
+    private static final Logger log = Logger.getLogger(IndexedArchiverHandler.class.getName());
+
+    /** The max time a partial block is held in memory before it is written on flush */
+    static final long maxBlockAgeMillis = 60 * 1000;
+
+    private static final int maxWritersOpen = 10;
+
+    private final int maxFileSize;
+    private final LogArchiveReader reader;
+
+    /** The writer of each hour slot, closing the least recently used when there are too many */
+    private final Map<Integer, IndexedLogWriter> writers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, IndexedLogWriter> eldest) {
+            if (size() <= maxWritersOpen || activeQueries > 0) return false;
+            close(eldest.getValue());
+            return true;
+        }
+    };
+
+    /** The number of queries currently running. Blocks are not written while this is positive */
+    private int activeQueries = 0;
+
+    public IndexedArchiverHandler(String rootDir, int maxFileSize) {
+        super(rootDir, maxFileSize);
+        this.maxFileSize = maxFileSize;
+        this.reader = new LogArchiveReader(new File(rootDir).getAbsoluteFile());
+    }
+
+    @Override
+    public synchronized boolean doHandle(LogMessage msg) {
+        try {
+            IndexedLogWriter writer = writerOf(msg);
+            writer.write(msg);
+            if (activeQueries == 0 && writer.isBlockFull())
+                writer.writeBlock();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    /** Returns the archived messages matching the given query, including those not yet written to disk */
+    public List<LogMessage> query(LogQuery query) {
+        synchronized (this) {
+            activeQueries++;
+        }
+        try {
+            List<LogMessage> result = new ArrayList<>(reader.query(query));
+            synchronized (this) {
+                for (IndexedLogWriter writer : writers.values())
+                    writer.addPendingMatches(query, result);
+            }
+            result.sort(new LogMessageTimeComparator());
+            return result.size() > query.maxMessages() ? new ArrayList<>(result.subList(0, query.maxMessages())) : result;
+        }
+        finally {
+            synchronized (this) {
+                if (--activeQueries == 0)
+                    writeHeldBlocks();
+            }
+        }
+    }
+
+    /** Writes the blocks which became full and closes the writers in excess while queries were running */
+    private void writeHeldBlocks() {
+        for (IndexedLogWriter writer : writers.values()) {
+            try {
+                if (writer.isBlockFull())
+                    writer.writeBlock();
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Writing block failed", e);
+            }
+        }
+        for (Iterator<IndexedLogWriter> i = writers.values().iterator(); writers.size() > maxWritersOpen; ) {
+            close(i.next());
+            i.remove();
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (activeQueries > 0) return;
+        for (IndexedLogWriter writer : writers.values()) {
+            try {
+                writer.writeBlockIfOlderThan(maxBlockAgeMillis);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Flushing failed", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        Iterator<IndexedLogWriter> it = writers.values().iterator();
+        while (it.hasNext()) {
+            close(it.next());
+            it.remove();
+        }
+    }
+
+    private IndexedLogWriter writerOf(LogMessage msg) {
+        return writers.computeIfAbsent(dateHash(msg.getTimestamp().toEpochMilli()),
+                                       slot -> new IndexedLogWriter(getPrefix(msg), maxFileSize));
+    }
+
+    private void close(IndexedLogWriter writer) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Closing failed", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return IndexedArchiverHandler.class.getName() + ": " + super.toString();
+    }
+
+}
@@ -0,0 +1,165 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.logserver.handlers.archive;
+
+import com.yahoo.compress.CompressionType;
+import com.yahoo.compress.Compressor;
+import com.yahoo.log.LogLevel;
+import com.yahoo.log.LogMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Writes the log messages of one time slot to archive segments. Each segment is a pair of files:
+ * A data file of LZ4 compressed blocks of log messages in the native format, and an index file
+ * with an entry per block which is appended when the block is written, such that the index
+ * always describes the blocks present in the data file. Like {@link LogWriter}, this rotates
+ * to the next segment generation when the data file reaches its max size.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author agent
+ */
+class IndexedLogWriter {
+
+    private static final Logger log = Logger.getLogger(IndexedLogWriter.class.getName());
+
+    static final String dataSuffix = ".blocks";
+    static final String indexSuffix = ".index";
+
+    /** The uncompressed size at which a block is written */
+    static final int blockSize = 64 * 1024;
+
+    private static final Compressor compressor = new Compressor(CompressionType.LZ4);
+
+    private final String prefix;
+    private final int maxSize;
+    private int generation = 0;
+
+    private FileOutputStream data = null;
+    private DataOutputStream index = null;
+    private long dataSize = 0;
+
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(blockSize + 1024);
+    private final List<LogMessage> pending = new ArrayList<>();
+    private int messageCount = 0;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+    private int levelMask = 0;
+    private final Set<String> hosts = new HashSet<>();
+    private final Set<String> services = new HashSet<>();
+    private long blockStartMillis = 0;
+
+    IndexedLogWriter(String prefix, int maxSize) {
+        this.prefix = prefix;
+        this.maxSize = maxSize;
+    }
+
+    void write(LogMessage message) throws IOException {
+        if (messageCount == 0)
+            blockStartMillis = System.currentTimeMillis();
+        block.write(message.toString().getBytes(StandardCharsets.UTF_8));
+        pending.add(message);
+        messageCount++;
+        minTime = Math.min(minTime, message.getTime());
+        maxTime = Math.max(maxTime, message.getTime());
+        levelMask |= LogQuery.levelBit(message.getLevel());
+        hosts.add(message.getHost());
+        services.add(message.getService());
+    }
+
+    /** Returns whether the pending block has reached the size at which it should be written */
+    boolean isBlockFull() {
+        return block.size() >= blockSize;
+    }
+
+    /** Adds the messages which are not yet written and match the given query to the given list */
+    void addPendingMatches(LogQuery query, List<LogMessage> result) {
+        for (LogMessage message : pending)
+            if (query.matches(message))
+                result.add(message);
+    }
+
+    /** Writes the pending block if it was started more than the given number of milliseconds ago */
+    void writeBlockIfOlderThan(long maxAgeMillis) throws IOException {
+        if (messageCount > 0 && System.currentTimeMillis() - blockStartMillis >= maxAgeMillis)
+            writeBlock();
+    }
+
+    /** Writes the pending messages, if any, as a block to the current segment */
+    void writeBlock() throws IOException {
+        if (messageCount == 0) return;
+        if (data == null)
+            nextSegment();
+
+        Compressor.Compression compressed = compressor.compress(block.toByteArray());
+        data.write(compressed.data());
+        data.flush();
+        new LogBlockIndexEntry(dataSize, compressed.data().length, compressed.uncompressedSize(), compressed.type(),
+                               messageCount, minTime, maxTime, levelMask, hosts, services).writeTo(index);
+        index.flush();
+        dataSize += compressed.data().length;
+
+        block.reset();
+        pending.clear();
+        messageCount = 0;
+        minTime = Long.MAX_VALUE;
+        maxTime = Long.MIN_VALUE;
+        levelMask = 0;
+        hosts.clear();
+        services.clear();
+
+        if (dataSize >= maxSize) {
+            log.fine("Log segment " + prefix + "-" + (generation - 1) + " full, rotating");
+            closeSegment();
+        }
+    }
+
+    void close() throws IOException {
+        writeBlock();
+        closeSegment();
+    }
+
+    private void nextSegment() throws IOException {
+        while (true) {
+            File dataFile = new File(prefix + "-" + generation + dataSuffix);
+            File indexFile = new File(prefix + "-" + generation + indexSuffix);
+            generation++;
+            if (dataFile.exists() || indexFile.exists()) continue; // never append to segments written earlier
+
+            File dir = dataFile.getParentFile();
+            if ( ! dir.exists() && ! dir.mkdirs() && ! dir.exists())
+                throw new IOException("Unable to create directory " + dir);
+            log.log(LogLevel.DEBUG, "New log segment: " + dataFile);
+            data = new FileOutputStream(dataFile);
+            index = new DataOutputStream(new FileOutputStream(indexFile));
+            dataSize = 0;
+            return;
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (data == null) return;
+        try {
+            data.close();
+            index.close();
+        }
+        finally {
+            data = null;
+            index = null;
+        }
+    }
+
+    @Override
+    public String toString() { return "indexed log writer for " + prefix; }
+
+}
@@ -0,0 +1,123 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.logserver.handlers.archive;
+
+import com.yahoo.compress.Compressor;
+import com.yahoo.log.InvalidLogFormatException;
+import com.yahoo.log.LogMessage;
+import com.yahoo.log.LogMessageTimeComparator;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Answers log queries from the segments written by {@link IndexedLogWriter}s below an archive root.
+ * Only the index files of the time slots overlapping the query interval are read,
+ * and only the blocks whose index entry may match the query are read and decompressed.
+ *
+ * @author agent
+ */
+public class LogArchiveReader {
+
+    private static final Logger log = Logger.getLogger(LogArchiveReader.class.getName());
+    private static final DateTimeFormatter dayFormat = DateTimeFormatter.ofPattern("yyyy/MM/dd").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter hourFormat = DateTimeFormatter.ofPattern("HH").withZone(ZoneOffset.UTC);
+
+    private final Compressor compressor = new Compressor();
+    private final File root;
+
+    /** The number of blocks decompressed by this, for testing */
+    private final AtomicLong blocksRead = new AtomicLong();
+
+    public LogArchiveReader(File root) {
+        this.root = root;
+    }
+
+    /** Returns the messages matching the given query, sorted by time, at most query.maxMessages() */
+    public List<LogMessage> query(LogQuery query) {
+        List<LogMessage> result = new ArrayList<>();
+        ZonedDateTime hour = query.from().atZone(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        for (; hour.toInstant().isBefore(query.to()); hour = hour.plusHours(1)) {
+            for (File indexFile : indexFilesOf(hour.toInstant()))
+                query(indexFile, query, result);
+            if (result.size() >= query.maxMessages()) break; // later slots only contain later messages
+        }
+        result.sort(new LogMessageTimeComparator());
+        return result.size() > query.maxMessages() ? new ArrayList<>(result.subList(0, query.maxMessages())) : result;
+    }
+
+    long blocksRead() { return blocksRead.get(); }
+
+    private File[] indexFilesOf(Instant hour) {
+        File dayDir = new File(root, dayFormat.format(hour));
+        String hourPrefix = hourFormat.format(hour) + "-";
+        File[] files = dayDir.listFiles((dir, name) -> name.startsWith(hourPrefix) && name.endsWith(IndexedLogWriter.indexSuffix));
+        if (files == null) return new File[0];
+        Arrays.sort(files);
+        return files;
+    }
+
+    private void query(File indexFile, LogQuery query, List<LogMessage> result) {
+        String segment = indexFile.getPath().substring(0, indexFile.getPath().length() - IndexedLogWriter.indexSuffix.length());
+        File dataFile = new File(segment + IndexedLogWriter.dataSuffix);
+        try (RandomAccessFile data = new RandomAccessFile(dataFile, "r")) {
+            for (LogBlockIndexEntry block : readIndex(indexFile)) {
+                if ( ! query.mayMatch(block)) continue;
+                for (String line : readBlock(block, data).split("\n")) {
+                    if (line.isEmpty()) continue;
+                    try {
+                        LogMessage message = LogMessage.parseNativeFormat(line);
+                        if (query.matches(message))
+                            result.add(message);
+                    }
+                    catch (InvalidLogFormatException e) {
+                        log.log(Level.FINE, "Skipping invalid archived log line in " + dataFile + ": " + line);
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not read log segment " + segment, e);
+        }
+    }
+
+    private List<LogBlockIndexEntry> readIndex(File indexFile) throws IOException {
+        List<LogBlockIndexEntry> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            while (true)
+                entries.add(LogBlockIndexEntry.readFrom(in));
+        }
+        catch (EOFException e) {
+            // done, possibly with a partially written last entry, which is ignored
+        }
+        return entries;
+    }
+
+    private String readBlock(LogBlockIndexEntry block, RandomAccessFile data) throws IOException {
+        byte[] compressed = new byte[block.compressedSize()];
+        data.seek(block.offset());
+        data.readFully(compressed);
+        blocksRead.incrementAndGet();
+        byte[] uncompressed = compressor.decompress(block.compression(), compressed, 0, block.uncompressedSize(), Optional.empty());
+        return new String(uncompressed, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,100 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.logserver.handlers.archive;
+
+import com.yahoo.compress.CompressionType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The index entry of a compressed block of log messages in an archive segment:
+ * Where the block is, how to decompress it, and a summary of its content which
+ * allows queries to skip blocks without decompressing them.
+ *
+ * @author agent
+ */
+class LogBlockIndexEntry {
+
+    private final long offset;
+    private final int compressedSize;
+    private final int uncompressedSize;
+    private final CompressionType compression;
+    private final int messageCount;
+    private final long minTime;
+    private final long maxTime;
+    private final int levelMask;
+    private final Set<String> hosts;
+    private final Set<String> services;
+
+    LogBlockIndexEntry(long offset, int compressedSize, int uncompressedSize, CompressionType compression,
+                       int messageCount, long minTime, long maxTime, int levelMask,
+                       Set<String> hosts, Set<String> services) {
+        this.offset = offset;
+        this.compressedSize = compressedSize;
+        this.uncompressedSize = uncompressedSize;
+        this.compression = compression;
+        this.messageCount = messageCount;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+        this.levelMask = levelMask;
+        this.hosts = Set.copyOf(hosts);
+        this.services = Set.copyOf(services);
+    }
+
+    /** The offset of the block in the segment data file */
+    long offset() { return offset; }
+    int compressedSize() { return compressedSize; }
+    int uncompressedSize() { return uncompressedSize; }
+    CompressionType compression() { return compression; }
+    int messageCount() { return messageCount; }
+    /** The earliest message timestamp in the block, in epoch milliseconds */
+    long minTime() { return minTime; }
+    /** The latest message timestamp in the block, in epoch milliseconds */
+    long maxTime() { return maxTime; }
+    /** The levels present in the block, as a mask of {@link LogQuery#levelBit} values */
+    int levelMask() { return levelMask; }
+    Set<String> hosts() { return hosts; }
+    Set<String> services() { return services; }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(offset);
+        out.writeInt(compressedSize);
+        out.writeInt(uncompressedSize);
+        out.writeByte(compression.getCode());
+        out.writeInt(messageCount);
+        out.writeLong(minTime);
+        out.writeLong(maxTime);
+        out.writeInt(levelMask);
+        writeStrings(hosts, out);
+        writeStrings(services, out);
+    }
+
+    static LogBlockIndexEntry readFrom(DataInput in) throws IOException {
+        return new LogBlockIndexEntry(in.readLong(), in.readInt(), in.readInt(), CompressionType.valueOf(in.readByte()),
+                                      in.readInt(), in.readLong(), in.readLong(), in.readInt(),
+                                      readStrings(in), readStrings(in));
+    }
+
+    private static void writeStrings(Set<String> strings, DataOutput out) throws IOException {
+        out.writeInt(strings.size());
+        for (String s : new TreeSet<>(strings))
+            out.writeUTF(s);
+    }
+
+    private static Set<String> readStrings(DataInput in) throws IOException {
+        int count = in.readInt();
+        Set<String> strings = new TreeSet<>();
+        for (int i = 0; i < count; i++)
+            strings.add(in.readUTF());
+        return strings;
+    }
+
+    @Override
+    public String toString() {
+        return "block at " + offset + " of " + messageCount + " messages in [" + minTime + ", " + maxTime + "]";
+    }
+
+}
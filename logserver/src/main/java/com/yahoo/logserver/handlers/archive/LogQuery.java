@@ -0,0 +1,92 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.logserver.handlers.archive;
+
+import com.yahoo.log.LogLevel;
+import com.yahoo.log.LogMessage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * A query for archived log messages: All messages in a time interval which are from
+ * one of the given hosts, services and levels. An empty set of hosts, services or levels matches all.
+ *
+ * @author agent
+ */
+public class LogQuery {
+
+    /** The level names in bit position order, followed by unknown */
+    private static final List<Level> levels = new ArrayList<>(LogLevel.getLevels().values());
+
+    private final Instant from;
+    private final Instant to;
+    private final Set<String> hosts;
+    private final Set<String> services;
+    private final int levelMask;
+    private final int maxMessages;
+
+    /**
+     * Creates a log query
+     *
+     * @param from the start of the time interval, inclusive
+     * @param to the end of the time interval, exclusive
+     * @param hosts the hosts to return messages from, or empty for all
+     * @param services the services to return messages from, or empty for all
+     * @param levels the levels to return messages of, or empty for all
+     * @param maxMessages the max number of messages to return
+     */
+    public LogQuery(Instant from, Instant to, Set<String> hosts, Set<String> services, Set<Level> levels, int maxMessages) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("Query interval end " + to + " is before start " + from);
+        if (maxMessages < 0) throw new IllegalArgumentException("Max messages cannot be negative, was " + maxMessages);
+        this.from = from;
+        this.to = to;
+        this.hosts = Set.copyOf(hosts);
+        this.services = Set.copyOf(services);
+        this.levelMask = levels.isEmpty() ? -1 : levels.stream().mapToInt(LogQuery::levelBit).reduce(0, (a, b) -> a | b);
+        this.maxMessages = maxMessages;
+    }
+
+    public Instant from() { return from; }
+    public Instant to() { return to; }
+    public Set<String> hosts() { return hosts; }
+    public Set<String> services() { return services; }
+    public int maxMessages() { return maxMessages; }
+
+    /** Returns whether the given message matches this query */
+    public boolean matches(LogMessage message) {
+        long time = message.getTime();
+        if (time < from.toEpochMilli() || time >= to.toEpochMilli()) return false;
+        if ( ! hosts.isEmpty() && ! hosts.contains(message.getHost())) return false;
+        if ( ! services.isEmpty() && ! services.contains(message.getService())) return false;
+        return (levelBit(message.getLevel()) & levelMask) != 0;
+    }
+
+    /** Returns whether the block with the given index entry may contain messages matching this query */
+    boolean mayMatch(LogBlockIndexEntry block) {
+        if (block.maxTime() < from.toEpochMilli() || block.minTime() >= to.toEpochMilli()) return false;
+        if ((block.levelMask() & levelMask) == 0) return false;
+        if ( ! hosts.isEmpty() && Collections.disjoint(hosts, block.hosts())) return false;
+        if ( ! services.isEmpty() && Collections.disjoint(services, block.services())) return false;
+        return true;
+    }
+
+    /** Returns the bit representing the Vespa level of the given level in level masks */
+    static int levelBit(Level level) {
+        int index = levels.indexOf(LogLevel.getVespaLogLevel(level));
+        return 1 << (index < 0 ? levels.size() : index);
+    }
+
+    @Override
+    public String toString() {
+        return "log query [" + from + ", " + to + ")" +
+               (hosts.isEmpty() ? "" : " hosts " + hosts) +
+               (services.isEmpty() ? "" : " services " + services) +
+               (levelMask == -1 ? "" : " level mask " + Integer.toBinaryString(levelMask)) +
+               " max " + maxMessages;
+    }
+
+}
@@ -0,0 +1,137 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.logserver.handlers.archive;
+
+import com.yahoo.log.InvalidLogFormatException;
+import com.yahoo.log.LogLevel;
+import com.yahoo.log.LogMessage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class IndexedArchiverHandlerTestCase {
+
+    private static final long hour = 3600 * 1000;
+    private static final long start = 1095159244095L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testQueryByTimeHostServiceAndLevel() throws IOException {
+        File root = temporaryFolder.newFolder();
+        IndexedArchiverHandler archiver = new IndexedArchiverHandler(root.getAbsolutePath(), 1024 * 1024);
+        List<LogMessage> all = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            LogMessage message = message(start + i * 3000,
+                                         "host" + (i % 3),
+                                         "service" + (i % 5),
+                                         i % 100 == 0 ? "error" : "info",
+                                         "payload " + i);
+            all.add(message);
+            archiver.handle(message);
+        }
+
+        assertEquals(all, archiver.query(query(start, start + 3 * hour, Set.of(), Set.of(), Set.of(), 10000)));
+
+        LogQuery errorsFromService2 = query(start, start + 3 * hour, Set.of(), Set.of("service0"), Set.of("error"), 10000);
+        assertEquals(all.stream().filter(errorsFromService2::matches).collect(Collectors.toList()),
+                     archiver.query(errorsFromService2));
+        assertEquals(30, archiver.query(errorsFromService2).size());
+
+        LogQuery secondHourOnHost1 = query(start + hour, start + 2 * hour, Set.of("host1"), Set.of(), Set.of(), 10000);
+        List<LogMessage> expected = all.stream().filter(secondHourOnHost1::matches).collect(Collectors.toList());
+        assertEquals(400, expected.size());
+        assertEquals(expected, archiver.query(secondHourOnHost1));
+
+        assertEquals(all.subList(0, 7), archiver.query(query(start, start + 3 * hour, Set.of(), Set.of(), Set.of(), 7)));
+        archiver.close();
+
+        assertEquals("Archive can be read after being closed",
+                     expected, new LogArchiveReader(root).query(secondHourOnHost1));
+    }
+
+    @Test
+    public void testOnlyMatchingBlocksAreRead() throws IOException {
+        File root = temporaryFolder.newFolder();
+        IndexedArchiverHandler archiver = new IndexedArchiverHandler(root.getAbsolutePath(), 1024 * 1024);
+        for (int i = 0; i < 5000; i++)
+            archiver.handle(message(start + i, "host", "service", "info", "payload " + i));
+        archiver.handle(message(start + 5000, "host", "service", "error", "the error"));
+        for (int i = 5001; i < 10000; i++)
+            archiver.handle(message(start + i, "host", "service", "info", "payload " + i));
+        archiver.close();
+
+        LogArchiveReader reader = new LogArchiveReader(root);
+        List<LogMessage> errors = reader.query(query(start, start + hour, Set.of(), Set.of(), Set.of("error"), 100));
+        assertEquals(1, errors.size());
+        assertEquals("the error", errors.get(0).getPayload());
+        assertEquals(1, reader.blocksRead());
+
+        assertTrue(reader.query(query(start, start + hour, Set.of("otherhost"), Set.of(), Set.of(), 100)).isEmpty());
+        assertTrue(reader.query(query(start - hour, start - 1, Set.of(), Set.of(), Set.of(), 100)).isEmpty());
+        assertEquals(1, reader.blocksRead());
+    }
+
+    @Test
+    public void testPendingMessagesAreQueriedWithoutBeingWritten() throws IOException {
+        File root = temporaryFolder.newFolder();
+        IndexedArchiverHandler archiver = new IndexedArchiverHandler(root.getAbsolutePath(), 1024 * 1024);
+        List<LogMessage> all = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            LogMessage message = message(start + i, "host", "service", "info", "payload " + i);
+            all.add(message);
+            archiver.handle(message);
+        }
+
+        for (int i = 0; i < 3; i++)
+            assertEquals(all, archiver.query(query(start, start + hour, Set.of(), Set.of(), Set.of(), 100)));
+        assertEquals(all.subList(0, 4), archiver.query(query(start, start + hour, Set.of(), Set.of(), Set.of(), 4)));
+        File[] indexFiles = new File(root, "2004/09/14").listFiles((dir, name) -> name.endsWith(IndexedLogWriter.indexSuffix));
+        assertTrue("No blocks are written by queries", indexFiles == null || indexFiles.length == 0);
+
+        archiver.close();
+        assertEquals(all, new LogArchiveReader(root).query(query(start, start + hour, Set.of(), Set.of(), Set.of(), 100)));
+    }
+
+    @Test
+    public void testSegmentsAreRotated() throws IOException {
+        File root = temporaryFolder.newFolder();
+        IndexedArchiverHandler archiver = new IndexedArchiverHandler(root.getAbsolutePath(), 1024);
+        for (int i = 0; i < 2000; i++)
+            archiver.handle(message(start + i, "host", "service", "info", "payload " + i));
+        archiver.close();
+
+        File[] indexFiles = new File(root, "2004/09/14").listFiles((dir, name) -> name.endsWith(IndexedLogWriter.indexSuffix));
+        assertTrue(indexFiles.length > 1);
+        assertEquals(2000, new LogArchiveReader(root).query(query(start, start + hour, Set.of(), Set.of(), Set.of(), 10000)).size());
+    }
+
+    private static LogQuery query(long from, long to, Set<String> hosts, Set<String> services, Set<String> levels, int max) {
+        return new LogQuery(Instant.ofEpochMilli(from), Instant.ofEpochMilli(to), hosts, services,
+                            levels.stream().map(LogLevel::parse).collect(Collectors.toSet()), max);
+    }
+
+    private static LogMessage message(long time, String host, String service, String level, String payload) {
+        try {
+            return LogMessage.parseNativeFormat(String.format("%d.%03d000\t%s\t1/2\t%s\tcomponent\t%s\t%s",
+                                                              time / 1000, time % 1000, host, service, level, payload));
+        } catch (InvalidLogFormatException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
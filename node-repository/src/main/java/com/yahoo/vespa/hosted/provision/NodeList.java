@@ -2,6 +2,8 @@
 package com.yahoo.vespa.hosted.provision;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
 import com.yahoo.config.provision.ApplicationId;
 import com.yahoo.config.provision.ClusterSpec;
 import com.yahoo.config.provision.NodeResources;
@@ -9,16 +11,21 @@ import com.yahoo.config.provision.NodeType;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.collectingAndThen;
 
 /**
- * A filterable node list
+ * A filterable node list.
+ * The lookups by hostname, parent, owner, state and node type are served from indexes of this list,
+ * which are built on first use, such that repeated lookups in the same list are cheap.
  *
  * @author bratseth
  * @author mpolden
@@ -27,6 +34,13 @@ public class NodeList implements Iterable<Node> {
 
     private final List<Node> nodes;
 
+    // Indexes of the nodes of this, each built on first use. Building one more than once in a race is harmless.
+    private volatile Map<String, Node> byHostname;
+    private volatile ImmutableListMultimap<String, Node> byParentHostname;
+    private volatile ImmutableListMultimap<ApplicationId, Node> byOwner;
+    private volatile ImmutableListMultimap<Node.State, Node> byState;
+    private volatile ImmutableListMultimap<NodeType, Node> byType;
+
     public NodeList(List<Node> nodes) {
         this(nodes, true);
     }
@@ -35,6 +49,45 @@ public class NodeList implements Iterable<Node> {
         this.nodes = copy ? ImmutableList.copyOf(nodes) : Collections.unmodifiableList(nodes);
     }
 
+    private Map<String, Node> byHostname() {
+        if (byHostname == null) {
+            Map<String, Node> index = new HashMap<>();
+            for (Node node : nodes)
+                index.putIfAbsent(node.hostname(), node);
+            byHostname = Collections.unmodifiableMap(index);
+        }
+        return byHostname;
+    }
+
+    private ImmutableListMultimap<String, Node> byParentHostname() {
+        if (byParentHostname == null)
+            byParentHostname = index(node -> node.parentHostname().orElse(null));
+        return byParentHostname;
+    }
+
+    private ImmutableListMultimap<ApplicationId, Node> byOwner() {
+        if (byOwner == null)
+            byOwner = index(node -> node.allocation().map(allocation -> allocation.owner()).orElse(null));
+        return byOwner;
+    }
+
+    private ImmutableListMultimap<Node.State, Node> byState() {
+        if (byState == null)
+            byState = index(Node::state);
+        return byState;
+    }
+
+    private ImmutableListMultimap<NodeType, Node> byType() {
+        if (byType == null)
+            byType = index(Node::type);
+        return byType;
+    }
+
+    /** Returns an index of the nodes of this by the given key. Nodes with a null key are not indexed. */
+    private <KEY> ImmutableListMultimap<KEY, Node> index(Function<Node, KEY> key) {
+        return Multimaps.index(nodes.stream().filter(node -> key.apply(node) != null).iterator(), key::apply);
+    }
+
     /** Returns the subset of nodes which are retired */
     public NodeList retired() {
         return filter(node -> node.allocation().get().membership().retired());
@@ -65,12 +118,12 @@ public class NodeList implements Iterable<Node> {
 
     /** Returns the subset of nodes owned by the given application */
     public NodeList owner(ApplicationId application) {
-        return filter(node -> node.allocation().map(a -> a.owner().equals(application)).orElse(false));
+        return wrap(byOwner().get(application));
     }
 
     /** Returns the subset of nodes matching the given node type */
     public NodeList nodeType(NodeType nodeType) {
-        return filter(node -> node.type() == nodeType);
+        return wrap(byType().get(nodeType));
     }
 
     /** Returns the subset of nodes that are parents */
@@ -80,7 +133,7 @@ public class NodeList implements Iterable<Node> {
 
     /** Returns the child nodes of the given parent node */
     public NodeList childrenOf(String hostname) {
-        return filter(n -> n.parentHostname().map(hostname::equals).orElse(false));
+        return wrap(byParentHostname().get(hostname));
     }
 
     public NodeList childrenOf(Node parent) {
@@ -89,7 +142,7 @@ public class NodeList implements Iterable<Node> {
 
     /** Returns the subset of nodes that are in a given state */
     public NodeList state(Node.State state) {
-        return filter(node -> node.state() == state);
+        return wrap(byState().get(state));
     }
 
     /** Returns the parent nodes of the given child nodes */
@@ -103,10 +156,12 @@ public class NodeList implements Iterable<Node> {
 
     /** Returns the parent node of the given child node */
     public Optional<Node> parentOf(Node child) {
-        return child.parentHostname()
-                .flatMap(parentHostname -> nodes.stream()
-                        .filter(node -> node.hostname().equals(parentHostname))
-                        .findFirst());
+        return child.parentHostname().flatMap(this::node);
+    }
+
+    /** Returns the node with the given hostname in this, if any */
+    public Optional<Node> node(String hostname) {
+        return Optional.ofNullable(byHostname().get(hostname));
     }
 
     public int size() { return nodes.size(); }
@@ -288,7 +288,7 @@ public class CuratorDatabaseClient {
         for (Node.State state : states) {
             Optional<byte[]> nodeData = session.getData(toPath(state, hostname));
             if (nodeData.isPresent())
-                return nodeData.map((data) -> nodeSerializer.fromJson(state, data));
+                return nodeData.map((data) -> nodeSerializer.fromJson(hostname, state, data));
         }
         return Optional.empty();
     }
@@ -1,6 +1,8 @@
 // Copyright 2018 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.hosted.provision.persistence;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import com.yahoo.component.Version;
 import com.yahoo.config.provision.ApplicationId;
@@ -31,6 +33,7 @@ import com.yahoo.vespa.hosted.provision.node.Status;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -47,6 +50,13 @@ public class NodeSerializer {
     /** The configured node flavors */
     private final NodeFlavors flavors;
 
+    /**
+     * The last node deserialized for each hostname, with its serialized form. Nodes are immutable, so an
+     * unchanged node is returned as-is instead of deserializing it again. This must be able to hold all the
+     * nodes of a zone.
+     */
+    private final Cache<String, CachedNode> cache = CacheBuilder.newBuilder().maximumSize(100_000).build();
+
     // Node fields
     private static final String hostnameKey = "hostname";
     private static final String ipAddressesKey = "ipAddresses";
@@ -188,6 +198,21 @@ public class NodeSerializer {
         return nodeFromSlime(state, SlimeUtils.jsonToSlime(data).get());
     }
 
+    /**
+     * Returns the node with the given hostname in the given serialized form, which is the last node
+     * returned for this hostname if its serialized form is unchanged.
+     * The given data must not be modified after this is called.
+     */
+    public Node fromJson(String hostname, Node.State state, byte[] data) {
+        CachedNode cached = cache.getIfPresent(hostname);
+        if (cached != null && cached.state == state && Arrays.equals(cached.data, data))
+            return cached.node;
+
+        Node node = fromJson(state, data);
+        cache.put(hostname, new CachedNode(state, data, node));
+        return node;
+    }
+
     private Node nodeFromSlime(Node.State state, Inspector object) {
         return new Node(object.field(idKey).asString(),
                         ipAddressesFromSlime(object, ipAddressesKey),
@@ -419,4 +444,18 @@ public class NodeSerializer {
         throw new IllegalArgumentException("Serialized form of '" + type + "' not defined");
     }
 
+    private static class CachedNode {
+
+        private final Node.State state;
+        private final byte[] data;
+        private final Node node;
+
+        private CachedNode(Node.State state, byte[] data, Node node) {
+            this.state = state;
+            this.data = data;
+            this.node = node;
+        }
+
+    }
+
 }
@@ -62,16 +62,12 @@ class NodePrioritizer {
         this.flavors = flavors;
         this.spareHosts = findSpareHosts(allNodes, capacity, spares);
 
-        int nofFailedNodes = (int) allNodes.asList().stream()
+        int nofFailedNodes = (int) allNodes.owner(appId).asList().stream()
                 .filter(node -> node.state().equals(Node.State.failed))
-                .filter(node -> node.allocation().isPresent())
-                .filter(node -> node.allocation().get().owner().equals(appId))
                 .filter(node -> node.allocation().get().membership().cluster().id().equals(clusterSpec.id()))
                 .count();
 
-        int nofNodesInCluster = (int) allNodes.asList().stream()
-                .filter(node -> node.allocation().isPresent())
-                .filter(node -> node.allocation().get().owner().equals(appId))
+        int nofNodesInCluster = (int) allNodes.owner(appId).asList().stream()
                 .filter(node -> node.allocation().get().membership().cluster().id().equals(clusterSpec.id()))
                 .count();
 
@@ -189,11 +185,9 @@ class NodePrioritizer {
      */
     void addApplicationNodes() {
         List<Node.State> legalStates = Arrays.asList(Node.State.active, Node.State.inactive, Node.State.reserved);
-        allNodes.asList().stream()
+        allNodes.owner(appId).asList().stream()
                 .filter(node -> node.type().equals(requestedNodes.type()))
                 .filter(node -> legalStates.contains(node.state()))
-                .filter(node -> node.allocation().isPresent())
-                .filter(node -> node.allocation().get().owner().equals(appId))
                 .map(node -> toNodePriority(node, false, false))
                 .forEach(prioritizableNode -> nodes.put(prioritizableNode.node, prioritizableNode));
     }
@@ -202,9 +196,8 @@ class NodePrioritizer {
      * Add nodes already provisioned, but not allocated to any application
      */
     void addReadyNodes() {
-        allNodes.asList().stream()
+        allNodes.state(Node.State.ready).asList().stream()
                 .filter(node -> node.type().equals(requestedNodes.type()))
-                .filter(node -> node.state().equals(Node.State.ready))
                 .map(node -> toNodePriority(node, false, false))
                 .filter(n -> !n.violatesSpares || isAllocatingForReplacement)
                 .forEach(prioritizableNode -> nodes.put(prioritizableNode.node, prioritizableNode));
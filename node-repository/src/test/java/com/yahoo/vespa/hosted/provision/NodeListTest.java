@@ -0,0 +1,72 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.hosted.provision;
+
+import com.yahoo.component.Vtag;
+import com.yahoo.config.provision.ApplicationId;
+import com.yahoo.config.provision.ClusterMembership;
+import com.yahoo.config.provision.Flavor;
+import com.yahoo.config.provision.NodeResources;
+import com.yahoo.config.provision.NodeType;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author agent
+ */
+public class NodeListTest {
+
+    private final NodeResources resources = new NodeResources(1, 4, 10);
+    private final ApplicationId app1 = ApplicationId.from("tenant", "app1", "default");
+    private final ApplicationId app2 = ApplicationId.from("tenant", "app2", "default");
+
+    private Node host(String hostname) {
+        return Node.create("id-" + hostname, Collections.emptySet(), Collections.emptySet(), hostname, Optional.empty(),
+                           Optional.empty(), new Flavor(resources), NodeType.host);
+    }
+
+    private Node child(String hostname, String parent, ApplicationId owner) {
+        Node node = Node.createDockerNode(Collections.emptySet(), Collections.emptySet(), hostname, Optional.of(parent),
+                                          resources, NodeType.tenant);
+        if (owner == null) return node;
+        return node.allocate(owner, ClusterMembership.from("container/default/0/0", Vtag.currentVersion), Instant.EPOCH);
+    }
+
+    private static List<String> hostnames(NodeList nodes) {
+        return nodes.asList().stream().map(Node::hostname).collect(Collectors.toList());
+    }
+
+    @Test
+    public void lookups_match_filtering() {
+        NodeList nodes = new NodeList(Arrays.asList(host("host1"),
+                                                    child("node1", "host1", app1),
+                                                    host("host2"),
+                                                    child("node2", "host1", app2),
+                                                    child("node3", "host2", app1),
+                                                    child("node4", "host2", null)));
+
+        assertEquals(Arrays.asList("node1", "node2"), hostnames(nodes.childrenOf("host1")));
+        assertEquals(Arrays.asList("node3", "node4"), hostnames(nodes.childrenOf(nodes.node("host2").get())));
+        assertEquals(Collections.emptyList(), hostnames(nodes.childrenOf("node1")));
+        assertEquals(Arrays.asList("node1", "node3"), hostnames(nodes.owner(app1)));
+        assertEquals(Arrays.asList("node1"), hostnames(nodes.childrenOf("host1").owner(app1)));
+        assertEquals(Arrays.asList("host1", "host2"), hostnames(nodes.state(Node.State.provisioned)));
+        assertEquals(Arrays.asList("node1", "node2", "node3", "node4"), hostnames(nodes.state(Node.State.reserved)));
+        assertEquals(Collections.emptyList(), hostnames(nodes.state(Node.State.active)));
+        assertEquals(Arrays.asList("host1", "host2"), hostnames(nodes.nodeType(NodeType.host)));
+
+        assertEquals("host2", nodes.parentOf(nodes.node("node4").get()).get().hostname());
+        assertFalse(nodes.parentOf(nodes.node("host1").get()).isPresent());
+        assertFalse(nodes.node("nonexisting").isPresent());
+        assertEquals(Arrays.asList("host1", "host2"), hostnames(nodes.parentsOf(nodes.owner(app1).asList())));
+    }
+
+}
@@ -42,6 +42,8 @@ import static java.time.temporal.ChronoUnit.MILLIS;
 import static java.util.Collections.singleton;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -66,6 +68,23 @@ public class SerializationTest {
         assertEquals(0, copy.history().events().size());
     }
 
+    @Test
+    public void testUnchangedNodeIsNotDeserializedAgain() {
+        Node node = createNode();
+        byte[] json = nodeSerializer.toJson(node);
+        Node copy = nodeSerializer.fromJson(node.hostname(), State.provisioned, json);
+        assertSame(copy, nodeSerializer.fromJson(node.hostname(), State.provisioned, Arrays.copyOf(json, json.length)));
+
+        Node ready = nodeSerializer.fromJson(node.hostname(), State.ready, json);
+        assertNotSame(copy, ready);
+        assertEquals(State.ready, ready.state());
+
+        byte[] changed = nodeSerializer.toJson(ready.withWantToRetire(true, Agent.system, Instant.now()));
+        Node retiring = nodeSerializer.fromJson(node.hostname(), State.ready, changed);
+        assertTrue(retiring.status().wantToRetire());
+        assertSame(retiring, nodeSerializer.fromJson(node.hostname(), State.ready, changed));
+    }
+
     @Test
     public void testReservedNodeSerialization() {
         Node node = createNode();
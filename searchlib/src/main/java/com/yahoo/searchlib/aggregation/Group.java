@@ -49,7 +49,7 @@ public class Group extends Identifiable {
             }
         }
 
-        ArrayList<Group> merged = new ArrayList<Group>();
+        ArrayList<Group> merged = new ArrayList<Group>(Math.max(children.size(), rhs.children.size()));
         Iterator<Group> lhsChild = children.iterator(), rhsChild = rhs.children.iterator();
         if (lhsChild.hasNext() && rhsChild.hasNext()) {
             Group lhsGroup = lhsChild.next();
@@ -85,6 +85,65 @@ public class Group extends Identifiable {
         children = merged;
     }
 
+    /**
+     * <p>Merges the content of all the given groups <b>into</b> this. This produces the same result as merging them
+     * one by one in list order through {@link #merge(int, int, Group)}, but merges the children of all groups in a
+     * single pass per level instead of building a new list of children per group merged. When this function returns,
+     * make sure to call {@link #postMerge(java.util.List, int, int)}.</p>
+     *
+     * @param firstLevel   The first level to merge.
+     * @param currentLevel The current level.
+     * @param others       The groups to merge with, which must all have children ordered by id.
+     */
+    public void merge(int firstLevel, int currentLevel, List<Group> others) {
+        if (others.isEmpty()) {
+            return;
+        }
+        if (others.size() == 1) {
+            merge(firstLevel, currentLevel, others.get(0));
+            return;
+        }
+        for (Group rhs : others) {
+            if (rhs.rank > rank) {
+                rank = rhs.rank; // keep highest rank
+            }
+            if (currentLevel >= firstLevel) {
+                for (int i = 0, len = aggregationResults.size(); i < len; ++i) {
+                    aggregationResults.get(i).merge(rhs.aggregationResults.get(i));
+                }
+            }
+        }
+
+        // Take the children with the lowest id from a heap of cursors into each list of children, merging all children
+        // of equal id into the one from the earliest group, to keep the order in which aggregation results are merged
+        PriorityQueue<ChildCursor> cursors = new PriorityQueue<ChildCursor>(others.size() + 1);
+        int maxChildren = children.size();
+        ChildCursor.addTo(cursors, 0, children);
+        for (int i = 0; i < others.size(); ++i) {
+            List<Group> rhsChildren = others.get(i).children;
+            maxChildren = Math.max(maxChildren, rhsChildren.size());
+            ChildCursor.addTo(cursors, i + 1, rhsChildren);
+        }
+        ArrayList<Group> merged = new ArrayList<Group>(maxChildren);
+        List<Group> equal = new ArrayList<Group>(others.size());
+        while ( ! cursors.isEmpty()) {
+            ChildCursor first = cursors.poll();
+            Group target = first.current;
+            first.advance(cursors);
+            while ( ! cursors.isEmpty() && cursors.peek().current.compareId(target) == 0) {
+                ChildCursor next = cursors.poll();
+                equal.add(next.current);
+                next.advance(cursors);
+            }
+            if ( ! equal.isEmpty()) {
+                target.merge(firstLevel, currentLevel + 1, equal);
+                equal.clear();
+            }
+            merged.add(target);
+        }
+        children = merged;
+    }
+
     private void executeOrderBy() {
         for (ExpressionNode node : orderByExp) {
             node.prepare();
@@ -463,6 +522,40 @@ public class Group extends Identifiable {
         }
     }
 
+    /** A position in the list of children of one of the groups being merged */
+    private static class ChildCursor implements Comparable<ChildCursor> {
+
+        final int source;
+        final Iterator<Group> remaining;
+        Group current;
+
+        private ChildCursor(int source, Iterator<Group> remaining) {
+            this.source = source;
+            this.remaining = remaining;
+            this.current = remaining.next();
+        }
+
+        static void addTo(PriorityQueue<ChildCursor> cursors, int source, List<Group> children) {
+            if ( ! children.isEmpty()) {
+                cursors.add(new ChildCursor(source, children.iterator()));
+            }
+        }
+
+        /** Moves this to the next child, and puts it back in the given heap if there is one */
+        void advance(PriorityQueue<ChildCursor> cursors) {
+            if (remaining.hasNext()) {
+                current = remaining.next();
+                cursors.add(this);
+            }
+        }
+
+        @Override
+        public int compareTo(ChildCursor other) {
+            int cmp = current.compareId(other.current);
+            return (cmp != 0) ? cmp : Integer.compare(source, other.source);
+        }
+    }
+
     private static enum SortType {
         UNSORTED,
         BYRANK,
@@ -13,8 +13,10 @@ import com.yahoo.searchlib.expression.MultiplyFunctionNode;
 import com.yahoo.searchlib.expression.StringResultNode;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 
@@ -749,6 +751,65 @@ public class MergeTestCase {
         tmp.postMerge();
         assertEquals(expect.toString(), tmp.getRoot().toString());
         assertEquals(expect, tmp.getRoot());
+
+        Grouping all = groupingList.get(0).clone();
+        List<Grouping> others = new ArrayList<>();
+        for (int i = 1; i < groupingList.size(); ++i) {
+            others.add(groupingList.get(i).clone());
+        }
+        all.merge(others);
+        all.postMerge();
+        assertEquals(expect.toString(), all.getRoot().toString());
+        assertEquals(expect, all.getRoot());
+    }
+
+    private static Group createRandomGroup(Random random, int level, int levels) {
+        Group group = new Group()
+            .setRank(random.nextInt(100))
+            .addAggregationResult(new SumAggregationResult()
+                                      .setSum(new IntegerResultNode(random.nextInt(100)))
+                                      .setExpression(new AttributeNode("s" + level)));
+        if (level < levels) {
+            for (int id = 0; id < 20; ++id) {
+                if (random.nextInt(3) == 0) {
+                    group.addChild(createRandomGroup(random, level + 1, levels).setId(new IntegerResultNode(id)));
+                }
+            }
+        }
+        return group;
+    }
+
+    // Merge many results at once, and verify that this is the same as merging them one by one.
+    @Test
+    public void testMergeAllEqualsPairwiseMerge() {
+        Random random = new Random(42);
+        Grouping request = new Grouping()
+            .setFirstLevel(0)
+            .setLastLevel(3)
+            .addLevel(new GroupingLevel().setMaxGroups(10))
+            .addLevel(new GroupingLevel().setMaxGroups(5))
+            .addLevel(new GroupingLevel().setMaxGroups(-1));
+        List<Grouping> groupingList = new ArrayList<>();
+        for (int i = 0; i < 16; ++i) {
+            groupingList.add(request.clone().setRoot(createRandomGroup(random, 0, 3)));
+        }
+
+        Grouping pairwise = groupingList.get(0).clone();
+        for (int i = 1; i < groupingList.size(); ++i) {
+            pairwise.merge(groupingList.get(i).clone());
+        }
+        pairwise.postMerge();
+
+        Grouping all = groupingList.get(0).clone();
+        List<Grouping> others = new ArrayList<>();
+        for (int i = 1; i < groupingList.size(); ++i) {
+            others.add(groupingList.get(i).clone());
+        }
+        all.merge(others);
+        all.postMerge();
+
+        assertEquals(pairwise.getRoot().toString(), all.getRoot().toString());
+        assertEquals(pairwise.getRoot(), all.getRoot());
     }
 
 }
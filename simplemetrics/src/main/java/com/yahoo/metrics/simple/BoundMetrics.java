@@ -0,0 +1,65 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.metrics.simple;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The counter and gauge handles bound through a single receiver, and the
+ * means of collecting what they have accumulated into a bucket.
+ *
+ * @author agent
+ */
+class BoundMetrics {
+
+    private final Map<String, Map<Point, CounterHandle>> counters = new ConcurrentHashMap<>();
+    private final Map<String, Map<Point, GaugeHandle>> gauges = new ConcurrentHashMap<>();
+
+    CounterHandle counter(String name, Point point, MetricSettings metricSettings) {
+        Map<Point, CounterHandle> byPoint = counters.computeIfAbsent(normalize(name), k -> new ConcurrentHashMap<>());
+        return byPoint.computeIfAbsent(normalize(point), p -> new CounterHandle(new Identifier(name, p), metricSettings));
+    }
+
+    GaugeHandle gauge(String name, Point point, MetricSettings metricSettings) {
+        Map<Point, GaugeHandle> byPoint = gauges.computeIfAbsent(normalize(name), k -> new ConcurrentHashMap<>());
+        return byPoint.computeIfAbsent(normalize(point), p -> new GaugeHandle(new Identifier(name, p), metricSettings));
+    }
+
+    /**
+     * Merge everything accumulated in the bound handles since the last
+     * invocation into the given bucket. Must only be called from a single
+     * thread at a time.
+     */
+    void harvestInto(Bucket bucket) {
+        Bucket harvestedCounters = new Bucket();
+        for (Map<Point, CounterHandle> byPoint : counters.values()) {
+            for (CounterHandle counter : byPoint.values()) {
+                UntypedMetric metric = counter.harvest();
+                if (metric != null) {
+                    harvestedCounters.put(counter.identifier(), metric);
+                }
+            }
+        }
+        Bucket harvestedGauges = new Bucket();
+        for (Map<Point, GaugeHandle> byPoint : gauges.values()) {
+            for (GaugeHandle gauge : byPoint.values()) {
+                UntypedMetric metric = gauge.harvest();
+                if (metric != null) {
+                    harvestedGauges.put(gauge.identifier(), metric);
+                }
+            }
+        }
+        // merged separately to get the same reporting of type mismatches as for samples
+        bucket.merge(harvestedCounters, true);
+        bucket.merge(harvestedGauges, true);
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name;
+    }
+
+    private static Point normalize(Point point) {
+        return point == null ? Point.emptyPoint() : point;
+    }
+
+}
@@ -60,6 +60,29 @@ public class Counter {
         metricReceiver.update(new Sample(new Measurement(Long.valueOf(n)), new Identifier(name, p), AssumedType.COUNTER));
     }
 
+    /**
+     * Bind this counter to its default position. Adding to the returned handle
+     * is cheaper than adding through this, and should be preferred for
+     * frequently updated counters.
+     *
+     * @return a thread-safe handle for the dimension-less/zero-point value of this counter
+     */
+    public CounterHandle bind() {
+        return bind(defaultPosition);
+    }
+
+    /**
+     * Bind this counter to the given point. Adding to the returned handle is
+     * cheaper than adding through this, and should be preferred for
+     * frequently updated counters.
+     *
+     * @param p the point in the metric space the handle should add to
+     * @return a thread-safe handle for the value of this counter at the given point
+     */
+    public CounterHandle bind(Point p) {
+        return metricReceiver.bindCounter(name, p);
+    }
+
     /**
      * Create a PointBuilder with default dimension values as given when this
      * counter was declared.
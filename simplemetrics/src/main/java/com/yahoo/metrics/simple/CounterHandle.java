@@ -0,0 +1,68 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.metrics.simple;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A counter bound to a single metric name and point. Obtain instances from
+ * {@link Counter#bind(Point)} or {@link MetricReceiver#bindCounter(String, Point)},
+ * and keep them for the life cycle of the metric. Updating a handle does not
+ * allocate anything; the accumulated value is collected when the next
+ * snapshot is built.
+ *
+ * @author agent
+ */
+@Beta
+public class CounterHandle {
+
+    private final Identifier identifier;
+    private final MetricSettings metricSettings;
+    private final LongAdder total = new LongAdder();
+
+    /** The part of total which has already been handed to a snapshot, only accessed by the harvesting thread */
+    private long harvested = 0L;
+
+    CounterHandle(Identifier identifier, MetricSettings metricSettings) {
+        this.identifier = identifier;
+        this.metricSettings = metricSettings;
+    }
+
+    /**
+     * Increase this counter by 1.
+     */
+    public void add() {
+        total.increment();
+    }
+
+    /**
+     * Add to this counter.
+     *
+     * @param n the amount by which to increase this counter
+     */
+    public void add(long n) {
+        total.add(n);
+    }
+
+    Identifier identifier() {
+        return identifier;
+    }
+
+    /**
+     * Returns what has been added since the last invocation of this, or null if nothing has.
+     * Must only be called from a single thread at a time.
+     */
+    UntypedMetric harvest() {
+        long current = total.sum();
+        long delta = current - harvested;
+        if (delta == 0L) {
+            return null;
+        }
+        harvested = current;
+        UntypedMetric metric = new UntypedMetric(metricSettings);
+        metric.add(delta);
+        return metric;
+    }
+
+}
@@ -48,6 +48,30 @@ public class Gauge {
         receiver.update(new Sample(new Measurement(Double.valueOf(x)), new Identifier(name, p), AssumedType.GAUGE));
     }
 
+    /**
+     * Bind this gauge to its default position. Sampling through the returned
+     * handle is cheaper than sampling through this, and should be preferred
+     * for frequently sampled gauges.
+     *
+     * @return a thread-safe handle for samples with default or no position
+     */
+    public GaugeHandle bind() {
+        return bind(defaultPosition);
+    }
+
+    /**
+     * Bind this gauge to the given position. Sampling through the returned
+     * handle is cheaper than sampling through this, and should be preferred
+     * for frequently sampled gauges.
+     *
+     * @param p
+     *            position/dimension values for the samples
+     * @return a thread-safe handle for samples at the given position
+     */
+    public GaugeHandle bind(Point p) {
+        return receiver.bindGauge(name, p);
+    }
+
     /**
      * Create a PointBuilder with the default dimension values reflecting those
      * given when this gauge was declared.
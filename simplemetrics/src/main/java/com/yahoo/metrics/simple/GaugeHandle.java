@@ -0,0 +1,114 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.metrics.simple;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.DoubleHistogram;
+import org.HdrHistogram.DoubleRecorder;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A gauge bound to a single metric name and point. Obtain instances from
+ * {@link Gauge#bind(Point)} or {@link MetricReceiver#bindGauge(String, Point)},
+ * and keep them for the life cycle of the metric. Sampling does not allocate
+ * anything; the samples are collected when the next snapshot is built.
+ *
+ * <p>
+ * Whether samples are also recorded in a histogram is decided by the
+ * {@link MetricSettings} in effect for the metric name when the handle is
+ * bound.
+ * </p>
+ *
+ * @author agent
+ */
+@Beta
+public class GaugeHandle {
+
+    private static final long noMin = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+    private static final long noMax = Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY);
+
+    private final Identifier identifier;
+    private final MetricSettings metricSettings;
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+    private final AtomicLong min = new AtomicLong(noMin);
+    private final AtomicLong max = new AtomicLong(noMax);
+    private volatile double last = 0.0d;
+    private final DoubleRecorder histogram;
+
+    // the parts of count and sum already handed to a snapshot, only accessed by the harvesting thread
+    private long harvestedCount = 0L;
+    private double harvestedSum = 0.0d;
+    private DoubleHistogram recycledHistogram = null;
+
+    GaugeHandle(Identifier identifier, MetricSettings metricSettings) {
+        this.identifier = identifier;
+        this.metricSettings = metricSettings;
+        if (metricSettings == null || !metricSettings.isHistogram()) {
+            histogram = null;
+        } else {
+            histogram = new DoubleRecorder(metricSettings.getSignificantdigits());
+        }
+    }
+
+    /**
+     * Record a sample.
+     *
+     * @param x sample value
+     */
+    public void sample(double x) {
+        if (histogram != null) {
+            histogram.recordValue(x);
+        }
+        long bits = Double.doubleToRawLongBits(x);
+        for (long current = min.get(); x < Double.longBitsToDouble(current); current = min.get()) {
+            if (min.compareAndSet(current, bits)) break;
+        }
+        for (long current = max.get(); x > Double.longBitsToDouble(current); current = max.get()) {
+            if (max.compareAndSet(current, bits)) break;
+        }
+        sum.add(x);
+        last = x;
+        count.increment();
+    }
+
+    Identifier identifier() {
+        return identifier;
+    }
+
+    /**
+     * Returns the samples recorded since the last invocation of this, or null if there are none.
+     * Must only be called from a single thread at a time. Samples recorded concurrently with this
+     * may partly be reported in the next interval.
+     */
+    UntypedMetric harvest() {
+        long currentCount = count.sum();
+        long deltaCount = currentCount - harvestedCount;
+        if (deltaCount == 0L) {
+            return null;
+        }
+        double currentSum = sum.sum();
+        double deltaSum = currentSum - harvestedSum;
+        harvestedCount = currentCount;
+        harvestedSum = currentSum;
+        double currentLast = last;
+        double intervalMin = Double.longBitsToDouble(min.getAndSet(noMin));
+        double intervalMax = Double.longBitsToDouble(max.getAndSet(noMax));
+        if (intervalMin > intervalMax) { // raced with a sample, the extremes will show up next time
+            intervalMin = currentLast;
+            intervalMax = currentLast;
+        }
+        DoubleHistogram samples = null;
+        if (histogram != null) {
+            samples = histogram.getIntervalHistogram(recycledHistogram);
+            recycledHistogram = samples;
+        }
+        UntypedMetric metric = new UntypedMetric(metricSettings);
+        metric.putAggregate(deltaCount, deltaSum, intervalMin, intervalMax, currentLast, samples);
+        return metric;
+    }
+
+}
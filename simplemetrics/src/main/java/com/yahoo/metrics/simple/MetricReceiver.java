@@ -23,6 +23,7 @@ public class MetricReceiver {
     public static final MetricReceiver nullImplementation = new NullReceiver();
     private final ThreadLocalDirectory<Bucket, Sample> metricsCollection;
     private final AtomicReference<Bucket> currentSnapshot;
+    private final BoundMetrics boundMetrics;
 
     // metricSettings is volatile for reading, the lock is for updates
     private final Object histogramDefinitionsLock = new Object();
@@ -49,6 +50,11 @@ public class MetricReceiver {
         public void add(long n, Point p) {
         }
 
+        @Override
+        public CounterHandle bind(Point p) {
+            return nullImplementation.bindCounter(null, p);
+        }
+
         @Override
         public PointBuilder builder() {
             return super.builder();
@@ -68,6 +74,11 @@ public class MetricReceiver {
         public void sample(double x, Point p) {
         }
 
+        @Override
+        public GaugeHandle bind(Point p) {
+            return nullImplementation.bindGauge(null, p);
+        }
+
         @Override
         public PointBuilder builder() {
             return super.builder();
@@ -76,12 +87,14 @@ public class MetricReceiver {
 
     public static final class MockReceiver extends MetricReceiver {
         private final ThreadLocalDirectory<Bucket, Sample> collection;
-        private MockReceiver(ThreadLocalDirectory<Bucket, Sample> collection) {
-            super(collection, null);
+        private final BoundMetrics boundMetrics;
+        private MockReceiver(ThreadLocalDirectory<Bucket, Sample> collection, BoundMetrics boundMetrics) {
+            super(collection, null, boundMetrics);
             this.collection = collection;
+            this.boundMetrics = boundMetrics;
         }
         public MockReceiver() {
-            this(new ThreadLocalDirectory<>(new MetricUpdater()));
+            this(new ThreadLocalDirectory<>(new MetricUpdater()), new BoundMetrics());
         }
         /** gathers all data since last snapshot */
         public Bucket getSnapshot() {
@@ -89,6 +102,7 @@ public class MetricReceiver {
             for (Bucket b : collection.fetch()) {
                 merged.merge(b, true);
             }
+            boundMetrics.harvestInto(merged);
             return merged;
         }
         /** utility method for testing */
@@ -131,6 +145,17 @@ public class MetricReceiver {
             return null;
         }
 
+        @Override
+        public CounterHandle bindCounter(String name, Point point) {
+            // not registered anywhere, so never harvested
+            return new CounterHandle(new Identifier(name, point), null);
+        }
+
+        @Override
+        public GaugeHandle bindGauge(String name, Point point) {
+            return new GaugeHandle(new Identifier(name, point), null);
+        }
+
         @Override
         public PointBuilder pointBuilder() {
             return null;
@@ -152,8 +177,14 @@ public class MetricReceiver {
     }
 
     public MetricReceiver(ThreadLocalDirectory<Bucket, Sample> metricsCollection, AtomicReference<Bucket> currentSnapshot) {
+        this(metricsCollection, currentSnapshot, new BoundMetrics());
+    }
+
+    MetricReceiver(ThreadLocalDirectory<Bucket, Sample> metricsCollection, AtomicReference<Bucket> currentSnapshot,
+                   BoundMetrics boundMetrics) {
         this.metricsCollection = metricsCollection;
         this.currentSnapshot = currentSnapshot;
+        this.boundMetrics = boundMetrics;
         metricSettings = new ImmutableMap.Builder<String, MetricSettings>().build();
     }
 
@@ -258,6 +289,41 @@ public class MetricReceiver {
         return new Gauge(name, defaultDimensions, this);
     }
 
+    /**
+     * Bind a counter metric to the given point. The returned handle updates
+     * its value without allocating anything or touching thread local state,
+     * and should be kept and reused for the life cycle of the metric. Binding
+     * the same name and point more than once returns the same handle.
+     *
+     * @param name
+     *            the name of the metric
+     * @param point
+     *            the point in the metric space to bind to, or null for the
+     *            dimension-less/zero-point value
+     * @return a thread-safe counter handle
+     */
+    public CounterHandle bindCounter(String name, Point point) {
+        return boundMetrics.counter(name, point, getMetricDefinition(name));
+    }
+
+    /**
+     * Bind a gauge metric to the given point. The returned handle records
+     * samples without allocating anything or touching thread local state,
+     * and should be kept and reused for the life cycle of the metric. Binding
+     * the same name and point more than once returns the same handle. Any
+     * custom {@link MetricSettings} for the metric must be declared before
+     * binding it.
+     *
+     * @param name
+     *            the name of the metric
+     * @param point
+     *            the position to bind to, or null for no position
+     * @return a thread-safe gauge handle
+     */
+    public GaugeHandle bindGauge(String name, Point point) {
+        return boundMetrics.gauge(name, point, getMetricDefinition(name));
+    }
+
     /**
      * Create a PointBuilder instance with no default settings. PointBuilder
      * instances are not thread-safe.
@@ -50,7 +50,10 @@ public class UnitTestSetup {
     }
 
     public Bucket getUpdatedSnapshot() throws InterruptedException {
-        updater.gotData.await(10, TimeUnit.SECONDS);
+        // updates through bound handles never touch the updater, so only wait if samples were passed
+        if (updater.hasBeenAccessed) {
+            updater.gotData.await(10, TimeUnit.SECONDS);
+        }
         Bucket s = receiver.getSnapshot();
         long startedWaitingForSnapshot = System.currentTimeMillis();
         // just waiting for the correct snapshot being constructed (yes, this is
@@ -60,6 +60,19 @@ public class UntypedMetric {
         ++count;
     }
 
+    /** Sets the state of this as a gauge from samples aggregated elsewhere, e.g. in a {@link GaugeHandle}. */
+    void putAggregate(long count, double sum, double min, double max, double last, DoubleHistogram samples) {
+        outputFormat = AssumedType.GAUGE;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.current = last;
+        if (histogram != null && samples != null) {
+            histogram.add(samples);
+        }
+    }
+
     UntypedMetric pruneData() {
         UntypedMetric pruned = new UntypedMetric(null);
         pruned.outputFormat = this.outputFormat;
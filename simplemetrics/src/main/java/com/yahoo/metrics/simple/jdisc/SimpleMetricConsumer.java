@@ -3,9 +3,13 @@ package com.yahoo.metrics.simple.jdisc;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 
 import com.yahoo.jdisc.Metric.Context;
 import com.yahoo.jdisc.application.MetricConsumer;
+import com.yahoo.metrics.simple.CounterHandle;
+import com.yahoo.metrics.simple.GaugeHandle;
 import com.yahoo.metrics.simple.Identifier;
 import com.yahoo.metrics.simple.Measurement;
 import com.yahoo.metrics.simple.Point;
@@ -16,24 +20,69 @@ import com.yahoo.metrics.simple.UntypedMetric.AssumedType;
 /**
  * The single user facing part of the JDisc interfaces of simple metrics.
  *
+ * <p>
+ * Updates go through handles bound once per metric name and point, so the
+ * common case does not allocate. Metrics seen with more than
+ * {@link #maxBoundPointsPerMetric} distinct points fall back to passing
+ * samples, to avoid keeping handles for unbounded dimension values alive.
+ * </p>
+ *
  * @author Steinar Knutsen
  */
 public class SimpleMetricConsumer implements MetricConsumer {
 
+    static final int maxBoundPointsPerMetric = 1000;
+
     private final MetricReceiver receiver;
+    private final Map<String, Map<Point, GaugeHandle>> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Map<Point, CounterHandle>> counters = new ConcurrentHashMap<>();
+    private final BiFunction<String, Point, GaugeHandle> gaugeBinder;
+    private final BiFunction<String, Point, CounterHandle> counterBinder;
 
     public SimpleMetricConsumer(MetricReceiver receiver) {
         this.receiver = receiver;
+        this.gaugeBinder = receiver::bindGauge;
+        this.counterBinder = receiver::bindCounter;
     }
 
     @Override
     public void set(String key, Number val, Context ctx) {
-        receiver.update(new Sample(new Measurement(val), new Identifier(key, getSimpleCoordinate(ctx)), AssumedType.GAUGE));
+        GaugeHandle gauge = lookup(gauges, key, ctx, gaugeBinder);
+        if (gauge != null) {
+            gauge.sample(val.doubleValue());
+        } else {
+            receiver.update(new Sample(new Measurement(val), new Identifier(key, getSimpleCoordinate(ctx)), AssumedType.GAUGE));
+        }
     }
 
     @Override
     public void add(String key, Number val, Context ctx) {
-        receiver.update(new Sample(new Measurement(val), new Identifier(key, getSimpleCoordinate(ctx)), AssumedType.COUNTER));
+        CounterHandle counter = lookup(counters, key, ctx, counterBinder);
+        if (counter != null) {
+            counter.add(val.longValue());
+        } else {
+            receiver.update(new Sample(new Measurement(val), new Identifier(key, getSimpleCoordinate(ctx)), AssumedType.COUNTER));
+        }
+    }
+
+    /** Returns the handle for the given metric, binding it if necessary, or null if it should not be bound */
+    private <T> T lookup(Map<String, Map<Point, T>> handles, String key, Context ctx, BiFunction<String, Point, T> binder) {
+        if (key == null) return null;
+
+        Point point = getSimpleCoordinate(ctx);
+        if (point == null) {
+            point = Point.emptyPoint();
+        }
+        Map<Point, T> byPoint = handles.get(key);
+        if (byPoint == null) {
+            byPoint = handles.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        }
+        T handle = byPoint.get(point);
+        if (handle == null) {
+            if (byPoint.size() >= maxBoundPointsPerMetric) return null;
+            handle = byPoint.computeIfAbsent(point, p -> binder.apply(key, p));
+        }
+        return handle;
     }
 
     private Point getSimpleCoordinate(Context ctx) {
@@ -108,4 +108,28 @@ public class CounterTest {
         assertEquals(twoToThePowerOfFourtyeight, x.get(0).getValue().getCount());
     }
 
+    @Test
+    public final void testBoundHandle() {
+        final String metricName = "unitTestCounter";
+        Point p = receiver.pointBuilder().set("x", 2L).build();
+        Counter c = receiver.declareCounter(metricName, p);
+        CounterHandle handle = c.bind();
+        assertSame(handle, receiver.bindCounter(metricName, p));
+        handle.add();
+        handle.add(4L);
+        c.add(2L);
+        Bucket b = receiver.getSnapshot();
+        List<Entry<Point, UntypedMetric>> x = b.getValuesByMetricName().get(metricName);
+        assertEquals(1, x.size());
+        assertEquals(p, x.get(0).getKey());
+        assertTrue(x.get(0).getValue().isCounter());
+        assertEquals(7L, x.get(0).getValue().getCount());
+
+        // only what was added since the last snapshot is harvested
+        handle.add();
+        b = receiver.getSnapshot();
+        assertEquals(1L, b.getValuesByMetricName().get(metricName).get(0).getValue().getCount());
+        assertTrue(receiver.getSnapshot().getValuesByMetricName().isEmpty());
+    }
+
 }
@@ -8,6 +8,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
@@ -80,4 +81,35 @@ public class GaugeTest {
         assertEquals(Math.E, x.get(0).getValue().getLast(), 1e-15);
     }
 
+    @Test
+    public final void testBoundHandle() {
+        final String metricName = "unitTestGauge";
+        receiver.declareGauge(metricName, Optional.empty(), new MetricSettings.Builder().histogram(true).build());
+        Point p = receiver.pointBuilder().set("x", 2L).build();
+        GaugeHandle handle = receiver.bindGauge(metricName, p);
+        handle.sample(3.0d);
+        handle.sample(-1.0d);
+        handle.sample(2.0d);
+        Bucket b = receiver.getSnapshot();
+        List<Entry<Point, UntypedMetric>> x = b.getValuesByMetricName().get(metricName);
+        assertEquals(1, x.size());
+        assertEquals(p, x.get(0).getKey());
+        UntypedMetric value = x.get(0).getValue();
+        assertFalse(value.isCounter());
+        assertEquals(3L, value.getCount());
+        assertEquals(2.0d, value.getLast(), 0.0d);
+        assertEquals(4.0d, value.getSum(), 0.0d);
+        assertEquals(3.0d, value.getMax(), 0.0d);
+        assertEquals(-1.0d, value.getMin(), 0.0d);
+        assertEquals(3L, value.getHistogram().getTotalCount());
+
+        handle.sample(5.0d);
+        value = receiver.getSnapshot().getValuesByMetricName().get(metricName).get(0).getValue();
+        assertEquals(1L, value.getCount());
+        assertEquals(5.0d, value.getSum(), 0.0d);
+        assertEquals(5.0d, value.getMax(), 0.0d);
+        assertEquals(1L, value.getHistogram().getTotalCount());
+        assertTrue(receiver.getSnapshot().getValuesByMetricName().isEmpty());
+    }
+
 }
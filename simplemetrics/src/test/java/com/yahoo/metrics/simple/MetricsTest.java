@@ -6,7 +6,6 @@ import static org.junit.Assert.*;
 import java.util.Collection;
 import java.util.Map.Entry;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -39,7 +38,6 @@ public class MetricsTest extends UnitTestSetup {
     public final void smokeTest() throws InterruptedException {
         final String metricName = "testMetric";
         metricApi.set(metricName, Double.valueOf(1.0d), null);
-        updater.gotData.await(10, TimeUnit.SECONDS);
         Bucket s = getUpdatedSnapshot();
         Collection<Entry<Point, UntypedMetric>> values = s.getValuesForMetric(metricName);
         assertEquals(1, values.size());
@@ -58,4 +56,21 @@ public class MetricsTest extends UnitTestSetup {
         assertTrue(r.getMetricDefinition(metricName).isHistogram());
     }
 
+    @Test
+    public final void testConsumerUpdatesAreSnapshotted() {
+        MetricReceiver.MockReceiver mock = new MetricReceiver.MockReceiver();
+        SimpleMetricConsumer consumer = new SimpleMetricConsumer(mock);
+        Point p = mock.point("host", "a");
+        consumer.add("counter", 2, p);
+        consumer.add("counter", 3L, p);
+        consumer.set("gauge", 1.5d, null);
+        Bucket b = mock.getSnapshot();
+        Entry<Point, UntypedMetric> counter = b.getValuesForMetric("counter").iterator().next();
+        assertEquals(p, counter.getKey());
+        assertEquals(5L, counter.getValue().getCount());
+        Entry<Point, UntypedMetric> gauge = b.getValuesForMetric("gauge").iterator().next();
+        assertEquals(Point.emptyPoint(), gauge.getKey());
+        assertEquals(1.5d, gauge.getValue().getLast(), 0.0d);
+    }
+
 }
@@ -24,6 +24,7 @@ import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Distribution {
 
@@ -32,6 +33,7 @@ public class Distribution {
     private int redundancy;
     private boolean distributorAutoOwnershipTransferOnWholeGroupDown = false;
     private ConfigSubscriber configSub;
+    private final AtomicReference<IdealDistributorTable> idealDistributorTable = new AtomicReference<>();
 
     public Group getRootGroup() {
         return nodeGraph;
@@ -96,6 +98,7 @@ public class Distribution {
                 Distribution.this.redundancy = config.redundancy();
                 //Distribution.this.diskDistribution = config.disk_distribution();
                 distributorAutoOwnershipTransferOnWholeGroupDown = config.distributor_auto_ownership_transfer_on_whole_group_down();
+                idealDistributorTable.set(null);
             } catch (ParseException e) {
                 throw (IllegalStateException) new IllegalStateException("Failed to parse config").initCause(e);
             }
@@ -458,6 +461,25 @@ public class Distribution {
         }
         return node.index;
     }
+
+    /**
+     * Returns a table giving the same results as {@link #getIdealDistributorNode} for the given cluster state
+     * and up states. The previous table is reused as long as it is asked for with an equal state, and is dropped
+     * when the distribution config changes.
+     */
+    public IdealDistributorTable getIdealDistributorTable(ClusterState state, String upStates) {
+        IdealDistributorTable table = idealDistributorTable.get();
+        if (table != null && table.isFor(state, upStates)) {
+            if (table.getClusterState() != state) {
+                table = table.withState(state);
+                idealDistributorTable.set(table);
+            }
+            return table;
+        }
+        table = new IdealDistributorTable(this, state, upStates);
+        idealDistributorTable.set(table);
+        return table;
+    }
     private boolean visitGroups(GroupVisitor visitor, Map<Integer, Group> groups) {
         for (Group g : groups.values()) {
             if (!visitor.visitGroup(g)) return false;
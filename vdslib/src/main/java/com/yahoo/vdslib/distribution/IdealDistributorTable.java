@@ -0,0 +1,89 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vdslib.distribution;
+
+import com.yahoo.document.BucketId;
+import com.yahoo.vdslib.state.ClusterState;
+
+/**
+ * Lookup table of the ideal distributor of each superbucket for a given cluster state.
+ *
+ * The ideal distributor of a bucket only depends on its lowest distribution bits, so a table with one
+ * entry per superbucket answers for every bucket using at least that many bits. Entries are computed
+ * on first use through {@link Distribution#getIdealDistributorNode}, after which a lookup is an array read.
+ * Concurrent callers may compute the same entry twice, which is harmless as the result is the same.
+ *
+ * The cluster state must not be modified while the table is in use.
+ *
+ * @author agent
+ */
+public class IdealDistributorTable {
+
+    /** Cluster states using more distribution bits than this are not tabulated, to bound memory use */
+    static final int maxTableDistributionBits = 20;
+
+    private static final int unknown = 0;
+    private static final int noDistributor = -1;
+
+    private final Distribution distribution;
+    private final ClusterState state;
+    private final String upStates;
+    private final int distributionBits;
+    private final int mask;
+    /** Ideal distributor index plus one per superbucket, or one of the markers above. Null if not tabulated. */
+    private final int[] distributors;
+
+    IdealDistributorTable(Distribution distribution, ClusterState state, String upStates) {
+        this(distribution, state, upStates, state.getDistributionBitCount() <= maxTableDistributionBits
+                                            ? new int[1 << state.getDistributionBitCount()]
+                                            : null);
+    }
+
+    private IdealDistributorTable(Distribution distribution, ClusterState state, String upStates, int[] distributors) {
+        this.distribution = distribution;
+        this.state = state;
+        this.upStates = upStates;
+        this.distributionBits = state.getDistributionBitCount();
+        this.mask = (distributionBits == 0) ? 0 : (-1 >>> (32 - distributionBits));
+        this.distributors = distributors;
+    }
+
+    /** Returns whether this table gives the ideal distributors of the given state and up states */
+    boolean isFor(ClusterState state, String upStates) {
+        return (this.state == state || this.state.equals(state)) && this.upStates.equals(upStates);
+    }
+
+    /** Returns this table for an equal cluster state instance, sharing the entries computed so far */
+    IdealDistributorTable withState(ClusterState state) {
+        return (this.state == state) ? this : new IdealDistributorTable(distribution, state, upStates, distributors);
+    }
+
+    public ClusterState getClusterState() { return state; }
+
+    /** Returns the same as {@link Distribution#getIdealDistributorNode} for the state of this table */
+    public int getIdealDistributorNode(BucketId bucket) throws Distribution.TooFewBucketBitsInUseException,
+                                                               Distribution.NoDistributorsAvailableException {
+        if (distributors == null || bucket.getUsedBits() < distributionBits)
+            return distribution.getIdealDistributorNode(state, bucket, upStates);
+
+        int superbucket = ((int) bucket.getRawId()) & mask;
+        int entry = distributors[superbucket];
+        if (entry == unknown)
+            entry = compute(superbucket);
+        if (entry == noDistributor) // Let the distribution produce the exception with its explanation
+            return distribution.getIdealDistributorNode(state, bucket, upStates);
+        return entry - 1;
+    }
+
+    private int compute(int superbucket) throws Distribution.TooFewBucketBitsInUseException {
+        int entry;
+        try {
+            entry = distribution.getIdealDistributorNode(state, new BucketId(distributionBits, superbucket), upStates) + 1;
+        }
+        catch (Distribution.NoDistributorsAvailableException e) {
+            entry = noDistributor;
+        }
+        distributors[superbucket] = entry;
+        return entry;
+    }
+
+}
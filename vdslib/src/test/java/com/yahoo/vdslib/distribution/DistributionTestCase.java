@@ -410,6 +410,79 @@ public class DistributionTestCase {
         assertTrue(Arrays.toString(counts) + ": Too small diff" + diff, diff > 2.9);
     }
 
+    private static StorDistributionConfig.Builder buildFlatConfig(int redundancy, int nodeCount) {
+        StorDistributionConfig.Group.Builder group = new StorDistributionConfig.Group.Builder()
+                .name("invalid").index("invalid").partitions("*");
+        for (int i = 0; i < nodeCount; ++i) {
+            group.nodes(new StorDistributionConfig.Group.Nodes.Builder().index(i));
+        }
+        return new StorDistributionConfig.Builder().redundancy(redundancy).group(group);
+    }
+
+    private static Integer idealDistributor(Distribution distribution, ClusterState state, BucketId bucket) {
+        try {
+            return distribution.getIdealDistributorNode(state, bucket, "uim");
+        }
+        catch (Distribution.TooFewBucketBitsInUseException | Distribution.NoDistributorsAvailableException e) {
+            return null;
+        }
+    }
+
+    private static Integer tabulatedIdealDistributor(Distribution distribution, ClusterState state, BucketId bucket) {
+        try {
+            return distribution.getIdealDistributorTable(state, "uim").getIdealDistributorNode(bucket);
+        }
+        catch (Distribution.TooFewBucketBitsInUseException | Distribution.NoDistributorsAvailableException e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void testIdealDistributorTableMatchesIdealDistributorNode() throws Exception {
+        List<Distribution> distributions = List.of(
+                new Distribution(new StorDistributionConfig(buildFlatConfig(2, 10))),
+                new Distribution(new StorDistributionConfig(buildHierarchicalConfig(6, 3, 1, "1|2|*", 3))),
+                new Distribution(new StorDistributionConfig(buildHierarchicalConfig(6, 3, 1, "1|2|*", 3)
+                                                                    .distributor_auto_ownership_transfer_on_whole_group_down(true))),
+                new Distribution(new StorDistributionConfig(buildHierarchicalConfig(8, 5, 3, "*|*", 3))));
+        Random random = new Random(1234);
+        for (Distribution distribution : distributions) {
+            for (int distributionBits : new int[] { 1, 8, 16, IdealDistributorTable.maxTableDistributionBits + 1 }) {
+                StringBuilder state = new StringBuilder("version:" + random.nextInt(100) + " bits:" + distributionBits + " distributor:375");
+                for (int i = 0; i < 375; ++i) {
+                    if (random.nextInt(4) == 0)
+                        state.append(" .").append(i).append(".s:").append("dmis".charAt(random.nextInt(4)));
+                    if (random.nextInt(10) == 0)
+                        state.append(" .").append(i).append(".c:").append(random.nextInt(5) + 0.5);
+                }
+                ClusterState clusterState = new ClusterState(state.toString());
+                for (int i = 0; i < 2000; ++i) {
+                    BucketId bucket = new BucketId(distributionBits + random.nextInt(59 - distributionBits), random.nextLong());
+                    assertEquals(bucket + " in " + clusterState,
+                                 idealDistributor(distribution, clusterState, bucket),
+                                 tabulatedIdealDistributor(distribution, clusterState, bucket));
+                }
+                BucketId tooFewBits = new BucketId(distributionBits - 1, random.nextLong());
+                assertEquals(null, tabulatedIdealDistributor(distribution, clusterState, tooFewBits));
+            }
+        }
+    }
+
+    @Test
+    public void testIdealDistributorTableIsReusedForEqualStates() throws Exception {
+        Distribution distribution = new Distribution(new StorDistributionConfig(buildHierarchicalConfig(6, 3, 1, "1|2|*", 3)));
+        IdealDistributorTable table = distribution.getIdealDistributorTable(new ClusterState("version:3 distributor:9"), "uim");
+        assertTrue(table == distribution.getIdealDistributorTable(table.getClusterState(), "uim"));
+
+        ClusterState equalState = new ClusterState("version:3 distributor:9");
+        IdealDistributorTable equalStateTable = distribution.getIdealDistributorTable(equalState, "uim");
+        assertTrue(equalState == equalStateTable.getClusterState());
+        assertTrue(equalStateTable == distribution.getIdealDistributorTable(equalState, "uim"));
+
+        assertTrue(equalStateTable != distribution.getIdealDistributorTable(equalState, "u"));
+        assertTrue(distribution.getIdealDistributorTable(equalState, "u") != distribution.getIdealDistributorTable(new ClusterState("version:4 distributor:9"), "u"));
+    }
+
     @Test(expected = Distribution.NoDistributorsAvailableException.class)
     public void clusterDownInHierarchicSetupThrowsNoDistributorsAvailableException() throws Exception {
         ClusterState clusterState = new ClusterState("cluster:d");
@@ -8,8 +8,8 @@ import com.yahoo.document.DocumentPut;
 import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.DocumentUpdate;
 import com.yahoo.document.TestAndSetCondition;
-import com.yahoo.document.json.JsonFeedReader;
 import com.yahoo.document.json.JsonWriter;
+import com.yahoo.document.json.ParallelJsonFeedReader;
 import com.yahoo.document.serialization.DocumentDeserializer;
 import com.yahoo.document.serialization.DocumentDeserializerFactory;
 import com.yahoo.document.serialization.DocumentSerializer;
@@ -360,7 +360,7 @@ public class SimpleFeeder implements ReplyHandler {
             throw new IllegalArgumentException("Need to read " + b.length + " bytes to detect format. Got " + numRead + " bytes.");
         }
         if (b[0] == '[') {
-            return new JsonFeedReader(in, docTypeMgr);
+            return new ParallelJsonFeedReader(in, docTypeMgr);
         } else if ((b[0] == 'V') && (b[1] == '1')) {
             return new VespaV1FeedReader(in, docTypeMgr);
         } else {
@@ -3,6 +3,7 @@ package com.yahoo.document.restapi;
 
 import com.yahoo.vespaxmlparser.FeedOperation;
 
+import java.io.IOException;
 import java.util.Optional;
 
 /**
@@ -30,6 +31,8 @@ public interface OperationHandler {
         public final Optional<String> fieldSet;
         public final Optional<Integer> concurrency;
         public final Optional<String> bucketSpace;
+        public final Optional<Integer> slices;
+        public final Optional<Integer> sliceId;
 
         private VisitOptions(Builder builder) {
             this.cluster = Optional.ofNullable(builder.cluster);
@@ -38,6 +41,8 @@ public interface OperationHandler {
             this.fieldSet = Optional.ofNullable(builder.fieldSet);
             this.concurrency = Optional.ofNullable(builder.concurrency);
             this.bucketSpace = Optional.ofNullable(builder.bucketSpace);
+            this.slices = Optional.ofNullable(builder.slices);
+            this.sliceId = Optional.ofNullable(builder.sliceId);
         }
 
         public static class Builder {
@@ -47,6 +52,8 @@ public interface OperationHandler {
             String fieldSet;
             Integer concurrency;
             String bucketSpace;
+            Integer slices;
+            Integer sliceId;
 
             public Builder cluster(String cluster) {
                 this.cluster = cluster;
@@ -78,6 +85,13 @@ public interface OperationHandler {
                 return this;
             }
 
+            /** Visit only the given slice of the bucket space, out of the given number of disjoint slices */
+            public Builder slice(Integer slices, Integer sliceId) {
+                this.slices = slices;
+                this.sliceId = sliceId;
+                return this;
+            }
+
             public VisitOptions build() {
                 return new VisitOptions(this);
             }
@@ -88,8 +102,45 @@ public interface OperationHandler {
         }
     }
 
+    /** Receives the documents of a streaming visit as they arrive */
+    interface VisitSink {
+
+        /**
+         * Called with each visited document as JSON, or with several comma separated ones.
+         * The given callback must be run when these have been written out, or have failed to be,
+         * unless this throws. Further documents are held back by the visitor until it is run.
+         */
+        void documents(String documentsAsJsonList, Runnable written) throws IOException;
+
+    }
+
+    /** A started visit, whose documents are written to a sink rather than collected in memory */
+    interface StreamingVisit {
+
+        /**
+         * Writes all documents of this visit to the given sink, and returns the result with an empty document list.
+         * The visitor is created when this is called and released when it returns, so nothing is held
+         * if this is never called. This must be called at most once.
+         */
+        VisitResult writeTo(VisitSink sink) throws RestApiException, IOException;
+
+    }
+
     VisitResult visit(RestUri restUri, String documentSelection, VisitOptions options) throws RestApiException;
 
+    /**
+     * Starts a visit which streams the documents to a sink as they arrive, so the number of documents
+     * returned is not bounded by memory. This default implementation visits as {@link #visit} before returning.
+     */
+    default StreamingVisit startStreamingVisit(RestUri restUri, String documentSelection, VisitOptions options) throws RestApiException {
+        VisitResult result = visit(restUri, documentSelection, options);
+        return sink -> {
+            if ( ! result.documentsAsJsonList.isEmpty())
+                sink.documents(result.documentsAsJsonList, () -> { });
+            return new VisitResult(result.token, "");
+        };
+    }
+
     void put(RestUri restUri, FeedOperation data, Optional<String> route) throws RestApiException;
 
     void update(RestUri restUri, FeedOperation data, Optional<String> route) throws RestApiException;
@@ -32,6 +32,7 @@ import com.yahoo.yolean.concurrent.ResourceFactory;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
@@ -73,6 +74,7 @@ public class OperationHandlerImpl implements OperationHandler {
 
     public static final int VISIT_TIMEOUT_MS = 120000;
     public static final int WANTED_DOCUMENT_COUNT_UPPER_BOUND = 1000; // Approximates the max default size of a bucket
+    private static final long STREAMING_POLL_TIMEOUT_MS = 100;
     private final DocumentAccess documentAccess;
     private final DocumentApiMetrics metricsHelper;
     private final ClusterEnumerator clusterEnumerator;
@@ -133,18 +135,48 @@ public class OperationHandlerImpl implements OperationHandler {
 
     @Override
     public VisitResult visit(RestUri restUri, String documentSelection, VisitOptions options) throws RestApiException {
-        VisitorParameters visitorParameters = createVisitorParameters(restUri, documentSelection, options);
+        VisitorParameters visitorParameters = createVisitorParameters(restUri, documentSelection, options, false);
 
         VisitorControlHandler visitorControlHandler = new VisitorControlHandler();
         visitorParameters.setControlHandler(visitorControlHandler);
         LocalDataVisitorHandler localDataVisitorHandler = new LocalDataVisitorHandler();
         visitorParameters.setLocalDataHandler(localDataVisitorHandler);
 
-        final VisitorSession visitorSession;
+        VisitorSession visitorSession = createVisitorSession(visitorParameters, visitorControlHandler, restUri);
         try {
-            visitorSession = documentAccess.createVisitorSession(visitorParameters);
+            return doVisit(visitorControlHandler, localDataVisitorHandler, restUri);
+        } finally {
+            visitorSession.destroy();
+        }
+    }
+
+    @Override
+    public StreamingVisit startStreamingVisit(RestUri restUri, String documentSelection, VisitOptions options) throws RestApiException {
+        VisitorParameters visitorParameters = createVisitorParameters(restUri, documentSelection, options, true);
+
+        VisitorControlHandler visitorControlHandler = new VisitorControlHandler();
+        visitorParameters.setControlHandler(visitorControlHandler);
+        StreamingVisitorDataHandler streamingDataHandler = new StreamingVisitorDataHandler();
+        visitorParameters.setLocalDataHandler(streamingDataHandler);
+
+        return sink -> {
+            VisitorSession visitorSession = createVisitorSession(visitorParameters, visitorControlHandler, restUri);
+            try {
+                return doStreamingVisit(visitorControlHandler, streamingDataHandler, sink, restUri);
+            } finally {
+                visitorSession.destroy();
+            }
+        };
+    }
+
+    private VisitorSession createVisitorSession(VisitorParameters visitorParameters,
+                                                VisitorControlHandler visitorControlHandler,
+                                                RestUri restUri) throws RestApiException {
+        try {
+            VisitorSession visitorSession = documentAccess.createVisitorSession(visitorParameters);
             // Not sure if this line is required
             visitorControlHandler.setSession(visitorSession);
+            return visitorSession;
         } catch (Exception e) {
             throw new RestApiException(Response.createErrorResponse(
                     500,
@@ -152,11 +184,6 @@ public class OperationHandlerImpl implements OperationHandler {
                     restUri,
                     RestUri.apiErrorCodes.VISITOR_ERROR));
         }
-        try {
-            return doVisit(visitorControlHandler, localDataVisitorHandler, restUri);
-        } finally {
-            visitorSession.destroy();
-        }
     }
 
     private static void throwIfFatalVisitingError(VisitorControlHandler handler, RestUri restUri) throws RestApiException {
@@ -179,16 +206,43 @@ public class OperationHandlerImpl implements OperationHandler {
         } catch (InterruptedException e) {
             throw new RestApiException(Response.createErrorResponse(500, ExceptionUtils.getStackTrace(e), restUri, RestUri.apiErrorCodes.INTERRUPTED));
         }
-        if (localDataVisitorHandler.getErrors().isEmpty()) {
+        return visitResult(visitorControlHandler, localDataVisitorHandler.getErrors(),
+                           localDataVisitorHandler.getCommaSeparatedJsonDocuments(), restUri);
+    }
+
+    private VisitResult doStreamingVisit(VisitorControlHandler visitorControlHandler,
+                                         StreamingVisitorDataHandler streamingDataHandler,
+                                         VisitSink sink,
+                                         RestUri restUri) throws RestApiException, IOException {
+        try {
+            // All documents are acked before the session completes, so none remain once it is done and the queue is drained
+            while (true) {
+                boolean done = visitorControlHandler.isDone();
+                if ( ! streamingDataHandler.writeNext(sink, done ? 0 : STREAMING_POLL_TIMEOUT_MS) && done) break;
+            }
+            throwIfFatalVisitingError(visitorControlHandler, restUri);
+        } catch (InterruptedException e) {
+            visitorControlHandler.abort();
+            throw new RestApiException(Response.createErrorResponse(500, ExceptionUtils.getStackTrace(e), restUri, RestUri.apiErrorCodes.INTERRUPTED));
+        } catch (IOException e) { // The client is gone
+            visitorControlHandler.abort();
+            throw e;
+        }
+        return visitResult(visitorControlHandler, streamingDataHandler.getErrors(), "", restUri);
+    }
+
+    private static VisitResult visitResult(VisitorControlHandler visitorControlHandler, String errors,
+                                           String documentsAsJsonList, RestUri restUri) throws RestApiException {
+        if (errors.isEmpty()) {
             Optional<String> continuationToken;
             if (! visitorControlHandler.getProgress().isFinished()) {
                 continuationToken = Optional.of(visitorControlHandler.getProgress().serializeToString());
             } else {
                 continuationToken = Optional.empty();
             }
-            return new VisitResult(continuationToken, localDataVisitorHandler.getCommaSeparatedJsonDocuments());
+            return new VisitResult(continuationToken, documentsAsJsonList);
         }
-        throw new RestApiException(Response.createErrorResponse(500, localDataVisitorHandler.getErrors(), restUri, RestUri.apiErrorCodes.UNSPECIFIED));
+        throw new RestApiException(Response.createErrorResponse(500, errors, restUri, RestUri.apiErrorCodes.UNSPECIFIED));
     }
 
     private void setRoute(SyncSession session, Optional<String> route) throws RestApiException {
@@ -392,7 +446,8 @@ public class OperationHandlerImpl implements OperationHandler {
     private VisitorParameters createVisitorParameters(
             RestUri restUri,
             String documentSelection,
-            VisitOptions options)
+            VisitOptions options,
+            boolean streaming)
             throws RestApiException {
 
         if (restUri.isRootOnly() && !options.cluster.isPresent()) {
@@ -412,9 +467,13 @@ public class OperationHandlerImpl implements OperationHandler {
         params.setMaxBucketsPerVisitor(1);
         params.setMaxPending(32);
         params.setMaxFirstPassHits(1);
-        params.setMaxTotalHits(options.wantedDocumentCount
-                .map(n -> Math.min(Math.max(n, 1), WANTED_DOCUMENT_COUNT_UPPER_BOUND))
-                .orElse(1));
+        if (streaming) { // Not held in memory, so visit until done or timed out unless a count is wanted
+            params.setMaxTotalHits(options.wantedDocumentCount.map(n -> (long) Math.max(n, 1)).orElse(-1L));
+        } else {
+            params.setMaxTotalHits(options.wantedDocumentCount
+                    .map(n -> Math.min(Math.max(n, 1), WANTED_DOCUMENT_COUNT_UPPER_BOUND))
+                    .orElse(1));
+        }
         params.setThrottlePolicy(new StaticThrottlePolicy().setMaxPendingCount(options.concurrency.orElse(1)));
         params.setToTimestamp(0L);
         params.setFromTimestamp(0L);
@@ -430,6 +489,13 @@ public class OperationHandlerImpl implements OperationHandler {
         params.setTraceLevel(0);
         params.setPriority(DocumentProtocol.Priority.NORMAL_4);
         params.setVisitRemoves(false);
+        if (options.slices.isPresent() && options.sliceId.isPresent()) {
+            try {
+                params.slice(options.slices.get(), options.sliceId.get());
+            } catch (IllegalArgumentException e) {
+                throw new RestApiException(Response.createErrorResponse(400, e.getMessage(), restUri, RestUri.apiErrorCodes.UNSPECIFIED));
+            }
+        }
 
         if (options.continuation.isPresent()) {
             try {
@@ -0,0 +1,91 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.restapi;
+
+import com.yahoo.document.json.JsonWriter;
+import com.yahoo.documentapi.AckToken;
+import com.yahoo.documentapi.VisitorDataHandler;
+import com.yahoo.documentapi.messagebus.protocol.PutDocumentMessage;
+import com.yahoo.documentapi.messagebus.protocol.RemoveDocumentMessage;
+import com.yahoo.messagebus.Message;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handling data from a streaming visit: Documents are converted to JSON as they arrive, and queued until
+ * written to a sink by the thread rendering the response. Each message is acked only when the sink reports
+ * it has been written out to the client, so the visitor session's max pending bounds the number of documents
+ * held in memory, whether queued here or waiting to be sent.
+ *
+ * @author agent
+ */
+class StreamingVisitorDataHandler extends VisitorDataHandler {
+
+    private static class Entry {
+
+        final String json;
+        final AckToken token;
+
+        Entry(String json, AckToken token) {
+            this.json = json;
+            this.token = token;
+        }
+
+    }
+
+    private final BlockingQueue<Entry> entries = new LinkedBlockingQueue<>();
+    private final StringBuilder errors = new StringBuilder();
+
+    String getErrors() {
+        synchronized (errors) {
+            return errors.toString();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, AckToken token) {
+        try {
+            entries.add(new Entry(toJson(message), token));
+        } catch (Exception e) {
+            synchronized (errors) {
+                errors.append(ExceptionUtils.getStackTrace(e)).append("\n");
+            }
+            ack(token);
+        }
+    }
+
+    /**
+     * Writes the next received document to the given sink, waiting at most the given time for one.
+     * The document is acked when the sink has written it out.
+     *
+     * @return whether a document was written
+     */
+    boolean writeNext(OperationHandler.VisitSink sink, long timeoutMs) throws IOException, InterruptedException {
+        Entry entry = entries.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (entry == null) return false;
+
+        try {
+            sink.documents(entry.json, () -> ack(entry.token));
+        } catch (IOException | RuntimeException e) {
+            ack(entry.token);
+            throw e;
+        }
+        return true;
+    }
+
+    private static String toJson(Message message) {
+        if (message instanceof PutDocumentMessage)
+            return new String(JsonWriter.toByteArray(((PutDocumentMessage) message).getDocumentPut().getDocument()),
+                              StandardCharsets.UTF_8);
+        if (message instanceof RemoveDocumentMessage)
+            return new String(JsonWriter.documentRemove(((RemoveDocumentMessage) message).getDocumentId()),
+                              StandardCharsets.UTF_8);
+        throw new UnsupportedOperationException("Received unsupported message " + message + " to streaming visitor data handler. " +
+                                                "This handler only accepts Put and Remove");
+    }
+
+}
@@ -8,6 +8,8 @@ import com.google.inject.Inject;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.yahoo.cloud.config.ClusterListConfig;
 import com.yahoo.container.handler.ThreadpoolConfig;
+import com.yahoo.container.jdisc.AsyncHttpResponse;
+import com.yahoo.container.jdisc.ContentChannelOutputStream;
 import com.yahoo.container.jdisc.HttpRequest;
 import com.yahoo.container.jdisc.HttpResponse;
 import com.yahoo.container.jdisc.LoggingRequestHandler;
@@ -24,6 +26,8 @@ import com.yahoo.document.restapi.RestApiException;
 import com.yahoo.document.restapi.RestUri;
 import com.yahoo.document.select.DocumentSelector;
 import com.yahoo.document.select.parser.ParseException;
+import com.yahoo.jdisc.handler.CompletionHandler;
+import com.yahoo.jdisc.handler.ContentChannel;
 import com.yahoo.documentapi.messagebus.MessageBusDocumentAccess;
 import com.yahoo.documentapi.messagebus.MessageBusParams;
 import com.yahoo.documentapi.messagebus.loadtypes.LoadTypeSet;
@@ -38,14 +42,17 @@ import com.yahoo.vespaxmlparser.FeedOperation;
 import com.yahoo.vespaxmlparser.VespaXMLFeedReader;
 import com.yahoo.yolean.Exceptions;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.yahoo.jdisc.Response.Status.BAD_REQUEST;
 
@@ -70,6 +77,9 @@ public class RestApi extends LoggingRequestHandler {
     private static final String FIELD_SET = "fieldSet";
     private static final String CONCURRENCY = "concurrency";
     private static final String BUCKET_SPACE = "bucketSpace";
+    private static final String STREAM = "stream";
+    private static final String SLICES = "slices";
+    private static final String SLICE_ID = "sliceId";
     private static final String APPLICATION_JSON = "application/json";
     private final OperationHandler operationHandler;
     private SingleDocumentParser singleDocumentParser;
@@ -317,6 +327,19 @@ public class RestApi extends LoggingRequestHandler {
         }
     }
 
+    private static Optional<Integer> parseNonNegativeIntegerRequestParameter(String parameter, HttpRequest request) {
+        Optional<String> property = requestProperty(parameter, request);
+        try {
+            Optional<Integer> value = property.map(Integer::parseInt);
+            if (value.isPresent() && value.get() < 0) {
+                throw new BadRequestParameterException(parameter, "Expected non-negative integer");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new BadRequestParameterException(parameter, "Expected non-negative integer");
+        }
+    }
+
     private static OperationHandler.VisitOptions visitOptionsFromRequest(HttpRequest request) {
         final OperationHandler.VisitOptions.Builder optionsBuilder = OperationHandler.VisitOptions.builder();
 
@@ -327,6 +350,19 @@ public class RestApi extends LoggingRequestHandler {
         parsePositiveIntegerRequestParameter(WANTED_DOCUMENT_COUNT, request).ifPresent(c -> optionsBuilder.wantedDocumentCount(c));
         parsePositiveIntegerRequestParameter(CONCURRENCY, request).ifPresent(c -> optionsBuilder.concurrency(c));
 
+        Optional<Integer> slices = parsePositiveIntegerRequestParameter(SLICES, request);
+        Optional<Integer> sliceId = parseNonNegativeIntegerRequestParameter(SLICE_ID, request);
+        if (slices.isPresent() != sliceId.isPresent()) {
+            throw new BadRequestParameterException(slices.isPresent() ? SLICE_ID : SLICES,
+                                                   String.format("Must be given together with '%s'", slices.isPresent() ? SLICES : SLICE_ID));
+        }
+        if (slices.isPresent()) {
+            if (sliceId.get() >= slices.get()) {
+                throw new BadRequestParameterException(SLICE_ID, "Expected less than 'slices'");
+            }
+            optionsBuilder.slice(slices.get(), sliceId.get());
+        }
+
         return optionsBuilder.build();
     }
 
@@ -409,12 +445,17 @@ public class RestApi extends LoggingRequestHandler {
     private HttpResponse handleVisit(RestUri restUri, HttpRequest request) throws RestApiException {
         String documentSelection;
         OperationHandler.VisitOptions options;
+        boolean stream;
         try {
             documentSelection = documentSelectionFromRequest(restUri, request);
             options = visitOptionsFromRequest(request);
+            stream = parseBoolean(STREAM, request).orElse(false);
         } catch (BadRequestParameterException e) {
             return createInvalidParameterResponse(e.getParameter(), e.getMessage());
         }
+        if (stream) {
+            return handleStreamingVisit(restUri, documentSelection, options);
+        }
         OperationHandler.VisitResult visit = operationHandler.visit(restUri, documentSelection, options);
         ObjectNode resultNode = mapper.createObjectNode();
         visit.token.ifPresent(t -> resultNode.put(CONTINUATION, t));
@@ -435,4 +476,65 @@ public class RestApi extends LoggingRequestHandler {
         };
         return httpResponse;
     }
+
+    /**
+     * Writes each document to the response as it is visited, rather than collecting them all first.
+     * As the response status is committed before visiting, any failure after this point is reported
+     * in an 'errors' array at the end of the response.
+     * Documents are written directly to the response channel, and acked to the visitor only when written out,
+     * such that a slow client holds back the visitor rather than causing documents to pile up in memory.
+     */
+    private HttpResponse handleStreamingVisit(RestUri restUri, String documentSelection,
+                                              OperationHandler.VisitOptions options) throws RestApiException {
+        OperationHandler.StreamingVisit visit = operationHandler.startStreamingVisit(restUri, documentSelection, options);
+        return new AsyncHttpResponse(200) {
+            @Override
+            public String getContentType() { return APPLICATION_JSON; }
+            @Override
+            public void render(OutputStream output, ContentChannel networkChannel, CompletionHandler handler) throws IOException {
+                ContentChannelOutputStream out = output instanceof ContentChannelOutputStream ? (ContentChannelOutputStream) output
+                                                                                               : new ContentChannelOutputStream(networkChannel);
+                try {
+                    out.write(("{\"" + PATH_NAME + "\":" + mapper.writeValueAsString(restUri.getRawPath()) +
+                               ",\"" + DOCUMENTS + "\":[").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    boolean[] first = { true };
+                    AtomicReference<Throwable> writeFailure = new AtomicReference<>();
+                    Optional<String> continuation = Optional.empty();
+                    Optional<JsonNode> errors = Optional.empty();
+                    try {
+                        continuation = visit.writeTo((documents, written) -> {
+                            if (writeFailure.get() != null)
+                                throw new IOException("Failed writing to client", writeFailure.get());
+                            out.send(ByteBuffer.wrap(((first[0] ? "" : ",") + documents).getBytes(StandardCharsets.UTF_8)),
+                                     new CompletionHandler() {
+                                         @Override
+                                         public void completed() { written.run(); }
+                                         @Override
+                                         public void failed(Throwable t) {
+                                             writeFailure.set(t);
+                                             written.run();
+                                         }
+                                     });
+                            first[0] = false;
+                        }).token;
+                    } catch (RestApiException e) {
+                        ByteArrayOutputStream error = new ByteArrayOutputStream();
+                        e.getResponse().render(error);
+                        errors = Optional.ofNullable(mapper.readTree(error.toByteArray()).get("errors"));
+                    }
+                    out.write(']');
+                    if (continuation.isPresent())
+                        out.write((",\"" + CONTINUATION + "\":" + mapper.writeValueAsString(continuation.get())).getBytes(StandardCharsets.UTF_8));
+                    if (errors.isPresent())
+                        out.write((",\"errors\":" + errors.get().toString()).getBytes(StandardCharsets.UTF_8));
+                    out.write('}');
+                    out.flush();
+                } finally {
+                    networkChannel.close(handler);
+                }
+            }
+        };
+    }
+
 }
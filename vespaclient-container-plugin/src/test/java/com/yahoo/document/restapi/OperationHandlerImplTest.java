@@ -1,6 +1,8 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.document.restapi;
 
+import com.yahoo.document.DocumentId;
+import com.yahoo.documentapi.AckToken;
 import com.yahoo.documentapi.DocumentAccess;
 import com.yahoo.documentapi.ProgressToken;
 import com.yahoo.documentapi.VisitorControlHandler;
@@ -9,6 +11,7 @@ import com.yahoo.documentapi.VisitorSession;
 import com.yahoo.documentapi.SyncParameters;
 import com.yahoo.documentapi.SyncSession;
 import com.yahoo.documentapi.messagebus.MessageBusSyncSession;
+import com.yahoo.documentapi.messagebus.protocol.RemoveDocumentMessage;
 import com.yahoo.messagebus.StaticThrottlePolicy;
 import com.yahoo.metrics.simple.MetricReceiver;
 import com.yahoo.vdslib.VisitorStatistics;
@@ -29,6 +32,8 @@ import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -106,6 +111,8 @@ public class OperationHandlerImplTest {
         AtomicReference<VisitorParameters> assignedParameters = new AtomicReference<>();
         VisitorControlHandler.CompletionCode completionCode = VisitorControlHandler.CompletionCode.SUCCESS;
         int bucketsVisited = 0;
+        List<String> removedDocumentIds = new ArrayList<>();
+        VisitorSession visitorSession = mock(VisitorSession.class);
         Map<String, String> bucketSpaces = new HashMap<>();
         SyncSession mockSyncSession = mock(MessageBusSyncSession.class); // MBus session needed to avoid setRoute throwing.
 
@@ -115,7 +122,6 @@ public class OperationHandlerImplTest {
         }
 
         OperationHandlerImpl createHandler() throws Exception {
-            VisitorSession visitorSession = mock(VisitorSession.class);
             // Pre-bake an already completed session
             when(documentAccess.createVisitorSession(any(VisitorParameters.class))).thenAnswer(p -> {
                 VisitorParameters params = (VisitorParameters)p.getArguments()[0];
@@ -128,6 +134,10 @@ public class OperationHandlerImplTest {
                 ProgressToken progress = new ProgressToken();
                 params.getControlHandler().onProgress(progress);
 
+                params.getLocalDataHandler().setSession(visitorSession);
+                for (String id : removedDocumentIds)
+                    params.getLocalDataHandler().onMessage(new RemoveDocumentMessage(new DocumentId(id)), new AckToken(id));
+
                 params.getControlHandler().onDone(completionCode, "bork bork");
                 return visitorSession;
             });
@@ -272,6 +282,70 @@ public class OperationHandlerImplTest {
         assertThat(params.getMaxTotalHits(), is((long)OperationHandlerImpl.WANTED_DOCUMENT_COUNT_UPPER_BOUND));
     }
 
+    @Test
+    public void streaming_visit_is_unbounded_unless_wanted_document_count_is_specified() throws Exception {
+        OperationHandlerImplFixture fixture = new OperationHandlerImplFixture();
+        OperationHandlerImpl handler = fixture.createHandler();
+
+        handler.startStreamingVisit(dummyVisitUri(), "", emptyVisitOptions()).writeTo((documents, written) -> written.run());
+        assertThat(fixture.assignedParameters.get().getMaxTotalHits(), is((long)-1));
+
+        handler.startStreamingVisit(dummyVisitUri(), "", visitOptionsWithWantedDocumentCount(OperationHandlerImpl.WANTED_DOCUMENT_COUNT_UPPER_BOUND + 1))
+               .writeTo((documents, written) -> written.run());
+        assertThat(fixture.assignedParameters.get().getMaxTotalHits(), is((long)OperationHandlerImpl.WANTED_DOCUMENT_COUNT_UPPER_BOUND + 1));
+    }
+
+    @Test
+    public void streaming_visit_writes_and_acks_each_document() throws Exception {
+        OperationHandlerImplFixture fixture = new OperationHandlerImplFixture();
+        fixture.removedDocumentIds.add("id:ns:document-type::1");
+        fixture.removedDocumentIds.add("id:ns:document-type::2");
+        OperationHandlerImpl handler = fixture.createHandler();
+
+        List<String> written = new ArrayList<>();
+        List<Runnable> pendingAcks = new ArrayList<>();
+        OperationHandler.StreamingVisit visit = handler.startStreamingVisit(dummyVisitUri(), "", emptyVisitOptions());
+        verify(fixture.documentAccess, never()).createVisitorSession(any(VisitorParameters.class));
+
+        OperationHandler.VisitResult result = visit.writeTo((documents, done) -> {
+            written.add(documents);
+            pendingAcks.add(done);
+        });
+
+        assertEquals(2, written.size());
+        assertThat(written.get(0), containsString("id:ns:document-type::1"));
+        assertThat(written.get(1), containsString("id:ns:document-type::2"));
+        assertEquals("", result.documentsAsJsonList);
+        verify(fixture.visitorSession, never()).ack(any(AckToken.class));
+        pendingAcks.forEach(Runnable::run);
+        verify(fixture.visitorSession, times(2)).ack(any(AckToken.class));
+        verify(fixture.visitorSession).destroy();
+    }
+
+    @Test
+    public void streaming_visit_is_aborted_and_released_when_writing_fails() throws Exception {
+        OperationHandlerImplFixture fixture = new OperationHandlerImplFixture();
+        fixture.removedDocumentIds.add("id:ns:document-type::1");
+        OperationHandlerImpl handler = fixture.createHandler();
+
+        try {
+            handler.startStreamingVisit(dummyVisitUri(), "", emptyVisitOptions())
+                   .writeTo((documents, done) -> { throw new IOException("client is gone"); });
+            fail("Expected exception");
+        } catch (IOException e) {
+            assertEquals("client is gone", e.getMessage());
+        }
+        verify(fixture.visitorSession).ack(any(AckToken.class));
+        verify(fixture.visitorSession).destroy();
+    }
+
+    @Test
+    public void visit_slice_is_propagated_to_visitor_parameters() throws Exception {
+        VisitorParameters params = generatedParametersFromVisitOptions(optionsBuilder().slice(4, 3).build());
+        assertThat(params.getSlices(), is(4));
+        assertThat(params.getSliceId(), is(3));
+    }
+
     @Test
     public void visit_field_set_covers_all_fields_by_default() throws Exception {
         VisitorParameters params = generatedParametersFromVisitOptions(emptyVisitOptions());
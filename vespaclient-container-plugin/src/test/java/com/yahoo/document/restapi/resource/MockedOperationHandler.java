@@ -27,7 +27,8 @@ public class MockedOperationHandler implements OperationHandler {
                 + options.fieldSet.map(s -> String.format(", field set: '%s'", s)).orElse("")
                 + options.concurrency.map(n -> String.format(", concurrency: %d", n)).orElse("")
                 + options.bucketSpace.map(s -> String.format(", bucket space: '%s'", s)).orElse("")
-                + options.cluster.map(s -> String.format(", cluster: '%s'", s)).orElse(""));
+                + options.cluster.map(s -> String.format(", cluster: '%s'", s)).orElse("")
+                + options.slices.map(n -> String.format(", slice: %d of %d", options.sliceId.get(), n)).orElse(""));
     }
 
     @Override
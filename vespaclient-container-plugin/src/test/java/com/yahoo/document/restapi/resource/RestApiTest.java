@@ -496,6 +496,44 @@ public class RestApiTest {
         assertHttp400ResponseContains(doRest(get), "Invalid 'concurrency' value. Expected positive integer");
     }
 
+    @Test
+    public void visit_slice_parameters_are_propagated() {
+        Request request = new Request(String.format("http://localhost:%s/document/v1/namespace/document-type/docid/?slices=4&sliceId=3", getFirstListenPort()));
+        HttpGet get = new HttpGet(request.getUri());
+        assertHttp200ResponseContains(doRest(get), "slice: 3 of 4");
+    }
+
+    @Test
+    public void visit_slice_id_must_be_given_with_slices() {
+        Request request = new Request(String.format("http://localhost:%s/document/v1/namespace/document-type/docid/?sliceId=1", getFirstListenPort()));
+        HttpGet get = new HttpGet(request.getUri());
+        assertHttp400ResponseContains(doRest(get), "Invalid 'slices' value. Must be given together with 'sliceId'");
+    }
+
+    @Test
+    public void visit_slice_id_must_be_less_than_slices() {
+        Request request = new Request(String.format("http://localhost:%s/document/v1/namespace/document-type/docid/?slices=2&sliceId=2", getFirstListenPort()));
+        HttpGet get = new HttpGet(request.getUri());
+        assertHttp400ResponseContains(doRest(get), "Invalid 'sliceId' value. Expected less than 'slices'");
+    }
+
+    @Test
+    public void streamed_visit_contains_documents_and_continuation() {
+        Request request = new Request(String.format("http://localhost:%s/document/v1/namespace/document-type/docid/?stream=true&continuation=abc", getFirstListenPort()));
+        HttpGet get = new HttpGet(request.getUri());
+        Response response = doRest(get);
+        assertHttp200ResponseContains(response, visit_response_part1);
+        assertHttp200ResponseContains(response, visit_response_part2);
+        assertHttp200ResponseContains(response, visit_response_part3);
+    }
+
+    @Test
+    public void invalid_visit_stream_parameter_returns_error_response() {
+        Request request = new Request(String.format("http://localhost:%s/document/v1/namespace/document-type/docid/?stream=badgers", getFirstListenPort()));
+        HttpGet get = new HttpGet(request.getUri());
+        assertHttp400ResponseContains(doRest(get), "Invalid value for 'stream' parameter");
+    }
+
     private void assertHttpResponseContains(Response response, int expectedStatusCode, String expectedSubstring) {
         assertThat(response.code, is(expectedStatusCode));
         assertThat(response.body, containsString(expectedSubstring));
@@ -4,7 +4,7 @@ package com.yahoo.feedapi;
 import java.io.InputStream;
 
 import com.yahoo.document.DocumentTypeManager;
-import com.yahoo.document.json.JsonFeedReader;
+import com.yahoo.document.json.ParallelJsonFeedReader;
 import com.yahoo.vespaxmlparser.FeedReader;
 
 /**
@@ -19,6 +19,6 @@ public class JsonFeeder extends Feeder {
 
     @Override
     protected FeedReader createReader() throws Exception {
-        return new JsonFeedReader(stream, docMan);
+        return new ParallelJsonFeedReader(stream, docMan);
     }
 }
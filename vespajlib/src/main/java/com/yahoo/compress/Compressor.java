@@ -1,10 +1,16 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.compress;
 
+import com.github.luben.zstd.Zstd;
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Compressor which can compress and decompress in various formats.
@@ -18,6 +24,9 @@ public class Compressor {
     private final int level;
     private final double compressionThresholdFactor;
     private final int compressMinSizeBytes;
+    private final Map<Integer, ZstdDictionary> dictionaries;
+
+    private static final int zstdMagicNumber = 0xFD2FB528;
 
     private final LZ4Factory factory = LZ4Factory.fastestInstance();
 
@@ -41,10 +50,32 @@ public class Compressor {
      * @param compressMinSizeBytes the minimal input data size to perform compression
      */
     public Compressor(CompressionType type, int level, double compressionThresholdFactor, int compressMinSizeBytes) {
+        this(type, level, compressionThresholdFactor, compressMinSizeBytes, Collections.emptyList());
+    }
+
+    /**
+     * Creates a compressor.
+     *
+     * @param type the type of compression to use to compress data
+     * @param level a number between 0 and 9 where a higher value means more compression
+     * @param compressionThresholdFactor the compression factor we need to achieve to return the compressed data
+     *                                   instead of raw data
+     * @param compressMinSizeBytes the minimal input data size to perform compression
+     * @param dictionaries the ZSTD dictionaries this can decompress data compressed with
+     */
+    public Compressor(CompressionType type, int level, double compressionThresholdFactor, int compressMinSizeBytes,
+                      Collection<ZstdDictionary> dictionaries) {
         this.type = type;
         this.level = level;
         this.compressionThresholdFactor = compressionThresholdFactor;
         this.compressMinSizeBytes = compressMinSizeBytes;
+        this.dictionaries = Collections.unmodifiableMap(dictionaries.stream().collect(Collectors.toMap(ZstdDictionary::id,
+                                                                                                        Function.identity())));
+    }
+
+    /** Returns a copy of this which can also decompress data compressed with the given dictionaries */
+    public Compressor withDictionaries(Collection<ZstdDictionary> dictionaries) {
+        return new Compressor(type, level, compressionThresholdFactor, compressMinSizeBytes, dictionaries);
     }
 
     /** Returns the default compression type used by this */
@@ -59,6 +90,9 @@ public class Compressor {
     /** Returns the minimal data size required to perform compression */
     public int compressMinSizeBytes() { return compressMinSizeBytes; }
 
+    /** Returns the ZSTD dictionaries this can decompress data compressed with, by id */
+    public Map<Integer, ZstdDictionary> dictionaries() { return dictionaries; }
+
     /**
      * Compresses some data
      *
@@ -84,6 +118,8 @@ public class Compressor {
                 if (compressedData.length + 8 >= dataSize * compressionThresholdFactor)
                     return new Compression(CompressionType.INCOMPRESSIBLE, dataSize, data);
                 return new Compression(CompressionType.LZ4, dataSize, compressedData);
+            case ZSTD:
+                return compressZstd(data, uncompressedSize, null);
             default:
                 throw new IllegalArgumentException(requestedCompression + " is not supported");
         }
@@ -95,6 +131,38 @@ public class Compressor {
     /** Compresses some data using the compression type of this compressor */
     public Compression compress(byte[] data) { return compress(type, data, Optional.empty()); }
 
+    /**
+     * Compresses some data with ZSTD using a dictionary. The dictionary should be trained on data similar to this.
+     * The compressed data can be decompressed by compressors having this dictionary.
+     *
+     * @param data the data to compress. This array is only read by this method.
+     * @param uncompressedSize uncompressedSize the size in bytes of the data array. If this is not present, it is
+     *                         assumed that the size is the same as the data array size, i.e that it is completely
+     *                         filled with uncompressed data.
+     * @param dictionary the dictionary to use
+     * @return the compression result, which is either ZSTD or INCOMPRESSIBLE
+     */
+    public Compression compress(byte[] data, Optional<Integer> uncompressedSize, ZstdDictionary dictionary) {
+        return compressZstd(data, uncompressedSize, dictionary);
+    }
+
+    private Compression compressZstd(byte[] data, Optional<Integer> uncompressedSize, ZstdDictionary dictionary) {
+        int dataSize = uncompressedSize.isPresent() ? uncompressedSize.get() : data.length;
+        if (dataSize < compressMinSizeBytes) return new Compression(CompressionType.INCOMPRESSIBLE, dataSize, data);
+        byte[] compressedData = new byte[(int)Zstd.compressBound(dataSize)];
+        long compressedSize = dictionary == null
+                              ? Zstd.compressByteArray(compressedData, 0, compressedData.length, data, 0, dataSize, zstdLevel())
+                              : Zstd.compressFastDict(compressedData, 0, data, 0, dataSize, dictionary.compressor(zstdLevel()));
+        if (Zstd.isError(compressedSize))
+            throw new IllegalStateException("ZSTD compression failed: " + Zstd.getErrorName(compressedSize));
+        if (compressedSize + 8 >= dataSize * compressionThresholdFactor)
+            return new Compression(CompressionType.INCOMPRESSIBLE, dataSize, data);
+        return new Compression(CompressionType.ZSTD, dataSize, Arrays.copyOf(compressedData, (int)compressedSize));
+    }
+
+    /** Returns the ZSTD level corresponding to the level of this, where ZSTD has no level 0 */
+    private int zstdLevel() { return Math.max(1, level); }
+
     /**
      * Decompresses some data
      *
@@ -103,8 +171,10 @@ public class Compressor {
      * @param compressedDataOffset the offset in the compressed data at which to start decompression
      * @param expectedUncompressedSize the uncompressed size in bytes of this data
      * @param expectedCompressedSize the expected compressed size of the data in bytes, optionally for validation with LZ4.
+     *                               With ZSTD, the compressed data extends to the end of the array if this is empty.
      * @return the uncompressed data, of the given size
-     * @throws IllegalArgumentException if the compression type is not supported
+     * @throws IllegalArgumentException if the compression type is not supported, or the data is compressed
+     *                                  with a ZSTD dictionary this does not have
      * @throws IllegalStateException if the expected compressed size is non-empty and specifies a different size than the actual size
      */
     public byte[] decompress(CompressionType compression, byte[] compressedData, int compressedDataOffset,
@@ -120,10 +190,59 @@ public class Compressor {
                 if (expectedCompressedSize.isPresent() && compressedSize != expectedCompressedSize.get())
                     throw new IllegalStateException("Compressed size mismatch. Expected " + compressedSize + ". Got " + expectedCompressedSize.get());
                 return uncompressedLZ4Data;
+            case ZSTD:
+                return decompressZstd(compressedData, compressedDataOffset, expectedUncompressedSize,
+                                      expectedCompressedSize.orElse(compressedData.length - compressedDataOffset));
             default:
                 throw new IllegalArgumentException(compression + " is not supported");
         }
     }
+    private byte[] decompressZstd(byte[] compressedData, int offset, int expectedUncompressedSize, int compressedSize) {
+        byte[] uncompressedData = new byte[expectedUncompressedSize];
+        int dictionaryId = zstdDictionaryId(compressedData, offset, compressedSize);
+        long uncompressedSize;
+        if (dictionaryId == 0) {
+            uncompressedSize = Zstd.decompressByteArray(uncompressedData, 0, expectedUncompressedSize,
+                                                        compressedData, offset, compressedSize);
+        }
+        else {
+            ZstdDictionary dictionary = dictionaries.get(dictionaryId);
+            if (dictionary == null)
+                throw new IllegalArgumentException("Data is compressed with ZSTD dictionary " +
+                                                   Integer.toUnsignedString(dictionaryId) + ", but this only has " +
+                                                   dictionaries.values());
+            uncompressedSize = Zstd.decompressFastDict(uncompressedData, 0, compressedData, offset, compressedSize,
+                                                       dictionary.decompressor());
+        }
+        if (Zstd.isError(uncompressedSize))
+            throw new IllegalStateException("ZSTD decompression failed: " + Zstd.getErrorName(uncompressedSize));
+        if (uncompressedSize != expectedUncompressedSize)
+            throw new IllegalStateException("Uncompressed size mismatch. Expected " + expectedUncompressedSize +
+                                            ". Got " + uncompressedSize);
+        return uncompressedData;
+    }
+
+    /**
+     * Returns the id of the dictionary used to compress the ZSTD frame at the given offset,
+     * or 0 if no dictionary was used, by reading the frame header.
+     */
+    static int zstdDictionaryId(byte[] data, int offset, int size) {
+        if (size < 6 || readIntLittleEndian(data, offset) != zstdMagicNumber) return 0; // let decompression fail
+        int descriptor = data[offset + 4] & 0xff;
+        boolean singleSegment = (descriptor & 0x20) != 0;
+        int idSize = new int[] { 0, 1, 2, 4 }[descriptor & 0x03];
+        int idPosition = offset + 5 + (singleSegment ? 0 : 1);
+        if (idPosition + idSize > offset + size) return 0;
+        int id = 0;
+        for (int i = 0; i < idSize; i++)
+            id |= (data[idPosition + i] & 0xff) << (8 * i);
+        return id;
+    }
+
+    private static int readIntLittleEndian(byte[] data, int offset) {
+        return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff) << 16 | (data[offset + 3] & 0xff) << 24;
+    }
+
     /** Decompresses some data */
     public byte[] decompress(byte[] compressedData, CompressionType compressionType, int uncompressedSize) {
         return decompress(compressionType, compressedData, 0, uncompressedSize, Optional.empty());
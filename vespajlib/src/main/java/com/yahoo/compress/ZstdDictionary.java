@@ -0,0 +1,98 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A ZSTD dictionary, trained on samples of data which are similar to the data to compress,
+ * such as documents of one document type or messages of one type. Using a dictionary gives much better
+ * compression of small payloads, where there is too little data in each payload to learn from.
+ * <p>
+ * Data compressed with a dictionary can only be decompressed by a {@link Compressor} which has the same dictionary.
+ * The dictionary is identified in the compressed data by its {@link #id}.
+ * <p>
+ * This is immutable and thread safe.
+ *
+ * @author agent
+ */
+public final class ZstdDictionary {
+
+    private final byte[] data;
+    private final int id;
+
+    private final Map<Integer, ZstdDictCompress> compressors = new ConcurrentHashMap<>();
+    private volatile ZstdDictDecompress decompressor = null;
+
+    /**
+     * Creates a dictionary from its serialized form, as returned from {@link #data}
+     *
+     * @throws IllegalArgumentException if this is not ZSTD dictionary data
+     */
+    public ZstdDictionary(byte[] data) {
+        this.data = Arrays.copyOf(data, data.length);
+        this.id = (int)Zstd.getDictIdFromDict(this.data);
+        if (id == 0)
+            throw new IllegalArgumentException("This is not a ZSTD dictionary: It has no dictionary id");
+    }
+
+    /**
+     * Trains a dictionary on some samples
+     *
+     * @param samples the samples to train on. This should contain at least some hundred samples,
+     *                and a total of about 100 times the dictionary size
+     * @param maxSize the max size of the dictionary in bytes
+     * @throws IllegalArgumentException if a dictionary could not be trained on the given samples
+     */
+    public static ZstdDictionary train(Collection<byte[]> samples, int maxSize) {
+        int samplesSize = samples.stream().mapToInt(sample -> sample.length).sum();
+        ZstdDictTrainer trainer = new ZstdDictTrainer(samplesSize, maxSize);
+        for (byte[] sample : samples)
+            trainer.addSample(sample);
+        try {
+            return new ZstdDictionary(trainer.trainSamples());
+        }
+        catch (RuntimeException e) {
+            throw new IllegalArgumentException("Could not train a dictionary of max size " + maxSize + " on " +
+                                               samples.size() + " samples", e);
+        }
+    }
+
+    /** Returns the id of this dictionary, which is never 0 */
+    public int id() { return id; }
+
+    /** Returns a copy of the serialized form of this dictionary */
+    public byte[] data() { return Arrays.copyOf(data, data.length); }
+
+    ZstdDictCompress compressor(int level) {
+        return compressors.computeIfAbsent(level, __ -> new ZstdDictCompress(data, level));
+    }
+
+    ZstdDictDecompress decompressor() {
+        if (decompressor == null)
+            decompressor = new ZstdDictDecompress(data);
+        return decompressor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if ( ! (o instanceof ZstdDictionary)) return false;
+        ZstdDictionary other = (ZstdDictionary)o;
+        return id == other.id && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() { return id; }
+
+    @Override
+    public String toString() { return "ZSTD dictionary " + Integer.toUnsignedString(id) + " of " + data.length + " bytes"; }
+
+}
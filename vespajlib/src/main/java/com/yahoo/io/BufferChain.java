@@ -11,6 +11,7 @@ import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Data store for AbstractByteWriter. Tested in unit tests for ByteWriter.
@@ -29,30 +30,47 @@ public final class BufferChain {
     }
     private final List<ByteBuffer> buffers = new ArrayList<>();
     private final WritableByteTransmitter endpoint;
-    private ByteBuffer current = ByteBuffer.allocate(BUFFERSIZE);
+    private final Supplier<ByteBuffer> allocator;
+    private ByteBuffer current = null;
     private long appended = 0L;
 
     public BufferChain(final WritableByteTransmitter endpoint) {
+        this(endpoint, () -> ByteBuffer.allocate(BUFFERSIZE));
+    }
+
+    /**
+     * Creates a buffer chain which gets the buffers it writes to from the given allocator.
+     * The allocated buffers must have room for at least 1024 bytes, and are passed on to the endpoint.
+     */
+    public BufferChain(final WritableByteTransmitter endpoint, final Supplier<ByteBuffer> allocator) {
         this.endpoint = endpoint;
+        this.allocator = allocator;
     }
 
     public void append(final byte b) throws IOException {
         makeRoom(1);
-        current.put(b);
+        current().put(b);
     }
     private final boolean shouldCopy(int length) {
          return (length < WATERMARK);
     }
     private final void makeRoom(int length) throws IOException {
-        if (current.remaining() < length) {
+        if (current != null && current.remaining() < length) {
             scratch();
         }
     }
+    /** Returns the buffer to write to, which is allocated when first needed */
+    private ByteBuffer current() {
+        if (current == null) {
+            current = allocator.get();
+        }
+        return current;
+    }
     public void append(AbstractUtf8Array v) throws IOException {
         final int length = v.getByteLength();
         if (shouldCopy(length)) {
             makeRoom(length);
-            v.writeTo(current);
+            v.writeTo(current());
         } else {
             append(v.wrap());
         }
@@ -66,7 +84,7 @@ public final class BufferChain {
     public void append(final byte[] alreadyEncoded, final int offset, final int length) throws java.io.IOException {
         if (shouldCopy(length)) {
             makeRoom(length);
-            current.put(alreadyEncoded, offset, length);
+            current().put(alreadyEncoded, offset, length);
         } else {
             append(ByteBuffer.wrap(alreadyEncoded, offset, length));
         }
@@ -79,7 +97,7 @@ public final class BufferChain {
         final int length = alreadyEncoded.limit() - alreadyEncoded.position();
         if (shouldCopy(length)) {
             makeRoom(length);
-            current.put(alreadyEncoded);
+            current().put(alreadyEncoded);
         } else {
             scratch();
             add(alreadyEncoded);
@@ -94,7 +112,7 @@ public final class BufferChain {
             throws java.io.IOException {
         CoderResult overflow;
         do {
-            overflow = encoder.encode(toEncode, current, true);
+            overflow = encoder.encode(toEncode, current(), true);
             if (overflow.isOverflow()) {
                 scratch();
             } else if (overflow.isError()) {
@@ -110,10 +128,10 @@ public final class BufferChain {
     }
 
     private void scratch() throws java.io.IOException {
-        if (!possibleFlush() && current.position() != 0) {
+        if (!possibleFlush() && current != null && current.position() != 0) {
             current.flip();
             add(current);
-            current = ByteBuffer.allocate(BUFFERSIZE);
+            current = null;
         }
     }
 
@@ -130,11 +148,11 @@ public final class BufferChain {
             endpoint.send(b);
         }
         buffers.clear();
-        if (current.position() > 0) {
+        if (current != null && current.position() > 0) {
             current.flip();
             appended += current.limit();
             endpoint.send(current);
-            current = ByteBuffer.allocate(BUFFERSIZE);
+            current = null;
         }
     }
 
@@ -142,6 +160,6 @@ public final class BufferChain {
      * @return number of bytes written to this buffer
      */
     public long appended() {
-        return appended + current.position();
+        return appended + (current == null ? 0 : current.position());
     }
 }
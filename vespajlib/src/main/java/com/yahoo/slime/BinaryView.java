@@ -0,0 +1,374 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.slime;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static com.yahoo.slime.BinaryFormat.decode_double;
+import static com.yahoo.slime.BinaryFormat.decode_meta;
+import static com.yahoo.slime.BinaryFormat.decode_type;
+import static com.yahoo.slime.BinaryFormat.decode_zigzag;
+
+/**
+ * A read-only Inspector of Slime binary format data, which reads values directly from the encoded bytes
+ * instead of decoding them into a Slime object graph.
+ * <p>
+ * Inspecting the data makes a single pass over it to build a compact index of the position of each value,
+ * such that arrays and objects can be navigated without re-scanning. No objects are created per value
+ * until it is accessed, and strings and data are only copied out of the buffer when asked for.
+ * This is preferable to {@link BinaryFormat#decode} when only some of the values are read.
+ * <p>
+ * The given byte array must not be modified while it is inspected.
+ * Data which cannot be decoded is handled as by {@link BinaryFormat#decode}.
+ *
+ * @author agent
+ */
+public final class BinaryView implements Inspector {
+
+    /** Each value has these ints in the index: The position of its type byte, its first child and its symbol */
+    private static final int entrySize = 3;
+
+    private final byte[] data;
+    private final SymbolTable names;
+    private final int[] index;
+    private final int self;
+
+    private BinaryView(byte[] data, SymbolTable names, int[] index, int self) {
+        this.data = data;
+        this.names = names;
+        this.index = index;
+        this.self = self;
+    }
+
+    /** Returns an inspector of the root value of the given Slime binary format data */
+    public static Inspector inspect(byte[] data) {
+        return inspect(data, 0, data.length);
+    }
+
+    /** Returns an inspector of the root value of the Slime binary format data in the given part of an array */
+    public static Inspector inspect(byte[] data, int offset, int length) {
+        Indexer indexer = new Indexer(data, offset, length);
+        if ( ! indexer.indexAll())
+            return BinaryFormat.decode(data, offset, length).get(); // produce the partial result
+        return new BinaryView(data, indexer.names, indexer.index, 0);
+    }
+
+    private int position() { return index[self * entrySize]; }
+    private int firstChild() { return index[self * entrySize + 1]; }
+    private int symbol() { return index[self * entrySize + 2]; }
+
+    private byte typeAndMeta() { return data[position()]; }
+    private int meta() { return decode_meta(typeAndMeta()); }
+
+    private BinaryView child(int slot) {
+        return new BinaryView(data, names, index, slot);
+    }
+
+    /** Returns the size of the string, data, array or object value of this */
+    private int size() {
+        int meta = meta();
+        return (meta == 0) ? (int)readCompressed(position() + 1) : meta - 1;
+    }
+
+    /** Returns the position of the first payload byte of the string or data value of this */
+    private int payloadPosition() {
+        int pos = position() + 1;
+        if (meta() == 0)
+            while ((data[pos++] & 0x80) != 0) { }
+        return pos;
+    }
+
+    private long readCompressed(int pos) {
+        long next = data[pos++];
+        long value = (next & 0x7f);
+        int shift = 7;
+        while ((next & 0x80) != 0) {
+            next = data[pos++];
+            value |= ((next & 0x7f) << shift);
+            shift += 7;
+        }
+        return value;
+    }
+
+    private long readBytesLittleEndian(int pos, int bytes) {
+        long value = 0;
+        for (int i = 0, shift = 0; i < bytes; ++i, shift += 8)
+            value |= (data[pos + i] & 0xffL) << shift;
+        return value;
+    }
+
+    private long readBytesBigEndian(int pos, int bytes) {
+        long value = 0;
+        for (int i = 0, shift = 56; i < bytes; ++i, shift -= 8)
+            value |= (data[pos + i] & 0xffL) << shift;
+        return value;
+    }
+
+    @Override
+    public boolean valid() { return true; }
+
+    @Override
+    public Type type() { return decode_type(typeAndMeta()); }
+
+    @Override
+    public int children() {
+        Type type = type();
+        return (type == Type.ARRAY || type == Type.OBJECT) ? size() : 0;
+    }
+
+    @Override
+    public int entries() { return type() == Type.ARRAY ? size() : 0; }
+
+    @Override
+    public int fields() { return type() == Type.OBJECT ? size() : 0; }
+
+    @Override
+    public boolean asBool() { return type() == Type.BOOL && meta() != 0; }
+
+    @Override
+    public long asLong() {
+        switch (type()) {
+            case LONG: return decode_zigzag(readBytesLittleEndian(position() + 1, meta()));
+            case DOUBLE: return (long)decode_double(readBytesBigEndian(position() + 1, meta()));
+            default: return 0;
+        }
+    }
+
+    @Override
+    public double asDouble() {
+        switch (type()) {
+            case LONG: return (double)decode_zigzag(readBytesLittleEndian(position() + 1, meta()));
+            case DOUBLE: return decode_double(readBytesBigEndian(position() + 1, meta()));
+            default: return 0.0;
+        }
+    }
+
+    @Override
+    public String asString() {
+        if (type() != Type.STRING) return "";
+        return Utf8Codec.decode(data, payloadPosition(), size());
+    }
+
+    @Override
+    public byte[] asUtf8() {
+        if (type() != Type.STRING) return new byte[0];
+        return payload();
+    }
+
+    @Override
+    public byte[] asData() {
+        if (type() != Type.DATA) return new byte[0];
+        return payload();
+    }
+
+    private byte[] payload() {
+        int start = payloadPosition();
+        return Arrays.copyOfRange(data, start, start + size());
+    }
+
+    @Override
+    public void accept(Visitor v) {
+        switch (type()) {
+            case NIX: v.visitNix(); break;
+            case BOOL: v.visitBool(asBool()); break;
+            case LONG: v.visitLong(asLong()); break;
+            case DOUBLE: v.visitDouble(asDouble()); break;
+            case STRING: v.visitString(asUtf8()); break;
+            case DATA: v.visitData(asData()); break;
+            case ARRAY: v.visitArray(this); break;
+            case OBJECT: v.visitObject(this); break;
+        }
+    }
+
+    @Override
+    public void traverse(ArrayTraverser at) {
+        if (type() != Type.ARRAY) return;
+        for (int i = 0, size = size(), first = firstChild(); i < size; i++)
+            at.entry(i, child(first + i));
+    }
+
+    @Override
+    public void traverse(ObjectSymbolTraverser ot) {
+        if (type() != Type.OBJECT) return;
+        for (int i = 0, size = size(), first = firstChild(); i < size; i++) {
+            BinaryView field = child(first + i);
+            ot.field(field.symbol(), field);
+        }
+    }
+
+    @Override
+    public void traverse(ObjectTraverser ot) {
+        if (type() != Type.OBJECT) return;
+        for (int i = 0, size = size(), first = firstChild(); i < size; i++) {
+            BinaryView field = child(first + i);
+            ot.field(names.inspect(field.symbol()), field);
+        }
+    }
+
+    @Override
+    public Inspector entry(int idx) {
+        if (type() != Type.ARRAY || idx < 0 || idx >= size()) return NixValue.invalid();
+        return child(firstChild() + idx);
+    }
+
+    @Override
+    public Inspector field(int sym) {
+        if (type() != Type.OBJECT) return NixValue.invalid();
+        for (int i = 0, size = size(), first = firstChild(); i < size; i++) {
+            if (index[(first + i) * entrySize + 2] == sym)
+                return child(first + i);
+        }
+        return NixValue.invalid();
+    }
+
+    @Override
+    public Inspector field(String name) {
+        int sym = names.lookup(name);
+        if (sym == SymbolTable.INVALID) return NixValue.invalid();
+        return field(sym);
+    }
+
+    @Override
+    public boolean equalTo(Inspector that) {
+        return Value.equal(this, that);
+    }
+
+    @Override
+    public String toString() {
+        try {
+            ByteArrayOutputStream a = new ByteArrayOutputStream();
+            new JsonFormat(true).encode(a, this);
+            byte[] utf8 = a.toByteArray();
+            return Utf8Codec.decode(utf8, 0, utf8.length);
+        } catch (Exception e) {
+            return "null";
+        }
+    }
+
+    /** Reads the symbol table and indexes all the values of some binary format data, in a single pass */
+    private static final class Indexer {
+
+        private final byte[] data;
+        private final int end;
+        private int position;
+        private boolean failed = false;
+
+        private final SymbolTable names = new SymbolTable();
+        private int[] index = new int[16 * entrySize];
+        private int used = 0;
+
+        Indexer(byte[] data, int offset, int length) {
+            this.data = data;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        /** Indexes the data, and returns whether it could be decoded */
+        boolean indexAll() {
+            readSymbols();
+            if ( ! failed)
+                readValue(reserve(1), -1);
+            return ! failed;
+        }
+
+        private void fail() {
+            failed = true;
+            position = end;
+        }
+
+        private byte readByte() {
+            if (position == end) {
+                fail();
+                return 0;
+            }
+            return data[position++];
+        }
+
+        private void skip(long size) {
+            if (size > end - position)
+                fail();
+            else
+                position += size;
+        }
+
+        private long readCompressed() {
+            long next = readByte();
+            long value = (next & 0x7f);
+            int shift = 7;
+            while ((next & 0x80) != 0) {
+                next = readByte();
+                value |= ((next & 0x7f) << shift);
+                shift += 7;
+            }
+            return value;
+        }
+
+        private long readSize(int meta) {
+            return (meta == 0) ? readCompressed() : (meta - 1);
+        }
+
+        /** Returns the first of the given number of consecutive new slots in the index */
+        private int reserve(long count) {
+            if (count > end - position) { // every value takes at least one byte
+                fail();
+                return 0;
+            }
+            if ((used + count) * entrySize > index.length)
+                index = Arrays.copyOf(index, (int)Math.max(index.length * 2, (used + count) * entrySize));
+            int first = used;
+            used += count;
+            return first;
+        }
+
+        private void readSymbols() {
+            long count = readCompressed();
+            for (long i = 0; i < count && ! failed; ++i) {
+                long size = readCompressed();
+                int start = position;
+                skip(size);
+                if (failed) return;
+                if (names.insert(Utf8Codec.decode(data, start, (int)size)) != i)
+                    fail(); // duplicate symbols
+            }
+        }
+
+        private void readValue(int slot, int symbol) {
+            if (failed) return;
+            index[slot * entrySize] = position;
+            index[slot * entrySize + 2] = symbol;
+            byte typeAndMeta = readByte();
+            int meta = decode_meta(typeAndMeta);
+            switch (decode_type(typeAndMeta)) {
+                case NIX:
+                case BOOL:
+                    break;
+                case LONG:
+                case DOUBLE:
+                    skip(meta);
+                    break;
+                case STRING:
+                case DATA:
+                    skip(readSize(meta));
+                    break;
+                case ARRAY: {
+                    long size = readSize(meta);
+                    int first = reserve(size);
+                    index[slot * entrySize + 1] = first;
+                    for (int i = 0; i < size && ! failed; i++)
+                        readValue(first + i, -1);
+                    break;
+                }
+                case OBJECT: {
+                    long size = readSize(meta);
+                    int first = reserve(size);
+                    index[slot * entrySize + 1] = first;
+                    for (int i = 0; i < size && ! failed; i++)
+                        readValue(first + i, (int)readCompressed());
+                    break;
+                }
+            }
+        }
+
+    }
+
+}
@@ -120,40 +120,45 @@ abstract class Value implements Cursor {
 
     @Override
     public boolean equalTo(Inspector that) {
-        boolean equal = type() == that.type();
+        return equal(this, that);
+    }
+
+    /** Returns whether the two given inspectors are equal, see {@link Inspector#equalTo} */
+    static boolean equal(Inspector lhs, Inspector that) {
+        boolean equal = lhs.type() == that.type();
 
         if (equal) {
-            switch (type()) {
+            switch (lhs.type()) {
                 case NIX:
-                    equal = valid() == that.valid();
+                    equal = lhs.valid() == that.valid();
                     break;
                 case BOOL:
-                    equal = asBool() == that.asBool();
+                    equal = lhs.asBool() == that.asBool();
                     break;
                 case LONG:
-                    equal = asLong() == that.asLong();
+                    equal = lhs.asLong() == that.asLong();
                     break;
                 case DOUBLE:
-                    equal = Double.compare(asDouble(), that.asDouble()) == 0;
+                    equal = Double.compare(lhs.asDouble(), that.asDouble()) == 0;
                     break;
                 case STRING:
-                    equal = asString().equals(that.asString());
+                    equal = lhs.asString().equals(that.asString());
                     break;
                 case DATA:
-                    equal = Arrays.equals(asData(), that.asData());
+                    equal = Arrays.equals(lhs.asData(), that.asData());
                     break;
                 case ARRAY:
                 {
                     var traverser = new EqualArray(that);
-                    traverse(traverser);
-                    equal = traverser.isEqual() && (entries() == that.entries());
+                    lhs.traverse(traverser);
+                    equal = traverser.isEqual() && (lhs.entries() == that.entries());
                 }
                 break;
                 case OBJECT:
                 {
                     var traverser = new EqualObject(that);
-                    traverse(traverser);
-                    equal = traverser.isEqual() && (fields() == that.fields());
+                    lhs.traverse(traverser);
+                    equal = traverser.isEqual() && (lhs.fields() == that.fields());
                 }
                 break;
                 default:
@@ -0,0 +1,101 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import com.yahoo.text.Utf8;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class ZstdCompressorTest {
+
+    private static byte[] document(int i) {
+        return Utf8.toBytes("{\"put\":\"id:music:music::" + i + "\",\"fields\":{\"title\":\"Song number " + i +
+                            "\",\"artist\":\"Artist " + (i % 17) + "\",\"year\":" + (1950 + i % 70) +
+                            ",\"genre\":\"" + (i % 2 == 0 ? "rock" : "jazz") + "\"}}");
+    }
+
+    private static List<byte[]> documents(int start, int count) {
+        List<byte[]> documents = new ArrayList<>();
+        for (int i = start; i < start + count; i++)
+            documents.add(document(i));
+        return documents;
+    }
+
+    @Test
+    public void can_compress_and_decompress_partial_buffer_range() {
+        byte[] toCompress = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa".getBytes();
+        int compressBytes = 30;
+        Compressor compressor = new Compressor(CompressionType.ZSTD);
+        Compressor.Compression compressed = compressor.compress(CompressionType.ZSTD, toCompress, Optional.of(compressBytes));
+        assertEquals(CompressionType.ZSTD, compressed.type());
+        assertEquals(compressBytes, compressed.uncompressedSize());
+        byte[] decompressed = compressor.decompress(compressed);
+        assertArrayEquals(Arrays.copyOf(toCompress, compressBytes), decompressed);
+    }
+
+    @Test
+    public void can_decompress_at_offset() {
+        Compressor compressor = new Compressor(CompressionType.ZSTD);
+        byte[] document = document(1);
+        Compressor.Compression compressed = compressor.compress(document);
+        byte[] buffer = new byte[compressed.data().length + 3];
+        System.arraycopy(compressed.data(), 0, buffer, 3, compressed.data().length);
+        assertArrayEquals(document, compressor.decompress(CompressionType.ZSTD, buffer, 3, document.length, Optional.empty()));
+    }
+
+    @Test
+    public void dictionary_gives_better_compression_of_small_payloads() {
+        ZstdDictionary dictionary = ZstdDictionary.train(documents(0, 2000), 4096);
+        assertEquals(dictionary, new ZstdDictionary(dictionary.data()));
+        Compressor compressor = new Compressor(CompressionType.ZSTD).withDictionaries(Collections.singletonList(dictionary));
+
+        byte[] document = document(5000);
+        Compressor.Compression withDictionary = compressor.compress(document, Optional.empty(), dictionary);
+        Compressor.Compression withoutDictionary = compressor.compress(CompressionType.ZSTD, document);
+        assertEquals(CompressionType.ZSTD, withDictionary.type());
+        assertTrue(withDictionary.data().length < withoutDictionary.data().length);
+        assertEquals(dictionary.id(), Compressor.zstdDictionaryId(withDictionary.data(), 0, withDictionary.data().length));
+        assertArrayEquals(document, compressor.decompress(withDictionary));
+        assertArrayEquals(document, compressor.decompress(withoutDictionary));
+
+        try {
+            new Compressor(CompressionType.ZSTD).decompress(withDictionary);
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Data is compressed with ZSTD dictionary " +
+                                                 Integer.toUnsignedString(dictionary.id())));
+        }
+    }
+
+    @Test
+    public void dictionary_id_is_read_from_frame_header() {
+        byte[] magic = { 0x28, (byte)0xb5, 0x2f, (byte)0xfd };
+        assertEquals(0, Compressor.zstdDictionaryId(frame(magic, 0x20), 0, 8));
+        assertEquals(0x12, Compressor.zstdDictionaryId(frame(magic, 0x21, 0x12), 0, 8));
+        assertEquals(0x3412, Compressor.zstdDictionaryId(frame(magic, 0x22, 0x12, 0x34), 0, 8));
+        assertEquals(0x78563412, Compressor.zstdDictionaryId(frame(magic, 0x23, 0x12, 0x34, 0x56, 0x78), 0, 10));
+        assertEquals(0x3412, Compressor.zstdDictionaryId(frame(magic, 0x02, 0x00, 0x12, 0x34), 0, 8)); // window byte
+        assertEquals(0, Compressor.zstdDictionaryId(frame(new byte[4], 0x21, 0x12), 0, 8)); // not a frame
+    }
+
+    private static byte[] frame(byte[] magic, int ... header) {
+        byte[] frame = Arrays.copyOf(magic, 10);
+        for (int i = 0; i < header.length; i++)
+            frame[4 + i] = (byte)header[i];
+        return frame;
+    }
+
+}
@@ -0,0 +1,125 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.slime;
+
+import com.yahoo.text.Utf8;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class BinaryViewTestCase {
+
+    private static Slime createSlime() {
+        Slime slime = new Slime();
+        Cursor root = slime.setObject();
+        root.setNix("nix");
+        root.setBool("true", true);
+        root.setBool("false", false);
+        root.setLong("small", 7);
+        root.setLong("negative", -123456789012L);
+        root.setDouble("double", 3.25);
+        root.setString("string", "blåbærsyltetøy");
+        root.setString("empty", "");
+        root.setString("long", String.join(" ", java.util.Collections.nCopies(100, "word")));
+        root.setData("data", new byte[] { 1, 2, 3, (byte)0xff });
+        Cursor array = root.setArray("array");
+        for (int i = 0; i < 40; i++)
+            array.addLong(i * 1000);
+        Cursor nested = array.addObject();
+        nested.setString("inner", "value");
+        nested.setArray("empty");
+        root.setObject("object").setArray("deep").addArray().addString("bottom");
+        return slime;
+    }
+
+    @Test
+    public void testViewIsEqualToDecodedSlime() {
+        Slime slime = createSlime();
+        byte[] encoded = BinaryFormat.encode(slime);
+        Inspector view = BinaryView.inspect(encoded);
+        assertTrue(view instanceof BinaryView);
+        assertTrue(view.equalTo(slime.get()));
+        assertTrue(slime.get().equalTo(view));
+        assertTrue(view.equalTo(BinaryFormat.decode(encoded).get()));
+        assertEquals(slime.get().toString(), view.toString());
+    }
+
+    @Test
+    public void testAccessors() {
+        Inspector view = BinaryView.inspect(BinaryFormat.encode(createSlime()));
+        assertEquals(Type.OBJECT, view.type());
+        assertEquals(12, view.fields());
+        assertEquals(12, view.children());
+        assertEquals(0, view.entries());
+
+        assertEquals(Type.NIX, view.field("nix").type());
+        assertTrue(view.field("nix").valid());
+        assertFalse(view.field("nonexisting").valid());
+        assertTrue(view.field("true").asBool());
+        assertFalse(view.field("false").asBool());
+        assertEquals(7, view.field("small").asLong());
+        assertEquals(7.0, view.field("small").asDouble(), 0);
+        assertEquals(-123456789012L, view.field("negative").asLong());
+        assertEquals(3.25, view.field("double").asDouble(), 0);
+        assertEquals(3, view.field("double").asLong());
+        assertEquals("blåbærsyltetøy", view.field("string").asString());
+        assertArrayEquals(Utf8.toBytes("blåbærsyltetøy"), view.field("string").asUtf8());
+        assertEquals("", view.field("empty").asString());
+        assertEquals(499, view.field("long").asString().length());
+        assertArrayEquals(new byte[] { 1, 2, 3, (byte)0xff }, view.field("data").asData());
+        assertEquals("", view.field("data").asString());
+
+        Inspector array = view.field("array");
+        assertEquals(41, array.entries());
+        assertEquals(39000, array.entry(39).asLong());
+        assertFalse(array.entry(41).valid());
+        assertFalse(array.entry(-1).valid());
+        assertEquals("value", array.entry(40).field("inner").asString());
+        assertEquals(0, array.entry(40).field("empty").entries());
+        assertEquals("bottom", view.field("object").field("deep").entry(0).entry(0).asString());
+    }
+
+    @Test
+    public void testTraversal() {
+        Inspector view = BinaryView.inspect(BinaryFormat.encode(createSlime()));
+        List<String> names = new ArrayList<>();
+        view.traverse((String name, Inspector value) -> names.add(name));
+        assertEquals(Arrays.asList("nix", "true", "false", "small", "negative", "double", "string", "empty", "long",
+                                   "data", "array", "object"),
+                     names);
+
+        long[] sum = new long[1];
+        view.field("array").traverse((ArrayTraverser) (i, value) -> sum[0] += value.asLong());
+        assertEquals(780000, sum[0]);
+
+        view.traverse((ObjectSymbolTraverser) (symbol, value) -> assertTrue(view.field(symbol).equalTo(value)));
+    }
+
+    @Test
+    public void testViewOfPartOfArray() {
+        byte[] encoded = BinaryFormat.encode(createSlime());
+        byte[] padded = new byte[encoded.length + 10];
+        System.arraycopy(encoded, 0, padded, 5, encoded.length);
+        assertTrue(BinaryView.inspect(padded, 5, encoded.length).equalTo(createSlime().get()));
+    }
+
+    @Test
+    public void testInvalidDataGivesSamePartialResultAsDecoding() {
+        byte[] encoded = BinaryFormat.encode(createSlime());
+        for (int length : new int[] { 0, 1, encoded.length / 2, encoded.length - 1 }) {
+            Inspector view = BinaryView.inspect(encoded, 0, length);
+            assertTrue("Truncated at " + length, view.equalTo(BinaryFormat.decode(encoded, 0, length).get()));
+            assertTrue(view.field("error_message").valid());
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.log;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Writes log records to a log target from a single writer thread, such that threads logging
+ * never wait for each other or for I/O. Records are passed to the writer through a bounded
+ * ring buffer, and the writer formats all the records available and writes them to the
+ * target in a single write.
+ *
+ * @author agent
+ */
+class AsyncLogWriter {
+
+    /** What to do with a record published when the queue is full */
+    enum OverflowPolicy {
+
+        /** Discard the record and count it as dropped */
+        DROP,
+
+        /** Wait until the writer has made room for the record */
+        BLOCK;
+
+        static OverflowPolicy fromString(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase());
+            }
+            catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown log overflow policy '" + value + "', must be 'drop' or 'block'");
+            }
+        }
+
+    }
+
+    static final int defaultQueueSize = 8192;
+    private static final int maxBatchSize = 1024;
+    private static final long idleWaitNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long blockedWaitNanos = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long flushTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+
+    private final LogRecordRingBuffer queue;
+    private final OverflowPolicy overflowPolicy;
+    private final LogTarget target;
+    private final Formatter formatter;
+    private final Thread writer;
+
+    private final AtomicLong publishedRecords = new AtomicLong();
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private volatile long writtenRecords = 0;
+    private volatile boolean writerWaiting = false;
+    private volatile boolean closed = false;
+
+    /** The number of dropped records already reported in the log. Only accessed by the writer thread. */
+    private long reportedDroppedRecords = 0;
+
+    AsyncLogWriter(LogTarget target, Formatter formatter, OverflowPolicy overflowPolicy, int queueSize) {
+        this.queue = new LogRecordRingBuffer(queueSize);
+        this.overflowPolicy = overflowPolicy;
+        this.target = target;
+        this.formatter = formatter;
+        this.writer = new Thread(this::writeUntilClosed, "vespa-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Queues a record for writing. This never blocks unless the overflow policy is BLOCK and the queue is full. */
+    void publish(LogRecord record) {
+        while ( ! queue.offer(record)) {
+            if (overflowPolicy == OverflowPolicy.DROP || closed) {
+                droppedRecords.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, blockedWaitNanos);
+        }
+        publishedRecords.incrementAndGet();
+        if (writerWaiting)
+            LockSupport.unpark(writer);
+    }
+
+    /** Waits until all records published before this call are written, or a timeout is reached */
+    void flush() {
+        long target = publishedRecords.get();
+        long deadline = System.nanoTime() + flushTimeoutNanos;
+        while (writtenRecords < target && writer.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, blockedWaitNanos);
+        }
+    }
+
+    /** Writes all queued records and stops the writer thread. Records published after this are dropped. */
+    void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.NANOSECONDS.toMillis(flushTimeoutNanos));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Returns the total number of records dropped since this was created */
+    long droppedRecords() { return droppedRecords.get(); }
+
+    OverflowPolicy overflowPolicy() { return overflowPolicy; }
+
+    private void writeUntilClosed() {
+        StringBuilder batch = new StringBuilder();
+        while (true) {
+            int batchSize = 0;
+            LogRecord record;
+            while (batchSize < maxBatchSize && (record = queue.poll()) != null) {
+                append(record, batch);
+                batchSize++;
+            }
+            appendDroppedRecordsWarning(batch);
+
+            if (batch.length() > 0) {
+                write(batch);
+                batch.setLength(0);
+                writtenRecords += batchSize;
+                continue;
+            }
+            if (closed) return;
+
+            writerWaiting = true;
+            if (queue.isEmpty() && ! closed)
+                LockSupport.parkNanos(this, idleWaitNanos);
+            writerWaiting = false;
+        }
+    }
+
+    private void append(LogRecord record, StringBuilder batch) {
+        try {
+            batch.append(formatter.format(record));
+        }
+        catch (RuntimeException e) {
+            System.err.println("Unable to format log record '" + record.getMessage() + "': " + e);
+        }
+    }
+
+    private void appendDroppedRecordsWarning(StringBuilder batch) {
+        long dropped = droppedRecords.get();
+        if (dropped == reportedDroppedRecords) return;
+
+        LogRecord warning = new LogRecord(Level.WARNING, "Dropped " + (dropped - reportedDroppedRecords) +
+                                                         " log records because the log queue was full");
+        warning.setLoggerName(VespaLogHandler.class.getName());
+        append(warning, batch);
+        reportedDroppedRecords = dropped;
+    }
+
+    /** Writes a batch of formatted records with a single write to a freshly opened target, to follow rotation */
+    private void write(StringBuilder batch) {
+        byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            OutputStream out = target.open();
+            out.write(bytes);
+            out.flush();
+        }
+        catch (Exception e) {
+            System.err.println("Unable to write to log target " + target + ": " + e);
+            System.err.write(bytes, 0, bytes.length);
+            System.err.flush();
+        }
+        finally {
+            try {
+                target.close();
+            }
+            catch (RuntimeException e) {
+                System.err.println("Unable to close log target " + target + ": " + e);
+            }
+        }
+    }
+
+}
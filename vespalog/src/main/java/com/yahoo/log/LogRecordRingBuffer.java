@@ -0,0 +1,81 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.LogRecord;
+
+/**
+ * A bounded, lock-free queue of log records which may be offered to by any number of threads
+ * and polled by a single thread.
+ *
+ * Each slot has a sequence number telling whether it is ready to be written at a given position
+ * or ready to be read at a given position, so producers only contend on claiming a position.
+ *
+ * @author agent
+ */
+class LogRecordRingBuffer {
+
+    private final LogRecord[] records;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    /** The next position to be claimed by a producer */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** The next position to be read by the consumer. Only accessed by the consumer thread. */
+    private long head = 0;
+
+    /** Creates a ring buffer with the given capacity, rounded up to the nearest power of 2 */
+    LogRecordRingBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive, not " + capacity);
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        records = new LogRecord[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+        mask = size - 1;
+    }
+
+    /** Adds a record to this if there is room. Returns whether the record was added. */
+    boolean offer(LogRecord record) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    records[index] = record;
+                    sequences.set(index, position + 1); // publishes the record to the consumer
+                    return true;
+                }
+                position = tail.get();
+            }
+            else if (difference < 0) { // the slot still holds a record from the previous round
+                return false;
+            }
+            else { // another producer claimed this position
+                position = tail.get();
+            }
+        }
+    }
+
+    /** Returns the next record, or null if there is none. Must only be called by the consumer thread. */
+    LogRecord poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) return null;
+        LogRecord record = records[index];
+        records[index] = null;
+        sequences.set(index, head + records.length); // releases the slot for the next round
+        head++;
+        return record;
+    }
+
+    /** Returns whether this is currently empty. Must only be called by the consumer thread. */
+    boolean isEmpty() {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+
+    int capacity() { return records.length; }
+
+}
@@ -62,6 +62,13 @@ public class LogSetup {
      * vespa.log.control.dir + "/" + vespa.service.name + ".logcontrol"
      * if both of those variables are set, otherwise there will be no
      * runtime log control.
+     * <br>
+     * Log records are written by the logging thread unless
+     * vespa.log.async (VESPA_LOG_ASYNC) is set to "drop" or "block", in which
+     * case they are written by a separate writer thread. The value decides
+     * whether records are dropped or logging threads wait when the writer
+     * queue is full. The queue size may be set by
+     * vespa.log.async.queue.size (VESPA_LOG_ASYNC_QUEUE_SIZE).
      *
      * @param programName the name of the program that is running;
      * this is added as a prefix to the logger name to form the
@@ -81,6 +88,8 @@ public class LogSetup {
         String logService = System.getProperty("vespa.service.name");
         String logControlDir  = System.getProperty("vespa.log.control.dir");
         String logControlFile = System.getProperty("vespa.log.control.file");
+        String logAsync = System.getProperty("vespa.log.async");
+        String logAsyncQueueSize = System.getProperty("vespa.log.async.queue.size");
         if (programName == null || programName.equals("")) {
             throw new RuntimeException("invalid programName: "+programName);
         }
@@ -91,6 +100,8 @@ public class LogSetup {
         if (logControlDir == null)  logControlDir = System.getenv("VESPA_LOG_CONTROL_DIR");
         if (logControlFile == null) logControlFile = System.getenv("VESPA_LOG_CONTROL_FILE");
         if (logLevel == null)       logLevel = System.getenv("VESPA_LOG_LEVEL");
+        if (logAsync == null)       logAsync = System.getenv("VESPA_LOG_ASYNC");
+        if (logAsyncQueueSize == null) logAsyncQueueSize = System.getenv("VESPA_LOG_ASYNC_QUEUE_SIZE");
 
         // then hardcoded defaults
         if (logTarget == null) logTarget = "fd:2";
@@ -112,8 +123,15 @@ public class LogSetup {
         System.setProperty("vespa.service.name", logService);
         System.setProperty("vespa.program.name", programName);
 
+        AsyncLogWriter.OverflowPolicy overflowPolicy = null;
+        if (logAsync != null && ! logAsync.isEmpty())
+            overflowPolicy = AsyncLogWriter.OverflowPolicy.fromString(logAsync);
+        int queueSize = AsyncLogWriter.defaultQueueSize;
+        if (logAsyncQueueSize != null && ! logAsyncQueueSize.isEmpty())
+            queueSize = Integer.parseInt(logAsyncQueueSize.trim());
+
         try {
-            initInternal(logTarget, logService, logControlFile, programName, logLevel);
+            initInternal(logTarget, logService, logControlFile, programName, logLevel, overflowPolicy, queueSize);
         } catch (FileNotFoundException e) {
             throw new RuntimeException("Unable to initialize logging", e);
         }
@@ -134,7 +152,9 @@ public class LogSetup {
                                      String service,
                                      String logCtlFn,
                                      String app,
-                                     String lev) throws FileNotFoundException {
+                                     String lev,
+                                     AsyncLogWriter.OverflowPolicy overflowPolicy,
+                                     int queueSize) throws FileNotFoundException {
         clearHandlers();
 
         if (app != null && app.length() > 64) app = app.substring(0, 63);
@@ -142,9 +162,12 @@ public class LogSetup {
         if (logHandler != null) {
             logHandler.cleanup();
             Logger.getLogger("").removeHandler(logHandler);
+            if (logHandler.isAsync())
+                logHandler.close(); // stops the writer thread
         }
         Logger.getLogger("").setLevel(Level.ALL);
-        logHandler = new VespaLogHandler(getLogTargetFromString(target), new VespaLevelControllerRepo(logCtlFn, lev, app), service, app);
+        logHandler = new VespaLogHandler(getLogTargetFromString(target), new VespaLevelControllerRepo(logCtlFn, lev, app),
+                                         service, app, overflowPolicy, queueSize);
         String zookeeperLogFile = System.getProperty("zookeeperlogfile");
         if (zookeeperLogFile != null) {
             logHandler.setFilter(new ZooKeeperFilter(zookeeperLogFile));
@@ -17,6 +17,7 @@ class VespaLogHandler extends StreamHandler {
     private final String appPrefix;
     private final LevelControllerRepo repo;
     private final RejectFilter logRejectFilter;
+    private final AsyncLogWriter asyncWriter;
 
     /**
      * Construct handler which logs to specified logTarget.  The logTarget
@@ -34,18 +35,34 @@ class VespaLogHandler extends StreamHandler {
     public VespaLogHandler(LogTarget logTarget,
                            LevelControllerRepo levelControllerRepo, String serviceName,
                            String applicationPrefix) {
+        this(logTarget, levelControllerRepo, serviceName, applicationPrefix, null, 0);
+    }
+
+    /**
+     * Construct handler which logs to specified logTarget, as above.
+     * If an overflow policy is given, records are written asynchronously by a single writer thread
+     * which receives them through a queue of the given size, and the given policy decides whether
+     * publishing a record when the queue is full drops the record or waits for room.
+     * If the overflow policy is null, records are written by the publishing thread.
+     */
+    public VespaLogHandler(LogTarget logTarget,
+                           LevelControllerRepo levelControllerRepo, String serviceName,
+                           String applicationPrefix,
+                           AsyncLogWriter.OverflowPolicy overflowPolicy, int queueSize) {
         this.logTarget = logTarget;
         this.serviceName = serviceName;
         this.appPrefix = applicationPrefix;
         this.repo = levelControllerRepo;
         this.logRejectFilter = RejectFilter.createDefaultRejectFilter();
         initialize();
+        this.asyncWriter = overflowPolicy == null ? null
+                                                  : new AsyncLogWriter(logTarget, getFormatter(), overflowPolicy, queueSize);
     }
 
     /**
      * Publish a log record into the Vespa log target.
      */
-    public synchronized void publish (LogRecord record) {
+    public void publish (LogRecord record) {
         Level level = record.getLevel();
         String component = record.getLoggerName();
 
@@ -58,6 +75,16 @@ class VespaLogHandler extends StreamHandler {
             return;
         }
 
+        if (asyncWriter != null) {
+            if (isLoggable(record))
+                asyncWriter.publish(record);
+        }
+        else {
+            publishSynchronously(record);
+        }
+    }
+
+    private synchronized void publishSynchronously(LogRecord record) {
         try {
             // provokes rotation of target
             setOutputStream(logTarget.open());
@@ -73,6 +100,28 @@ class VespaLogHandler extends StreamHandler {
         closeFileTarget();
     }
 
+    /** Returns the number of records dropped because the asynchronous writer queue was full */
+    public long getDroppedRecordCount() {
+        return asyncWriter == null ? 0 : asyncWriter.droppedRecords();
+    }
+
+    /** Returns whether records are written by a separate writer thread */
+    public boolean isAsync() { return asyncWriter != null; }
+
+    @Override
+    public void flush() {
+        if (asyncWriter != null)
+            asyncWriter.flush();
+        super.flush();
+    }
+
+    @Override
+    public void close() {
+        if (asyncWriter != null)
+            asyncWriter.close();
+        super.close();
+    }
+
     public LevelController getLevelControl(String component) {
         return repo.getLevelController(component);
     }
@@ -0,0 +1,82 @@
+// Copyright 2019 Oath Inc. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.log;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class LogRecordRingBufferTest {
+
+    @Test
+    public void testOfferAndPollInOrder() {
+        LogRecordRingBuffer buffer = new LogRecordRingBuffer(3);
+        assertEquals(4, buffer.capacity());
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+
+        List<LogRecord> records = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                LogRecord record = new LogRecord(Level.INFO, "record " + i);
+                records.add(record);
+                assertTrue(buffer.offer(record));
+            }
+            assertFalse("Full", buffer.offer(new LogRecord(Level.INFO, "overflow")));
+            for (int i = 0; i < 4; i++)
+                assertSame(records.get(round * 4 + i), buffer.poll());
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        LogRecordRingBuffer buffer = new LogRecordRingBuffer(64);
+        int producerCount = 4;
+        int recordsPerProducer = 10000;
+        Thread[] producers = new Thread[producerCount];
+        for (int p = 0; p < producerCount; p++) {
+            int producer = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < recordsPerProducer; i++) {
+                    LogRecord record = new LogRecord(Level.INFO, producer + ":" + i);
+                    while ( ! buffer.offer(record))
+                        Thread.yield();
+                }
+            });
+            producers[p].start();
+        }
+
+        Set<String> received = new HashSet<>();
+        int[] lastReceived = new int[producerCount];
+        Arrays.fill(lastReceived, -1);
+        while (received.size() < producerCount * recordsPerProducer) {
+            LogRecord record = buffer.poll();
+            if (record == null) continue;
+            assertTrue(received.add(record.getMessage()));
+            String[] parts = record.getMessage().split(":");
+            int producer = Integer.parseInt(parts[0]);
+            int sequence = Integer.parseInt(parts[1]);
+            assertTrue("Records from each producer are received in order", sequence > lastReceived[producer]);
+            lastReceived[producer] = sequence;
+        }
+        for (Thread producer : producers)
+            producer.join();
+        assertTrue(buffer.isEmpty());
+    }
+
+}
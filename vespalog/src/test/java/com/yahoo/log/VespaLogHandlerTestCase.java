@@ -13,9 +13,11 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -324,6 +326,71 @@ public class VespaLogHandlerTestCase {
 
     }
 
+    @Test
+    public void testAsyncLoggingFromManyThreads() throws InterruptedException {
+        int numThreads = 10;
+        int numLogEntries = 100;
+        Thread[] t = new Thread[numThreads];
+        try {
+            VespaLogHandler h = new VespaLogHandler(new FileLogTarget(new File("test5")),
+                                                    new VespaLevelControllerRepo("my-test-config-id.logcontrol", "all", "TST"),
+                                                    "my-test-config-id", "TST",
+                                                    AsyncLogWriter.OverflowPolicy.BLOCK, 16);
+            assertTrue(h.isAsync());
+            for (int i = 0; i < numThreads; i++) {
+                t[i] = new Thread(() -> {
+                    for (int j = 0; j < numLogEntries; j++) {
+                        h.publish(record1);
+                        h.publish(record2);
+                    }
+                });
+                t[i].start();
+            }
+            for (int i = 0; i < numThreads; i++)
+                t[i].join();
+
+            h.flush();
+            String[] lines = readFile("test5");
+            assertEquals(2 * numLogEntries * numThreads, lines.length);
+            for (String line : lines)
+                assertTrue(line, line.equals(record1String) || line.equals(record2String));
+            assertEquals(0, h.getDroppedRecordCount());
+
+            h.cleanup();
+            h.close();
+        }
+        catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+        finally {
+            new File("test5").delete();
+        }
+    }
+
+    @Test
+    public void testAsyncLoggingDropsRecordsWhenQueueIsFull() {
+        BlockingLogTarget target = new BlockingLogTarget();
+        VespaLogHandler h = new VespaLogHandler(target,
+                                                new VespaLevelControllerRepo("my-test-config-id.logcontrol", "all", "TST"),
+                                                "my-test-config-id", "TST",
+                                                AsyncLogWriter.OverflowPolicy.DROP, 4);
+        target.block();
+        h.publish(record1); // taken by the writer, which then blocks on the target
+        target.awaitBlocked();
+        for (int i = 0; i < 10; i++)
+            h.publish(record3);
+        assertEquals(6, h.getDroppedRecordCount());
+        target.unblock();
+        h.close();
+
+        String[] lines = target.getLines();
+        assertEquals(1 + 4 + 1, lines.length);
+        assertEquals(record1String, lines[0]);
+        for (int i = 1; i < 5; i++)
+            assertEquals(record3String, lines[i]);
+        assertTrue(lines[5], lines[5].endsWith("\twarning\tDropped 6 log records because the log queue was full"));
+    }
+
     /**
      * Make sure unicode characters in log message works
      */
@@ -428,6 +495,47 @@ public class VespaLogHandlerTestCase {
         }
     }
 
+    private static class BlockingLogTarget implements LogTarget {
+
+        private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        private volatile CountDownLatch blocked = new CountDownLatch(0);
+        private volatile CountDownLatch unblocked = new CountDownLatch(0);
+
+        void block() {
+            blocked = new CountDownLatch(1);
+            unblocked = new CountDownLatch(1);
+        }
+
+        void unblock() { unblocked.countDown(); }
+
+        void awaitBlocked() {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        String[] getLines() {
+            return baos.toString(StandardCharsets.UTF_8).split("\n");
+        }
+
+        @Override
+        public OutputStream open() {
+            blocked.countDown();
+            try {
+                unblocked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return baos;
+        }
+
+        @Override
+        public void close() { }
+
+    }
+
     private static class MockLogTarget implements LogTarget {
         private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
 